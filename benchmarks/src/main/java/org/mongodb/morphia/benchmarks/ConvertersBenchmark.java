@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.benchmarks;
+
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.benchmarks.entities.FlatEntity;
+import org.mongodb.morphia.converters.Converters;
+import org.mongodb.morphia.mapping.MappedField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link Converters} lookup paths:  by value, by type and by {@link MappedField}, both for encoding and decoding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertersBenchmark {
+    private Converters converters;
+    private MappedField nameField;
+    private MappedField createdField;
+    private Date date;
+    private ObjectId objectId;
+
+    /**
+     * Looks up the converters and mapped fields
+     *
+     * @param state the shared Morphia state
+     */
+    @Setup
+    public void setup(final MorphiaState state) {
+        converters = state.getMapper().getConverters();
+        nameField = state.getMapper().getMappedClass(FlatEntity.class).getMappedField("name");
+        createdField = state.getMapper().getMappedClass(FlatEntity.class).getMappedField("created");
+        date = new Date(1483228800000L);
+        objectId = new ObjectId();
+    }
+
+    /**
+     * @return the encoded value
+     */
+    @Benchmark
+    public Object encodeString() {
+        return converters.encode("value");
+    }
+
+    /**
+     * @return the encoded value
+     */
+    @Benchmark
+    public Object encodeInteger() {
+        return converters.encode(42);
+    }
+
+    /**
+     * @return the encoded value
+     */
+    @Benchmark
+    public Object encodeDate() {
+        return converters.encode(date);
+    }
+
+    /**
+     * @return the encoded value
+     */
+    @Benchmark
+    public Object encodeLocale() {
+        return converters.encode(Locale.CANADA_FRENCH);
+    }
+
+    /**
+     * @return the decoded value
+     */
+    @Benchmark
+    public Object decodeLong() {
+        return converters.decode(Long.class, 42, null);
+    }
+
+    /**
+     * @return the decoded value
+     */
+    @Benchmark
+    public Object decodeObjectId() {
+        return converters.decode(ObjectId.class, objectId, null);
+    }
+
+    /**
+     * @return the decoded value
+     */
+    @Benchmark
+    public Object decodeMappedField() {
+        return converters.decode(createdField.getType(), date, createdField);
+    }
+
+    /**
+     * @return true if a simple value converter handles the type
+     */
+    @Benchmark
+    public boolean hasSimpleValueConverterByValue() {
+        return converters.hasSimpleValueConverter(objectId);
+    }
+
+    /**
+     * @return true if a simple value converter handles the field
+     */
+    @Benchmark
+    public boolean hasSimpleValueConverterByField() {
+        return converters.hasSimpleValueConverter(nameField);
+    }
+
+    /**
+     * @return true if a DBObject converter handles the type
+     */
+    @Benchmark
+    public boolean hasDbObjectConverterByType() {
+        return converters.hasDbObjectConverter(FlatEntity.class);
+    }
+}
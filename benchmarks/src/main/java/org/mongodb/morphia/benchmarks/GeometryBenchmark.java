@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.benchmarks;
+
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.DefaultDBDecoder;
+import com.mongodb.DefaultDBEncoder;
+import org.mongodb.morphia.geo.GeoJson;
+import org.mongodb.morphia.geo.GeometryShapeConverter;
+import org.mongodb.morphia.geo.Point;
+import org.mongodb.morphia.geo.Polygon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding a large GeoJSON polygon to BSON and decoding it back in to a {@link Polygon}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+    @Param({"5000"})
+    private int vertices;
+
+    private GeometryShapeConverter converter;
+    private Polygon polygon;
+    private DBObject decoded;
+
+    /**
+     * Creates the polygon and its BSON form as the driver would return it
+     *
+     * @param state the shared Morphia state
+     */
+    @Setup
+    public void setup(final MorphiaState state) {
+        converter = new GeometryShapeConverter.PolygonConverter();
+        converter.setMapper(state.getMapper());
+
+        final Point[] ring = new Point[vertices + 1];
+        for (int i = 0; i < vertices; i++) {
+            final double angle = 2 * Math.PI * i / vertices;
+            ring[i] = GeoJson.point(51.5 + Math.sin(angle) / 10, -0.12 + Math.cos(angle) / 10);
+        }
+        ring[vertices] = ring[0];
+        polygon = GeoJson.polygon(ring);
+        final byte[] bson = new DefaultDBEncoder().encode((DBObject) converter.encode(polygon));
+        decoded = new DefaultDBDecoder().decode(bson, (DBCollection) null);
+    }
+
+    /**
+     * @return the encoded polygon
+     */
+    @Benchmark
+    public Object encode() {
+        return converter.encode(polygon);
+    }
+
+    /**
+     * @return the encoded polygon written as BSON
+     */
+    @Benchmark
+    public byte[] encodeToBson() {
+        return new DefaultDBEncoder().encode((DBObject) converter.encode(polygon));
+    }
+
+    /**
+     * @return the decoded polygon
+     */
+    @Benchmark
+    public Object decode() {
+        return converter.decode(Polygon.class, decoded, null);
+    }
+}
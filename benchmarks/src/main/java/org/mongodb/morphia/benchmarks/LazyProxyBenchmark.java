@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.benchmarks;
+
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.Key;
+import org.mongodb.morphia.benchmarks.entities.FlatEntity;
+import org.mongodb.morphia.mapping.lazy.CGLibLazyProxyFactory;
+import org.mongodb.morphia.mapping.lazy.GeneratedLazyProxyFactory;
+import org.mongodb.morphia.mapping.lazy.LazyProxyFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link CGLibLazyProxyFactory} with {@link GeneratedLazyProxyFactory} when creating lazy reference proxies and when calling
+ * through an already resolved proxy.  Resolution is served by a stub datastore so no server is needed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LazyProxyBenchmark {
+    @Param({"cglib", "generated"})
+    private String factoryType;
+    private LazyProxyFactory factory;
+    private Datastore datastore;
+    private Key<FlatEntity> key;
+    private FlatEntity fetched;
+
+    /**
+     * Creates the factory and a resolved proxy
+     */
+    @Setup
+    public void setup() {
+        factory = "cglib".equals(factoryType) ? new CGLibLazyProxyFactory() : new GeneratedLazyProxyFactory();
+        final FlatEntity entity = FlatEntity.create(1);
+        datastore = (Datastore) Proxy.newProxyInstance(Datastore.class.getClassLoader(), new Class[]{Datastore.class},
+                                                       new StubDatastore(entity));
+        key = new Key<FlatEntity>(FlatEntity.class, "flat", entity.getId());
+        fetched = factory.createProxy(datastore, FlatEntity.class, key, false);
+        fetched.getName();
+    }
+
+    /**
+     * @return the proxy
+     */
+    @Benchmark
+    public FlatEntity entityProxy() {
+        return factory.createProxy(datastore, FlatEntity.class, key, false);
+    }
+
+    /**
+     * @return the name read through a resolved proxy
+     */
+    @Benchmark
+    public String fetchedProxyCall() {
+        return fetched.getName();
+    }
+
+    /**
+     * @return the proxy
+     */
+    @Benchmark
+    public List<FlatEntity> listProxy() {
+        return factory.createListProxy(datastore, new ArrayList<FlatEntity>(), FlatEntity.class, false);
+    }
+
+    /**
+     * @return the proxy
+     */
+    @Benchmark
+    public Map<String, FlatEntity> mapProxy() {
+        return factory.createMapProxy(datastore, new HashMap<String, FlatEntity>(), FlatEntity.class, false);
+    }
+
+    private static class StubDatastore implements InvocationHandler {
+        private final Object entity;
+
+        StubDatastore(final Object entity) {
+            this.entity = entity;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            if ("getByKey".equals(method.getName())) {
+                return entity;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.benchmarks;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.mongodb.morphia.annotations.PostLoad;
+import org.mongodb.morphia.annotations.PostPersist;
+import org.mongodb.morphia.annotations.PrePersist;
+import org.mongodb.morphia.benchmarks.entities.FlatEntity;
+import org.mongodb.morphia.benchmarks.entities.LifecycleEntity;
+import org.mongodb.morphia.mapping.MappedClass;
+import org.mongodb.morphia.mapping.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MappedClass#callLifecycleMethods(Class, Object, DBObject, Mapper)} for an entity with callbacks and for one without any,
+ * the latter being the overhead paid by every entity on every save and load.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LifecycleBenchmark {
+    private Mapper mapper;
+    private MappedClass lifecycleClass;
+    private MappedClass flatClass;
+    private LifecycleEntity lifecycleEntity;
+    private FlatEntity flatEntity;
+    private DBObject document;
+
+    /**
+     * Looks up the mapped classes
+     *
+     * @param state the shared Morphia state
+     */
+    @Setup
+    public void setup(final MorphiaState state) {
+        mapper = state.getMapper();
+        lifecycleClass = mapper.getMappedClass(LifecycleEntity.class);
+        flatClass = mapper.getMappedClass(FlatEntity.class);
+        lifecycleEntity = LifecycleEntity.create(42);
+        flatEntity = FlatEntity.create(42);
+        document = new BasicDBObject("name", "lifecycle-42");
+    }
+
+    /**
+     * @return the document after the callbacks
+     */
+    @Benchmark
+    public DBObject prePersist() {
+        return lifecycleClass.callLifecycleMethods(PrePersist.class, lifecycleEntity, document, mapper);
+    }
+
+    /**
+     * @return the document after the callbacks
+     */
+    @Benchmark
+    public DBObject postPersist() {
+        return lifecycleClass.callLifecycleMethods(PostPersist.class, lifecycleEntity, document, mapper);
+    }
+
+    /**
+     * @return the document after the callbacks
+     */
+    @Benchmark
+    public DBObject postLoad() {
+        return lifecycleClass.callLifecycleMethods(PostLoad.class, lifecycleEntity, document, mapper);
+    }
+
+    /**
+     * @return the document after the (absent) callbacks
+     */
+    @Benchmark
+    public DBObject noCallbacks() {
+        return flatClass.callLifecycleMethods(PrePersist.class, flatEntity, document, mapper);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.benchmarks;
+
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.DefaultDBDecoder;
+import com.mongodb.DefaultDBEncoder;
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.benchmarks.entities.CollectionEntity;
+import org.mongodb.morphia.benchmarks.entities.FlatEntity;
+import org.mongodb.morphia.benchmarks.entities.NestedEntity;
+import org.mongodb.morphia.benchmarks.entities.PolymorphicEntity;
+import org.mongodb.morphia.mapping.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Mapper#toDBObject(Object)} and {@link Mapper#fromDBObject(Datastore, Class, DBObject,
+ * org.mongodb.morphia.mapping.cache.EntityCache)} across the different shapes of entity.  The documents decoded are built once up front
+ * and passed through the driver's BSON codec so that they look exactly like documents read from the server.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private Mapper mapper;
+    private Datastore datastore;
+
+    private FlatEntity flat;
+    private NestedEntity nested;
+    private CollectionEntity collections;
+    private PolymorphicEntity polymorphic;
+
+    private DBObject flatDocument;
+    private DBObject nestedDocument;
+    private DBObject collectionsDocument;
+    private DBObject polymorphicDocument;
+
+    /**
+     * Builds the entities and their documents
+     *
+     * @param state the shared Morphia state
+     */
+    @Setup
+    public void setup(final MorphiaState state) {
+        mapper = state.getMapper();
+        datastore = state.getDatastore();
+
+        flat = FlatEntity.create(42);
+        nested = NestedEntity.create(42);
+        collections = CollectionEntity.create(42);
+        polymorphic = PolymorphicEntity.create(42);
+
+        flatDocument = roundTrip(mapper.toDBObject(flat));
+        nestedDocument = roundTrip(mapper.toDBObject(nested));
+        collectionsDocument = roundTrip(mapper.toDBObject(collections));
+        polymorphicDocument = roundTrip(mapper.toDBObject(polymorphic));
+    }
+
+    /**
+     * Passes the document through the driver's BSON encoder and decoder so that it has the same types (lists rather than arrays, etc.) a
+     * document read from the server would have.
+     */
+    private static DBObject roundTrip(final DBObject document) {
+        return new DefaultDBDecoder().decode(new DefaultDBEncoder().encode(document), (DBCollection) null);
+    }
+
+    /**
+     * @return the encoded document
+     */
+    @Benchmark
+    public DBObject toDBObjectFlat() {
+        return mapper.toDBObject(flat);
+    }
+
+    /**
+     * @return the encoded document
+     */
+    @Benchmark
+    public DBObject toDBObjectNested() {
+        return mapper.toDBObject(nested);
+    }
+
+    /**
+     * @return the encoded document
+     */
+    @Benchmark
+    public DBObject toDBObjectCollections() {
+        return mapper.toDBObject(collections);
+    }
+
+    /**
+     * @return the encoded document
+     */
+    @Benchmark
+    public DBObject toDBObjectPolymorphic() {
+        return mapper.toDBObject(polymorphic);
+    }
+
+    /**
+     * @return the decoded entity
+     */
+    @Benchmark
+    public FlatEntity fromDBObjectFlat() {
+        return mapper.fromDBObject(datastore, FlatEntity.class, flatDocument, mapper.createEntityCache());
+    }
+
+    /**
+     * @return the decoded entity
+     */
+    @Benchmark
+    public NestedEntity fromDBObjectNested() {
+        return mapper.fromDBObject(datastore, NestedEntity.class, nestedDocument, mapper.createEntityCache());
+    }
+
+    /**
+     * @return the decoded entity
+     */
+    @Benchmark
+    public CollectionEntity fromDBObjectCollections() {
+        return mapper.fromDBObject(datastore, CollectionEntity.class, collectionsDocument, mapper.createEntityCache());
+    }
+
+    /**
+     * @return the decoded entity
+     */
+    @Benchmark
+    public PolymorphicEntity fromDBObjectPolymorphic() {
+        return mapper.fromDBObject(datastore, PolymorphicEntity.class, polymorphicDocument, mapper.createEntityCache());
+    }
+}
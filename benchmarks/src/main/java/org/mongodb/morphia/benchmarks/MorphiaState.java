@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.benchmarks;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.ServerAddress;
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.Morphia;
+import org.mongodb.morphia.benchmarks.entities.CollectionEntity;
+import org.mongodb.morphia.benchmarks.entities.FlatEntity;
+import org.mongodb.morphia.benchmarks.entities.LifecycleEntity;
+import org.mongodb.morphia.benchmarks.entities.NestedEntity;
+import org.mongodb.morphia.benchmarks.entities.PolymorphicEntity;
+import org.mongodb.morphia.mapping.Mapper;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Holds a fully mapped {@link Morphia} instance shared by the benchmarks.  The {@link Datastore} is backed by a {@link MongoClient} that
+ * is never asked to talk to a server:  the driver connects lazily and nothing measured here issues a command.
+ */
+@State(Scope.Benchmark)
+public class MorphiaState {
+    private MongoClient client;
+    private Morphia morphia;
+    private Datastore datastore;
+
+    /**
+     * Maps the benchmark entities and creates the Datastore
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        client = new MongoClient(new ServerAddress("localhost", ServerAddress.defaultPort()),
+                                 MongoClientOptions.builder()
+                                                   .serverSelectionTimeout(0)
+                                                   .build());
+        morphia = new Morphia();
+        morphia.map(FlatEntity.class, NestedEntity.class, CollectionEntity.class, PolymorphicEntity.class, LifecycleEntity.class);
+        datastore = morphia.createDatastore(client, "morphia_benchmarks");
+    }
+
+    /**
+     * Releases the client's background resources
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+    }
+
+    /**
+     * @return the Datastore
+     */
+    public Datastore getDatastore() {
+        return datastore;
+    }
+
+    /**
+     * @return the Mapper
+     */
+    public Mapper getMapper() {
+        return morphia.getMapper();
+    }
+
+    /**
+     * @return the Morphia instance
+     */
+    public Morphia getMorphia() {
+        return morphia;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.benchmarks;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.Morphia;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading large numeric arrays and lists of boxed numbers as the driver hands them back, i.e. as lists of boxed values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveArrayBenchmark {
+    @Param({"10000"})
+    private int size;
+
+    private Morphia morphia;
+    private DBObject doubles;
+    private DBObject longs;
+    private DBObject longList;
+
+    /**
+     * Maps the entity and creates the documents to read
+     */
+    @Setup
+    public void setup() {
+        morphia = new Morphia().map(TimeSeries.class);
+        final List<Double> doubleValues = new ArrayList<Double>(size);
+        final List<Long> longValues = new ArrayList<Long>(size);
+        for (int i = 0; i < size; i++) {
+            doubleValues.add(i * 0.5);
+            longValues.add((long) i);
+        }
+        final ObjectId id = new ObjectId();
+        doubles = new BasicDBObject("_id", id).append("doubles", doubleValues);
+        longs = new BasicDBObject("_id", id).append("longs", longValues);
+        longList = new BasicDBObject("_id", id).append("longList", longValues);
+    }
+
+    /**
+     * @return the entity read
+     */
+    @Benchmark
+    public Object readDoubleArray() {
+        return morphia.fromDBObject(null, TimeSeries.class, doubles);
+    }
+
+    /**
+     * @return the entity read
+     */
+    @Benchmark
+    public Object readLongArray() {
+        return morphia.fromDBObject(null, TimeSeries.class, longs);
+    }
+
+    /**
+     * @return the entity read
+     */
+    @Benchmark
+    public Object readLongList() {
+        return morphia.fromDBObject(null, TimeSeries.class, longList);
+    }
+
+    /**
+     * A time series held in primitive arrays
+     */
+    @Entity
+    public static class TimeSeries {
+        @Id
+        private ObjectId id;
+        private double[] doubles;
+        private long[] longs;
+        private List<Long> longList;
+    }
+}
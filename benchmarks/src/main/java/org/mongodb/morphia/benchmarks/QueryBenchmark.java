@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.benchmarks;
+
+import com.mongodb.DBObject;
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.benchmarks.entities.CollectionEntity;
+import org.mongodb.morphia.benchmarks.entities.FlatEntity;
+import org.mongodb.morphia.benchmarks.entities.NestedEntity;
+import org.mongodb.morphia.query.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building queries through {@link Query#filter(String, Object)} and the fluent criteria API, including the field validation done
+ * along the way, and rendering them with {@link Query#getQueryObject()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("deprecation")
+public class QueryBenchmark {
+    private Datastore datastore;
+    private List<String> tags;
+
+    /**
+     * Grabs the Datastore
+     *
+     * @param state the shared Morphia state
+     */
+    @Setup
+    public void setup(final MorphiaState state) {
+        datastore = state.getDatastore();
+        tags = Arrays.asList("tag-1", "tag-2", "tag-3", "tag-4", "tag-5");
+    }
+
+    /**
+     * @return the new query
+     */
+    @Benchmark
+    public Query<FlatEntity> createQuery() {
+        return datastore.createQuery(FlatEntity.class);
+    }
+
+    /**
+     * @return the rendered query document
+     */
+    @Benchmark
+    public DBObject filter() {
+        return datastore.createQuery(FlatEntity.class)
+                        .filter("name =", "name-42")
+                        .filter("count >", 5)
+                        .filter("score <=", 100.0)
+                        .filter("active", true)
+                        .getQueryObject();
+    }
+
+    /**
+     * @return the rendered query document
+     */
+    @Benchmark
+    public DBObject fieldCriteria() {
+        final Query<CollectionEntity> query = datastore.createQuery(CollectionEntity.class);
+        query.field("tags").in(tags);
+        query.field("numbers").greaterThanOrEq(10);
+        query.field("items.sku").startsWith("sku-42");
+        return query.getQueryObject();
+    }
+
+    /**
+     * @return the rendered query document
+     */
+    @Benchmark
+    public DBObject orCriteria() {
+        final Query<FlatEntity> query = datastore.createQuery(FlatEntity.class);
+        query.or(query.criteria("name").equal("name-1"),
+                 query.criteria("name").equal("name-2"),
+                 query.and(query.criteria("count").lessThan(10), query.criteria("active").equal(false)));
+        return query.getQueryObject();
+    }
+
+    /**
+     * @return the rendered query document
+     */
+    @Benchmark
+    public DBObject nestedPath() {
+        return datastore.createQuery(NestedEntity.class)
+                        .filter("root.child.child.label", "level-3-42")
+                        .filter("root.depth", 1)
+                        .getQueryObject();
+    }
+}
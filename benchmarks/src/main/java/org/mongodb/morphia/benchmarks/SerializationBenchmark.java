@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.benchmarks;
+
+import org.mongodb.morphia.mapping.Serializer;
+import org.mongodb.morphia.mapping.serialization.BlockCompressor;
+import org.mongodb.morphia.mapping.serialization.CompactObjectSerializer;
+import org.mongodb.morphia.mapping.serialization.Compressor;
+import org.mongodb.morphia.mapping.serialization.GZipCompressor;
+import org.mongodb.morphia.mapping.serialization.JavaObjectSerializer;
+import org.mongodb.morphia.mapping.serialization.ObjectSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link org.mongodb.morphia.annotations.Serialized} strategies on a list of small objects: the default java serialization
+ * with GZIP, java serialization with the {@link BlockCompressor} and the {@link CompactObjectSerializer} with the {@link BlockCompressor}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"java-gzip", "java-block", "compact-block"})
+    private String strategy;
+    @Param({"1000"})
+    private int size;
+
+    private ObjectSerializer serializer;
+    private Compressor compressor;
+    private ArrayList<Item> payload;
+    private byte[] serialized;
+
+    /**
+     * Creates the payload and the strategies being measured
+     *
+     * @throws IOException if the payload can not be serialized
+     */
+    @Setup
+    public void setup() throws IOException {
+        serializer = strategy.startsWith("compact") ? new ItemSerializer() : new JavaObjectSerializer();
+        compressor = strategy.endsWith("gzip") ? new GZipCompressor() : new BlockCompressor();
+        payload = new ArrayList<Item>(size);
+        for (int i = 0; i < size; i++) {
+            payload.add(new Item(i, "item-" + (i % 50), i * 0.5));
+        }
+        serialized = Serializer.serialize(payload, serializer, compressor);
+    }
+
+    /**
+     * Serializes and compresses the payload
+     *
+     * @return the stored bytes
+     * @throws IOException if the payload can not be serialized
+     */
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return Serializer.serialize(payload, serializer, compressor);
+    }
+
+    /**
+     * Decompresses and deserializes the stored bytes
+     *
+     * @return the payload
+     * @throws IOException            if the bytes can not be read
+     * @throws ClassNotFoundException if a serialized type can not be found
+     */
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        return Serializer.deserialize(serialized, serializer, compressor);
+    }
+
+    /**
+     * Registers the payload types with the compact serializer
+     */
+    public static class ItemSerializer extends CompactObjectSerializer {
+        /**
+         * Creates the serializer
+         */
+        public ItemSerializer() {
+            super(ArrayList.class, Item.class);
+        }
+    }
+
+    private static class Item implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final int id;
+        private final String name;
+        private final double price;
+
+        Item(final int id, final String name, final double price) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+        }
+    }
+}
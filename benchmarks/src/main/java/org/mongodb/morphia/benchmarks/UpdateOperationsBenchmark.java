@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.benchmarks;
+
+import com.mongodb.DBObject;
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.benchmarks.entities.CollectionEntity;
+import org.mongodb.morphia.benchmarks.entities.FlatEntity;
+import org.mongodb.morphia.query.UpdateOpsImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building update documents through {@link UpdateOpsImpl}, including the field validation and value encoding done for each
+ * operator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateOperationsBenchmark {
+    private Datastore datastore;
+    private List<String> tags;
+    private CollectionEntity.Item item;
+
+    /**
+     * Grabs the Datastore
+     *
+     * @param state the shared Morphia state
+     */
+    @Setup
+    public void setup(final MorphiaState state) {
+        datastore = state.getDatastore();
+        tags = Arrays.asList("tag-1", "tag-2", "tag-3", "tag-4", "tag-5");
+        item = new CollectionEntity.Item();
+    }
+
+    /**
+     * @return the rendered update document
+     */
+    @Benchmark
+    public DBObject simpleValues() {
+        return ((UpdateOpsImpl<FlatEntity>) datastore.createUpdateOperations(FlatEntity.class)
+                                                     .set("name", "updated")
+                                                     .set("score", 12.5)
+                                                     .inc("count")
+                                                     .unset("description"))
+            .getOps();
+    }
+
+    /**
+     * @return the rendered update document
+     */
+    @Benchmark
+    public DBObject arrayOperators() {
+        return ((UpdateOpsImpl<CollectionEntity>) datastore.createUpdateOperations(CollectionEntity.class)
+                                                           .addToSet("tags", tags)
+                                                           .push("items", item)
+                                                           .removeAll("numbers", 7)
+                                                           .inc("counters.counter-1", 2))
+            .getOps();
+    }
+}
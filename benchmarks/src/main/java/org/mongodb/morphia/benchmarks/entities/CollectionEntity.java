@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.benchmarks.entities;
+
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.annotations.Embedded;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An entity dominated by collections of simple values and embedded documents.
+ */
+@Entity("collections")
+public class CollectionEntity {
+    private static final int SIZE = 50;
+
+    @Id
+    private ObjectId id;
+    private List<String> tags = new ArrayList<String>();
+    private List<Integer> numbers = new ArrayList<Integer>();
+    private double[] samples;
+    private Set<String> categories = new HashSet<String>();
+    private Map<String, Long> counters = new HashMap<String, Long>();
+    @Embedded
+    private List<Item> items = new ArrayList<Item>();
+
+    /**
+     * Creates a populated instance
+     *
+     * @param seed the value used to vary the field contents
+     * @return the new entity
+     */
+    public static CollectionEntity create(final int seed) {
+        final CollectionEntity entity = new CollectionEntity();
+        entity.id = new ObjectId();
+        entity.samples = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            entity.tags.add("tag-" + i);
+            entity.numbers.add(seed + i);
+            entity.samples[i] = i / 3.0;
+            entity.categories.add("category-" + i % 10);
+            entity.counters.put("counter-" + i, (long) seed * i);
+            final Item item = new Item();
+            item.sku = "sku-" + seed + "-" + i;
+            item.quantity = i;
+            item.price = i * 9.99;
+            entity.items.add(item);
+        }
+        return entity;
+    }
+
+    /**
+     * @return the ID
+     */
+    public ObjectId getId() {
+        return id;
+    }
+
+    /**
+     * A line item
+     */
+    @Embedded
+    public static class Item {
+        private String sku;
+        private int quantity;
+        private double price;
+    }
+}
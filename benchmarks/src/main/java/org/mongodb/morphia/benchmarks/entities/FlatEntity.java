@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.benchmarks.entities;
+
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+import java.util.Date;
+
+/**
+ * An entity made up only of simple values.
+ */
+@Entity(value = "flat", noClassnameStored = true)
+public class FlatEntity {
+    @Id
+    private ObjectId id;
+    private String name;
+    private String description;
+    private int count;
+    private long timestamp;
+    private double score;
+    private boolean active;
+    private Date created;
+
+    /**
+     * Creates a populated instance
+     *
+     * @param seed the value used to vary the field contents
+     * @return the new entity
+     */
+    public static FlatEntity create(final int seed) {
+        final FlatEntity entity = new FlatEntity();
+        entity.id = new ObjectId();
+        entity.name = "name-" + seed;
+        entity.description = "a moderately long description for entity number " + seed;
+        entity.count = seed;
+        entity.timestamp = 1483228800000L + seed;
+        entity.score = seed * 1.5;
+        entity.active = seed % 2 == 0;
+        entity.created = new Date(entity.timestamp);
+        return entity;
+    }
+
+    /**
+     * @return the ID
+     */
+    public ObjectId getId() {
+        return id;
+    }
+
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+}
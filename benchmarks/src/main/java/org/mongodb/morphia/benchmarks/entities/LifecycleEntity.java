@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.benchmarks.entities;
+
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.PostLoad;
+import org.mongodb.morphia.annotations.PostPersist;
+import org.mongodb.morphia.annotations.PreLoad;
+import org.mongodb.morphia.annotations.PrePersist;
+import org.mongodb.morphia.annotations.Transient;
+
+/**
+ * An entity with a callback for each of the common lifecycle events.
+ */
+@Entity("lifecycle")
+public class LifecycleEntity {
+    @Id
+    private ObjectId id;
+    private String name;
+    private long lastUpdated;
+    @Transient
+    private int loads;
+
+    /**
+     * Creates a populated instance
+     *
+     * @param seed the value used to vary the field contents
+     * @return the new entity
+     */
+    public static LifecycleEntity create(final int seed) {
+        final LifecycleEntity entity = new LifecycleEntity();
+        entity.id = new ObjectId();
+        entity.name = "lifecycle-" + seed;
+        return entity;
+    }
+
+    /**
+     * @return the number of times the load callbacks have fired
+     */
+    public int getLoads() {
+        return loads;
+    }
+
+    @PrePersist
+    void prePersist() {
+        lastUpdated = 1483228800000L + loads;
+    }
+
+    @PostPersist
+    void postPersist(final DBObject dbObject) {
+        dbObject.put("persisted", true);
+    }
+
+    @PreLoad
+    void preLoad(final DBObject dbObject) {
+        dbObject.removeField("persisted");
+    }
+
+    @PostLoad
+    void postLoad() {
+        loads++;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.benchmarks.entities;
+
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.annotations.Embedded;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+/**
+ * An entity with an embedded document chain several levels deep.
+ */
+@Entity("nested")
+public class NestedEntity {
+    private static final int DEPTH = 5;
+
+    @Id
+    private ObjectId id;
+    private String name;
+    @Embedded
+    private Level root;
+
+    /**
+     * Creates a populated instance
+     *
+     * @param seed the value used to vary the field contents
+     * @return the new entity
+     */
+    public static NestedEntity create(final int seed) {
+        final NestedEntity entity = new NestedEntity();
+        entity.id = new ObjectId();
+        entity.name = "nested-" + seed;
+        Level level = null;
+        for (int depth = DEPTH; depth > 0; depth--) {
+            final Level parent = new Level();
+            parent.depth = depth;
+            parent.label = "level-" + depth + "-" + seed;
+            parent.weight = depth * 0.25;
+            parent.child = level;
+            level = parent;
+        }
+        entity.root = level;
+        return entity;
+    }
+
+    /**
+     * @return the ID
+     */
+    public ObjectId getId() {
+        return id;
+    }
+
+    /**
+     * One level of the embedded chain
+     */
+    @Embedded
+    public static class Level {
+        private int depth;
+        private String label;
+        private double weight;
+        @Embedded
+        private Level child;
+    }
+}
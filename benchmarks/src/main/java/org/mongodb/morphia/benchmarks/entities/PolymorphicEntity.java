@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.benchmarks.entities;
+
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.annotations.Embedded;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An entity holding a list of embedded values declared by their abstract type so that each element has to be mapped through its stored
+ * class name.
+ */
+@Entity("polymorphic")
+public class PolymorphicEntity {
+    private static final int SIZE = 20;
+
+    @Id
+    private ObjectId id;
+    @Embedded
+    private Shape primary;
+    @Embedded
+    private List<Shape> shapes = new ArrayList<Shape>();
+
+    /**
+     * Creates a populated instance
+     *
+     * @param seed the value used to vary the field contents
+     * @return the new entity
+     */
+    public static PolymorphicEntity create(final int seed) {
+        final PolymorphicEntity entity = new PolymorphicEntity();
+        entity.id = new ObjectId();
+        entity.primary = new Circle(seed);
+        for (int i = 0; i < SIZE; i++) {
+            entity.shapes.add(i % 2 == 0 ? new Circle(seed + i) : new Rectangle(seed, i));
+        }
+        return entity;
+    }
+
+    /**
+     * @return the ID
+     */
+    public ObjectId getId() {
+        return id;
+    }
+
+    /**
+     * The abstract element type
+     */
+    @Embedded
+    public abstract static class Shape {
+        private String color = "red";
+    }
+
+    /**
+     * A circle
+     */
+    @Embedded
+    public static class Circle extends Shape {
+        private double radius;
+
+        /**
+         * Used by the mapper
+         */
+        public Circle() {
+        }
+
+        Circle(final double radius) {
+            this.radius = radius;
+        }
+    }
+
+    /**
+     * A rectangle
+     */
+    @Embedded
+    public static class Rectangle extends Shape {
+        private double width;
+        private double height;
+
+        /**
+         * Used by the mapper
+         */
+        public Rectangle() {
+        }
+
+        Rectangle(final double width, final double height) {
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.ext.processor;
+
+import org.mongodb.morphia.annotations.Embedded;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.EntityListeners;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Indexed;
+import org.mongodb.morphia.annotations.PostLoad;
+import org.mongodb.morphia.annotations.PostPersist;
+import org.mongodb.morphia.annotations.PreLoad;
+import org.mongodb.morphia.annotations.PrePersist;
+import org.mongodb.morphia.annotations.PreSave;
+import org.mongodb.morphia.annotations.Property;
+import org.mongodb.morphia.annotations.Reference;
+import org.mongodb.morphia.annotations.Serialized;
+import org.mongodb.morphia.annotations.Transient;
+import org.mongodb.morphia.annotations.Version;
+import org.mongodb.morphia.mapping.EntityIndex;
+import org.mongodb.morphia.mapping.Mapper;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypesException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Writes the {@link EntityIndex} of the classes being compiled.  Every concrete class annotated, directly or through a supertype, with
+ * {@link Entity} or {@link Embedded} is recorded along with the lifecycle methods declared on it, its superclasses and its {@link
+ * EntityListeners}, and with the stored name, type and {@link Indexed} marker of each field that may be persisted.  The processor is
+ * picked up automatically when this module is on the compile classpath.
+ * <p>
+ * The index only covers the sources of a single compilation so incremental builds compiling a subset of the entities should be followed
+ * by a full build before the index is relied upon.
+ *
+ * @see org.mongodb.morphia.mapping.MapperOptions#setUseEntityIndex(boolean)
+ * @since 1.4
+ */
+@SupportedAnnotationTypes("*")
+public class EntityIndexProcessor extends AbstractProcessor {
+    private static final List<Class<? extends Annotation>> LIFECYCLE_ANNOTATIONS = new ArrayList<Class<? extends Annotation>>();
+    private static final Map<TypeKind, Character> DESCRIPTORS = new HashMap<TypeKind, Character>();
+
+    static {
+        LIFECYCLE_ANNOTATIONS.add(PrePersist.class);
+        LIFECYCLE_ANNOTATIONS.add(PreSave.class);
+        LIFECYCLE_ANNOTATIONS.add(PreLoad.class);
+        LIFECYCLE_ANNOTATIONS.add(PostPersist.class);
+        LIFECYCLE_ANNOTATIONS.add(PostLoad.class);
+
+        DESCRIPTORS.put(TypeKind.BOOLEAN, 'Z');
+        DESCRIPTORS.put(TypeKind.BYTE, 'B');
+        DESCRIPTORS.put(TypeKind.CHAR, 'C');
+        DESCRIPTORS.put(TypeKind.SHORT, 'S');
+        DESCRIPTORS.put(TypeKind.INT, 'I');
+        DESCRIPTORS.put(TypeKind.LONG, 'J');
+        DESCRIPTORS.put(TypeKind.FLOAT, 'F');
+        DESCRIPTORS.put(TypeKind.DOUBLE, 'D');
+    }
+
+    private final Map<String, String> entries = new TreeMap<String, String>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!entries.isEmpty()) {
+                write();
+            }
+        } else {
+            for (final TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+                index(type);
+            }
+        }
+        return false;
+    }
+
+    private void index(final TypeElement type) {
+        if (type.getKind() == ElementKind.CLASS && !type.getModifiers().contains(Modifier.ABSTRACT)) {
+            final String kind = findAnnotation(type, Entity.class) != null
+                                ? EntityIndex.ENTITY
+                                : findAnnotation(type, Embedded.class) != null ? EntityIndex.EMBEDDED : null;
+            if (kind != null) {
+                final String name = binaryName(type);
+                entries.put(name, kind);
+                final String lifecycle = describeLifecycleMethods(type);
+                if (lifecycle != null) {
+                    entries.put(name + EntityIndex.LIFECYCLE_SUFFIX, lifecycle);
+                }
+                // inner classes carry a synthetic reference to their enclosing instance which only reflection sees
+                if (type.getNestingKind() != NestingKind.MEMBER || type.getModifiers().contains(Modifier.STATIC)) {
+                    entries.put(name + EntityIndex.FIELDS_SUFFIX, describeFields(type));
+                }
+            }
+        }
+        for (final TypeElement member : ElementFilter.typesIn(type.getEnclosedElements())) {
+            index(member);
+        }
+    }
+
+    /**
+     * Mirrors ReflectionUtils.getAnnotations: the annotation is looked for on the type, then its superclasses and interfaces.
+     */
+    private <A extends Annotation> A findAnnotation(final TypeElement type, final Class<A> annotation) {
+        final A found = type.getAnnotation(annotation);
+        if (found != null) {
+            return found;
+        }
+        final List<TypeMirror> supertypes = new ArrayList<TypeMirror>(type.getInterfaces());
+        supertypes.add(0, type.getSuperclass());
+        for (final TypeMirror supertype : supertypes) {
+            if (supertype.getKind() == TypeKind.DECLARED) {
+                final A inherited = findAnnotation((TypeElement) ((DeclaredType) supertype).asElement(), annotation);
+                if (inherited != null) {
+                    return inherited;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mirrors MappedClass.discover: the lifecycle methods of the type's hierarchy come first, then those of each listener, each hierarchy
+     * being walked from its topmost superclass down.
+     *
+     * @return the lifecycle entries or null if a parameter type can not be described
+     */
+    private String describeLifecycleMethods(final TypeElement type) {
+        final List<TypeElement> lifecycleTypes = new ArrayList<TypeElement>();
+        lifecycleTypes.add(type);
+        lifecycleTypes.addAll(getListeners(type));
+
+        final StringBuilder methods = new StringBuilder();
+        for (final TypeElement lifecycleType : lifecycleTypes) {
+            for (final TypeElement declaring : getHierarchy(lifecycleType)) {
+                for (final ExecutableElement method : ElementFilter.methodsIn(declaring.getEnclosedElements())) {
+                    if (method.getModifiers().contains(Modifier.STATIC)) {
+                        continue;
+                    }
+                    for (final Class<? extends Annotation> annotation : LIFECYCLE_ANNOTATIONS) {
+                        if (method.getAnnotation(annotation) != null) {
+                            final String parameters = describeParameters(method);
+                            if (parameters == null) {
+                                return null;
+                            }
+                            if (methods.length() != 0) {
+                                methods.append(';');
+                            }
+                            methods.append(annotation.getName()).append('|')
+                                   .append(binaryName(lifecycleType)).append('|')
+                                   .append(binaryName(declaring)).append('|')
+                                   .append(method.getSimpleName()).append('|')
+                                   .append(parameters);
+                        }
+                    }
+                }
+            }
+        }
+        return methods.toString();
+    }
+
+    /**
+     * Mirrors MappedClass.discover: the fields of the type come first, then those of each superclass.  Static, transient and {@link
+     * Transient} fields are left out while final fields are kept since ignoring them is a runtime option.
+     */
+    private String describeFields(final TypeElement type) {
+        final List<TypeElement> hierarchy = getHierarchy(type);
+        Collections.reverse(hierarchy);
+
+        final StringBuilder fields = new StringBuilder();
+        for (final TypeElement declaring : hierarchy) {
+            for (final VariableElement field : ElementFilter.fieldsIn(declaring.getEnclosedElements())) {
+                final Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)
+                    || field.getAnnotation(Transient.class) != null) {
+                    continue;
+                }
+                if (fields.length() != 0) {
+                    fields.append(',');
+                }
+                fields.append(binaryName(declaring)).append('|')
+                      .append(field.getSimpleName()).append('|')
+                      .append(storedName(field)).append('|')
+                      .append(typeName(processingEnv.getTypeUtils().erasure(field.asType()))).append('|')
+                      .append(field.getAnnotation(Indexed.class) != null);
+            }
+        }
+        return fields.toString();
+    }
+
+    /**
+     * Mirrors MappedField.getMappedFieldName.
+     */
+    private String storedName(final VariableElement field) {
+        String name = null;
+        if (field.getAnnotation(Id.class) != null) {
+            return Mapper.ID_KEY;
+        } else if (field.getAnnotation(Property.class) != null) {
+            name = field.getAnnotation(Property.class).value();
+        } else if (field.getAnnotation(Reference.class) != null) {
+            name = field.getAnnotation(Reference.class).value();
+        } else if (field.getAnnotation(Embedded.class) != null) {
+            name = field.getAnnotation(Embedded.class).value();
+        } else if (field.getAnnotation(Serialized.class) != null) {
+            name = field.getAnnotation(Serialized.class).value();
+        } else if (field.getAnnotation(Version.class) != null) {
+            name = field.getAnnotation(Version.class).value();
+        }
+        return name == null || name.equals(Mapper.IGNORED_FIELDNAME) ? field.getSimpleName().toString() : name;
+    }
+
+    /**
+     * @return the erased type named as {@link Class#getName()} would name it
+     */
+    private String typeName(final TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return descriptor(type);
+        }
+        return type.getKind() == TypeKind.DECLARED ? binaryName((TypeElement) ((DeclaredType) type).asElement()) : type.toString();
+    }
+
+    private String descriptor(final TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return "[" + descriptor(((ArrayType) type).getComponentType());
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return "L" + binaryName((TypeElement) ((DeclaredType) type).asElement()) + ";";
+        }
+        return String.valueOf(DESCRIPTORS.get(type.getKind()));
+    }
+
+    private String describeParameters(final ExecutableElement method) {
+        final StringBuilder parameters = new StringBuilder();
+        for (final VariableElement parameter : method.getParameters()) {
+            final TypeMirror type = processingEnv.getTypeUtils().erasure(parameter.asType());
+            if (parameters.length() != 0) {
+                parameters.append(',');
+            }
+            if (type.getKind().isPrimitive()) {
+                parameters.append(type.toString());
+            } else if (type.getKind() == TypeKind.DECLARED) {
+                parameters.append(binaryName((TypeElement) ((DeclaredType) type).asElement()));
+            } else {
+                return null;
+            }
+        }
+        return parameters.toString();
+    }
+
+    private List<TypeElement> getHierarchy(final TypeElement type) {
+        final List<TypeElement> hierarchy = new ArrayList<TypeElement>();
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals(Object.class.getName())) {
+            hierarchy.add(0, current);
+            final TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return hierarchy;
+    }
+
+    private List<TypeElement> getListeners(final TypeElement type) {
+        final List<TypeElement> listeners = new ArrayList<TypeElement>();
+        final EntityListeners annotation = findAnnotation(type, EntityListeners.class);
+        if (annotation != null) {
+            try {
+                for (final Class<?> listener : annotation.value()) {
+                    listeners.add(processingEnv.getElementUtils().getTypeElement(listener.getCanonicalName()));
+                }
+            } catch (MirroredTypesException e) {
+                for (final TypeMirror listener : e.getTypeMirrors()) {
+                    listeners.add((TypeElement) ((DeclaredType) listener).asElement());
+                }
+            }
+        }
+        return listeners;
+    }
+
+    private String binaryName(final TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private void write() {
+        try {
+            final FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", EntityIndex.RESOURCE);
+            final Writer writer = resource.openWriter();
+            try {
+                writer.write("# Generated by " + EntityIndexProcessor.class.getName() + "\n");
+                for (final Entry<String, String> entry : entries.entrySet()) {
+                    writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Kind.ERROR, "Could not write " + EntityIndex.RESOURCE + ": " + e.getMessage());
+        }
+    }
+}
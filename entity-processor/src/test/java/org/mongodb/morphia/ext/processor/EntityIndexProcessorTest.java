@@ -0,0 +1,185 @@
+package org.mongodb.morphia.ext.processor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mongodb.morphia.Morphia;
+import org.mongodb.morphia.annotations.PostLoad;
+import org.mongodb.morphia.annotations.PrePersist;
+import org.mongodb.morphia.mapping.EntityIndex;
+import org.mongodb.morphia.mapping.MappedClass;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EntityIndexProcessorTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testIndex() throws IOException {
+        final File output = compile();
+        final Properties index = new Properties();
+        final InputStream stream = new FileInputStream(new File(output, EntityIndex.RESOURCE));
+        try {
+            index.load(stream);
+        } finally {
+            stream.close();
+        }
+
+        assertEquals(EntityIndex.ENTITY, index.getProperty("indexed.Person"));
+        assertEquals(EntityIndex.ENTITY, index.getProperty("indexed.Person$Student"));
+        assertEquals(EntityIndex.EMBEDDED, index.getProperty("indexed.Address"));
+        assertEquals(EntityIndex.ENTITY, index.getProperty("indexed.sub.Thing"));
+        assertNull(index.getProperty("indexed.Base"));
+        assertNull(index.getProperty("indexed.Listener"));
+        assertEquals("", index.getProperty("indexed.Address" + EntityIndex.LIFECYCLE_SUFFIX));
+        assertEquals(PrePersist.class.getName() + "|indexed.Person|indexed.Base|prePersist|"
+                     + ";" + PostLoad.class.getName() + "|indexed.Listener|indexed.Listener|postLoad|java.lang.Object,com.mongodb.DBObject",
+                     index.getProperty("indexed.Person" + EntityIndex.LIFECYCLE_SUFFIX));
+        assertEquals("indexed.Person|name|full_name|java.lang.String|true,indexed.Person|nicknames|nicknames|[Ljava.lang.String;|false,"
+                     + "indexed.Base|id|_id|org.bson.types.ObjectId|false",
+                     index.getProperty("indexed.Person" + EntityIndex.FIELDS_SUFFIX));
+        assertEquals("indexed.Address|street|street|java.lang.String|false",
+                     index.getProperty("indexed.Address" + EntityIndex.FIELDS_SUFFIX));
+    }
+
+    @Test
+    public void testMappingFromIndex() throws Exception {
+        final File output = compile();
+        final ClassLoader original = Thread.currentThread().getContextClassLoader();
+        final URLClassLoader loader = new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader());
+        Thread.currentThread().setContextClassLoader(loader);
+        try {
+            final Morphia morphia = new Morphia();
+            morphia.getMapper().getOptions().setUseEntityIndex(true);
+            morphia.mapPackage("indexed");
+            assertTrue(morphia.getMapper().getEntityIndex().getClassNames().contains("indexed.Person"));
+
+            final Set<String> mapped = new TreeSet<String>();
+            for (final MappedClass mappedClass : morphia.getMapper().getMappedClasses()) {
+                mapped.add(mappedClass.getClazz().getName());
+            }
+            assertTrue(mapped.containsAll(asList("indexed.Person", "indexed.Person$Student", "indexed.Address")));
+            assertTrue(!mapped.contains("indexed.sub.Thing"));
+
+            final MappedClass person = morphia.getMapper().getMappedClass(loader.loadClass("indexed.Person"));
+            assertEquals(1, person.getLifecycleMethods(PrePersist.class).size());
+            assertEquals(1, person.getLifecycleMethods(PostLoad.class).size());
+            assertEquals(3, person.getPersistenceFields().size());
+            assertEquals("full_name", person.getMappedFieldByJavaField("name").getNameToStore());
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    public void testStaleFieldsAreIgnored() throws Exception {
+        final File output = compile();
+        final File file = new File(output, EntityIndex.RESOURCE);
+        final Properties index = new Properties();
+        final InputStream in = new FileInputStream(file);
+        try {
+            index.load(in);
+        } finally {
+            in.close();
+        }
+        final String fieldsKey = "indexed.Person" + EntityIndex.FIELDS_SUFFIX;
+        index.setProperty(fieldsKey, index.getProperty(fieldsKey).replace("full_name", "renamed"));
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            index.store(out, null);
+        } finally {
+            out.close();
+        }
+
+        final ClassLoader original = Thread.currentThread().getContextClassLoader();
+        final URLClassLoader loader = new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader());
+        Thread.currentThread().setContextClassLoader(loader);
+        try {
+            final Morphia morphia = new Morphia();
+            morphia.getMapper().getOptions().setUseEntityIndex(true);
+            final MappedClass person = morphia.getMapper().getMappedClass(loader.loadClass("indexed.Person"));
+            assertEquals(3, person.getPersistenceFields().size());
+            assertEquals("full_name", person.getMappedFieldByJavaField("name").getNameToStore());
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    private File compile() throws IOException {
+        final File output = folder.newFolder();
+        final List<JavaFileObject> sources = new ArrayList<JavaFileObject>();
+        sources.add(source("indexed.Base", "package indexed;\n"
+                                           + "import org.mongodb.morphia.annotations.*;\n"
+                                           + "@Entity @EntityListeners(Listener.class)\n"
+                                           + "public abstract class Base {\n"
+                                           + "  @Id private org.bson.types.ObjectId id;\n"
+                                           + "  @PrePersist void prePersist() { }\n"
+                                           + "}\n"));
+        sources.add(source("indexed.Person", "package indexed;\n"
+                                             + "import org.mongodb.morphia.annotations.*;\n"
+                                             + "public class Person extends Base {\n"
+                                             + "  @Property(\"full_name\") @Indexed private String name;\n"
+                                             + "  private String[] nicknames;\n"
+                                             + "  private transient int age;\n"
+                                             + "  public static class Student extends Person { }\n"
+                                             + "}\n"));
+        sources.add(source("indexed.Listener", "package indexed;\n"
+                                               + "import org.mongodb.morphia.annotations.*;\n"
+                                               + "public class Listener {\n"
+                                               + "  @PostLoad void postLoad(Object entity, com.mongodb.DBObject dbObject) { }\n"
+                                               + "}\n"));
+        sources.add(source("indexed.Address", "package indexed;\n"
+                                              + "@org.mongodb.morphia.annotations.Embedded\n"
+                                              + "public class Address {\n"
+                                              + "  private String street;\n"
+                                              + "}\n"));
+        sources.add(source("indexed.sub.Thing", "package indexed.sub;\n"
+                                                + "import org.mongodb.morphia.annotations.*;\n"
+                                                + "@Entity public class Thing {\n"
+                                                + "  @Id private long id;\n"
+                                                + "}\n"));
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final CompilationTask task = compiler.getTask(null, null, null, Arrays.asList("-d", output.getPath(), "-classpath",
+                                                                                      System.getProperty("java.class.path")),
+                                                      null, sources);
+        task.setProcessors(Collections.singletonList(new EntityIndexProcessor()));
+        assertTrue("compilation failed", task.call());
+        return output;
+    }
+
+    private JavaFileObject source(final String className, final String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
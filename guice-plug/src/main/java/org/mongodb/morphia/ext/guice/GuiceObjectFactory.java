@@ -1,8 +1,11 @@
 package org.mongodb.morphia.ext.guice;
 
 
+import com.google.inject.ConfigurationException;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
+import com.google.inject.MembersInjector;
+import com.google.inject.spi.InjectionPoint;
 import com.mongodb.DBObject;
 import org.mongodb.morphia.ObjectFactory;
 import org.mongodb.morphia.mapping.MappedField;
@@ -14,6 +17,8 @@ import java.lang.reflect.Modifier;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 /**
@@ -26,6 +31,7 @@ public class GuiceObjectFactory implements ObjectFactory {
 
     private final ObjectFactory delegate;
     private final Injector injector;
+    private final ConcurrentMap<Class<?>, InjectionPlan> plans = new ConcurrentHashMap<Class<?>, InjectionPlan>();
 
     /**
      * Create a GuiceObjectFactory wrapper around an ObjectFactory
@@ -49,24 +55,49 @@ public class GuiceObjectFactory implements ObjectFactory {
         return injectMembers(delegate.createInstance(clazz));
     }
 
-    @SuppressWarnings("unchecked")
     private boolean injectOnConstructor(final Class clazz) {
-        final Constructor[] cs = clazz.getDeclaredConstructors();
-        for (final Constructor constructor : cs) {
-            if (constructor.getAnnotation(Inject.class) != null) {
-                return true;
-            }
-        }
-        return false;
+        return getPlan(clazz).onConstructor;
     }
 
+    @SuppressWarnings("unchecked")
     private <T> T injectMembers(final T o) {
         if (o != null) {
-            injector.injectMembers(o);
+            final MembersInjector membersInjector = getPlan(o.getClass()).membersInjector;
+            if (membersInjector != null) {
+                membersInjector.injectMembers(o);
+            }
         }
         return o;
     }
 
+    private InjectionPlan getPlan(final Class<?> clazz) {
+        InjectionPlan plan = plans.get(clazz);
+        if (plan == null) {
+            plan = createPlan(clazz);
+            final InjectionPlan existing = plans.putIfAbsent(clazz, plan);
+            if (existing != null) {
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    private InjectionPlan createPlan(final Class<?> clazz) {
+        for (final Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+            if (constructor.getAnnotation(Inject.class) != null) {
+                return new InjectionPlan(true, null);
+            }
+        }
+        boolean hasInjectionPoints;
+        try {
+            hasInjectionPoints = !InjectionPoint.forInstanceMethodsAndFields(clazz).isEmpty();
+        } catch (ConfigurationException e) {
+            // let the injector report the problem when members are injected, as it always has
+            hasInjectionPoints = true;
+        }
+        return new InjectionPlan(false, hasInjectionPoints ? injector.getMembersInjector(clazz) : null);
+    }
+
     @Override
     public <T> T createInstance(final Class<T> clazz, final DBObject dbObj) {
         if (injectOnConstructor(clazz)) {
@@ -139,4 +170,18 @@ public class GuiceObjectFactory implements ObjectFactory {
 
         return injectMembers(delegate.createSet(mf));
     }
+
+    /**
+     * How instances of a class are injected: through an {@code @Inject} constructor, by injecting the members of an instance created by the
+     * delegate or, when the class has no injection points, not at all.
+     */
+    private static final class InjectionPlan {
+        private final boolean onConstructor;
+        private final MembersInjector<?> membersInjector;
+
+        private InjectionPlan(final boolean onConstructor, final MembersInjector<?> membersInjector) {
+            this.onConstructor = onConstructor;
+            this.membersInjector = membersInjector;
+        }
+    }
 }
@@ -0,0 +1,81 @@
+package org.mongodb.morphia.ext.guice;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.mongodb.BasicDBObject;
+import org.junit.Test;
+import org.mongodb.morphia.mapping.DefaultCreator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class GuiceObjectFactoryTest {
+    private final Injector injector = Guice.createInjector(new AbstractModule() {
+        @Override
+        protected void configure() {
+            bind(String.class).toInstance("injected");
+        }
+    });
+    private final GuiceObjectFactory factory = new GuiceObjectFactory(new DefaultCreator(), injector);
+
+    @Test
+    public void shouldInjectThroughConstructor() {
+        for (int i = 0; i < 2; i++) {
+            assertEquals("injected", factory.createInstance(ConstructorInjected.class).value);
+        }
+    }
+
+    @Test
+    public void shouldInjectMembers() {
+        for (int i = 0; i < 2; i++) {
+            final MemberInjected instance = factory.createInstance(MemberInjected.class);
+            assertEquals("injected", instance.field);
+            assertEquals("injected", instance.fromMethod);
+        }
+    }
+
+    @Test
+    public void shouldInjectMembersOfTheCreatedSubclass() {
+        final Plain instance = factory.createInstance(Plain.class, new BasicDBObject("className", PlainSubclass.class.getName()));
+        assertEquals("injected", ((PlainSubclass) instance).field);
+    }
+
+    @Test
+    public void shouldLeaveClassesWithoutInjectionPointsAlone() {
+        final Plain instance = factory.createInstance(Plain.class);
+        assertNotNull(instance);
+        assertNull(instance.field);
+    }
+
+    private static class ConstructorInjected {
+        private final String value;
+
+        @Inject
+        ConstructorInjected(final String value) {
+            this.value = value;
+        }
+    }
+
+    private static class MemberInjected {
+        @Inject
+        private String field;
+        private String fromMethod;
+
+        @Inject
+        void setFromMethod(final String fromMethod) {
+            this.fromMethod = fromMethod;
+        }
+    }
+
+    private static class Plain {
+        private String field;
+    }
+
+    private static class PlainSubclass extends Plain {
+        @Inject
+        private String field;
+    }
+}
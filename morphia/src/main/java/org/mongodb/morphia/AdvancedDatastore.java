@@ -8,9 +8,12 @@ import com.mongodb.WriteConcern;
 import com.mongodb.WriteResult;
 import com.mongodb.client.MongoCollection;
 import org.mongodb.morphia.aggregation.AggregationPipeline;
+import org.mongodb.morphia.mapping.cache.EntityCache;
 import org.mongodb.morphia.query.Query;
 import org.mongodb.morphia.query.UpdateOperations;
 
+import java.util.Set;
+
 /**
  * This interface exposes advanced {@link Datastore} features, like interacting with DBObject and low-level options. It implements matching
  * methods from the {@code Datastore} interface but with a specified kind (collection name), or raw types (DBObject).
@@ -220,6 +223,18 @@ public interface AdvancedDatastore extends Datastore {
      */
     Key<?> exists(Object keyOrEntity, ReadPreference readPreference);
 
+    /**
+     * Checks which of the given keys have an entity in mongodb.  Keys whose existence the cache already knows are not queried again and
+     * the existence of every key queried is recorded in the cache.
+     *
+     * @param keys  the keys to check for
+     * @param cache the cache to consult and populate.  May be null.
+     * @return the keys which exist, in the order they were given
+     * @see Datastore#exists(Iterable)
+     * @since 1.4
+     */
+    Set<Key<?>> exists(Iterable<? extends Key<?>> keys, EntityCache cache);
+
     /**
      * Find all instances by type in a different collection than what is mapped on the class given.
      *
@@ -276,6 +291,23 @@ public interface AdvancedDatastore extends Datastore {
      */
     long getCount(String collection);
 
+    /**
+     * Estimates the number of documents in a collection from the collection's statistics
+     *
+     * @param collection the collection to count
+     * @return the estimated count
+     * @see Datastore#getEstimatedCount(Class)
+     * @since 1.4
+     */
+    DocumentCount getEstimatedCount(String collection);
+
+    /**
+     * @return the allocator assigning the ids of entities with a {@code @Sequence} id
+     * @see org.mongodb.morphia.annotations.Sequence
+     * @since 1.4
+     */
+    SequenceAllocator getSequenceAllocator();
+
     /**
      * Inserts an entity in to the mapped collection.
      *
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia;
+
+import org.mongodb.morphia.mapping.Mapper;
+
+/**
+ * An {@link EntityInterceptor} which is also told about batches of entities written by {@link Datastore#save(Iterable)} and
+ * {@link Datastore#insert(Iterable)}, before any of them is mapped or written.  This lets an interceptor do its work for the whole batch at
+ * once, e.g. in parallel, rather than entity by entity in {@link #prePersist(Object, com.mongodb.DBObject, Mapper)}.
+ *
+ * @since 1.4
+ */
+public interface BatchEntityInterceptor extends EntityInterceptor {
+    /**
+     * Called before the entities of a batch are mapped and written.  Throwing aborts the whole batch.
+     *
+     * @param entities the entities about to be written
+     * @param mapper   the Mapper being used
+     */
+    void preBatchPersist(Iterable<?> entities, Mapper mapper);
+
+    /**
+     * Called once the batch has been written or has failed.
+     *
+     * @param entities the entities of the batch
+     * @param mapper   the Mapper being used
+     */
+    void postBatchPersist(Iterable<?> entities, Mapper mapper);
+}
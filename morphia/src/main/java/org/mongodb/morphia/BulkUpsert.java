@@ -0,0 +1,332 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.BulkWriteResult;
+import com.mongodb.BulkWriteUpsert;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import org.mongodb.morphia.annotations.NotSaved;
+import org.mongodb.morphia.internal.PathTarget;
+import org.mongodb.morphia.mapping.MappedClass;
+import org.mongodb.morphia.mapping.MappedField;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.MappingException;
+import org.mongodb.morphia.metrics.OperationType;
+import org.mongodb.morphia.query.UpdateException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Writes batches of entities for {@link Datastore#upsertAll(Iterable, UpsertOptions, String...)}.  Each entity is mapped once and turned
+ * in to an upsert matching its key fields, and each batch is sent as one bulk write.  The ids and versions the server assigned are read
+ * back in to the mapped documents before the lifecycle methods are called.
+ */
+@SuppressWarnings("deprecation")
+final class BulkUpsert {
+    private final DatastoreImpl datastore;
+    private final Mapper mapper;
+    private final UpsertOptions options;
+    private final String[] keyFields;
+    private final Map<MappedClass, String[]> keyPaths = new HashMap<MappedClass, String[]>();
+    private final Set<Object> sequenced = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    private DBCollection dbColl;
+
+    BulkUpsert(final DatastoreImpl datastore, final UpsertOptions options, final String[] keyFields) {
+        if (keyFields.length == 0) {
+            throw new IllegalArgumentException("At least one key field is needed to upsert entities");
+        }
+        this.datastore = datastore;
+        this.mapper = datastore.getMapper();
+        this.options = options;
+        this.keyFields = keyFields;
+    }
+
+    /**
+     * Upserts the entities in batches of the configured size
+     *
+     * @param entities the entities
+     * @param <T>      the type of the entities
+     * @return the keys of the entities
+     */
+    <T> List<Key<T>> upsert(final Iterable<T> entities) {
+        final Iterator<T> iterator = entities.iterator();
+        if (!iterator.hasNext()) {
+            return Collections.emptyList();
+        }
+
+        dbColl = datastore.getCollection(iterator.next());
+        final SequenceAllocator sequences = datastore.getSequenceAllocator();
+        for (final T entity : entities) {
+            if (entity != null && sequences.needsId(entity)) {
+                sequenced.add(entity);
+            }
+        }
+        sequences.assignIds(entities);
+        final List<Key<T>> keys = new ArrayList<Key<T>>();
+        try {
+            datastore.preBatchPersist(entities);
+            final List<T> batch = new ArrayList<T>();
+            for (final T entity : entities) {
+                batch.add(entity);
+                if (batch.size() == options.getBatchSize()) {
+                    keys.addAll(write(batch));
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                keys.addAll(write(batch));
+            }
+            return keys;
+        } finally {
+            datastore.postBatchPersist(entities);
+        }
+    }
+
+    /**
+     * Upserts a batch of entities in one bulk write and returns their keys, or none if the write was not acknowledged
+     */
+    private <T> List<Key<T>> write(final List<T> entities) {
+        final Map<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
+        final List<DBObject> documents = new ArrayList<DBObject>();
+        final List<DBObject> filters = new ArrayList<DBObject>();
+        final boolean[] byKey = new boolean[entities.size()];
+        final BulkWriteOperation bulk = options.isOrdered()
+                                        ? dbColl.initializeOrderedBulkOperation()
+                                        : dbColl.initializeUnorderedBulkOperation();
+        if (options.getBypassDocumentValidation() != null) {
+            bulk.setBypassDocumentValidation(options.getBypassDocumentValidation());
+        }
+
+        final long mappingStart = System.nanoTime();
+        Class<?> type = null;
+        for (int i = 0; i < entities.size(); i++) {
+            final T entity = entities.get(i);
+            if (entity == null) {
+                throw new UpdateException("Can not persist a null entity");
+            }
+            final MappedClass mc = mapper.getMappedClass(entity);
+            if (mc.getAnnotation(NotSaved.class) != null) {
+                throw new MappingException(format("Entity type: %s is marked as NotSaved which means you should not try to save it!",
+                                                  mc.getClazz().getName()));
+            }
+            if (!mc.getCollectionName().equals(dbColl.getName())) {
+                throw new IllegalArgumentException(format("Can not upsert entities stored in %s and in %s together",
+                                                          dbColl.getName(), mc.getCollectionName()));
+            }
+            type = mc.getClazz();
+            final DBObject document = datastore.entityToDBObj(entity, involvedObjects, OperationType.SAVE);
+            DBObject filter = new BasicDBObject();
+            for (final String path : getKeyPaths(mc)) {
+                final Object value = getPathValue(document, path);
+                if (value == null) {
+                    throw new UpdateException(format("Can not upsert an entity of type %s without a value for the key field %s",
+                                                     mc.getClazz().getName(), path));
+                }
+                filter.put(path, value);
+            }
+            // an entity with an id is matched by it, as save does, unless the id was just drawn from its sequence
+            byKey[i] = document.get(Mapper.ID_KEY) == null || sequenced.contains(entity);
+            if (!byKey[i]) {
+                filter = new BasicDBObject(Mapper.ID_KEY, document.get(Mapper.ID_KEY));
+            }
+            documents.add(document);
+            filters.add(filter);
+            bulk.find(filter).upsert().updateOne(toUpdate(mc, document, byKey[i]));
+        }
+        datastore.recordMappingTime(OperationType.SAVE, dbColl, type, mappingStart);
+
+        final WriteConcern wc = options.getWriteConcern() != null ? options.getWriteConcern() : datastore.getWriteConcern(type);
+        final long start = System.nanoTime();
+        final BulkWriteResult result = bulk.execute(wc);
+        datastore.recordWrite(OperationType.SAVE, dbColl, type, start, result);
+        if (!result.isAcknowledged()) {
+            datastore.postSaveOperations(entities, involvedObjects, dbColl, OperationType.SAVE, false);
+            return Collections.emptyList();
+        }
+
+        final boolean[] inserted = new boolean[documents.size()];
+        for (final BulkWriteUpsert upsert : result.getUpserts()) {
+            final DBObject document = documents.get(upsert.getIndex());
+            document.put(Mapper.ID_KEY, upsert.getId());
+            final MappedField version = mapper.getMappedClass(entities.get(upsert.getIndex())).getMappedVersionField();
+            if (version != null) {
+                document.put(version.getNameToStore(), 1L);
+            }
+            inserted[upsert.getIndex()] = true;
+        }
+        readStoredKeys(entities, documents, filters, byKey, inserted);
+        return datastore.postSaveOperations(entities, involvedObjects, dbColl, OperationType.SAVE, true);
+    }
+
+    /**
+     * Reads the ids, and versions, of the documents the upserts updated in a single query.  Entities matched by their id only need their
+     * version.
+     */
+    private <T> void readStoredKeys(final List<T> entities, final List<DBObject> documents, final List<DBObject> filters,
+                                    final boolean[] byKey, final boolean[] inserted) {
+        final List<Integer> updated = new ArrayList<Integer>();
+        final List<DBObject> or = new ArrayList<DBObject>();
+        final BasicDBObject projection = new BasicDBObject(Mapper.ID_KEY, 1);
+        for (int i = 0; i < documents.size(); i++) {
+            final MappedClass mc = mapper.getMappedClass(entities.get(i));
+            final MappedField version = mc.getMappedVersionField();
+            if (!inserted[i] && (byKey[i] || version != null)) {
+                updated.add(i);
+                or.add(filters.get(i));
+                for (final String path : getKeyPaths(mc)) {
+                    projection.put(path, 1);
+                }
+                if (version != null) {
+                    projection.put(version.getNameToStore(), 1);
+                }
+            }
+        }
+        if (updated.isEmpty()) {
+            return;
+        }
+
+        final List<DBObject> stored = new ArrayList<DBObject>();
+        final Map<Object, DBObject> byId = new HashMap<Object, DBObject>();
+        final DBCursor cursor = dbColl.find(new BasicDBObject("$or", or), projection).setReadPreference(ReadPreference.primary());
+        try {
+            while (cursor.hasNext()) {
+                final DBObject document = cursor.next();
+                stored.add(document);
+                byId.put(document.get(Mapper.ID_KEY), document);
+            }
+        } finally {
+            cursor.close();
+        }
+
+        final Map<List<String>, Map<List<Object>, DBObject>> keyed = new HashMap<List<String>, Map<List<Object>, DBObject>>();
+        for (final Integer index : updated) {
+            final DBObject written = documents.get(index);
+            final MappedClass mc = mapper.getMappedClass(entities.get(index));
+            final DBObject document;
+            if (byKey[index]) {
+                document = getByKey(keyed, stored, getKeyPaths(mc)).get(getKeyValues(written, getKeyPaths(mc)));
+            } else {
+                document = byId.get(written.get(Mapper.ID_KEY));
+            }
+            if (document != null) {
+                written.put(Mapper.ID_KEY, document.get(Mapper.ID_KEY));
+                final MappedField version = mc.getMappedVersionField();
+                if (version != null) {
+                    written.put(version.getNameToStore(), document.get(version.getNameToStore()));
+                }
+            }
+        }
+    }
+
+    private static Map<List<Object>, DBObject> getByKey(final Map<List<String>, Map<List<Object>, DBObject>> byKey,
+                                                        final List<DBObject> stored, final String[] paths) {
+        final List<String> key = Arrays.asList(paths);
+        Map<List<Object>, DBObject> documents = byKey.get(key);
+        if (documents == null) {
+            documents = new HashMap<List<Object>, DBObject>();
+            for (final DBObject document : stored) {
+                documents.put(getKeyValues(document, paths), document);
+            }
+            byKey.put(key, documents);
+        }
+        return documents;
+    }
+
+    private String[] getKeyPaths(final MappedClass mc) {
+        String[] paths = keyPaths.get(mc);
+        if (paths == null) {
+            paths = new String[keyFields.length];
+            for (int i = 0; i < keyFields.length; i++) {
+                paths[i] = new PathTarget(mapper, mc, keyFields[i]).translatedPath();
+            }
+            keyPaths.put(mc, paths);
+        }
+        return paths;
+    }
+
+    private static List<Object> getKeyValues(final DBObject document, final String[] paths) {
+        final List<Object> values = new ArrayList<Object>();
+        for (final String path : paths) {
+            values.add(getPathValue(document, path));
+        }
+        return values;
+    }
+
+    private static Object getPathValue(final DBObject document, final String path) {
+        Object value = document;
+        for (final String name : path.split("\\.")) {
+            if (!(value instanceof DBObject)) {
+                return null;
+            }
+            value = ((DBObject) value).get(name);
+        }
+        return value;
+    }
+
+    /**
+     * Turns a mapped entity in to an update which makes the document it matches look as if the entity had been saved over it.  An id
+     * drawn from a sequence for an entity matched by its key fields is only stored if the document is inserted.
+     */
+    private static DBObject toUpdate(final MappedClass mc, final DBObject document, final boolean byKey) {
+        final MappedField version = mc.getMappedVersionField();
+        final String versionName = version != null ? version.getNameToStore() : null;
+        final BasicDBObject set = new BasicDBObject();
+        for (final String name : document.keySet()) {
+            if (!name.equals(Mapper.ID_KEY) && !name.equals(versionName)) {
+                set.put(name, document.get(name));
+            }
+        }
+        final BasicDBObject unset = new BasicDBObject();
+        for (final MappedField mf : mc.getPersistenceFields()) {
+            final String name = mf.getNameToStore();
+            if (!document.containsField(name) && !name.equals(Mapper.ID_KEY) && !name.equals(versionName)) {
+                unset.put(name, "");
+            }
+        }
+
+        final BasicDBObject update = new BasicDBObject("$set", set);
+        if (!unset.isEmpty()) {
+            update.put("$unset", unset);
+        }
+        if (byKey && document.get(Mapper.ID_KEY) != null) {
+            update.put("$setOnInsert", new BasicDBObject(Mapper.ID_KEY, document.get(Mapper.ID_KEY)));
+        }
+        if (versionName != null) {
+            update.put("$inc", new BasicDBObject(versionName, 1L));
+        }
+        return update;
+    }
+}
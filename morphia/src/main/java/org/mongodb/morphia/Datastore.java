@@ -22,6 +22,7 @@ import org.mongodb.morphia.query.UpdateResults;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 /**
@@ -56,6 +57,17 @@ public interface Datastore {
      */
     <T> UpdateOperations<T> createUpdateOperations(Class<T> clazz);
 
+    /**
+     * Starts an update which is validated and translated once and then executed many times with different values
+     *
+     * @param clazz the type to update
+     * @param <T>   the type to update
+     * @return the builder of the update
+     * @see PreparedUpdate
+     * @since 1.4
+     */
+    <T> PreparedUpdate.Builder<T> prepareUpdate(Class<T> clazz);
+
     /**
      * Deletes the given entity (by id)
      *
@@ -268,6 +280,16 @@ public interface Datastore {
      */
     Key<?> exists(Object keyOrEntity);
 
+    /**
+     * Checks which of the given keys have an entity in mongodb.  The keys are grouped by collection and each collection is queried for
+     * batches of ids at a time, reading only the ids back so the queries can be answered from the {@code _id} index alone.
+     *
+     * @param keys the keys to check for
+     * @return the keys which exist, in the order they were given
+     * @since 1.4
+     */
+    Set<Key<?>> exists(Iterable<? extends Key<?>> keys);
+
     /**
      * Find all instances by type
      *
@@ -481,6 +503,30 @@ public interface Datastore {
      */
     <T> long getCount(Query<T> query, CountOptions options);
 
+    /**
+     * Estimates the number of documents in the collection of a type from the collection's statistics rather than by counting them.  The
+     * estimate is read from metadata so its cost does not grow with the size of the collection, but it can be off after an unclean
+     * shutdown or while documents are being migrated between shards.  Estimates are reused for {@link
+     * org.mongodb.morphia.mapping.MapperOptions#setEstimatedCountTtl(long, java.util.concurrent.TimeUnit) a short while}.
+     *
+     * @param clazz the type to count
+     * @param <T>   the type to count
+     * @return the estimated count
+     * @since 1.4
+     */
+    <T> DocumentCount getEstimatedCount(Class<T> clazz);
+
+    /**
+     * Estimates the number of documents matching a query.  A query without a filter is estimated as {@link #getEstimatedCount(Class)}
+     * does, any other query is counted exactly and the result says so.
+     *
+     * @param query the query to filter the documents to count
+     * @param <T>   the type to count
+     * @return the count
+     * @since 1.4
+     */
+    <T> DocumentCount getEstimatedCount(Query<T> query);
+
     /**
      * @return the DB this Datastore uses
      */
@@ -629,6 +675,40 @@ public interface Datastore {
      */
     <T> Iterable<Key<T>> save(Iterable<T> entities, InsertOptions options);
 
+    /**
+     * Inserts the entities or updates the documents with the same values in the key fields, in bulk writes.  Each document matched is
+     * updated to hold the entity's mapped fields, removing those the entity does not map a value to, so it ends up as if the entity had
+     * been saved over it.  The ids of entities whose document was matched are read back from the database, as are the versions of
+     * versioned entities.  Upserts do not check the version an entity was loaded with.
+     * <p>
+     * An entity with an id is matched by its id, as {@link #save(Object)} does, and its key fields are updated like any other field.  An
+     * entity with no value for a key field is rejected, as are entities stored in different collections.  Entities with a
+     * {@link org.mongodb.morphia.annotations.Sequence} id and no value are matched by their key fields, and the id drawn for them is only
+     * kept if their document is inserted.
+     *
+     * @param entities  the entities to upsert
+     * @param keyFields the fields identifying the document of an entity
+     * @param <T>       the type of the entities
+     * @return the keys of the entities
+     * @since 1.4
+     */
+    <T> Iterable<Key<T>> upsertAll(Iterable<T> entities, String... keyFields);
+
+    /**
+     * Inserts the entities or updates the documents with the same values in the key fields, in bulk writes.  With an unacknowledged write
+     * concern the ids and versions of the entities are not updated and no keys are returned, except that entities with a
+     * {@link org.mongodb.morphia.annotations.Sequence} id keep the id drawn for them.
+     *
+     * @param entities  the entities to upsert
+     * @param options   the options to apply to the upserts
+     * @param keyFields the fields identifying the document of an entity
+     * @param <T>       the type of the entities
+     * @return the keys of the entities
+     * @see #upsertAll(Iterable, String...)
+     * @since 1.4
+     */
+    <T> Iterable<Key<T>> upsertAll(Iterable<T> entities, UpsertOptions options, String... keyFields);
+
     /**
      * Saves the entities (Objects) and updates the @Id field
      *
@@ -2,9 +2,11 @@ package org.mongodb.morphia;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.BasicDBObjectBuilder;
+import com.mongodb.BulkWriteResult;
 import com.mongodb.CommandResult;
 import com.mongodb.DB;
 import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
 import com.mongodb.DBDecoderFactory;
 import com.mongodb.DBObject;
 import com.mongodb.DBRef;
@@ -35,11 +37,18 @@ import org.mongodb.morphia.mapping.MappedField;
 import org.mongodb.morphia.mapping.Mapper;
 import org.mongodb.morphia.mapping.MappingException;
 import org.mongodb.morphia.mapping.cache.EntityCache;
+import org.mongodb.morphia.metrics.MetricsDBEncoder;
+import org.mongodb.morphia.metrics.MetricsListener;
+import org.mongodb.morphia.metrics.OperationType;
 import org.mongodb.morphia.mapping.lazy.proxy.ProxyHelper;
 import org.mongodb.morphia.query.CountOptions;
 import org.mongodb.morphia.query.DefaultQueryFactory;
+import org.mongodb.morphia.query.FindOptions;
+import org.mongodb.morphia.query.HedgedReads;
+import org.mongodb.morphia.query.InSplitter;
 import org.mongodb.morphia.query.Query;
 import org.mongodb.morphia.query.QueryException;
+import org.mongodb.morphia.query.QueryResultCache;
 import org.mongodb.morphia.query.QueryFactory;
 import org.mongodb.morphia.query.UpdateException;
 import org.mongodb.morphia.query.UpdateOperations;
@@ -51,11 +60,20 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static com.mongodb.BasicDBObject.parse;
 import static com.mongodb.BasicDBObjectBuilder.start;
@@ -73,15 +91,19 @@ import static java.util.Collections.singletonList;
 @SuppressWarnings("deprecation")
 public class DatastoreImpl implements AdvancedDatastore {
     private static final Logger LOG = MorphiaLoggerFactory.get(DatastoreImpl.class);
+    private static final int EXISTS_BATCH_SIZE = 1000;
 
     private final Morphia morphia;
     private final MongoClient mongoClient;
     private final MongoDatabase database;
     private final IndexHelper indexHelper;
+    private final ConcurrentMap<String, DocumentCount> estimatedCounts = new ConcurrentHashMap<String, DocumentCount>();
+    private final SequenceAllocator sequences = new SequenceAllocator(this);
     private DB db;
     private Mapper mapper;
     private WriteConcern defConcern;
     private DBDecoderFactory decoderFactory;
+    private ThreadPoolExecutor inSplitExecutor;
 
     private volatile QueryFactory queryFactory = new DefaultQueryFactory();
 
@@ -155,6 +177,11 @@ public class DatastoreImpl implements AdvancedDatastore {
         return newQuery(collection, getCollection(collection));
     }
 
+    @Override
+    public <T> PreparedUpdate.Builder<T> prepareUpdate(final Class<T> clazz) {
+        return new PreparedUpdate.Builder<T>(this, clazz);
+    }
+
     @Override
     public <T> UpdateOperations<T> createUpdateOperations(final Class<T> clazz) {
         return new UpdateOpsImpl<T>(clazz, getMapper());
@@ -173,7 +200,42 @@ public class DatastoreImpl implements AdvancedDatastore {
             throw new QueryException("Delete does not allow sort/offset/limit query options.");
         }
 
-        return dbColl.remove(query.getQueryObject(), enforceWriteConcern(options, query.getEntityClass()).getOptions());
+        final DBObject queryObject = query.getQueryObject();
+        final int maxInValues = mapper.getOptions().getMaxInValues();
+        final String splitField = maxInValues > 0 ? InSplitter.findSplitField(queryObject, maxInValues) : null;
+        final long start = System.nanoTime();
+        final WriteResult result;
+        if (splitField == null) {
+            result = dbColl.remove(queryObject, enforceWriteConcern(options, query.getEntityClass()).getOptions());
+        } else {
+            result = deleteSplit(dbColl, InSplitter.split(queryObject, splitField, maxInValues),
+                                 enforceWriteConcern(options, query.getEntityClass()));
+        }
+        recordWrite(OperationType.DELETE, dbColl, query.getEntityClass(), start, result, null);
+        return result;
+    }
+
+    /**
+     * Removes the documents matching each part of a split query concurrently
+     */
+    private WriteResult deleteSplit(final DBCollection dbColl, final List<DBObject> parts, final DeleteOptions options) {
+        final List<Callable<WriteResult>> tasks = new ArrayList<Callable<WriteResult>>();
+        for (final DBObject part : parts) {
+            tasks.add(new Callable<WriteResult>() {
+                @Override
+                public WriteResult call() {
+                    return dbColl.remove(part, options.getOptions());
+                }
+            });
+        }
+        int removed = 0;
+        for (final WriteResult result : InSplitter.invokeAll(getInSplitExecutor(), tasks)) {
+            if (!result.wasAcknowledged()) {
+                return WriteResult.unacknowledged();
+            }
+            removed += result.getN();
+        }
+        return new WriteResult(removed, false, null);
     }
 
     @Override
@@ -226,7 +288,8 @@ public class DatastoreImpl implements AdvancedDatastore {
             throw new MappingException("Did you mean to delete all documents? -- delete(ds.createQuery(???.class))");
         }
         try {
-            return delete(wrapped.getClass(), mapper.getId(wrapped), options);
+            final Query<?> query = createQuery(wrapped.getClass()).filter(Mapper.ID_KEY, mapper.getId(wrapped));
+            return delete(withShardKey(query, wrapped), options);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -305,6 +368,98 @@ public class DatastoreImpl implements AdvancedDatastore {
         return query.getKey();
     }
 
+    @Override
+    public Set<Key<?>> exists(final Iterable<? extends Key<?>> keys) {
+        return exists(keys, (EntityCache) null);
+    }
+
+    @Override
+    public Set<Key<?>> exists(final Iterable<? extends Key<?>> keys, final EntityCache cache) {
+        final List<Key<?>> ordered = new ArrayList<Key<?>>();
+        final Set<Key<?>> existing = new HashSet<Key<?>>();
+        final Map<String, List<Key<?>>> kindMap = new LinkedHashMap<String, List<Key<?>>>();
+        for (final Key<?> key : keys) {
+            if (key.getId() == null) {
+                throw new MappingException("Could not get id for " + key);
+            }
+            mapper.updateCollection(key);
+            ordered.add(key);
+
+            final Boolean known = cache != null ? cache.exists(key) : null;
+            if (known != null) {
+                if (known) {
+                    existing.add(key);
+                }
+            } else {
+                List<Key<?>> kindKeys = kindMap.get(key.getCollection());
+                if (kindKeys == null) {
+                    kindKeys = new ArrayList<Key<?>>();
+                    kindMap.put(key.getCollection(), kindKeys);
+                }
+                kindKeys.add(key);
+            }
+        }
+
+        for (final Entry<String, List<Key<?>>> entry : kindMap.entrySet()) {
+            final DBCollection dbColl = getCollection(entry.getKey());
+            final List<Key<?>> kindKeys = entry.getValue();
+            for (int from = 0; from < kindKeys.size(); from += EXISTS_BATCH_SIZE) {
+                findExisting(dbColl, kindKeys.subList(from, Math.min(from + EXISTS_BATCH_SIZE, kindKeys.size())), existing, cache);
+            }
+        }
+
+        final Set<Key<?>> found = new LinkedHashSet<Key<?>>();
+        for (final Key<?> key : ordered) {
+            if (existing.contains(key)) {
+                found.add(key);
+            }
+        }
+        return found;
+    }
+
+    private void findExisting(final DBCollection dbColl, final List<Key<?>> keys, final Set<Key<?>> existing, final EntityCache cache) {
+        final Map<Object, List<Key<?>>> byId = new HashMap<Object, List<Key<?>>>();
+        for (final Key<?> key : keys) {
+            final MappedClass mc = key.getType() != null ? mapper.getMappedClass(key.getType()) : null;
+            final Object id = mapper.toMongoObject(mc != null ? mc.getMappedIdField() : null, null, key.getId());
+            List<Key<?>> idKeys = byId.get(id);
+            if (idKeys == null) {
+                idKeys = new ArrayList<Key<?>>();
+                byId.put(id, idKeys);
+            }
+            idKeys.add(key);
+        }
+
+        final long start = System.nanoTime();
+        final DBObject filter = new BasicDBObject(Mapper.ID_KEY, new BasicDBObject("$in", new ArrayList<Object>(byId.keySet())));
+        final DBCursor cursor = dbColl.find(filter, new BasicDBObject(Mapper.ID_KEY, 1))
+                                      .batchSize(byId.size());
+        try {
+            while (cursor.hasNext()) {
+                final List<Key<?>> found = byId.remove(cursor.next().get(Mapper.ID_KEY));
+                if (found != null) {
+                    existing.addAll(found);
+                    notifyExists(cache, found, true);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        recordDriverTime(OperationType.QUERY, dbColl, keys.get(0).getType(), start);
+
+        for (final List<Key<?>> missing : byId.values()) {
+            notifyExists(cache, missing, false);
+        }
+    }
+
+    private void notifyExists(final EntityCache cache, final List<Key<?>> keys, final boolean exists) {
+        if (cache != null) {
+            for (final Key<?> key : keys) {
+                cache.notifyExists(key, exists);
+            }
+        }
+    }
+
     @Override
     public <T> Query<T> find(final Class<T> clazz) {
         return createQuery(clazz);
@@ -350,9 +505,11 @@ public class DatastoreImpl implements AdvancedDatastore {
             .upsert(false)
             .remove(true);
 
-        final DBObject result = dbColl.findAndModify(query.getQueryObject(), copy.getOptions());
+        final DBObject queryObject = query.getQueryObject();
+        final long start = System.nanoTime();
+        final DBObject result = dbColl.findAndModify(queryObject, copy.getOptions());
 
-        return result == null ? null : mapper.fromDBObject(this, query.getEntityClass(), result, createCache());
+        return fromFindAndModify(dbColl, query.getEntityClass(), result, start);
     }
 
     @Override
@@ -368,16 +525,33 @@ public class DatastoreImpl implements AdvancedDatastore {
         }
 
         updateForVersioning(query, operations);
-        DBObject res = dbColl.findAndModify(query.getQueryObject(), options.copy()
-                                                                           .sort(query.getSortObject())
-                                                                           .projection(query.getFieldsObject())
-                                                                           .update(((UpdateOpsImpl<T>) operations).getOps())
-                                           .getOptions());
+        final DBObject queryObject = query.getQueryObject();
+        final long start = System.nanoTime();
+        DBObject res = dbColl.findAndModify(queryObject, options.copy()
+                                                                .sort(query.getSortObject())
+                                                                .projection(query.getFieldsObject())
+                                                                .update(((UpdateOpsImpl<T>) operations).getOps())
+                                                                .getOptions());
 
-        return res == null ? null : mapper.fromDBObject(this, query.getEntityClass(), res, createCache());
+        return fromFindAndModify(dbColl, query.getEntityClass(), res, start);
 
     }
 
+    private <T> T fromFindAndModify(final DBCollection dbColl, final Class<T> type, final DBObject result, final long start) {
+        invalidateResults(dbColl);
+        final MetricsListener metrics = getMetricsListener();
+        if (metrics == null) {
+            return result == null ? null : mapper.fromDBObject(this, type, result, createCache());
+        }
+
+        final long mapping = System.nanoTime();
+        metrics.driverTime(OperationType.FIND_AND_MODIFY, dbColl.getName(), type, mapping - start);
+        final T entity = result == null ? null : mapper.fromDBObject(this, type, result, createCache());
+        metrics.mappingTime(OperationType.FIND_AND_MODIFY, dbColl.getName(), type, System.nanoTime() - mapping);
+        metrics.documentsRead(OperationType.FIND_AND_MODIFY, dbColl.getName(), type, result == null ? 0 : 1, 0);
+        return entity;
+    }
+
     @Override
     public <T> T findAndModify(final Query<T> query, final UpdateOperations<T> operations) {
         return findAndModify(query, operations, new FindAndModifyOptions()
@@ -418,7 +592,7 @@ public class DatastoreImpl implements AdvancedDatastore {
 
     @Override
     public <T, V> T get(final Class<T> clazz, final V id) {
-        return find(getCollection(clazz).getName(), clazz, Mapper.ID_KEY, id, 0, 1, true).get();
+        return getOne(find(getCollection(clazz).getName(), clazz, Mapper.ID_KEY, id, 0, 1, true));
     }
 
     @Override
@@ -429,7 +603,23 @@ public class DatastoreImpl implements AdvancedDatastore {
         if (id == null) {
             throw new MappingException("Could not get id for " + unwrapped.getClass().getName());
         }
-        return (T) get(unwrapped.getClass(), id);
+        final Class<?> type = unwrapped.getClass();
+        return (T) getOne(withShardKey(find(getCollection(type).getName(), type, Mapper.ID_KEY, id, 0, 1, true), unwrapped));
+    }
+
+    /**
+     * Reads the single result of a query, hedging the read if so configured
+     */
+    private <T> T getOne(final Query<T> query) {
+        final HedgedReads hedgedReads = mapper.getOptions().getHedgedReads();
+        if (hedgedReads == null || !hedgedReads.isHedgeGets()) {
+            return query.get();
+        }
+        final MappedClass mc = mapper.getMappedClass(query.getEntityClass());
+        final Entity entity = mc != null ? mc.getEntityAnnotation() : null;
+        return query.get(new FindOptions()
+                             .hedge(true)
+                             .readPreference(entity != null && entity.queryNonPrimary() ? ReadPreference.secondaryPreferred() : null));
     }
 
     @Override
@@ -536,6 +726,20 @@ public class DatastoreImpl implements AdvancedDatastore {
         return query.count(options);
     }
 
+    @Override
+    public <T> DocumentCount getEstimatedCount(final Class<T> clazz) {
+        return getEstimatedCount(getCollection(clazz), clazz);
+    }
+
+    @Override
+    public <T> DocumentCount getEstimatedCount(final Query<T> query) {
+        final DBObject filter = query.getQueryObject();
+        if (filter == null || filter.keySet().isEmpty()) {
+            return getEstimatedCount(query.getCollection(), query.getEntityClass());
+        }
+        return new DocumentCount(query.count(), false, System.nanoTime());
+    }
+
     @Override
     public DB getDB() {
         return db;
@@ -572,6 +776,24 @@ public class DatastoreImpl implements AdvancedDatastore {
         return queryFactory;
     }
 
+    @Override
+    public SequenceAllocator getSequenceAllocator() {
+        return sequences;
+    }
+
+    /**
+     * @return the pool, created on first use, which runs the parts of split queries on
+     * {@link org.mongodb.morphia.mapping.MapperOptions#getInSplitThreads()} threads
+     * @since 1.4
+     */
+    public synchronized ExecutorService getInSplitExecutor() {
+        if (inSplitExecutor == null) {
+            inSplitExecutor = InSplitter.newExecutor(mapper.getOptions().getInSplitThreads());
+        }
+        InSplitter.resize(inSplitExecutor, mapper.getOptions().getInSplitThreads());
+        return inSplitExecutor;
+    }
+
     @Override
     public void setQueryFactory(final QueryFactory queryFactory) {
         this.queryFactory = queryFactory;
@@ -582,7 +804,10 @@ public class DatastoreImpl implements AdvancedDatastore {
         DBCollection collection = options.getQuery().getCollection();
 
         final EntityCache cache = createCache();
-        MapreduceResults<T> results = new MapreduceResults<T>(collection.mapReduce(options.toCommand(getMapper())));
+        final MapReduceCommand command = options.toCommand(getMapper());
+        final long start = System.nanoTime();
+        MapreduceResults<T> results = new MapreduceResults<T>(collection.mapReduce(command));
+        recordDriverTime(OperationType.MAP_REDUCE, collection, options.getResultType(), start);
 
         results.setOutputType(options.getOutputType());
 
@@ -660,7 +885,9 @@ public class DatastoreImpl implements AdvancedDatastore {
         }
 
         final EntityCache cache = createCache();
+        final long start = System.nanoTime();
         MapreduceResults<T> results = new MapreduceResults<T>(dbColl.mapReduce(baseCommand));
+        recordDriverTime(OperationType.MAP_REDUCE, dbColl, outputType, start);
 
         results.setType(type);
         if (MapreduceType.INLINE.equals(type)) {
@@ -683,7 +910,7 @@ public class DatastoreImpl implements AdvancedDatastore {
     public <T> Key<T> merge(final T entity, final WriteConcern wc) {
         T unwrapped = entity;
         final LinkedHashMap<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
-        final DBObject dbObj = mapper.toDBObject(unwrapped, involvedObjects);
+        final DBObject dbObj = mapper.toDBObject(unwrapped, involvedObjects, OperationType.UPDATE);
         final Key<T> key = mapper.getKey(unwrapped);
         unwrapped = ProxyHelper.unwrap(unwrapped);
         final Object id = mapper.getId(unwrapped);
@@ -704,7 +931,7 @@ public class DatastoreImpl implements AdvancedDatastore {
         wr = tryVersionedUpdate(dbColl, unwrapped, dbObj, idValue, new InsertOptions().writeConcern(wc), mc);
 
         if (wr == null) {
-            final Query<T> query = (Query<T>) createQuery(unwrapped.getClass()).filter(Mapper.ID_KEY, id);
+            final Query<T> query = (Query<T>) withShardKey(createQuery(unwrapped.getClass()).filter(Mapper.ID_KEY, id), mc, dbObj);
             wr = update(query, new BasicDBObject("$set", dbObj), false, false, wc).getWriteResult();
         }
 
@@ -715,7 +942,7 @@ public class DatastoreImpl implements AdvancedDatastore {
         }
 
         dbObj.put(Mapper.ID_KEY, idValue);
-        postSaveOperations(Collections.<Object>singletonList(entity), involvedObjects, dbColl, false);
+        postSaveOperations(Collections.<Object>singletonList(entity), involvedObjects, dbColl, OperationType.UPDATE, false);
         return key;
     }
 
@@ -739,12 +966,27 @@ public class DatastoreImpl implements AdvancedDatastore {
 
     @Override
     public <T> Iterable<Key<T>> save(final Iterable<T> entities, final InsertOptions options) {
-        final List<Key<T>> savedKeys = new ArrayList<Key<T>>();
-        for (final T ent : entities) {
-            savedKeys.add(save(ent, options));
+        sequences.assignIds(entities);
+        try {
+            preBatchPersist(entities);
+            final List<Key<T>> savedKeys = new ArrayList<Key<T>>();
+            for (final T ent : entities) {
+                savedKeys.add(save(ent, options));
+            }
+            return savedKeys;
+        } finally {
+            postBatchPersist(entities);
         }
-        return savedKeys;
+    }
 
+    @Override
+    public <T> Iterable<Key<T>> upsertAll(final Iterable<T> entities, final String... keyFields) {
+        return upsertAll(entities, new UpsertOptions(), keyFields);
+    }
+
+    @Override
+    public <T> Iterable<Key<T>> upsertAll(final Iterable<T> entities, final UpsertOptions options, final String... keyFields) {
+        return new BulkUpsert(this, options, keyFields).upsert(entities);
     }
 
     @Override
@@ -786,6 +1028,7 @@ public class DatastoreImpl implements AdvancedDatastore {
         Query<?> query = createQuery(mapper.getMappedClass(entity).getClazz())
             .disableValidation()
             .filter(Mapper.ID_KEY, mapper.getId(entity));
+        withShardKey(query, entity);
         if (!mc.getFieldsAnnotatedWith(Version.class).isEmpty()) {
             final MappedField field = mc.getFieldsAnnotatedWith(Version.class).get(0);
             query.field(field.getNameToStore()).equal(field.getFieldValue(entity));
@@ -861,7 +1104,7 @@ public class DatastoreImpl implements AdvancedDatastore {
         }
 
         final LinkedHashMap<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
-        final DBObject dbObj = mapper.toDBObject(entity, involvedObjects);
+        final DBObject dbObj = mapper.toDBObject(entity, involvedObjects, OperationType.UPDATE);
 
         final UpdateResults res = update(query, dbObj, createIfMissing, false, getWriteConcern(entity));
 
@@ -870,7 +1113,7 @@ public class DatastoreImpl implements AdvancedDatastore {
             dbObj.put(Mapper.ID_KEY, res.getNewId());
         }
 
-        postSaveOperations(singletonList(entity), involvedObjects, getCollection(entity), false);
+        postSaveOperations(singletonList(entity), involvedObjects, getCollection(entity), OperationType.UPDATE, false);
         return res;
     }
 
@@ -1037,6 +1280,11 @@ public class DatastoreImpl implements AdvancedDatastore {
         return getCollection(collection).count();
     }
 
+    @Override
+    public DocumentCount getEstimatedCount(final String collection) {
+        return getEstimatedCount(getCollection(collection), null);
+    }
+
     @Override
     public DBDecoderFactory getDecoderFact() {
         return decoderFactory != null ? decoderFactory : DefaultDBDecoder.FACTORY;
@@ -1230,11 +1478,20 @@ public class DatastoreImpl implements AdvancedDatastore {
     }
 
     protected <T> Key<T> insert(final DBCollection dbColl, final T entity, final InsertOptions options) {
+        sequences.assignIds(singletonList(entity));
         final LinkedHashMap<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
-        dbColl.insert(singletonList(entityToDBObj(entity, involvedObjects)), enforceWriteConcern(options, entity.getClass())
-            .getOptions());
+        final MetricsListener metrics = getMetricsListener();
+        final long start = metrics != null ? System.nanoTime() : 0;
+        final List<DBObject> documents = singletonList(entityToDBObj(entity, involvedObjects, OperationType.INSERT));
+        recordMappingTime(OperationType.INSERT, dbColl, entity.getClass(), start);
 
-        return postSaveOperations(singletonList(entity), involvedObjects, dbColl).get(0);
+        final MetricsDBEncoder encoder = metrics != null ? new MetricsDBEncoder() : null;
+        final long driverStart = System.nanoTime();
+        final WriteResult result = dbColl.insert(documents, withEncoder(enforceWriteConcern(options, entity.getClass()).getOptions(),
+                                                                        encoder));
+        recordWrite(OperationType.INSERT, dbColl, entity.getClass(), driverStart, result, encoder);
+
+        return postSaveOperations(singletonList(entity), involvedObjects, dbColl, OperationType.INSERT).get(0);
     }
 
     <T> FindAndModifyOptions enforceWriteConcern(final FindAndModifyOptions options, final Class<T> klass) {
@@ -1284,31 +1541,47 @@ public class DatastoreImpl implements AdvancedDatastore {
                                               mc.getClazz().getName()));
         }
 
+        sequences.assignIds(singletonList(entity));
         // involvedObjects is used not only as a cache but also as a list of what needs to be called for life-cycle methods at the end.
         final LinkedHashMap<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
-        final DBObject document = entityToDBObj(entity, involvedObjects);
+        final long start = System.nanoTime();
+        final DBObject document = entityToDBObj(entity, involvedObjects, OperationType.SAVE);
+        recordMappingTime(OperationType.SAVE, dbColl, entity.getClass(), start);
 
         // try to do an update if there is a @Version field
         final Object idValue = document.get(Mapper.ID_KEY);
         WriteResult wr = tryVersionedUpdate(dbColl, entity, document, idValue, enforceWriteConcern(options, entity.getClass()), mc);
 
         if (wr == null) {
-            saveDocument(dbColl, document, options);
+            saveDocument(dbColl, entity.getClass(), document, options);
         }
 
-        return postSaveOperations(singletonList(entity), involvedObjects, dbColl).get(0);
+        return postSaveOperations(singletonList(entity), involvedObjects, dbColl, OperationType.SAVE).get(0);
     }
 
-    private WriteResult saveDocument(final DBCollection dbColl, final DBObject document, final InsertOptions options) {
+    private WriteResult saveDocument(final DBCollection dbColl, final Class<?> type, final DBObject document, final InsertOptions options) {
+        final MetricsDBEncoder encoder = getMetricsListener() != null ? new MetricsDBEncoder() : null;
+        final long start = System.nanoTime();
+        final WriteResult result;
         if (document.get(ID_FIELD_NAME) == null) {
-            return dbColl.insert(singletonList(document), options.getOptions());
+            result = dbColl.insert(singletonList(document), withEncoder(options.getOptions(), encoder));
         } else {
-            return dbColl.update(new BasicDBObject(ID_FIELD_NAME, document.get(ID_FIELD_NAME)), document,
+            final BasicDBObject filter = new BasicDBObject(ID_FIELD_NAME, document.get(ID_FIELD_NAME));
+            for (final MappedField mf : mapper.getMappedClass(type).getShardKeyFields()) {
+                final Object value = document.get(mf.getNameToStore());
+                if (value != null) {
+                    filter.put(mf.getNameToStore(), value);
+                }
+            }
+            result = dbColl.update(filter, document,
                           new DBCollectionUpdateOptions()
                               .bypassDocumentValidation(options.getBypassDocumentValidation())
                               .writeConcern(options.getWriteConcern())
+                              .encoder(encoder)
                               .upsert(true));
         }
+        recordWrite(OperationType.SAVE, dbColl, type, start, result, encoder);
+        return result;
     }
 
     private <T> WriteResult tryVersionedUpdate(final DBCollection dbColl, final T entity, final DBObject dbObj, final Object idValue,
@@ -1333,6 +1606,7 @@ public class DatastoreImpl implements AdvancedDatastore {
                 .filter(Mapper.ID_KEY, idValue)
                 .enableValidation()
                 .filter(versionKeyName, oldVersion);
+            withShardKey(query, mc, dbObj);
             final UpdateResults res = update(query, dbObj, new UpdateOptions()
                 .bypassDocumentValidation(options.getBypassDocumentValidation())
                 .writeConcern(options.getWriteConcern()));
@@ -1344,7 +1618,7 @@ public class DatastoreImpl implements AdvancedDatastore {
                                                                  entity.getClass().getName(), idValue, oldVersion));
             }
         } else {
-            wr = saveDocument(dbColl, dbObj, options);
+            wr = saveDocument(dbColl, entity.getClass(), dbObj, options);
         }
 
         return wr;
@@ -1361,12 +1635,38 @@ public class DatastoreImpl implements AdvancedDatastore {
         return find(key.getCollection(), key.getType()).filter(Mapper.ID_KEY, key.getId());
     }
 
+    /**
+     * Adds the shard key of an entity to a query on it so that mongos can send the query to the one shard holding the entity.
+     */
+    private <Q extends Query<?>> Q withShardKey(final Q query, final Object entity) {
+        for (final MappedField mf : mapper.getMappedClass(entity).getShardKeyFields()) {
+            final Object value = mf.getFieldValue(entity);
+            if (value != null) {
+                query.filter(mf.getNameToStore(), value);
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Adds the shard key of an entity to a query on it, reading the values from the entity's mapped document.
+     */
+    private <Q extends Query<?>> Q withShardKey(final Q query, final MappedClass mc, final DBObject document) {
+        for (final MappedField mf : mc.getShardKeyFields()) {
+            final Object value = document.get(mf.getNameToStore());
+            if (value != null) {
+                query.disableValidation().filter(mf.getNameToStore(), value).enableValidation();
+            }
+        }
+        return query;
+    }
+
     private EntityCache createCache() {
         return mapper.createEntityCache();
     }
 
-    private DBObject entityToDBObj(final Object entity, final Map<Object, DBObject> involvedObjects) {
-        return mapper.toDBObject(ProxyHelper.unwrap(entity), involvedObjects);
+    DBObject entityToDBObj(final Object entity, final Map<Object, DBObject> involvedObjects, final OperationType operation) {
+        return mapper.toDBObject(ProxyHelper.unwrap(entity), involvedObjects, operation);
     }
 
     private <T> Iterable<Key<T>> insert(final DBCollection dbColl, final Iterable<T> entities, final InsertOptions options) {
@@ -1374,18 +1674,49 @@ public class DatastoreImpl implements AdvancedDatastore {
             return Collections.emptyList();
         }
 
-        final Map<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
-        final List<DBObject> list = new ArrayList<DBObject>();
-        com.mongodb.InsertOptions insertOptions = options.getOptions();
-        for (final T entity : entities) {
-            if (options.getWriteConcern() == null) {
-                insertOptions = enforceWriteConcern(options, entity.getClass()).getOptions();
+        sequences.assignIds(entities);
+        try {
+            preBatchPersist(entities);
+            final Map<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
+            final List<DBObject> list = new ArrayList<DBObject>();
+            com.mongodb.InsertOptions insertOptions = options.getOptions();
+            final MetricsListener metrics = getMetricsListener();
+            final long start = metrics != null ? System.nanoTime() : 0;
+            Class<?> type = null;
+            for (final T entity : entities) {
+                if (options.getWriteConcern() == null) {
+                    insertOptions = enforceWriteConcern(options, entity.getClass()).getOptions();
+                }
+                type = entity.getClass();
+                list.add(toDbObject(entity, involvedObjects));
+            }
+            recordMappingTime(OperationType.INSERT, dbColl, type, start);
+
+            final MetricsDBEncoder encoder = metrics != null ? new MetricsDBEncoder() : null;
+            final long driverStart = System.nanoTime();
+            final WriteResult result = dbColl.insert(list, withEncoder(insertOptions, encoder));
+            recordWrite(OperationType.INSERT, dbColl, type, driverStart, result, encoder);
+
+            return postSaveOperations(entities, involvedObjects, dbColl, OperationType.INSERT);
+        } finally {
+            postBatchPersist(entities);
+        }
+    }
+
+    void preBatchPersist(final Iterable<?> entities) {
+        for (final EntityInterceptor interceptor : mapper.getInterceptors()) {
+            if (interceptor instanceof BatchEntityInterceptor) {
+                ((BatchEntityInterceptor) interceptor).preBatchPersist(entities, mapper);
             }
-            list.add(toDbObject(entity, involvedObjects));
         }
-        dbColl.insert(list, insertOptions);
+    }
 
-        return postSaveOperations(entities, involvedObjects, dbColl);
+    void postBatchPersist(final Iterable<?> entities) {
+        for (final EntityInterceptor interceptor : mapper.getInterceptors()) {
+            if (interceptor instanceof BatchEntityInterceptor) {
+                ((BatchEntityInterceptor) interceptor).postBatchPersist(entities, mapper);
+            }
+        }
     }
 
     /**
@@ -1411,13 +1742,13 @@ public class DatastoreImpl implements AdvancedDatastore {
     }
 
     private <T> List<Key<T>> postSaveOperations(final Iterable<T> entities, final Map<Object, DBObject> involvedObjects,
-                                                final DBCollection collection) {
-        return postSaveOperations(entities, involvedObjects, collection, true);
+                                                final DBCollection collection, final OperationType operation) {
+        return postSaveOperations(entities, involvedObjects, collection, operation, true);
     }
 
     @SuppressWarnings("unchecked")
-    private <T> List<Key<T>> postSaveOperations(final Iterable<T> entities, final Map<Object, DBObject> involvedObjects,
-                                                final DBCollection collection, final boolean fetchKeys) {
+    <T> List<Key<T>> postSaveOperations(final Iterable<T> entities, final Map<Object, DBObject> involvedObjects,
+                                        final DBCollection collection, final OperationType operation, final boolean fetchKeys) {
         List<Key<T>> keys = new ArrayList<Key<T>>();
         for (final T entity : entities) {
             final DBObject dbObj = involvedObjects.remove(entity);
@@ -1429,12 +1760,12 @@ public class DatastoreImpl implements AdvancedDatastore {
                 mapper.updateKeyAndVersionInfo(this, dbObj, createCache(), entity);
                 keys.add(new Key<T>((Class<? extends T>) entity.getClass(), collection.getName(), mapper.getId(entity)));
             }
-            mapper.getMappedClass(entity).callLifecycleMethods(PostPersist.class, entity, dbObj, mapper);
+            mapper.getMappedClass(entity).callLifecycleMethods(PostPersist.class, entity, dbObj, mapper, operation);
         }
 
         for (Entry<Object, DBObject> entry : involvedObjects.entrySet()) {
             final Object key = entry.getKey();
-            mapper.getMappedClass(key).callLifecycleMethods(PostPersist.class, key, entry.getValue(), mapper);
+            mapper.getMappedClass(key).callLifecycleMethods(PostPersist.class, key, entry.getValue(), mapper, operation);
 
         }
         return keys;
@@ -1444,7 +1775,7 @@ public class DatastoreImpl implements AdvancedDatastore {
     private <T> Query<T> queryByExample(final DBCollection coll, final T example) {
         // TODO: think about remove className from baseQuery param below.
         final Class<T> type = (Class<T>) example.getClass();
-        final DBObject query = entityToDBObj(example, new HashMap<Object, DBObject>());
+        final DBObject query = entityToDBObj(example, new HashMap<Object, DBObject>(), OperationType.QUERY);
         return newQuery(type, coll, query);
     }
 
@@ -1454,7 +1785,7 @@ public class DatastoreImpl implements AdvancedDatastore {
             throw new MappingException(format("Entity type: %s is marked as NotSaved which means you should not try to save it!",
                                               mc.getClazz().getName()));
         }
-        DBObject dbObject = entityToDBObj(ent, involvedObjects);
+        DBObject dbObject = entityToDBObj(ent, involvedObjects, OperationType.INSERT);
         List<MappedField> versionFields = mc.getFieldsAnnotatedWith(Version.class);
         for (MappedField mappedField : versionFields) {
             String name = mappedField.getNameToStore();
@@ -1487,14 +1818,20 @@ public class DatastoreImpl implements AdvancedDatastore {
         }
 
         final BasicDBObject update = (BasicDBObject) ((UpdateOpsImpl) operations).getOps();
+        return update(dbColl, query.getEntityClass(), queryObject, update, enforceWriteConcern(options, query.getEntityClass()));
+    }
+
+    <T> UpdateResults update(final DBCollection dbColl, final Class<T> type, final DBObject queryObject, final DBObject update,
+                             final UpdateOptions options) {
         if (LOG.isTraceEnabled()) {
             LOG.trace(format("Executing update(%s) for query: %s, ops: %s, multi: %s, upsert: %s",
                              dbColl.getName(), queryObject, update, options.isMulti(), options.isUpsert()));
         }
 
-        return new UpdateResults(dbColl.update(queryObject, update,
-                                               enforceWriteConcern(options, query.getEntityClass())
-                                                   .getOptions()));
+        final long start = System.nanoTime();
+        final WriteResult result = dbColl.update(queryObject, update, options.getOptions());
+        recordWrite(OperationType.UPDATE, dbColl, type, start, result, null);
+        return new UpdateResults(result);
     }
 
     @SuppressWarnings("unchecked")
@@ -1540,14 +1877,98 @@ public class DatastoreImpl implements AdvancedDatastore {
             }
         }
 
-        if (LOG.isTraceEnabled()) {
-            LOG.trace(format("Executing update(%s) for query: %s, ops: %s, multi: %s, upsert: %s",
-                             dbColl.getName(), queryObject, update, options.isMulti(), options.isUpsert()));
+        return update(dbColl, query.getEntityClass(), queryObject, update, enforceWriteConcern(options, query.getEntityClass()));
+    }
+
+    private DocumentCount getEstimatedCount(final DBCollection dbColl, final Class<?> type) {
+        final String key = dbColl.getFullName();
+        final long ttl = mapper.getOptions().getEstimatedCountTtl(TimeUnit.NANOSECONDS);
+        final DocumentCount cached = estimatedCounts.get(key);
+        if (cached != null && System.nanoTime() - cached.getReadAt() < ttl) {
+            return cached;
+        }
+
+        final long start = System.nanoTime();
+        final CommandResult stats = dbColl.getDB().command(new BasicDBObject("collStats", dbColl.getName()), dbColl.getReadPreference());
+        final DocumentCount count;
+        if (stats.ok()) {
+            final Object value = stats.get("count");
+            count = new DocumentCount(value instanceof Number ? ((Number) value).longValue() : 0, true, start);
+        } else if (stats.getErrorMessage() != null && stats.getErrorMessage().contains("not found")) {
+            // collStats fails for collections which do not exist yet rather than reporting them empty
+            count = new DocumentCount(0, true, start);
+        } else {
+            LOG.debug(format("collStats failed for %s, counting the documents: %s", key, stats.getErrorMessage()));
+            count = new DocumentCount(dbColl.count(), false, start);
+        }
+        recordDriverTime(OperationType.COUNT, dbColl, type, start);
+
+        if (ttl > 0 && count.isEstimated()) {
+            estimatedCounts.put(key, count);
+        }
+        return count;
+    }
+
+    private MetricsListener getMetricsListener() {
+        return mapper.getOptions().getMetricsListener();
+    }
+
+    private void recordDriverTime(final OperationType operation, final DBCollection dbColl, final Class<?> type, final long start) {
+        final MetricsListener metrics = getMetricsListener();
+        if (metrics != null) {
+            metrics.driverTime(operation, dbColl.getName(), type, System.nanoTime() - start);
+        }
+    }
+
+    void recordMappingTime(final OperationType operation, final DBCollection dbColl, final Class<?> type, final long start) {
+        final MetricsListener metrics = getMetricsListener();
+        if (metrics != null) {
+            metrics.mappingTime(operation, dbColl.getName(), type, System.nanoTime() - start);
+        }
+    }
+
+    private void recordWrite(final OperationType operation, final DBCollection dbColl, final Class<?> type, final long start,
+                             final WriteResult result, final MetricsDBEncoder encoder) {
+        invalidateResults(dbColl);
+        final MetricsListener metrics = getMetricsListener();
+        if (metrics != null) {
+            metrics.driverTime(operation, dbColl.getName(), type, System.nanoTime() - start);
+            final long documents = encoder != null
+                                   ? encoder.getDocuments()
+                                   : result.wasAcknowledged() ? result.getN() : 0;
+            metrics.documentsWritten(operation, dbColl.getName(), type, documents, encoder != null ? encoder.getBytes() : 0);
         }
+    }
+
+    void recordWrite(final OperationType operation, final DBCollection dbColl, final Class<?> type, final long start,
+                     final BulkWriteResult result) {
+        invalidateResults(dbColl);
+        final MetricsListener metrics = getMetricsListener();
+        if (metrics != null) {
+            metrics.driverTime(operation, dbColl.getName(), type, System.nanoTime() - start);
+            if (result.isAcknowledged()) {
+                final long documents = result.getModifiedCount() + result.getUpserts().size();
+                metrics.documentsWritten(operation, dbColl.getName(), type, documents, 0);
+            }
+        }
+    }
 
-        return new UpdateResults(dbColl.update(queryObject, update,
-                                               enforceWriteConcern(options, query.getEntityClass())
-                                                   .getOptions()));
+    void invalidateResults(final DBCollection dbColl) {
+        final QueryResultCache resultCache = mapper.getOptions().getQueryResultCache();
+        if (resultCache != null) {
+            resultCache.invalidate(dbColl.getFullName());
+        }
+    }
+
+    private com.mongodb.InsertOptions withEncoder(final com.mongodb.InsertOptions options, final MetricsDBEncoder encoder) {
+        if (encoder == null) {
+            return options;
+        }
+        return new com.mongodb.InsertOptions()
+            .writeConcern(options.getWriteConcern())
+            .continueOnError(options.isContinueOnError())
+            .bypassDocumentValidation(options.getBypassDocumentValidation())
+            .dbEncoder(encoder);
     }
 
     /**
@@ -1555,7 +1976,7 @@ public class DatastoreImpl implements AdvancedDatastore {
      *
      * @param clazzOrEntity the class or entity to use when looking up the WriteConcern
      */
-    private WriteConcern getWriteConcern(final Object clazzOrEntity) {
+    WriteConcern getWriteConcern(final Object clazzOrEntity) {
         WriteConcern wc = defConcern;
         if (clazzOrEntity != null) {
             final Entity entityAnn = getMapper().getMappedClass(clazzOrEntity).getEntityAnnotation();
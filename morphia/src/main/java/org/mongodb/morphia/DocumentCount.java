@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A number of documents, either counted exactly or estimated from the statistics of a collection.
+ *
+ * @see Datastore#getEstimatedCount(Class)
+ * @since 1.4
+ */
+public final class DocumentCount {
+    private final long count;
+    private final boolean estimated;
+    private final long readAt;
+
+    DocumentCount(final long count, final boolean estimated, final long readAt) {
+        this.count = count;
+        this.estimated = estimated;
+        this.readAt = readAt;
+    }
+
+    /**
+     * @return the number of documents
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return true if the count was read from the collection's statistics, false if the documents were counted
+     */
+    public boolean isEstimated() {
+        return estimated;
+    }
+
+    /**
+     * @return true if the documents were counted
+     */
+    public boolean isExact() {
+        return !estimated;
+    }
+
+    /**
+     * Estimates may be served from a cache so they can be older than the call which returned them.
+     *
+     * @param unit the unit of the result
+     * @return the time since the count was read from the server
+     */
+    public long getAge(final TimeUnit unit) {
+        return unit.convert(System.nanoTime() - readAt, TimeUnit.NANOSECONDS);
+    }
+
+    long getReadAt() {
+        return readAt;
+    }
+
+    @Override
+    public String toString() {
+        return (estimated ? "~" : "") + count;
+    }
+}
@@ -21,6 +21,7 @@ import org.mongodb.morphia.annotations.Embedded;
 import org.mongodb.morphia.annotations.Entity;
 import org.mongodb.morphia.logging.Logger;
 import org.mongodb.morphia.logging.MorphiaLoggerFactory;
+import org.mongodb.morphia.mapping.EntityIndex;
 import org.mongodb.morphia.mapping.Mapper;
 import org.mongodb.morphia.mapping.MappingException;
 import org.mongodb.morphia.mapping.cache.EntityCache;
@@ -28,7 +29,11 @@ import org.mongodb.morphia.utils.ReflectionUtils;
 
 import java.io.IOException;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 
@@ -195,11 +200,7 @@ public class Morphia {
      */
     public synchronized Morphia map(final Class... entityClasses) {
         if (entityClasses != null && entityClasses.length > 0) {
-            for (final Class entityClass : entityClasses) {
-                if (!mapper.isMapped(entityClass)) {
-                    mapper.addMappedClass(entityClass);
-                }
-            }
+            map(new LinkedHashSet<Class>(Arrays.asList(entityClasses)));
         }
         return this;
     }
@@ -212,6 +213,10 @@ public class Morphia {
      */
     public synchronized Morphia map(final Set<Class> entityClasses) {
         if (entityClasses != null && !entityClasses.isEmpty()) {
+            if (mapper.getOptions().getParallelMappingThreads() > 1) {
+                mapper.addMappedClasses(entityClasses, false);
+                return this;
+            }
             for (final Class entityClass : entityClasses) {
                 if (!mapper.isMapped(entityClass)) {
                     mapper.addMappedClass(entityClass);
@@ -240,13 +245,19 @@ public class Morphia {
      */
     public synchronized Morphia mapPackage(final String packageName, final boolean ignoreInvalidClasses) {
         try {
-            for (final Class clazz : ReflectionUtils.getClasses(packageName, mapper.getOptions().isMapSubPackages())) {
+            final boolean parallel = mapper.getOptions().getParallelMappingThreads() > 1;
+            final List<Class> mappable = new ArrayList<Class>();
+            for (final Class clazz : getClasses(packageName)) {
                 try {
                     final Embedded embeddedAnn = ReflectionUtils.getClassEmbeddedAnnotation(clazz);
                     final Entity entityAnn = ReflectionUtils.getClassEntityAnnotation(clazz);
                     final boolean isAbstract = Modifier.isAbstract(clazz.getModifiers());
                     if ((entityAnn != null || embeddedAnn != null) && !isAbstract) {
-                        map(clazz);
+                        if (parallel) {
+                            mappable.add(clazz);
+                        } else {
+                            map(clazz);
+                        }
                     }
                 } catch (final MappingException ex) {
                     if (!ignoreInvalidClasses) {
@@ -254,6 +265,9 @@ public class Morphia {
                     }
                 }
             }
+            if (!mappable.isEmpty()) {
+                mapper.addMappedClasses(mappable, ignoreInvalidClasses);
+            }
             return this;
         } catch (IOException e) {
             throw new MappingException("Could not get map classes from package " + packageName, e);
@@ -287,4 +301,15 @@ public class Morphia {
             throw new MappingException("Could not map entity to DBObject", e);
         }
     }
+
+    private Set<Class<?>> getClasses(final String packageName) throws IOException, ClassNotFoundException {
+        final EntityIndex index = mapper.getEntityIndex();
+        if (index != null) {
+            final Set<Class<?>> indexed = index.getClasses(packageName, mapper.getOptions().isMapSubPackages());
+            if (!indexed.isEmpty()) {
+                return indexed;
+            }
+        }
+        return ReflectionUtils.getClasses(packageName, mapper.getOptions().isMapSubPackages());
+    }
 }
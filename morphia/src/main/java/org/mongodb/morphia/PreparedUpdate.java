@@ -0,0 +1,494 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.BulkWriteRequestBuilder;
+import com.mongodb.BulkWriteResult;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.WriteResult;
+import org.mongodb.morphia.annotations.Version;
+import org.mongodb.morphia.internal.PathTarget;
+import org.mongodb.morphia.mapping.MappedClass;
+import org.mongodb.morphia.mapping.MappedField;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.metrics.OperationType;
+import org.mongodb.morphia.query.Query;
+import org.mongodb.morphia.query.QueryException;
+import org.mongodb.morphia.query.UpdateOperator;
+import org.mongodb.morphia.query.UpdateResults;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+import static java.util.Collections.singletonList;
+
+/**
+ * An update whose filter and operators are validated and translated once and which is then executed many times with different values.
+ * Field names are mapped to their stored names, and the version field of the type is incremented, when the update is built.  Executing it
+ * only converts the values bound to its parameters and sends the update.
+ * <p>
+ * Parameters are numbered in the order they are declared on the {@link Builder}, whether in the filter or in the operators, and every
+ * execution binds a value to each of them:
+ * <pre>
+ * PreparedUpdate&lt;Account&gt; deposit = datastore.prepareUpdate(Account.class)
+ *                                            .filter("_id")
+ *                                            .inc("balance")
+ *                                            .set("lastDeposit")
+ *                                            .build();
+ * deposit.execute(id, 100, new Date());
+ * </pre>
+ * This class is thread safe.
+ *
+ * @param <T> the type to update
+ * @since 1.4
+ */
+@SuppressWarnings("deprecation")
+public final class PreparedUpdate<T> {
+    private final DatastoreImpl datastore;
+    private final Class<T> type;
+    private final DBObject filter;
+    private final Slot[] filterSlots;
+    private final String[] operators;
+    private final Slot[][] operatorSlots;
+    private final int parameterCount;
+    private final UpdateOptions options;
+
+    private PreparedUpdate(final Builder<T> builder) {
+        datastore = builder.datastore;
+        type = builder.type;
+        filter = builder.filter;
+        filterSlots = builder.filterSlots.toArray(new Slot[builder.filterSlots.size()]);
+        operators = builder.operations.keySet().toArray(new String[builder.operations.size()]);
+        operatorSlots = new Slot[operators.length][];
+        int index = 0;
+        for (final List<Slot> slots : builder.operations.values()) {
+            operatorSlots[index++] = slots.toArray(new Slot[slots.size()]);
+        }
+        parameterCount = builder.parameterCount;
+        options = datastore.enforceWriteConcern(builder.options, type);
+    }
+
+    /**
+     * @return the number of values each execution binds
+     */
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * Updates the documents matching the filter with the given values bound to the parameters
+     *
+     * @param values the values of the parameters, in the order they were declared
+     * @return the results of the update
+     */
+    public UpdateResults execute(final Object... values) {
+        final DBObject query = toFilter(values);
+        final DBObject update = toUpdate(values);
+        return datastore.update(datastore.getCollection(type), type, query, update, options);
+    }
+
+    /**
+     * Sends one update for each set of values in a single ordered bulk write.  The counts of the result are the totals of the updates.
+     *
+     * @param bindings the values of the parameters of each update
+     * @return the results of the updates
+     */
+    public UpdateResults executeAll(final Iterable<Object[]> bindings) {
+        final DBCollection dbColl = datastore.getCollection(type);
+        final BulkWriteOperation bulk = dbColl.initializeOrderedBulkOperation();
+        if (options.getBypassDocumentValidation() != null) {
+            bulk.setBypassDocumentValidation(options.getBypassDocumentValidation());
+        }
+        int count = 0;
+        for (final Object[] values : bindings) {
+            BulkWriteRequestBuilder request = bulk.find(toFilter(values));
+            if (options.getCollation() != null) {
+                request = request.collation(options.getCollation());
+            }
+            final DBObject update = toUpdate(values);
+            if (options.isUpsert()) {
+                if (options.isMulti()) {
+                    request.upsert().update(update);
+                } else {
+                    request.upsert().updateOne(update);
+                }
+            } else if (options.isMulti()) {
+                request.update(update);
+            } else {
+                request.updateOne(update);
+            }
+            count++;
+        }
+        if (count == 0) {
+            return new UpdateResults(new WriteResult(0, false, null));
+        }
+
+        final long start = System.nanoTime();
+        final BulkWriteResult result = bulk.execute(options.getWriteConcern());
+        datastore.recordWrite(OperationType.UPDATE, dbColl, type, start, result);
+        if (!result.isAcknowledged()) {
+            return new UpdateResults(WriteResult.unacknowledged());
+        }
+        final int upserted = result.getUpserts().size();
+        return new UpdateResults(new WriteResult(result.getMatchedCount() + upserted, result.getMatchedCount() > 0,
+                                                 upserted == 1 ? result.getUpserts().get(0).getId() : null));
+    }
+
+    @Override
+    public String toString() {
+        return format("PreparedUpdate{type=%s, filter=%s, operators=%s}", type.getName(), toFilter(null), toUpdate(null));
+    }
+
+    private DBObject toFilter(final Object[] values) {
+        checkParameters(values);
+        final BasicDBObject query = new BasicDBObject(filter.toMap());
+        for (final Slot slot : filterSlots) {
+            query.put(slot.path, values == null ? "?" : slot.bindFilter(datastore.getMapper(), values));
+        }
+        return query;
+    }
+
+    private DBObject toUpdate(final Object[] values) {
+        final BasicDBObject update = new BasicDBObject();
+        for (int i = 0; i < operators.length; i++) {
+            final BasicDBObject fields = new BasicDBObject();
+            for (final Slot slot : operatorSlots[i]) {
+                fields.put(slot.path, values == null && slot.parameter >= 0 ? "?" : slot.bind(datastore.getMapper(), values));
+            }
+            update.put(operators[i], fields);
+        }
+        return update;
+    }
+
+    private void checkParameters(final Object[] values) {
+        if (values != null && values.length != parameterCount) {
+            throw new IllegalArgumentException(format("Expected %d values but was given %d", parameterCount, values.length));
+        }
+    }
+
+    /**
+     * Declares the filter and operators of a {@link PreparedUpdate}.  Each method taking only a field name declares a parameter.
+     *
+     * @param <T> the type to update
+     * @since 1.4
+     */
+    public static final class Builder<T> {
+        private final DatastoreImpl datastore;
+        private final Class<T> type;
+        private final MappedClass mappedClass;
+        private final List<Slot> filterSlots = new ArrayList<Slot>();
+        private final Map<String, List<Slot>> operations = new LinkedHashMap<String, List<Slot>>();
+        private DBObject filter = new BasicDBObject();
+        private UpdateOptions options = new UpdateOptions().multi(true);
+        private boolean validateNames = true;
+        private int parameterCount;
+
+        Builder(final DatastoreImpl datastore, final Class<T> type) {
+            this.datastore = datastore;
+            this.type = type;
+            mappedClass = datastore.getMapper().getMappedClass(type);
+        }
+
+        /**
+         * Starts the filter from a query.  Its filter is rendered now so later changes to the query are not seen by the update.
+         *
+         * @param query the query
+         * @return this
+         */
+        public Builder<T> query(final Query<T> query) {
+            if (query.getSortObject() != null || query.getOffset() > 0 || query.getLimit() > 0) {
+                throw new QueryException("sort/offset/limit are not allowed for updates.");
+            }
+            filter = query.getQueryObject();
+            return this;
+        }
+
+        /**
+         * Declares a parameter matching the value of a field
+         *
+         * @param field the field to match
+         * @return this
+         */
+        public Builder<T> filter(final String field) {
+            filterSlots.add(slot(field, Conversion.CONVERT));
+            return this;
+        }
+
+        /**
+         * Declares a parameter setting a field
+         *
+         * @param field the field to set
+         * @return this
+         * @see org.mongodb.morphia.query.UpdateOperations#set(String, Object)
+         */
+        public Builder<T> set(final String field) {
+            return add(UpdateOperator.SET, field, Conversion.CONVERT);
+        }
+
+        /**
+         * Declares a parameter setting a field when the update inserts a document
+         *
+         * @param field the field to set
+         * @return this
+         * @see org.mongodb.morphia.query.UpdateOperations#setOnInsert(String, Object)
+         */
+        public Builder<T> setOnInsert(final String field) {
+            return add(UpdateOperator.SET_ON_INSERT, field, Conversion.CONVERT);
+        }
+
+        /**
+         * Declares a parameter incrementing a field
+         *
+         * @param field the field to increment
+         * @return this
+         * @see org.mongodb.morphia.query.UpdateOperations#inc(String, Number)
+         */
+        public Builder<T> inc(final String field) {
+            return add(UpdateOperator.INC, field, Conversion.NUMBER);
+        }
+
+        /**
+         * Declares a parameter raising a field to at least its value
+         *
+         * @param field the field to update
+         * @return this
+         * @see org.mongodb.morphia.query.UpdateOperations#max(String, Number)
+         */
+        public Builder<T> max(final String field) {
+            return add(UpdateOperator.MAX, field, Conversion.NUMBER);
+        }
+
+        /**
+         * Declares a parameter lowering a field to at most its value
+         *
+         * @param field the field to update
+         * @return this
+         * @see org.mongodb.morphia.query.UpdateOperations#min(String, Number)
+         */
+        public Builder<T> min(final String field) {
+            return add(UpdateOperator.MIN, field, Conversion.NUMBER);
+        }
+
+        /**
+         * Declares a parameter appended to an array.  A list value appends each of its elements.
+         *
+         * @param field the array
+         * @return this
+         * @see org.mongodb.morphia.query.UpdateOperations#push(String, List)
+         */
+        public Builder<T> push(final String field) {
+            return add(UpdateOperator.PUSH, field, Conversion.EACH);
+        }
+
+        /**
+         * Declares a parameter added to an array if it is not there yet.  A list value adds each of its elements.
+         *
+         * @param field the array
+         * @return this
+         * @see org.mongodb.morphia.query.UpdateOperations#addToSet(String, List)
+         */
+        public Builder<T> addToSet(final String field) {
+            return add(UpdateOperator.ADD_TO_SET, field, Conversion.EACH);
+        }
+
+        /**
+         * Declares a parameter whose occurrences are removed from an array.  A list value removes each of its elements.
+         *
+         * @param field the array
+         * @return this
+         * @see org.mongodb.morphia.query.UpdateOperations#removeAll(String, List)
+         */
+        public Builder<T> removeAll(final String field) {
+            return add(UpdateOperator.PULL_ALL, field, Conversion.LIST);
+        }
+
+        /**
+         * Removes a field.  This does not declare a parameter.
+         *
+         * @param field the field to remove
+         * @return this
+         * @see org.mongodb.morphia.query.UpdateOperations#unset(String)
+         */
+        public Builder<T> unset(final String field) {
+            addOperation(UpdateOperator.UNSET.val(), new Slot(target(field).translatedPath(), null, -1, 1, Conversion.NUMBER));
+            return this;
+        }
+
+        /**
+         * Sets the options of the update.  The default updates every matching document with the write concern of the type.
+         *
+         * @param options the options
+         * @return this
+         */
+        public Builder<T> options(final UpdateOptions options) {
+            this.options = options.copy();
+            return this;
+        }
+
+        /**
+         * Turns off validation of the field names declared after this call
+         *
+         * @return this
+         */
+        public Builder<T> disableValidation() {
+            validateNames = false;
+            return this;
+        }
+
+        /**
+         * Turns on validation of the field names declared after this call
+         *
+         * @return this
+         */
+        public Builder<T> enableValidation() {
+            validateNames = true;
+            return this;
+        }
+
+        /**
+         * @return the prepared update
+         */
+        public PreparedUpdate<T> build() {
+            if (operations.isEmpty()) {
+                throw new QueryException("An update needs at least one operator.");
+            }
+            final List<MappedField> versions = mappedClass.getFieldsAnnotatedWith(Version.class);
+            if (!versions.isEmpty()) {
+                final String name = versions.get(0).getNameToStore();
+                final List<Slot> increments = operations.get(UpdateOperator.INC.val());
+                boolean declared = false;
+                if (increments != null) {
+                    for (final Slot slot : increments) {
+                        declared |= slot.path.equals(name);
+                    }
+                }
+                if (!declared) {
+                    addOperation(UpdateOperator.INC.val(), new Slot(name, null, -1, 1, Conversion.NUMBER));
+                }
+            }
+            return new PreparedUpdate<T>(this);
+        }
+
+        private Builder<T> add(final UpdateOperator operator, final String field, final Conversion conversion) {
+            addOperation(operator.val(), slot(field, conversion));
+            return this;
+        }
+
+        private void addOperation(final String operator, final Slot slot) {
+            List<Slot> slots = operations.get(operator);
+            if (slots == null) {
+                slots = new ArrayList<Slot>();
+                operations.put(operator, slots);
+            }
+            slots.add(slot);
+        }
+
+        private Slot slot(final String field, final Conversion conversion) {
+            final PathTarget target = target(field);
+            return new Slot(target.translatedPath(), target.getTarget(), parameterCount++, null, conversion);
+        }
+
+        private PathTarget target(final String field) {
+            final PathTarget target = new PathTarget(datastore.getMapper(), mappedClass, field);
+            if (!validateNames) {
+                target.disableValidation();
+            }
+            return target;
+        }
+    }
+
+    /**
+     * A field of the filter or of an operator and how the value bound to it is converted
+     */
+    private static final class Slot {
+        private final String path;
+        private final MappedField field;
+        private final int parameter;
+        private final Object constant;
+        private final Conversion conversion;
+
+        Slot(final String path, final MappedField field, final int parameter, final Object constant, final Conversion conversion) {
+            this.path = path;
+            this.field = field;
+            this.parameter = parameter;
+            this.constant = constant;
+            this.conversion = conversion;
+        }
+
+        Object bindFilter(final Mapper mapper, final Object[] values) {
+            return mapper.toMongoObject(field, null, values[parameter]);
+        }
+
+        Object bind(final Mapper mapper, final Object[] values) {
+            if (parameter < 0) {
+                return constant;
+            }
+            final Object value = values[parameter];
+            if (value == null) {
+                throw new QueryException(format("Value cannot be null for %s.", path));
+            }
+            switch (conversion) {
+                case NUMBER:
+                    if (!(value instanceof Number)) {
+                        throw new QueryException(format("Value for %s must be a number: %s", path, value));
+                    }
+                    return value;
+                case EACH:
+                    return new BasicDBObject(UpdateOperator.EACH.val(),
+                                             mapper.toMongoObject(field, null, value instanceof List ? value : singletonList(value)));
+                case LIST:
+                    final List<Object> list = new ArrayList<Object>();
+                    for (final Object element : value instanceof List ? (List<?>) value : singletonList(value)) {
+                        list.add(mapper.toMongoObject(field, null, element));
+                    }
+                    return list;
+                default:
+                    return mapper.toMongoObject(field, null, value);
+            }
+        }
+    }
+
+    /**
+     * How the value bound to a slot is converted
+     */
+    private enum Conversion {
+        /**
+         * Mapped like the field's value
+         */
+        CONVERT,
+        /**
+         * Checked to be a number and used as is
+         */
+        NUMBER,
+        /**
+         * Mapped to a list wrapped in {@code $each}
+         */
+        EACH,
+        /**
+         * Mapped element by element to a list
+         */
+        LIST
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.MongoInterruptedException;
+import org.mongodb.morphia.annotations.Sequence;
+import org.mongodb.morphia.logging.Logger;
+import org.mongodb.morphia.logging.MorphiaLoggerFactory;
+import org.mongodb.morphia.mapping.MappedClass;
+import org.mongodb.morphia.mapping.MappedField;
+import org.mongodb.morphia.mapping.Mapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.lang.String.format;
+
+/**
+ * Hands out numbers from named sequences, reserving them in blocks (hi/lo) from a counters collection with {@code findAndModify}.  The
+ * numbers of a block are handed out from memory without locking, and the next block is reserved in the background once half of the
+ * current one is used, so that callers rarely wait on the database.  Each counter document holds the highest number reserved so far and
+ * numbers start at 1.
+ * <p>
+ * A datastore uses its allocator to assign the ids of entities whose {@code @Id} is annotated with {@link Sequence}.  Numbers reserved but
+ * not handed out before the allocator is discarded are lost, so sequences have gaps and ids are only roughly in insertion order across
+ * processes.
+ * <p>
+ * This class is thread safe.
+ *
+ * @see org.mongodb.morphia.mapping.MapperOptions#setSequenceCollection(String)
+ * @since 1.4
+ */
+@SuppressWarnings("deprecation")
+public class SequenceAllocator {
+    private static final Logger LOG = MorphiaLoggerFactory.get(SequenceAllocator.class);
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+    private static final String VALUE = "value";
+
+    private final DatastoreImpl datastore;
+    private final ConcurrentMap<String, SequenceState> sequences = new ConcurrentHashMap<String, SequenceState>();
+    private final ExecutorService executor;
+
+    /**
+     * Creates an allocator reserving numbers from the sequence collection of a datastore
+     *
+     * @param datastore the datastore
+     */
+    SequenceAllocator(final DatastoreImpl datastore) {
+        this.datastore = datastore;
+        final int pool = POOL_COUNT.incrementAndGet();
+        executor = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "morphia-sequence-" + pool + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Hands out the next number of a sequence
+     *
+     * @param sequence  the name of the sequence
+     * @param blockSize the number of numbers to reserve when the current block is used up
+     * @return the number
+     */
+    public long next(final String sequence, final int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be at least 1");
+        }
+        SequenceState state = sequences.get(sequence);
+        if (state == null) {
+            final SequenceState created = new SequenceState(sequence);
+            state = sequences.putIfAbsent(sequence, created);
+            if (state == null) {
+                state = created;
+            }
+        }
+        return state.next(blockSize);
+    }
+
+    /**
+     * Reserves consecutive numbers of a sequence in one round trip, bypassing the block held in memory
+     *
+     * @param sequence the name of the sequence
+     * @param count    the number of numbers to reserve
+     * @return the first of the numbers
+     */
+    public long reserve(final String sequence, final int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be at least 1");
+        }
+        return reserveBlock(sequence, count).start;
+    }
+
+    /**
+     * Stops the background reservations.  Numbers can still be handed out, reserving blocks on the calling thread.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Assigns ids to the entities with a {@code @Sequence} id which have none yet.  Entities of a sequence needing at least a block of ids
+     * get them from a single reservation.
+     *
+     * @param entities the entities about to be saved
+     */
+    void assignIds(final Iterable<?> entities) {
+        final Mapper mapper = datastore.getMapper();
+        final Map<String, List<Object>> pending = new LinkedHashMap<String, List<Object>>();
+        final Map<String, MappedField> fields = new LinkedHashMap<String, MappedField>();
+        for (final Object entity : entities) {
+            if (entity == null) {
+                continue;
+            }
+            if (!needsId(entity)) {
+                continue;
+            }
+            final MappedClass mc = mapper.getMappedClass(entity);
+            final MappedField idField = mc.getMappedIdField();
+            final String value = idField.getAnnotation(Sequence.class).value();
+            final String name = value.isEmpty() ? mc.getCollectionName() : value;
+            List<Object> group = pending.get(name);
+            if (group == null) {
+                group = new ArrayList<Object>();
+                pending.put(name, group);
+                fields.put(name, idField);
+            }
+            group.add(entity);
+        }
+
+        for (final Map.Entry<String, List<Object>> entry : pending.entrySet()) {
+            final MappedField idField = fields.get(entry.getKey());
+            final int blockSize = idField.getAnnotation(Sequence.class).blockSize();
+            final List<Object> group = entry.getValue();
+            if (group.size() >= blockSize) {
+                long id = reserve(entry.getKey(), group.size());
+                for (final Object entity : group) {
+                    setId(mapper.getMappedClass(entity).getMappedIdField(), entity, id++);
+                }
+            } else {
+                for (final Object entity : group) {
+                    setId(mapper.getMappedClass(entity).getMappedIdField(), entity, next(entry.getKey(), blockSize));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells whether an entity has a {@code @Sequence} id which has no value yet
+     *
+     * @param entity the entity
+     * @return true if {@link #assignIds(Iterable)} would assign the entity an id
+     */
+    boolean needsId(final Object entity) {
+        final MappedField idField = datastore.getMapper().getMappedClass(entity).getMappedIdField();
+        if (idField == null || !idField.hasAnnotation(Sequence.class)) {
+            return false;
+        }
+        final Object id = idField.getFieldValue(entity);
+        return id == null || ((Number) id).longValue() == 0;
+    }
+
+    private static void setId(final MappedField idField, final Object entity, final long id) {
+        final Class<?> type = idField.getType();
+        if (Integer.class.equals(type) || int.class.equals(type)) {
+            if (id > Integer.MAX_VALUE) {
+                throw new IllegalStateException(format("The sequence of %s has run past the largest int", entity.getClass().getName()));
+            }
+            idField.setFieldValue(entity, (int) id);
+        } else {
+            idField.setFieldValue(entity, id);
+        }
+    }
+
+    private Block reserveBlock(final String sequence, final int count) {
+        final DBCollection counters = datastore.getDB().getCollection(datastore.getMapper().getOptions().getSequenceCollection());
+        final DBObject counter = counters.findAndModify(new BasicDBObject(Mapper.ID_KEY, sequence), null, null, false,
+                                                        new BasicDBObject("$inc", new BasicDBObject(VALUE, (long) count)), true, true);
+        final long last = ((Number) counter.get(VALUE)).longValue();
+        return new Block(last - count + 1, last + 1);
+    }
+
+    /**
+     * A block of reserved numbers, handed out by incrementing a counter
+     */
+    private static final class Block {
+        private static final Block EMPTY = new Block(0, 0);
+
+        private final long start;
+        private final AtomicLong next;
+        private final long end;
+        private final long refillAt;
+
+        private Block(final long start, final long end) {
+            this.start = start;
+            next = new AtomicLong(start);
+            this.end = end;
+            refillAt = start + (end - start) / 2;
+        }
+    }
+
+    /**
+     * The block of a sequence in use and the reservation of the next one
+     */
+    private final class SequenceState {
+        private final String name;
+        private final AtomicReference<FutureTask<Block>> prefetch = new AtomicReference<FutureTask<Block>>();
+        private volatile Block block = Block.EMPTY;
+
+        private SequenceState(final String name) {
+            this.name = name;
+        }
+
+        long next(final int blockSize) {
+            while (true) {
+                final Block current = block;
+                final long id = current.next.getAndIncrement();
+                if (id < current.end) {
+                    if (id == current.refillAt) {
+                        prefetch(blockSize);
+                    }
+                    return id;
+                }
+                refill(current, blockSize);
+            }
+        }
+
+        private void prefetch(final int blockSize) {
+            final FutureTask<Block> task = new FutureTask<Block>(new Callable<Block>() {
+                @Override
+                public Block call() {
+                    return reserveBlock(name, blockSize);
+                }
+            });
+            if (prefetch.compareAndSet(null, task)) {
+                try {
+                    executor.execute(task);
+                } catch (RuntimeException e) {
+                    // shut down, the block is reserved when it is needed
+                    prefetch.compareAndSet(task, null);
+                }
+            }
+        }
+
+        private synchronized void refill(final Block exhausted, final int blockSize) {
+            if (block != exhausted) {
+                return;
+            }
+            Block next = null;
+            final FutureTask<Block> pending = prefetch.getAndSet(null);
+            if (pending != null) {
+                try {
+                    next = pending.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MongoInterruptedException("Interrupted while reserving ids of " + name, e);
+                } catch (ExecutionException e) {
+                    LOG.warning(format("Failed to reserve ids of %s in the background", name), e.getCause());
+                }
+            }
+            block = next != null ? next : reserveBlock(name, blockSize);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia;
+
+import com.mongodb.WriteConcern;
+
+/**
+ * The options for {@link Datastore#upsertAll(Iterable, UpsertOptions, String...)}
+ *
+ * @since 1.4
+ */
+public class UpsertOptions {
+    private WriteConcern writeConcern;
+    private Boolean bypassDocumentValidation;
+    private boolean ordered = true;
+    private int batchSize = 1000;
+
+    /**
+     * Create a copy of the options instance.
+     *
+     * @return the copy
+     */
+    public UpsertOptions copy() {
+        return new UpsertOptions()
+            .writeConcern(getWriteConcern())
+            .bypassDocumentValidation(getBypassDocumentValidation())
+            .ordered(isOrdered())
+            .batchSize(getBatchSize());
+    }
+
+    /**
+     * The write concern to use for the upserts.  By default the write concern configured for the entity's type is used.
+     *
+     * @return the write concern, or null if the default will be used.
+     */
+    public WriteConcern getWriteConcern() {
+        return writeConcern;
+    }
+
+    /**
+     * Set the write concern to use for the upserts.
+     *
+     * @param writeConcern the write concern
+     * @return this
+     */
+    public UpsertOptions writeConcern(final WriteConcern writeConcern) {
+        this.writeConcern = writeConcern;
+        return this;
+    }
+
+    /**
+     * Gets whether to bypass document validation, or null if unspecified.  The default is null.
+     *
+     * @return whether to bypass document validation, or null if unspecified.
+     * @mongodb.server.release 3.2
+     */
+    public Boolean getBypassDocumentValidation() {
+        return bypassDocumentValidation;
+    }
+
+    /**
+     * Sets whether to bypass document validation.
+     *
+     * @param bypassDocumentValidation whether to bypass document validation, or null if unspecified
+     * @return this
+     * @mongodb.server.release 3.2
+     */
+    public UpsertOptions bypassDocumentValidation(final Boolean bypassDocumentValidation) {
+        this.bypassDocumentValidation = bypassDocumentValidation;
+        return this;
+    }
+
+    /**
+     * Whether the upserts of a batch are applied in order, stopping at the first failure.  The default is true.
+     *
+     * @return true if the upserts are ordered
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Sets whether the upserts of a batch are applied in order, stopping at the first failure.  Unordered upserts carry on after a
+     * failure and may be applied in parallel by the server.
+     *
+     * @param ordered true to apply the upserts in order
+     * @return this
+     */
+    public UpsertOptions ordered(final boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * @return the number of entities sent in each bulk write
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the number of entities sent in each bulk write.  The default is 1000.
+     *
+     * @param batchSize the number of entities
+     * @return this
+     */
+    public UpsertOptions batchSize(final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+}
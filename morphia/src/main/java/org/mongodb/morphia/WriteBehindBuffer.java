@@ -0,0 +1,449 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.BulkWriteRequestBuilder;
+import com.mongodb.BulkWriteResult;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.MongoInterruptedException;
+import org.mongodb.morphia.logging.Logger;
+import org.mongodb.morphia.logging.MorphiaLoggerFactory;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.metrics.OperationType;
+import org.mongodb.morphia.query.UpdateOperations;
+import org.mongodb.morphia.query.UpdateOperator;
+import org.mongodb.morphia.query.UpdateOpsImpl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+/**
+ * Buffers updates to single documents and writes them in bulk.  Updates to the same document are coalesced while they wait: {@code $inc}
+ * amounts are summed, the last {@code $set} of a field wins and {@code $addToSet} values are combined.  Any other operator, or an
+ * operator touching a field another buffered operator already changes, starts a new update for the document, written after the ones
+ * before it.
+ * <p>
+ * The buffer is written by a background thread every flush interval, or as soon as the given number of updates are waiting, and by
+ * {@link #flush()}.  {@link #shutdown()} stops the background thread and writes what is left.  Updates are written after {@code update}
+ * returns, so errors from the server are only seen by {@code flush()} and {@code shutdown()}.  Errors in a background flush are logged
+ * and the updates involved are counted in {@link WriteBehindStatistics#getFailedUpdates()}.
+ * <p>
+ * This class is thread safe.
+ *
+ * @since 1.4
+ */
+@SuppressWarnings("deprecation")
+public class WriteBehindBuffer {
+    private static final Logger LOG = MorphiaLoggerFactory.get(WriteBehindBuffer.class);
+    private static final AtomicInteger BUFFER_COUNT = new AtomicInteger();
+
+    private final DatastoreImpl datastore;
+    private final int maxPending;
+    private final ScheduledExecutorService scheduler;
+    private final Object flushLock = new Object();
+    private final Runnable backgroundFlush = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                LOG.error("Failed to write buffered updates", e);
+            }
+        }
+    };
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong updatesWritten = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failedUpdates = new AtomicLong();
+
+    private Map<Target, List<PendingUpdate>> pending = new LinkedHashMap<Target, List<PendingUpdate>>();
+    private int depth;
+    private boolean flushRequested;
+    private boolean shutdown;
+
+    /**
+     * Creates a buffer writing to the given datastore
+     *
+     * @param datastore     the datastore to write to
+     * @param maxPending    the number of buffered updates which triggers a flush
+     * @param flushInterval the longest time an update waits to be written
+     * @param unit          the unit of the flush interval
+     */
+    public WriteBehindBuffer(final Datastore datastore, final int maxPending, final long flushInterval, final TimeUnit unit) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be at least 1");
+        }
+        if (flushInterval <= 0) {
+            throw new IllegalArgumentException("flushInterval must be positive");
+        }
+        this.datastore = (DatastoreImpl) datastore;
+        this.maxPending = maxPending;
+
+        final int id = BUFFER_COUNT.incrementAndGet();
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "morphia-write-behind-" + id);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.scheduleWithFixedDelay(backgroundFlush, flushInterval, flushInterval, unit);
+    }
+
+    /**
+     * Buffers an update of the document with the given key
+     *
+     * @param key        the key of the document to update
+     * @param operations the changes to make
+     * @param <T>        the type of the entity
+     */
+    public <T> void update(final Key<T> key, final UpdateOperations<T> operations) {
+        update(key, operations, false);
+    }
+
+    /**
+     * Buffers an update of the document with the given key
+     *
+     * @param key        the key of the document to update
+     * @param operations the changes to make
+     * @param upsert     true to create the document if it does not exist
+     * @param <T>        the type of the entity
+     */
+    public <T> void update(final Key<T> key, final UpdateOperations<T> operations, final boolean upsert) {
+        if (operations.isIsolated()) {
+            throw new IllegalArgumentException("Isolated updates can not be buffered");
+        }
+        final DBObject ops = ((UpdateOpsImpl<T>) operations).getOps();
+        final Target target = new Target(key.getType(), getCollectionName(key), key.getId());
+
+        synchronized (this) {
+            if (shutdown) {
+                throw new IllegalStateException("The write behind buffer has been shut down");
+            }
+            List<PendingUpdate> queued = pending.get(target);
+            if (queued == null) {
+                queued = new ArrayList<PendingUpdate>(1);
+                pending.put(target, queued);
+            }
+            if (queued.isEmpty() || !queued.get(queued.size() - 1).merge(ops, upsert)) {
+                queued.add(new PendingUpdate(ops, upsert));
+                depth++;
+            }
+            updates.incrementAndGet();
+
+            if (depth >= maxPending && !flushRequested) {
+                flushRequested = true;
+                scheduler.execute(backgroundFlush);
+            }
+        }
+    }
+
+    /**
+     * Writes all buffered updates and waits for them to be acknowledged.  If the bulk write to a collection fails its exception is rethrown
+     * once the updates of the other collections have been written.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            final Map<Target, List<PendingUpdate>> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = new LinkedHashMap<Target, List<PendingUpdate>>();
+                depth = 0;
+                flushRequested = false;
+            }
+            if (!batch.isEmpty()) {
+                flushes.incrementAndGet();
+                write(batch);
+            }
+        }
+    }
+
+    /**
+     * Stops the background flushes, waiting for one in progress to finish, and writes the updates still buffered.  Updates can not be
+     * buffered afterwards.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+        }
+        // a flush in progress has already taken its updates from the buffer so it is left to finish rather than interrupted
+        scheduler.shutdown();
+        try {
+            while (!scheduler.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOG.debug("Waiting for a background flush to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MongoInterruptedException("Interrupted while waiting for a background flush to finish", e);
+        }
+        flush();
+    }
+
+    /**
+     * @return a snapshot of the statistics of this buffer
+     */
+    public WriteBehindStatistics getStatistics() {
+        final int queued;
+        synchronized (this) {
+            queued = depth;
+        }
+        return new WriteBehindStatistics(updates.get(), updatesWritten.get(), writes.get(), flushes.get(), failedUpdates.get(), queued);
+    }
+
+    private String getCollectionName(final Key<?> key) {
+        return key.getCollection() != null ? key.getCollection() : datastore.getCollection(key.getType()).getName();
+    }
+
+    private void write(final Map<Target, List<PendingUpdate>> batch) {
+        final Map<String, List<Entry<Target, List<PendingUpdate>>>> byCollection
+            = new LinkedHashMap<String, List<Entry<Target, List<PendingUpdate>>>>();
+        for (final Entry<Target, List<PendingUpdate>> entry : batch.entrySet()) {
+            List<Entry<Target, List<PendingUpdate>>> entries = byCollection.get(entry.getKey().collection);
+            if (entries == null) {
+                entries = new ArrayList<Entry<Target, List<PendingUpdate>>>();
+                byCollection.put(entry.getKey().collection, entries);
+            }
+            entries.add(entry);
+        }
+
+        RuntimeException failure = null;
+        for (final Entry<String, List<Entry<Target, List<PendingUpdate>>>> collection : byCollection.entrySet()) {
+            try {
+                write(datastore.getDB().getCollection(collection.getKey()), collection.getValue());
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void write(final DBCollection dbColl, final List<Entry<Target, List<PendingUpdate>>> entries) {
+        // ordered so that the updates of a document are applied in the order they were buffered
+        final BulkWriteOperation bulk = dbColl.initializeOrderedBulkOperation();
+        Class<?> type = null;
+        int count = 0;
+        int merged = 0;
+        for (final Entry<Target, List<PendingUpdate>> entry : entries) {
+            final DBObject filter = entry.getKey().toFilter(datastore);
+            type = entry.getKey().type;
+            for (final PendingUpdate update : entry.getValue()) {
+                final BulkWriteRequestBuilder request = bulk.find(filter);
+                if (update.upsert) {
+                    request.upsert().updateOne(update.toDBObject());
+                } else {
+                    request.updateOne(update.toDBObject());
+                }
+                count++;
+                merged += update.merged;
+            }
+        }
+
+        final long start = System.nanoTime();
+        try {
+            final BulkWriteResult result = bulk.execute(datastore.getDefaultWriteConcern());
+            writes.addAndGet(count);
+            updatesWritten.addAndGet(merged);
+            datastore.recordWrite(OperationType.UPDATE, dbColl, type, start, result);
+        } catch (RuntimeException e) {
+            failedUpdates.addAndGet(count);
+            // some of the updates may have been written
+            datastore.invalidateResults(dbColl);
+            LOG.warning(format("Failed to write %d buffered updates to %s", count, dbColl.getName()), e);
+            throw e;
+        }
+    }
+
+    /**
+     * The document an update applies to
+     */
+    private static final class Target {
+        private final Class<?> type;
+        private final String collection;
+        private final Object id;
+
+        private Target(final Class<?> type, final String collection, final Object id) {
+            this.type = type;
+            this.collection = collection;
+            this.id = id;
+        }
+
+        private DBObject toFilter(final AdvancedDatastore datastore) {
+            if (type == null) {
+                return new BasicDBObject(Mapper.ID_KEY, id);
+            }
+            return datastore.find(collection, type).disableValidation().filter(Mapper.ID_KEY, id).getQueryObject();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Target)) {
+                return false;
+            }
+            final Target that = (Target) o;
+            return collection.equals(that.collection) && id.equals(that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * collection.hashCode() + id.hashCode();
+        }
+    }
+
+    /**
+     * The coalesced operators of one update
+     */
+    private static final class PendingUpdate {
+        private final Map<String, Map<String, Object>> operators = new LinkedHashMap<String, Map<String, Object>>();
+        private final boolean upsert;
+        private int merged = 1;
+
+        private PendingUpdate(final DBObject ops, final boolean upsert) {
+            this.upsert = upsert;
+            for (final String operator : ops.keySet()) {
+                operators.put(operator, new LinkedHashMap<String, Object>(fields(ops, operator)));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, Object> fields(final DBObject ops, final String operator) {
+            return (Map<String, Object>) ops.get(operator);
+        }
+
+        private static boolean isMergeable(final String operator) {
+            return operator.equals(UpdateOperator.INC.val())
+                   || operator.equals(UpdateOperator.SET.val())
+                   || operator.equals(UpdateOperator.ADD_TO_SET.val());
+        }
+
+        private static boolean overlaps(final String path, final String other) {
+            return path.equals(other)
+                   || path.startsWith(other) && path.charAt(other.length()) == '.'
+                   || other.startsWith(path) && other.charAt(path.length()) == '.';
+        }
+
+        private static Number add(final Number left, final Number right) {
+            if (left instanceof Double || left instanceof Float || right instanceof Double || right instanceof Float) {
+                return left.doubleValue() + right.doubleValue();
+            }
+            final long sum = left.longValue() + right.longValue();
+            if (left instanceof Integer && right instanceof Integer && sum == (int) sum) {
+                return (int) sum;
+            }
+            return sum;
+        }
+
+        private static List<Object> elements(final Object value) {
+            final List<Object> elements = new ArrayList<Object>();
+            if (value instanceof DBObject && ((DBObject) value).containsField(UpdateOperator.EACH.val())) {
+                elements.addAll((List<?>) ((DBObject) value).get(UpdateOperator.EACH.val()));
+            } else {
+                elements.add(value);
+            }
+            return elements;
+        }
+
+        /**
+         * Folds the operators of a later update in to this one
+         *
+         * @return false if the update can not be combined with this one and has to be written after it
+         */
+        private boolean merge(final DBObject ops, final boolean upsert) {
+            if (upsert != this.upsert || !canMerge(ops)) {
+                return false;
+            }
+            for (final String operator : ops.keySet()) {
+                Map<String, Object> fields = operators.get(operator);
+                if (fields == null) {
+                    fields = new LinkedHashMap<String, Object>();
+                    operators.put(operator, fields);
+                }
+                for (final Entry<String, Object> field : fields(ops, operator).entrySet()) {
+                    final Object previous = fields.get(field.getKey());
+                    if (previous == null || operator.equals(UpdateOperator.SET.val())) {
+                        fields.put(field.getKey(), field.getValue());
+                    } else if (operator.equals(UpdateOperator.INC.val())) {
+                        fields.put(field.getKey(), add((Number) previous, (Number) field.getValue()));
+                    } else {
+                        final List<Object> combined = elements(previous);
+                        for (final Object element : elements(field.getValue())) {
+                            if (!combined.contains(element)) {
+                                combined.add(element);
+                            }
+                        }
+                        fields.put(field.getKey(), new BasicDBObject(UpdateOperator.EACH.val(), combined));
+                    }
+                }
+            }
+            merged++;
+            return true;
+        }
+
+        private boolean canMerge(final DBObject ops) {
+            for (final String operator : operators.keySet()) {
+                if (!isMergeable(operator)) {
+                    return false;
+                }
+            }
+            for (final String operator : ops.keySet()) {
+                if (!isMergeable(operator)) {
+                    return false;
+                }
+                for (final String path : fields(ops, operator).keySet()) {
+                    for (final Entry<String, Map<String, Object>> existing : operators.entrySet()) {
+                        for (final String other : existing.getValue().keySet()) {
+                            if (overlaps(path, other) && !(path.equals(other) && operator.equals(existing.getKey()))) {
+                                return false;
+                            }
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        private DBObject toDBObject() {
+            return new BasicDBObject(operators);
+        }
+    }
+}
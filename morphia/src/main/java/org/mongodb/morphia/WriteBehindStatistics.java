@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia;
+
+/**
+ * A snapshot of the statistics of a {@link WriteBehindBuffer}
+ *
+ * @since 1.4
+ */
+public class WriteBehindStatistics {
+    private final long updates;
+    private final long updatesWritten;
+    private final long writes;
+    private final long flushes;
+    private final long failedUpdates;
+    private final int queueDepth;
+
+    WriteBehindStatistics(final long updates, final long updatesWritten, final long writes, final long flushes, final long failedUpdates,
+                          final int queueDepth) {
+        this.updates = updates;
+        this.updatesWritten = updatesWritten;
+        this.writes = writes;
+        this.flushes = flushes;
+        this.failedUpdates = failedUpdates;
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * @return the number of buffered updates combined in to each update written or 0 if nothing has been written yet
+     */
+    public double getCoalescingRatio() {
+        return writes == 0 ? 0 : (double) updatesWritten / writes;
+    }
+
+    /**
+     * @return the number of coalesced updates in bulk writes which failed
+     */
+    public long getFailedUpdates() {
+        return failedUpdates;
+    }
+
+    /**
+     * @return the number of flushes which wrote anything
+     */
+    public long getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * @return the number of coalesced updates waiting to be written
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * @return the number of updates handed to the buffer
+     */
+    public long getUpdates() {
+        return updates;
+    }
+
+    /**
+     * @return the number of coalesced updates written
+     */
+    public long getWrites() {
+        return writes;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": " + updates + " updates, " + writes + " writes, " + flushes + " flushes, " + failedUpdates
+               + " failed, " + queueDepth + " queued.";
+    }
+}
@@ -12,6 +12,8 @@ import org.mongodb.morphia.logging.Logger;
 import org.mongodb.morphia.logging.MorphiaLoggerFactory;
 import org.mongodb.morphia.mapping.MappedField;
 import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.metrics.MetricsListener;
+import org.mongodb.morphia.metrics.OperationType;
 import org.mongodb.morphia.query.MorphiaIterator;
 import org.mongodb.morphia.query.Query;
 import org.mongodb.morphia.query.Sort;
@@ -78,8 +80,14 @@ public class AggregationPipelineImpl implements AggregationPipeline {
                                      final ReadPreference readPreference) {
         LOG.debug("stages = " + stages);
 
+        final long start = System.nanoTime();
         Cursor cursor = collection.aggregate(stages, options, readPreference);
-        return new MorphiaIterator<U, U>(datastore, cursor, mapper, target, collectionName, mapper.createEntityCache());
+        final MetricsListener metrics = mapper.getOptions().getMetricsListener();
+        if (metrics != null) {
+            metrics.driverTime(OperationType.AGGREGATE, collection.getName(), source, System.nanoTime() - start);
+        }
+        return new MorphiaIterator<U, U>(datastore, cursor, mapper, target, collectionName, mapper.createEntityCache(),
+                                         OperationType.AGGREGATE);
     }
 
     @Override
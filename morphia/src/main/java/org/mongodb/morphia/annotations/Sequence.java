@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns the {@code @Id} of new entities from a sequence.  The numbers are reserved from a counters collection in blocks, so inserting
+ * many entities only costs one round trip per block.  Ids are assigned when an entity with no id, or an id of 0, is saved or inserted.
+ * Numbers reserved by a process which stops before using them are never handed out, so sequences have gaps.  The field must be a
+ * {@code long}, {@code Long}, {@code int} or {@code Integer}.
+ *
+ * @see org.mongodb.morphia.SequenceAllocator
+ * @see org.mongodb.morphia.mapping.MapperOptions#setSequenceCollection(String)
+ * @since 1.4
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Sequence {
+    /**
+     * The name of the sequence.  Defaults to the name of the entity's collection.
+     */
+    String value() default "";
+
+    /**
+     * The number of ids reserved at a time.
+     */
+    int blockSize() default 100;
+}
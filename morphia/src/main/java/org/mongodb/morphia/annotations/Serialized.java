@@ -16,6 +16,10 @@ package org.mongodb.morphia.annotations;
 
 
 import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.serialization.Compressor;
+import org.mongodb.morphia.mapping.serialization.GZipCompressor;
+import org.mongodb.morphia.mapping.serialization.JavaObjectSerializer;
+import org.mongodb.morphia.mapping.serialization.ObjectSerializer;
 
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
@@ -34,11 +38,27 @@ import java.lang.annotation.Target;
 @Target(ElementType.FIELD)
 public @interface Serialized {
 
+    /**
+     * The compressor to use unless compression is disabled.  Changing it makes previously stored values unreadable.
+     *
+     * @see org.mongodb.morphia.mapping.serialization.BlockCompressor
+     * @since 1.4
+     */
+    Class<? extends Compressor> compressor() default GZipCompressor.class;
+
     /**
      * When true, compression is disabled on the resulting byte[]
      */
     boolean disableCompression() default false;
 
+    /**
+     * The serializer to use.  Changing it makes previously stored values unreadable.
+     *
+     * @see org.mongodb.morphia.mapping.serialization.CompactObjectSerializer
+     * @since 1.4
+     */
+    Class<? extends ObjectSerializer> serializer() default JavaObjectSerializer.class;
+
     /**
      * Sets the field name to use in the document.  Defaults to the java field name.
      */
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the shard key of the collection an entity is stored in.  The shard key fields of an entity are added to the filters used to
+ * save, merge, update, delete and get that entity so that on a sharded cluster mongos can route the operation to a single shard
+ * instead of broadcasting it.  Fields whose value is null are left out of the filters.
+ *
+ * @mongodb.driver.manual core/sharding-shard-key/ Shard Keys
+ * @since 1.4
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface ShardKey {
+    /**
+     * The fields of the shard key, by java field name or stored name.  The {@code @Id} field may be listed but is always part of the
+     * filter.
+     */
+    String[] value();
+}
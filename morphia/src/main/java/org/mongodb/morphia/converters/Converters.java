@@ -7,8 +7,10 @@ import org.mongodb.morphia.mapping.MappedField;
 import org.mongodb.morphia.mapping.Mapper;
 import org.mongodb.morphia.mapping.MapperOptions;
 import org.mongodb.morphia.mapping.MappingException;
+import org.mongodb.morphia.utils.PrimitiveArrays;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +24,25 @@ import static java.lang.String.format;
  */
 public abstract class Converters {
     private static final Logger LOG = MorphiaLoggerFactory.get(Converters.class);
+    private static final Map<Class<?>, Class<? extends TypeConverter>> PRIMITIVE_CONVERTERS
+        = new HashMap<Class<?>, Class<? extends TypeConverter>>();
+
+    static {
+        PRIMITIVE_CONVERTERS.put(double.class, DoubleConverter.class);
+        PRIMITIVE_CONVERTERS.put(Double.class, DoubleConverter.class);
+        PRIMITIVE_CONVERTERS.put(long.class, LongConverter.class);
+        PRIMITIVE_CONVERTERS.put(Long.class, LongConverter.class);
+        PRIMITIVE_CONVERTERS.put(int.class, IntegerConverter.class);
+        PRIMITIVE_CONVERTERS.put(Integer.class, IntegerConverter.class);
+        PRIMITIVE_CONVERTERS.put(float.class, FloatConverter.class);
+        PRIMITIVE_CONVERTERS.put(Float.class, FloatConverter.class);
+        PRIMITIVE_CONVERTERS.put(short.class, ShortConverter.class);
+        PRIMITIVE_CONVERTERS.put(Short.class, ShortConverter.class);
+        PRIMITIVE_CONVERTERS.put(byte.class, ByteConverter.class);
+        PRIMITIVE_CONVERTERS.put(Byte.class, ByteConverter.class);
+        PRIMITIVE_CONVERTERS.put(boolean.class, BooleanConverter.class);
+        PRIMITIVE_CONVERTERS.put(Boolean.class, BooleanConverter.class);
+    }
 
     private final Mapper mapper;
     private final List<TypeConverter> untypedTypeEncoders = new LinkedList<TypeConverter>();
@@ -185,6 +206,22 @@ public abstract class Converters {
         return (getEncoder(c) instanceof SimpleValueConverter);
     }
 
+    /**
+     * Checks whether values of a numeric or boolean type are converted by the built in converter of that type.  Only then can elements
+     * of the type be copied straight in to and out of primitive arrays, since a replacement converter could change the values.
+     *
+     * @param c the type to check
+     * @return true if the type is {@link PrimitiveArrays#isSupported(Class) supported} and converted by its built in converter
+     * @since 1.4
+     */
+    public boolean hasPrimitiveConverter(final Class c) {
+        return isPrimitiveConverter(c, getEncoder(c));
+    }
+
+    static boolean isPrimitiveConverter(final Class c, final TypeConverter converter) {
+        return PrimitiveArrays.isSupported(c) && converter != null && converter.getClass().equals(PRIMITIVE_CONVERTERS.get(c));
+    }
+
     /**
      * @param tcClass the type to check
      * @return true if a converter of this type has been registered
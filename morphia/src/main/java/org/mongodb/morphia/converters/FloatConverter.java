@@ -1,8 +1,8 @@
 package org.mongodb.morphia.converters;
 
 import org.mongodb.morphia.mapping.MappedField;
+import org.mongodb.morphia.utils.ReflectionUtils;
 
-import java.lang.reflect.Array;
 import java.util.List;
 
 /**
@@ -34,21 +34,9 @@ public class FloatConverter extends TypeConverter implements SimpleValueConverte
 
         if (val instanceof List) {
             final Class<?> type = targetClass.isArray() ? targetClass.getComponentType() : targetClass;
-            return convertToArray(type, (List<?>) val);
+            return ReflectionUtils.convertToArray(type, (List<?>) val);
         }
 
         return Float.parseFloat(val.toString());
     }
-
-    private Object convertToArray(final Class type, final List<?> values) {
-        final Object array = Array.newInstance(type, values.size());
-        try {
-            return values.toArray((Object[]) array);
-        } catch (Exception e) {
-            for (int i = 0; i < values.size(); i++) {
-                Array.set(array, i, decode(Float.class, values.get(i)));
-            }
-            return array;
-        }
-    }
 }
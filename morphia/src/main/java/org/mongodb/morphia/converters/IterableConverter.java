@@ -5,6 +5,7 @@ import com.mongodb.DBObject;
 import org.mongodb.morphia.ObjectFactory;
 import org.mongodb.morphia.mapping.EphemeralMappedField;
 import org.mongodb.morphia.mapping.MappedField;
+import org.mongodb.morphia.utils.PrimitiveArrays;
 import org.mongodb.morphia.utils.ReflectionUtils;
 
 import java.lang.reflect.Array;
@@ -29,13 +30,16 @@ public class IterableConverter extends TypeConverter {
         }
 
         final Class subtypeDest = mf.getSubClass();
-        final Collection values = createNewCollection(mf);
+        final TypeConverter elementConverter = subtypeDest != null ? getMapper().getConverters().getEncoder(subtypeDest) : null;
+        if (fromDBObject instanceof List && Converters.isPrimitiveConverter(subtypeDest, elementConverter)) {
+            return decodePrimitives(subtypeDest, (List<?>) fromDBObject, mf);
+        }
 
-        final Converters converters = getMapper().getConverters();
+        final Collection values = createNewCollection(mf);
         if (fromDBObject.getClass().isArray()) {
             //This should never happen. The driver always returns list/arrays as a List
             for (final Object o : (Object[]) fromDBObject) {
-                values.add(converters.decode((subtypeDest != null) ? subtypeDest : o.getClass(), o, mf));
+                values.add(decodeElement(elementConverter, subtypeDest, o, mf));
             }
         } else if (fromDBObject instanceof Iterable) {
             // map back to the java data type
@@ -46,20 +50,20 @@ public class IterableConverter extends TypeConverter {
                     if (!typeParameters.isEmpty()) {
                         final MappedField mappedField = typeParameters.get(0);
                         if (mappedField instanceof EphemeralMappedField) {
-                            values.add(converters.decode((subtypeDest != null) ? subtypeDest : o.getClass(), o, mappedField));
+                            values.add(decodeElement(elementConverter, subtypeDest, o, mappedField));
                         } else {
                             throw new UnsupportedOperationException("mappedField isn't an EphemeralMappedField");
                         }
                     } else {
-                        values.add(converters.decode((subtypeDest != null) ? subtypeDest : o.getClass(), o, mf));
+                        values.add(decodeElement(elementConverter, subtypeDest, o, mf));
                     }
                 } else {
-                    values.add(converters.decode((subtypeDest != null) ? subtypeDest : o.getClass(), o, mf));
+                    values.add(decodeElement(elementConverter, subtypeDest, o, mf));
                 }
             }
         } else {
             //Single value case.
-            values.add(converters.decode((subtypeDest != null) ? subtypeDest : fromDBObject.getClass(), fromDBObject, mf));
+            values.add(decodeElement(elementConverter, subtypeDest, fromDBObject, mf));
         }
 
         //convert to and array if that is the destination type (not a list/set)
@@ -95,12 +99,20 @@ public class IterableConverter extends TypeConverter {
             iterableValues = (Iterable<?>) value;
         }
 
-        final List values = new ArrayList();
+        final List values;
         if (mf != null && mf.getSubClass() != null) {
-            for (final Object o : iterableValues) {
-                values.add(getMapper().getConverters().encode(mf.getSubClass(), o));
+            final TypeConverter elementConverter = getMapper().getConverters().getEncoder(mf.getSubClass());
+            if (iterableValues instanceof Collection && Converters.isPrimitiveConverter(mf.getSubClass(), elementConverter)) {
+                // the built in numeric and boolean converters store values as they are
+                values = new ArrayList((Collection) iterableValues);
+            } else {
+                values = new ArrayList();
+                for (final Object o : iterableValues) {
+                    values.add(elementConverter.encode(o));
+                }
             }
         } else {
+            values = new ArrayList();
             for (final Object o : iterableValues) {
                 values.add(getMapper().getConverters().encode(o));
             }
@@ -117,6 +129,25 @@ public class IterableConverter extends TypeConverter {
         }
     }
 
+    private Object decodeElement(final TypeConverter elementConverter, final Class subtypeDest, final Object o, final MappedField mf) {
+        if (elementConverter != null) {
+            return elementConverter.decode(subtypeDest, o, mf);
+        }
+        return getMapper().getConverters().decode(subtypeDest != null ? subtypeDest : o.getClass(), o, mf);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object decodePrimitives(final Class subtypeDest, final List<?> fromDBObject, final MappedField mf) {
+        if (mf.getType().isArray()) {
+            return PrimitiveArrays.toArray(subtypeDest, fromDBObject);
+        }
+        final Collection values = createNewCollection(mf);
+        for (final Object o : fromDBObject) {
+            values.add(PrimitiveArrays.convert(subtypeDest, o));
+        }
+        return values;
+    }
+
     private Collection<?> createNewCollection(final MappedField mf) {
         final ObjectFactory of = getMapper().getOptions().getObjectFactory();
         return mf.isSet() ? of.createSet(mf) : of.createList(mf);
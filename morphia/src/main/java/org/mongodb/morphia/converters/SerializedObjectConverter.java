@@ -6,8 +6,12 @@ import org.mongodb.morphia.annotations.Serialized;
 import org.mongodb.morphia.mapping.MappedField;
 import org.mongodb.morphia.mapping.MappingException;
 import org.mongodb.morphia.mapping.Serializer;
+import org.mongodb.morphia.mapping.serialization.Compressor;
+import org.mongodb.morphia.mapping.serialization.ObjectSerializer;
 
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.lang.String.format;
 
@@ -16,6 +20,8 @@ import static java.lang.String.format;
  * @author Uwe Schaefer, (us@thomas-daily.de)
  */
 public class SerializedObjectConverter extends TypeConverter {
+    private final ConcurrentMap<Class<?>, Object> strategies = new ConcurrentHashMap<Class<?>, Object>();
+
     @Override
     public Object decode(final Class targetClass, final Object fromDBObject, final MappedField f) {
         if (fromDBObject == null) {
@@ -28,8 +34,8 @@ public class SerializedObjectConverter extends TypeConverter {
         }
 
         try {
-            final boolean useCompression = !f.getAnnotation(Serialized.class).disableCompression();
-            return Serializer.deserialize(fromDBObject, useCompression);
+            final Serialized serialized = f.getAnnotation(Serialized.class);
+            return Serializer.deserialize(fromDBObject, getSerializer(serialized), getCompressor(serialized));
         } catch (IOException e) {
             throw new MappingException("While deserializing to " + f.getFullName(), e);
         } catch (ClassNotFoundException e) {
@@ -43,8 +49,8 @@ public class SerializedObjectConverter extends TypeConverter {
             return null;
         }
         try {
-            final boolean useCompression = !f.getAnnotation(Serialized.class).disableCompression();
-            return Serializer.serialize(value, useCompression);
+            final Serialized serialized = f.getAnnotation(Serialized.class);
+            return Serializer.serialize(value, getSerializer(serialized), getCompressor(serialized));
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
@@ -55,4 +61,36 @@ public class SerializedObjectConverter extends TypeConverter {
         return optionalExtraInfo != null && (optionalExtraInfo.hasAnnotation(Serialized.class));
     }
 
+    private Compressor getCompressor(final Serialized serialized) {
+        return serialized.disableCompression() ? null : getStrategy(serialized.compressor());
+    }
+
+    private ObjectSerializer getSerializer(final Serialized serialized) {
+        return getStrategy(serialized.serializer());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getStrategy(final Class<T> type) {
+        Object strategy = strategies.get(type);
+        if (strategy == null) {
+            final Object created = getMapper() != null
+                                   ? getMapper().getOptions().getObjectFactory().createInstance(type)
+                                   : createInstance(type);
+            strategy = strategies.putIfAbsent(type, created);
+            if (strategy == null) {
+                strategy = created;
+            }
+        }
+        return (T) strategy;
+    }
+
+    private Object createInstance(final Class<?> type) {
+        try {
+            return type.newInstance();
+        } catch (InstantiationException e) {
+            throw new MappingException("Could not create " + type.getName(), e);
+        } catch (IllegalAccessException e) {
+            throw new MappingException("Could not create " + type.getName(), e);
+        }
+    }
 }
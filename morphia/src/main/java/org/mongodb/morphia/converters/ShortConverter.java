@@ -2,8 +2,8 @@ package org.mongodb.morphia.converters;
 
 
 import org.mongodb.morphia.mapping.MappedField;
+import org.mongodb.morphia.utils.PrimitiveArrays;
 
-import java.lang.reflect.Array;
 import java.util.List;
 
 
@@ -42,11 +42,7 @@ public class ShortConverter extends TypeConverter implements SimpleValueConverte
     }
 
     Object convertToArray(final Class type, final List<?> values) {
-        final Object array = Array.newInstance(type, values.size());
-        for (int i = 0; i < values.size(); i++) {
-            Array.set(array, i, ((Number) values.get(i)).shortValue());
-        }
-        return array;
+        return PrimitiveArrays.toArray(type, values);
     }
 
 }
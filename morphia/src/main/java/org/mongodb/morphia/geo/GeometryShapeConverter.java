@@ -42,7 +42,7 @@ public class GeometryShapeConverter extends TypeConverter implements SimpleValue
     @Override
     public Object encode(final Object value, final MappedField optionalExtraInfo) {
         if (value != null) {
-            Object encodedObjects = encodeObjects(((Geometry) value).getCoordinates());
+            Object encodedObjects = encodeGeometry((Geometry) value);
             return new BasicDBObject("type", geoJsonType.getType())
                        .append("coordinates", encodedObjects);
         } else {
@@ -59,8 +59,11 @@ public class GeometryShapeConverter extends TypeConverter implements SimpleValue
         if (geometryFactories.size() == 1) {
             // This should be the last list, so no need to decode further
             return factory.createGeometry(mongoDBGeometry);
+        } else if (geometryFactories.size() == 2 && geometryFactories.get(1) == POINT) {
+            // a list of positions: read them straight in to one packed array rather than a Point per position
+            return factory.createGeometry(Positions.decode(mongoDBGeometry).asPoints());
         } else {
-            List<Geometry> decodedObjects = new ArrayList<Geometry>();
+            List<Geometry> decodedObjects = new ArrayList<Geometry>(mongoDBGeometry.size());
             for (final Object objectThatNeedsDecoding : mongoDBGeometry) {
                 // MongoDB geometries are lists of lists of lists...
                 decodedObjects.add(decodeObject((List) objectThatNeedsDecoding,
@@ -71,11 +74,15 @@ public class GeometryShapeConverter extends TypeConverter implements SimpleValue
     }
 
     private Object encodeObjects(final List value) {
-        List<Object> encodedObjects = new ArrayList<Object>();
+        if (value instanceof Positions.Coordinates) {
+            // the coordinates of a Point are a read only view and can be written as they are
+            return value;
+        }
+        List<Object> encodedObjects = new ArrayList<Object>(value.size());
         for (final Object object : value) {
             if (object instanceof Geometry) {
                 //iterate through the list of geometry objects recursively until you find the lowest-level
-                encodedObjects.add(encodeObjects(((Geometry) object).getCoordinates()));
+                encodedObjects.add(encodeGeometry((Geometry) object));
             } else {
                 encodedObjects.add(getMapper().getConverters().encode(object));
             }
@@ -83,6 +90,15 @@ public class GeometryShapeConverter extends TypeConverter implements SimpleValue
         return encodedObjects;
     }
 
+    private Object encodeGeometry(final Geometry geometry) {
+        if (geometry instanceof LineString) {
+            return ((LineString) geometry).getPositions().encode();
+        } else if (geometry instanceof MultiPoint) {
+            return ((MultiPoint) geometry).getPositions().encode();
+        }
+        return encodeObjects(geometry.getCoordinates());
+    }
+
     /**
      * Extends and therefore configures GeometryShapeConverter to provide the specific configuration for converting MultiPolygon objects to
      * and from <a href="http://geojson.org/geojson-spec.html#id7">MongoDB representations</a> of the GeoJson.
@@ -1,6 +1,5 @@
 package org.mongodb.morphia.geo;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -14,23 +13,32 @@ import java.util.List;
  * @see org.mongodb.morphia.geo.GeoJson#lineString(Point...)
  */
 public class LineString implements Geometry {
-    private final List<Point> coordinates;
+    private final Positions coordinates;
 
     @SuppressWarnings("UnusedDeclaration") // used by Morphia
     private LineString() {
-        coordinates = new ArrayList<Point>();
+        coordinates = Positions.EMPTY;
     }
 
     LineString(final Point... points) {
-        this.coordinates = Arrays.asList(points);
+        this(Arrays.asList(points));
     }
 
     LineString(final List<Point> points) {
-        coordinates = points;
+        coordinates = Positions.of(points);
     }
 
+    /**
+     * Returns a read only view of the points, backed by the packed coordinates of this LineString.
+     *
+     * @return the points
+     */
     @Override
     public List<Point> getCoordinates() {
+        return coordinates.asPoints();
+    }
+
+    Positions getPositions() {
         return coordinates;
     }
 
@@ -61,7 +69,7 @@ public class LineString implements Geometry {
     @Override
     public String toString() {
         return "LineString{"
-               + "coordinates=" + coordinates
+               + "coordinates=" + getCoordinates()
                + '}';
     }
 }
@@ -1,6 +1,5 @@
 package org.mongodb.morphia.geo;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -13,23 +12,32 @@ import java.util.List;
  * @see org.mongodb.morphia.geo.GeoJson#multiPoint(Point...)
  */
 public class MultiPoint implements Geometry {
-    private final List<Point> coordinates;
+    private final Positions coordinates;
 
     @SuppressWarnings("UnusedDeclaration") // used by Morphia
     private MultiPoint() {
-        this.coordinates = new ArrayList<Point>();
+        this.coordinates = Positions.EMPTY;
     }
 
     MultiPoint(final Point... points) {
-        this.coordinates = Arrays.asList(points);
+        this(Arrays.asList(points));
     }
 
     MultiPoint(final List<Point> coordinates) {
-        this.coordinates = coordinates;
+        this.coordinates = Positions.of(coordinates);
     }
 
+    /**
+     * Returns a read only view of the points, backed by the packed coordinates of this MultiPoint.
+     *
+     * @return the points
+     */
     @Override
     public List<Point> getCoordinates() {
+        return coordinates.asPoints();
+    }
+
+    Positions getPositions() {
         return coordinates;
     }
 
@@ -60,7 +68,7 @@ public class MultiPoint implements Geometry {
     @Override
     public String toString() {
         return "MultiPoint{"
-               + "coordinates=" + coordinates
+               + "coordinates=" + getCoordinates()
                + '}';
     }
 }
@@ -3,7 +3,7 @@ package org.mongodb.morphia.geo;
 import org.mongodb.morphia.annotations.Embedded;
 import org.mongodb.morphia.annotations.Entity;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -17,20 +17,28 @@ import java.util.List;
 @Embedded
 @Entity(noClassnameStored = true)
 public class Point implements Geometry {
-    private final List<Double> coordinates = new ArrayList<Double>();
+    private final double[] coordinates;
 
     Point(final double latitude, final double longitude) {
-        coordinates.add(longitude);
-        coordinates.add(latitude);
+        coordinates = new double[]{longitude, latitude};
     }
 
     Point(final List<Double> coordinates) {
-        this.coordinates.addAll(coordinates);
+        this.coordinates = Positions.toArray(coordinates);
     }
 
+    Point(final double[] coordinates) {
+        this.coordinates = coordinates;
+    }
+
+    /**
+     * Returns a read only view of the coordinates of this point, longitude first.
+     *
+     * @return the coordinates
+     */
     @Override
     public List<Double> getCoordinates() {
-        return coordinates;
+        return new Positions.Coordinates(coordinates, 0, coordinates.length);
     }
 
     /**
@@ -39,7 +47,7 @@ public class Point implements Geometry {
      * @return the Point's latitude
      */
     public double getLatitude() {
-        return coordinates.get(1);
+        return coordinates[1];
     }
 
     /**
@@ -48,12 +56,20 @@ public class Point implements Geometry {
      * @return the Point's longitude
      */
     public double getLongitude() {
-        return coordinates.get(0);
+        return coordinates[0];
+    }
+
+    int dimension() {
+        return coordinates.length;
+    }
+
+    void copyTo(final double[] values, final int offset) {
+        System.arraycopy(coordinates, 0, values, offset, coordinates.length);
     }
 
     @Override
     public int hashCode() {
-        return coordinates.hashCode();
+        return Arrays.hashCode(coordinates);
     }
 
     /* equals, hashCode and toString. Useful primarily for testing and debugging. Don't forget to re-create when changing this class */
@@ -66,23 +82,11 @@ public class Point implements Geometry {
             return false;
         }
 
-        Point point = (Point) o;
-
-        if (getCoordinates().size() != point.getCoordinates().size()) {
-            return false;
-        }
-        for (int i = 0; i < coordinates.size(); i++) {
-            final Double coordinate = coordinates.get(i);
-            if (Double.compare(coordinate, point.getCoordinates().get(i)) != 0) {
-                return false;
-            }
-        }
-
-        return true;
+        return Arrays.equals(coordinates, ((Point) o).coordinates);
     }
 
     @Override
     public String toString() {
-        return String.format("Point{coordinates=%s}", coordinates);
+        return String.format("Point{coordinates=%s}", getCoordinates());
     }
 }
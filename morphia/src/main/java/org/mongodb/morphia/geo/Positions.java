@@ -0,0 +1,208 @@
+package org.mongodb.morphia.geo;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A packed sequence of GeoJSON positions.  The coordinates of every position are held in a single {@code double[]} and the positions,
+ * the {@link Point}s and the BSON arrays handed to the driver are views over it, so large lines and rings are neither boxed nor copied
+ * per position.
+ */
+final class Positions {
+    static final Positions EMPTY = new Positions(new double[0], new int[]{0});
+
+    private final double[] values;
+    private final int[] offsets;
+
+    /**
+     * @param values  the coordinates of every position, one after the other
+     * @param offsets the start of each position in values, followed by values.length
+     */
+    private Positions(final double[] values, final int[] offsets) {
+        this.values = values;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Packs the coordinates of the given points.  A list returned by {@link #asPoints()} is not copied again.
+     *
+     * @param points the points
+     * @return the packed positions
+     */
+    static Positions of(final List<Point> points) {
+        if (points instanceof PointList) {
+            return ((PointList) points).positions;
+        }
+        final int[] offsets = new int[points.size() + 1];
+        int length = 0;
+        for (int i = 0; i < points.size(); i++) {
+            offsets[i] = length;
+            length += points.get(i).dimension();
+        }
+        offsets[points.size()] = length;
+
+        final double[] values = new double[length];
+        for (int i = 0; i < points.size(); i++) {
+            points.get(i).copyTo(values, offsets[i]);
+        }
+        return new Positions(values, offsets);
+    }
+
+    /**
+     * Reads positions as the driver returns them, a list of lists of numbers, straight in to a packed array.
+     *
+     * @param positions the BSON positions
+     * @return the packed positions
+     */
+    static Positions decode(final List<?> positions) {
+        final int[] offsets = new int[positions.size() + 1];
+        int length = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            offsets[i] = length;
+            length += ((List<?>) positions.get(i)).size();
+        }
+        offsets[positions.size()] = length;
+
+        final double[] values = new double[length];
+        for (int i = 0; i < positions.size(); i++) {
+            readCoordinates((List<?>) positions.get(i), values, offsets[i]);
+        }
+        return new Positions(values, offsets);
+    }
+
+    /**
+     * Copies a list of numbers in to an array
+     *
+     * @param coordinates the numbers
+     * @return the array
+     */
+    static double[] toArray(final List<?> coordinates) {
+        if (coordinates instanceof Coordinates) {
+            return ((Coordinates) coordinates).toDoubleArray();
+        }
+        final double[] values = new double[coordinates.size()];
+        readCoordinates(coordinates, values, 0);
+        return values;
+    }
+
+    private static void readCoordinates(final List<?> coordinates, final double[] values, final int offset) {
+        for (int i = 0; i < coordinates.size(); i++) {
+            values[offset + i] = ((Number) coordinates.get(i)).doubleValue();
+        }
+    }
+
+    /**
+     * @return the number of positions
+     */
+    int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return the positions as a read only list of points
+     */
+    List<Point> asPoints() {
+        return new PointList(this);
+    }
+
+    /**
+     * @return the positions as a read only list of coordinate lists, ready to be written by the driver
+     */
+    List<List<Double>> encode() {
+        return new EncodedPositions(this);
+    }
+
+    private Coordinates coordinates(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return new Coordinates(values, offsets[index], offsets[index + 1]);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final Positions that = (Positions) o;
+        return Arrays.equals(offsets, that.offsets) && Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(offsets) + Arrays.hashCode(values);
+    }
+
+    /**
+     * A read only view of the coordinates of one position
+     */
+    static final class Coordinates extends AbstractList<Double> implements RandomAccess {
+        private final double[] values;
+        private final int from;
+        private final int to;
+
+        Coordinates(final double[] values, final int from, final int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Double get(final int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return values[from + index];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        double[] toDoubleArray() {
+            return Arrays.copyOfRange(values, from, to);
+        }
+    }
+
+    private static final class PointList extends AbstractList<Point> implements RandomAccess {
+        private final Positions positions;
+
+        private PointList(final Positions positions) {
+            this.positions = positions;
+        }
+
+        @Override
+        public Point get(final int index) {
+            return new Point(positions.coordinates(index).toDoubleArray());
+        }
+
+        @Override
+        public int size() {
+            return positions.size();
+        }
+    }
+
+    private static final class EncodedPositions extends AbstractList<List<Double>> implements RandomAccess {
+        private final Positions positions;
+
+        private EncodedPositions(final Positions positions) {
+            this.positions = positions;
+        }
+
+        @Override
+        public List<Double> get(final int index) {
+            return positions.coordinates(index);
+        }
+
+        @Override
+        public int size() {
+            return positions.size();
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.mongodb.morphia.Datastore;
 import org.mongodb.morphia.mapping.cache.EntityCache;
 import org.mongodb.morphia.utils.IterHelper;
 import org.mongodb.morphia.utils.IterHelper.MapIterCallback;
+import org.mongodb.morphia.utils.PrimitiveArrays;
 import org.mongodb.morphia.utils.ReflectionUtils;
 
 import java.lang.reflect.Modifier;
@@ -111,14 +112,8 @@ class EmbeddedMapper implements CustomMapper {
     @SuppressWarnings("unchecked")
     private void readCollection(final Datastore datastore, final Mapper mapper, final Object entity, final EntityCache cache,
                                 final MappedField mf, final DBObject dbObject) {
-        Collection values;
-
         final Object dbVal = mf.getDbObjectValue(dbObject);
         if (dbVal != null) {
-            // multiple documents in a List
-            values = mf.isSet() ? mapper.getOptions().getObjectFactory().createSet(mf)
-                                : mapper.getOptions().getObjectFactory().createList(mf);
-
             final List dbValues;
             if (dbVal instanceof List) {
                 dbValues = (List) dbVal;
@@ -127,6 +122,21 @@ class EmbeddedMapper implements CustomMapper {
                 dbValues.add(dbVal);
             }
 
+            if (mf.getType().isArray() && mapper.getConverters().hasPrimitiveConverter(mf.getSubClass())) {
+                // fill the array directly rather than boxing each element in to an intermediate collection, which is only the same as
+                // running the converter when it is the built in one
+                if (!dbValues.isEmpty() || mapper.getOptions().isStoreEmpties()) {
+                    mf.setFieldValue(entity, PrimitiveArrays.toArray(mf.getSubClass(), dbValues));
+                }
+                return;
+            }
+
+            // multiple documents in a List
+            final Collection values = mf.isSet() ? mapper.getOptions().getObjectFactory().createSet(mf)
+                                                 : mapper.getOptions().getObjectFactory().createList(mf);
+            final boolean simpleValues = mapper.getConverters().hasSimpleValueConverter(mf)
+                                         || mapper.getConverters().hasSimpleValueConverter(mf.getSubClass());
+
             EphemeralMappedField ephemeralMappedField = !mapper.isMapped(mf.getType()) && isMapOrCollection(mf)
                                                             && (mf.getSubType() instanceof ParameterizedType)
                                                         ? new EphemeralMappedField((ParameterizedType) mf.getSubType(), mf, mapper)
@@ -137,8 +147,7 @@ class EmbeddedMapper implements CustomMapper {
 
                 if (o != null) {
                     //run converters
-                    if (mapper.getConverters().hasSimpleValueConverter(mf) || mapper.getConverters()
-                                                                                    .hasSimpleValueConverter(mf.getSubClass())) {
+                    if (simpleValues) {
                         newEntity = mapper.getConverters().decode(mf.getSubClass(), o, mf);
                     } else {
                         newEntity = readMapOrCollectionOrEntity(datastore, mapper, cache, mf, ephemeralMappedField, (DBObject) o);
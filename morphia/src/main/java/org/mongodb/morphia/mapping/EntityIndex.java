@@ -0,0 +1,321 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.mapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static java.lang.String.format;
+
+/**
+ * A registry of the entities found at compile time by the {@code entity-processor} module.  Every jar or class directory built with the
+ * processor carries a {@value #RESOURCE} file which lists the classes annotated with {@code @Entity} or {@code @Embedded} along with the
+ * lifecycle methods and fields of each.  When enabled with {@link MapperOptions#setUseEntityIndex(boolean)},
+ * {@link org.mongodb.morphia.Morphia#mapPackage(String)} reads the classes from the index instead of scanning the classpath and
+ * {@link MappedClass} looks up the indexed lifecycle methods and fields directly instead of reflecting over every method and field of the
+ * class hierarchy.
+ * <p>
+ * The file is a properties file.  Each indexed class is a key whose value is {@value #ENTITY} or {@value #EMBEDDED}.  A key made of the
+ * class name and {@value #LIFECYCLE_SUFFIX} lists the lifecycle methods as {@code annotation|listener|declaringClass|method|parameters}
+ * entries separated by {@code ;} with parameter types separated by {@code ,}.  A class without that key has its lifecycle methods
+ * discovered reflectively.  A key made of the class name and {@value #FIELDS_SUFFIX} lists the fields which may be persisted as
+ * {@code declaringClass|field|storedName|type|indexed} entries separated by {@code ,}.
+ * <p>
+ * Converters and the remaining annotations of each field still depend on the runtime {@link MapperOptions} so the indexed fields are
+ * mapped as usual and their stored name, type and {@code @Indexed} marker are then checked against the index.  A class whose fields
+ * disagree with the index has them discovered reflectively.
+ *
+ * @since 1.4
+ */
+public final class EntityIndex {
+    /**
+     * The location of the index within a jar or class directory
+     */
+    public static final String RESOURCE = "META-INF/morphia/entity-index.properties";
+
+    /**
+     * The kind recorded for classes annotated with {@code @Entity}
+     */
+    public static final String ENTITY = "entity";
+
+    /**
+     * The kind recorded for classes annotated with {@code @Embedded}
+     */
+    public static final String EMBEDDED = "embedded";
+
+    /**
+     * The suffix of the keys listing the lifecycle methods of a class
+     */
+    public static final String LIFECYCLE_SUFFIX = ".lifecycle";
+
+    /**
+     * The suffix of the keys listing the fields of a class
+     */
+    public static final String FIELDS_SUFFIX = ".fields";
+
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<String, Class<?>>();
+
+    static {
+        for (final Class<?> type : new Class<?>[]{boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class,
+                                                  double.class}) {
+            PRIMITIVES.put(type.getName(), type);
+        }
+    }
+
+    private final ClassLoader loader;
+    private final Map<String, String> kinds = new TreeMap<String, String>();
+    private final Map<String, String> lifecycleMethods = new HashMap<String, String>();
+    private final Map<String, String> fields = new HashMap<String, String>();
+
+    private EntityIndex(final ClassLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Loads and merges every index visible to the given ClassLoader.
+     *
+     * @param loader the ClassLoader to search and to load the indexed classes with
+     * @return the index, which is empty if no index was found
+     */
+    public static EntityIndex load(final ClassLoader loader) {
+        final EntityIndex index = new EntityIndex(loader);
+        try {
+            final Enumeration<URL> resources = loader.getResources(RESOURCE);
+            while (resources.hasMoreElements()) {
+                index.read(resources.nextElement());
+            }
+        } catch (IOException e) {
+            throw new MappingException("Could not read the entity index " + RESOURCE, e);
+        }
+        return index;
+    }
+
+    /**
+     * @return the names of all the indexed classes
+     */
+    public Set<String> getClassNames() {
+        return Collections.unmodifiableSet(kinds.keySet());
+    }
+
+    /**
+     * Finds the indexed classes of a package
+     *
+     * @param packageName    the package
+     * @param subPackages    true if the classes of the sub-packages should be included
+     * @return the classes, which is empty if none of the package's classes are indexed
+     */
+    public Set<Class<?>> getClasses(final String packageName, final boolean subPackages) {
+        final Set<Class<?>> classes = new LinkedHashSet<Class<?>>();
+        final String prefix = packageName.isEmpty() ? "" : packageName + ".";
+        for (final String name : kinds.keySet()) {
+            if (name.startsWith(prefix) && (subPackages || name.indexOf('.', prefix.length()) == -1)) {
+                classes.add(loadClass(name));
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * @param className the class name
+     * @return the recorded kind, {@value #ENTITY} or {@value #EMBEDDED}, or null if the class is not indexed
+     */
+    public String getKind(final String className) {
+        return kinds.get(className);
+    }
+
+    /**
+     * @return true if no index was found
+     */
+    public boolean isEmpty() {
+        return kinds.isEmpty();
+    }
+
+    /**
+     * Resolves the indexed lifecycle methods of a class.
+     *
+     * @param type the mapped class
+     * @return the lifecycle methods or null if they are not indexed and have to be discovered reflectively
+     * @throws ClassNotFoundException if an indexed class can not be loaded
+     * @throws NoSuchMethodException  if an indexed method no longer exists
+     */
+    List<IndexedLifecycleMethod> getLifecycleMethods(final Class<?> type) throws ClassNotFoundException, NoSuchMethodException {
+        final String value = lifecycleMethods.get(type.getName());
+        if (value == null) {
+            return null;
+        }
+        final List<IndexedLifecycleMethod> methods = new ArrayList<IndexedLifecycleMethod>();
+        for (final String entry : split(value, ';')) {
+            final List<String> parts = split(entry, '|');
+            if (parts.size() != 5) {
+                throw new MappingException(format("Invalid lifecycle entry '%s' for %s in %s", entry, type.getName(), RESOURCE));
+            }
+            final List<String> parameterNames = split(parts.get(4), ',');
+            final Class<?>[] parameters = new Class<?>[parameterNames.size()];
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = resolve(type, parameterNames.get(i));
+            }
+            final Class<?> listener = resolve(type, parts.get(1));
+            final Method method = resolve(type, parts.get(2)).getDeclaredMethod(parts.get(3), parameters);
+            methods.add(new IndexedLifecycleMethod(resolve(type, parts.get(0)).asSubclass(Annotation.class), method,
+                                                   listener.equals(type) ? null : listener));
+        }
+        return methods;
+    }
+
+    /**
+     * Resolves the indexed fields of a class.
+     *
+     * @param type the mapped class
+     * @return the fields or null if they are not indexed and have to be discovered reflectively
+     * @throws ClassNotFoundException if an indexed class can not be loaded
+     * @throws NoSuchFieldException   if an indexed field no longer exists
+     */
+    List<IndexedField> getFields(final Class<?> type) throws ClassNotFoundException, NoSuchFieldException {
+        final String value = fields.get(type.getName());
+        if (value == null) {
+            return null;
+        }
+        final List<IndexedField> indexed = new ArrayList<IndexedField>();
+        for (final String entry : split(value, ',')) {
+            final List<String> parts = split(entry, '|');
+            if (parts.size() != 5) {
+                throw new MappingException(format("Invalid field entry '%s' for %s in %s", entry, type.getName(), RESOURCE));
+            }
+            indexed.add(new IndexedField(resolve(type, parts.get(0)).getDeclaredField(parts.get(1)), parts.get(2), parts.get(3),
+                                         Boolean.parseBoolean(parts.get(4))));
+        }
+        return indexed;
+    }
+
+    private Class<?> loadClass(final String name) {
+        try {
+            return Class.forName(name, false, loader);
+        } catch (ClassNotFoundException e) {
+            throw new MappingException(format("The indexed class %s could not be loaded.  The entity index %s may be stale.", name,
+                                              RESOURCE), e);
+        }
+    }
+
+    private void read(final URL url) throws IOException {
+        final Properties properties = new Properties();
+        final InputStream stream = url.openStream();
+        try {
+            properties.load(stream);
+        } finally {
+            stream.close();
+        }
+        for (final String key : properties.stringPropertyNames()) {
+            final String value = properties.getProperty(key);
+            if (key.endsWith(LIFECYCLE_SUFFIX)) {
+                lifecycleMethods.put(key.substring(0, key.length() - LIFECYCLE_SUFFIX.length()), value);
+            } else if (key.endsWith(FIELDS_SUFFIX)) {
+                fields.put(key.substring(0, key.length() - FIELDS_SUFFIX.length()), value);
+            } else {
+                kinds.put(key, value);
+            }
+        }
+    }
+
+    private Class<?> resolve(final Class<?> type, final String name) throws ClassNotFoundException {
+        final Class<?> primitive = PRIMITIVES.get(name);
+        return primitive != null ? primitive : Class.forName(name, false, type.getClassLoader());
+    }
+
+    private static List<String> split(final String value, final char separator) {
+        final List<String> parts = new ArrayList<String>();
+        if (value.isEmpty()) {
+            return parts;
+        }
+        int start = 0;
+        int end = value.indexOf(separator);
+        while (end != -1) {
+            parts.add(value.substring(start, end));
+            start = end + 1;
+            end = value.indexOf(separator, start);
+        }
+        parts.add(value.substring(start));
+        return parts;
+    }
+
+    static final class IndexedLifecycleMethod {
+        private final Class<? extends Annotation> annotation;
+        private final Method method;
+        private final Class<?> listener;
+
+        IndexedLifecycleMethod(final Class<? extends Annotation> annotation, final Method method, final Class<?> listener) {
+            this.annotation = annotation;
+            this.method = method;
+            this.listener = listener;
+        }
+
+        Class<? extends Annotation> getAnnotation() {
+            return annotation;
+        }
+
+        Class<?> getListener() {
+            return listener;
+        }
+
+        Method getMethod() {
+            return method;
+        }
+    }
+
+    static final class IndexedField {
+        private final Field field;
+        private final String storedName;
+        private final String typeName;
+        private final boolean indexed;
+
+        IndexedField(final Field field, final String storedName, final String typeName, final boolean indexed) {
+            this.field = field;
+            this.storedName = storedName;
+            this.typeName = typeName;
+            this.indexed = indexed;
+        }
+
+        Field getField() {
+            return field;
+        }
+
+        String getStoredName() {
+            return storedName;
+        }
+
+        String getTypeName() {
+            return typeName;
+        }
+
+        boolean isIndexed() {
+            return indexed;
+        }
+    }
+}
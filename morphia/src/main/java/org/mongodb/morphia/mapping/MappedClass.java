@@ -26,6 +26,7 @@ import org.mongodb.morphia.annotations.EntityListeners;
 import org.mongodb.morphia.annotations.Field;
 import org.mongodb.morphia.annotations.Id;
 import org.mongodb.morphia.annotations.IndexOptions;
+import org.mongodb.morphia.annotations.Indexed;
 import org.mongodb.morphia.annotations.Indexes;
 import org.mongodb.morphia.annotations.PostLoad;
 import org.mongodb.morphia.annotations.PostPersist;
@@ -35,12 +36,15 @@ import org.mongodb.morphia.annotations.PreSave;
 import org.mongodb.morphia.annotations.Property;
 import org.mongodb.morphia.annotations.Reference;
 import org.mongodb.morphia.annotations.Serialized;
+import org.mongodb.morphia.annotations.ShardKey;
 import org.mongodb.morphia.annotations.Transient;
 import org.mongodb.morphia.annotations.Validation;
 import org.mongodb.morphia.annotations.Version;
 import org.mongodb.morphia.logging.Logger;
 import org.mongodb.morphia.logging.MorphiaLoggerFactory;
 import org.mongodb.morphia.mapping.validation.MappingValidator;
+import org.mongodb.morphia.metrics.MetricsListener;
+import org.mongodb.morphia.metrics.OperationType;
 import org.mongodb.morphia.utils.ReflectionUtils;
 
 import java.io.Serializable;
@@ -93,6 +97,7 @@ public class MappedClass {
         INTERESTING_ANNOTATIONS.add(Validation.class);
         INTERESTING_ANNOTATIONS.add(Field.class);
         INTERESTING_ANNOTATIONS.add(IndexOptions.class);
+        INTERESTING_ANNOTATIONS.add(ShardKey.class);
     }
 
     /**
@@ -109,6 +114,10 @@ public class MappedClass {
      * a list of the fields to map
      */
     private final List<MappedField> persistenceFields = new ArrayList<MappedField>();
+    /**
+     * the shard key fields other than the ID, added to the filters of entity based operations
+     */
+    private final List<MappedField> shardKeyFields = new ArrayList<MappedField>();
     /**
      * the type we are mapping to/from
      */
@@ -242,10 +251,34 @@ public class MappedClass {
      * @param mapper  the Mapper to use
      * @return dbObj
      */
-    @SuppressWarnings({"WMI", "unchecked"})
     public DBObject callLifecycleMethods(final Class<? extends Annotation> event, final Object entity, final DBObject dbObj,
                                          final Mapper mapper) {
-        final List<ClassMethodPair> methodPairs = getLifecycleMethods((Class<Annotation>) event);
+        final OperationType operation = PreLoad.class.equals(event) || PostLoad.class.equals(event)
+                                        ? OperationType.QUERY
+                                        : OperationType.SAVE;
+        return callLifecycleMethods(event, entity, dbObj, mapper, operation);
+    }
+
+    /**
+     * Call the lifecycle methods
+     *
+     * @param event     the lifecycle annotation
+     * @param entity    the entity to process
+     * @param dbObj     the dbObject to use
+     * @param mapper    the Mapper to use
+     * @param operation the operation under which the time spent is recorded
+     * @return dbObj
+     * @since 1.4
+     */
+    @SuppressWarnings({"WMI", "unchecked"})
+    public DBObject callLifecycleMethods(final Class<? extends Annotation> event, final Object entity, final DBObject dbObj,
+                                         final Mapper mapper, final OperationType operation) {
+        final List<ClassMethodPair> methodPairs = getLifecycleMethods(event);
+        if (methodPairs == null && mapper.getInterceptors().isEmpty()) {
+            return dbObj;
+        }
+        final MetricsListener metrics = mapper.getOptions().getMetricsListener();
+        final long start = metrics != null ? System.nanoTime() : 0;
         DBObject retDbObj = dbObj;
         try {
             Object tempObj;
@@ -296,6 +329,10 @@ public class MappedClass {
             throw new RuntimeException(e);
         }
 
+        if (metrics != null) {
+            metrics.lifecycleTime(operation, event, getCollectionName(), clazz, System.nanoTime() - start);
+        }
+
         return retDbObj;
     }
 
@@ -403,7 +440,7 @@ public class MappedClass {
      * @param clazz the annotation to search with
      * @return the list of methods
      */
-    public List<ClassMethodPair> getLifecycleMethods(final Class<Annotation> clazz) {
+    public List<ClassMethodPair> getLifecycleMethods(final Class<? extends Annotation> clazz) {
         return lifecycleMethods.get(clazz);
     }
 
@@ -457,6 +494,14 @@ public class MappedClass {
         return fields.isEmpty() ? null : fields.get(0);
     }
 
+    /**
+     * @return the fields of the {@link ShardKey} other than the ID, in declaration order.  Empty if the class declares no shard key.
+     * @since 1.4
+     */
+    public List<MappedField> getShardKeyFields() {
+        return Collections.unmodifiableList(shardKeyFields);
+    }
+
     /**
      * @return the persistenceFields
      */
@@ -546,19 +591,21 @@ public class MappedClass {
             interfaces.add(mapper.getMappedClass(aClass));
         }
 
-        final List<Class<?>> lifecycleClasses = new ArrayList<Class<?>>();
-        lifecycleClasses.add(clazz);
+        if (!discoverIndexedLifecycleMethods(mapper)) {
+            final List<Class<?>> lifecycleClasses = new ArrayList<Class<?>>();
+            lifecycleClasses.add(clazz);
 
-        final EntityListeners entityLisAnn = (EntityListeners) getAnnotation(EntityListeners.class);
-        if (entityLisAnn != null && entityLisAnn.value().length != 0) {
-            Collections.addAll(lifecycleClasses, entityLisAnn.value());
-        }
+            final EntityListeners entityLisAnn = (EntityListeners) getAnnotation(EntityListeners.class);
+            if (entityLisAnn != null && entityLisAnn.value().length != 0) {
+                Collections.addAll(lifecycleClasses, entityLisAnn.value());
+            }
 
-        for (final Class<?> cls : lifecycleClasses) {
-            for (final Method m : ReflectionUtils.getDeclaredAndInheritedMethods(cls)) {
-                for (final Class<? extends Annotation> c : LIFECYCLE_ANNOTATIONS) {
-                    if (m.isAnnotationPresent(c)) {
-                        addLifecycleEventMethod(c, m, cls.equals(clazz) ? null : cls);
+            for (final Class<?> cls : lifecycleClasses) {
+                for (final Method m : ReflectionUtils.getDeclaredAndInheritedMethods(cls)) {
+                    for (final Class<? extends Annotation> c : LIFECYCLE_ANNOTATIONS) {
+                        if (m.isAnnotationPresent(c)) {
+                            addLifecycleEventMethod(c, m, cls.equals(clazz) ? null : cls);
+                        }
                     }
                 }
             }
@@ -566,30 +613,139 @@ public class MappedClass {
 
         update();
 
-        for (final java.lang.reflect.Field field : ReflectionUtils.getDeclaredAndInheritedFields(clazz, true)) {
-            field.setAccessible(true);
-            final int fieldMods = field.getModifiers();
-            if (!isIgnorable(field, fieldMods, mapper)) {
-                if (field.isAnnotationPresent(Id.class)) {
-                    persistenceFields.add(new MappedField(field, clazz, mapper));
-                    update();
-                } else if (field.isAnnotationPresent(Property.class)
-                           || field.isAnnotationPresent(Reference.class)
-                           || field.isAnnotationPresent(Embedded.class)
-                           || field.isAnnotationPresent(Serialized.class)
-                           || isSupportedType(field.getType())
-                           || ReflectionUtils.implementsInterface(field.getType(), Serializable.class)) {
-                    persistenceFields.add(new MappedField(field, clazz, mapper));
-                } else {
-                    if (mapper.getOptions().getDefaultMapper() != null) {
-                        persistenceFields.add(new MappedField(field, clazz, mapper));
-                    } else if (LOG.isWarningEnabled()) {
-                        LOG.warning(format("Ignoring (will not persist) field: %s.%s [type:%s]", clazz.getName(), field.getName(),
-                                           field.getType().getName()));
-                    }
-                }
+        if (!discoverIndexedFields(mapper)) {
+            for (final java.lang.reflect.Field field : ReflectionUtils.getDeclaredAndInheritedFields(clazz, true)) {
+                mapField(field, mapper);
+            }
+        }
+
+        discoverShardKey();
+    }
+
+    /**
+     * Maps the field unless it is ignorable or of a type that can not be persisted.
+     *
+     * @return the new MappedField or null if the field is not mapped
+     */
+    private MappedField mapField(final java.lang.reflect.Field field, final Mapper mapper) {
+        field.setAccessible(true);
+        final int fieldMods = field.getModifiers();
+        if (isIgnorable(field, fieldMods, mapper)) {
+            return null;
+        }
+        MappedField mappedField = null;
+        if (field.isAnnotationPresent(Id.class)) {
+            mappedField = new MappedField(field, clazz, mapper);
+            persistenceFields.add(mappedField);
+            update();
+        } else if (field.isAnnotationPresent(Property.class)
+                   || field.isAnnotationPresent(Reference.class)
+                   || field.isAnnotationPresent(Embedded.class)
+                   || field.isAnnotationPresent(Serialized.class)
+                   || isSupportedType(field.getType())
+                   || ReflectionUtils.implementsInterface(field.getType(), Serializable.class)) {
+            mappedField = new MappedField(field, clazz, mapper);
+            persistenceFields.add(mappedField);
+        } else {
+            if (mapper.getOptions().getDefaultMapper() != null) {
+                mappedField = new MappedField(field, clazz, mapper);
+                persistenceFields.add(mappedField);
+            } else if (LOG.isWarningEnabled()) {
+                LOG.warning(format("Ignoring (will not persist) field: %s.%s [type:%s]", clazz.getName(), field.getName(),
+                                   field.getType().getName()));
+            }
+        }
+        return mappedField;
+    }
+
+    private void discoverShardKey() {
+        final ShardKey shardKey = (ShardKey) getFirstAnnotation(ShardKey.class);
+        if (shardKey == null) {
+            return;
+        }
+        for (final String name : shardKey.value()) {
+            MappedField mf = getMappedFieldByJavaField(name);
+            if (mf == null) {
+                mf = getMappedField(name);
+            }
+            if (mf == null) {
+                throw new MappingException(format("The shard key field '%s' is not a mapped field of %s", name, clazz.getName()));
+            }
+            if (!mf.hasAnnotation(Id.class) && !shardKeyFields.contains(mf)) {
+                shardKeyFields.add(mf);
+            }
+        }
+    }
+
+    /**
+     * Registers the lifecycle methods recorded in the entity index, if any, sparing the reflective scan of the class hierarchy.
+     *
+     * @return true if the lifecycle methods were found in the index
+     */
+    private boolean discoverIndexedLifecycleMethods(final Mapper mapper) {
+        final EntityIndex index = mapper.getEntityIndex();
+        if (index == null) {
+            return false;
+        }
+        final List<EntityIndex.IndexedLifecycleMethod> methods;
+        try {
+            methods = index.getLifecycleMethods(clazz);
+        } catch (ClassNotFoundException e) {
+            LOG.warning(format("Ignoring the stale entity index entry of %s", clazz.getName()), e);
+            return false;
+        } catch (NoSuchMethodException e) {
+            LOG.warning(format("Ignoring the stale entity index entry of %s", clazz.getName()), e);
+            return false;
+        }
+        if (methods == null) {
+            return false;
+        }
+        for (final EntityIndex.IndexedLifecycleMethod method : methods) {
+            addLifecycleEventMethod(method.getAnnotation(), method.getMethod(), method.getListener());
+        }
+        return true;
+    }
+
+    /**
+     * Maps the fields recorded in the entity index, if any, sparing the reflective scan of the class hierarchy.  The stored name, type and
+     * {@link Indexed} marker of each mapped field are checked against the index.
+     *
+     * @return true if the fields were found in the index and agree with it
+     */
+    private boolean discoverIndexedFields(final Mapper mapper) {
+        final EntityIndex index = mapper.getEntityIndex();
+        if (index == null) {
+            return false;
+        }
+        final List<EntityIndex.IndexedField> fields;
+        try {
+            fields = index.getFields(clazz);
+        } catch (ClassNotFoundException e) {
+            LOG.warning(format("Ignoring the stale entity index entry of %s", clazz.getName()), e);
+            return false;
+        } catch (NoSuchFieldException e) {
+            LOG.warning(format("Ignoring the stale entity index entry of %s", clazz.getName()), e);
+            return false;
+        }
+        if (fields == null) {
+            return false;
+        }
+        for (final EntityIndex.IndexedField indexed : fields) {
+            final java.lang.reflect.Field field = indexed.getField();
+            boolean stale = !field.getType().getName().equals(indexed.getTypeName());
+            if (!stale) {
+                final MappedField mappedField = mapField(field, mapper);
+                stale = mappedField != null && (!mappedField.getNameToStore().equals(indexed.getStoredName())
+                                                || mappedField.hasAnnotation(Indexed.class) != indexed.isIndexed());
+            }
+            if (stale) {
+                LOG.warning(format("Ignoring the stale entity index entry of %s: the field %s has changed", clazz.getName(),
+                                   field.getName()));
+                persistenceFields.clear();
+                return false;
             }
         }
+        return true;
     }
 
     /**
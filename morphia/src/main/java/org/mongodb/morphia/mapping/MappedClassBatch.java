@@ -0,0 +1,247 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.mapping;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maps a batch of classes for {@link Mapper#addMappedClasses(Collection, boolean)}.  The classes and their unmapped supertypes are
+ * grouped by their depth in the type hierarchy so that each group can be built in parallel once the supertypes it refers to are staged.
+ */
+class MappedClassBatch {
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final Mapper mapper;
+    private final List<Class> requested = new ArrayList<Class>();
+    private final Map<Class, Integer> depths = new LinkedHashMap<Class, Integer>();
+    private final ConcurrentMap<String, MappedClass> staged = new ConcurrentHashMap<String, MappedClass>();
+    private final Map<Class, Throwable> failures = new ConcurrentHashMap<Class, Throwable>();
+
+    MappedClassBatch(final Mapper mapper, final Collection<Class> classes) {
+        this.mapper = mapper;
+        for (final Class type : new LinkedHashSet<Class>(classes)) {
+            if (!mapper.isMapped(type)) {
+                requested.add(type);
+                depth(type);
+            }
+        }
+    }
+
+    List<MappedClass> map(final int threads, final boolean ignoreInvalid) {
+        if (requested.isEmpty()) {
+            return new ArrayList<MappedClass>();
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, depths.size())),
+                                                                      new MappingThreadFactory());
+        try {
+            for (final List<Class> level : getLevels()) {
+                final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+                for (final Class type : level) {
+                    tasks.add(new BuildTask(type));
+                }
+                run(executor, tasks);
+            }
+
+            for (final Class type : depths.keySet()) {
+                final MappedClass mc = staged.get(type.getName());
+                if (mc != null) {
+                    mapper.addConverters(mc);
+                }
+            }
+
+            final List<Callable<Object>> validations = new ArrayList<Callable<Object>>();
+            for (final Class type : requested) {
+                final MappedClass mc = staged.get(type.getName());
+                if (mc != null && !mc.isInterface()) {
+                    validations.add(new ValidateTask(type, mc));
+                }
+            }
+            run(executor, validations);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final List<MappedClass> mapped = new ArrayList<MappedClass>();
+        for (final Class type : requested) {
+            final Throwable failure = getFailure(type);
+            if (failure == null) {
+                final MappedClass mc = staged.get(type.getName());
+                mapped.add(mc != null ? mc : mapper.getMappedClass(type));
+            } else if (ignoreInvalid && failure instanceof MappingException) {
+                staged.remove(type.getName());
+            } else {
+                rethrow(failure);
+            }
+        }
+
+        mapper.publish(getStagedClasses());
+        return mapped;
+    }
+
+    /**
+     * The staged classes, supertypes first, followed by the classes created on demand while building or validating, sorted by name.
+     */
+    private List<MappedClass> getStagedClasses() {
+        final Map<String, MappedClass> remaining = new TreeMap<String, MappedClass>(staged);
+        final List<MappedClass> classes = new ArrayList<MappedClass>();
+        for (final Class type : depths.keySet()) {
+            final MappedClass mc = remaining.remove(type.getName());
+            if (mc != null) {
+                classes.add(mc);
+            }
+        }
+        for (final MappedClass mc : remaining.values()) {
+            mapper.addConverters(mc);
+            classes.add(mc);
+        }
+        return classes;
+    }
+
+    private int depth(final Class type) {
+        if (type == null || type == Object.class || mapper.isMapped(type)) {
+            return -1;
+        }
+        final Integer known = depths.get(type);
+        if (known != null) {
+            return known;
+        }
+        int max = depth(type.getSuperclass());
+        for (final Class anInterface : type.getInterfaces()) {
+            max = Math.max(max, depth(anInterface));
+        }
+        depths.put(type, max + 1);
+        return max + 1;
+    }
+
+    private Throwable getFailure(final Class type) {
+        final Throwable failure = failures.get(type);
+        if (failure == null && !staged.containsKey(type.getName()) && !mapper.isMapped(type)) {
+            return new MappingException("Could not map " + type.getName());
+        }
+        return failure;
+    }
+
+    private List<List<Class>> getLevels() {
+        final List<List<Class>> levels = new ArrayList<List<Class>>();
+        for (final Entry<Class, Integer> entry : depths.entrySet()) {
+            while (levels.size() <= entry.getValue()) {
+                levels.add(new ArrayList<Class>());
+            }
+            levels.get(entry.getValue()).add(entry.getKey());
+        }
+        return levels;
+    }
+
+    private void rethrow(final Throwable failure) {
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw new MappingException(failure.getMessage(), failure);
+    }
+
+    private void run(final ExecutorService executor, final List<Callable<Object>> tasks) {
+        try {
+            executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MappingException("Interrupted while mapping classes", e);
+        }
+    }
+
+    private abstract class StagedTask implements Callable<Object> {
+        private final Class type;
+
+        StagedTask(final Class type) {
+            this.type = type;
+        }
+
+        @Override
+        public Object call() {
+            mapper.stage(staged);
+            try {
+                execute();
+            } catch (RuntimeException e) {
+                failures.put(type, e);
+            } catch (Error e) {
+                failures.put(type, e);
+            } finally {
+                mapper.stage(null);
+            }
+            return null;
+        }
+
+        Class getType() {
+            return type;
+        }
+
+        abstract void execute();
+    }
+
+    private class BuildTask extends StagedTask {
+        BuildTask(final Class type) {
+            super(type);
+        }
+
+        @Override
+        void execute() {
+            mapper.getMappedClass(getType());
+        }
+    }
+
+    private class ValidateTask extends StagedTask {
+        private final MappedClass mappedClass;
+
+        ValidateTask(final Class type, final MappedClass mappedClass) {
+            super(type);
+            this.mappedClass = mappedClass;
+        }
+
+        @Override
+        void execute() {
+            mappedClass.validate(mapper);
+        }
+    }
+
+    private static class MappingThreadFactory implements ThreadFactory {
+        private final int pool = POOL_COUNT.incrementAndGet();
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "morphia-mapping-" + pool + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.mongodb.morphia.annotations.Indexed;
 import org.mongodb.morphia.annotations.NotSaved;
 import org.mongodb.morphia.annotations.Property;
 import org.mongodb.morphia.annotations.Reference;
+import org.mongodb.morphia.annotations.Sequence;
 import org.mongodb.morphia.annotations.Serialized;
 import org.mongodb.morphia.annotations.Text;
 import org.mongodb.morphia.annotations.Transient;
@@ -77,6 +78,7 @@ public class MappedField {
         INTERESTING.add(Embedded.class);
         INTERESTING.add(Id.class);
         INTERESTING.add(Version.class);
+        INTERESTING.add(Sequence.class);
         INTERESTING.add(ConstructorArgs.class);
         INTERESTING.add(AlsoLoad.class);
         INTERESTING.add(NotSaved.class);
@@ -39,6 +39,7 @@ import org.mongodb.morphia.mapping.lazy.LazyFeatureDependencies;
 import org.mongodb.morphia.mapping.lazy.LazyProxyFactory;
 import org.mongodb.morphia.mapping.lazy.proxy.ProxiedEntityReference;
 import org.mongodb.morphia.mapping.lazy.proxy.ProxyHelper;
+import org.mongodb.morphia.metrics.OperationType;
 import org.mongodb.morphia.query.Query;
 import org.mongodb.morphia.query.QueryImpl;
 import org.mongodb.morphia.query.ValidationException;
@@ -56,6 +57,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import static java.lang.String.format;
@@ -86,12 +88,23 @@ public class Mapper {
      * support polymorphism
      */
     public static final String CLASS_NAME_FIELDNAME = "className";
+    /**
+     * Prefix of the fields in which a query run with {@link org.mongodb.morphia.query.FindOptions#lookupReferences(boolean)} returns the
+     * documents referenced by each reference field
+     *
+     * @since 1.4
+     */
+    public static final String REFERENCE_LOOKUP_PREFIX = "__morphia_lookup_";
     private static final Logger LOG = MorphiaLoggerFactory.get(Mapper.class);
     /**
      * Set of classes that registered by this mapper
      */
-    private final Map<String, MappedClass> mappedClasses = new ConcurrentHashMap<String, MappedClass>();
-    private final ConcurrentHashMap<String, Set<MappedClass>> mappedClassesByCollection = new ConcurrentHashMap<String, Set<MappedClass>>();
+    private volatile Map<String, MappedClass> mappedClasses = new ConcurrentHashMap<String, MappedClass>();
+    private volatile ConcurrentHashMap<String, Set<MappedClass>> mappedClassesByCollection =
+        new ConcurrentHashMap<String, Set<MappedClass>>();
+    private final Object publishLock = new Object();
+    // MappedClasses built by the current thread for a batch which has not been published yet
+    private final ThreadLocal<ConcurrentMap<String, MappedClass>> stagedClasses = new ThreadLocal<ConcurrentMap<String, MappedClass>>();
 
     //EntityInterceptors; these are called after EntityListeners and lifecycle methods on an Entity, for all Entities
     private final List<EntityInterceptor> interceptors = new LinkedList<EntityInterceptor>();
@@ -102,6 +115,7 @@ public class Mapper {
     private final LazyProxyFactory proxyFactory = LazyFeatureDependencies.createDefaultProxyFactory();
     private final org.mongodb.morphia.converters.Converters converters;
     private MapperOptions opts = new MapperOptions();
+    private EntityIndex entityIndex;
 
     /**
      * Creates a Mapper with the given options.
@@ -161,6 +175,23 @@ public class Mapper {
         return mappedClass;
     }
 
+    /**
+     * Creates and validates the MappedClasses of several classes using {@link MapperOptions#getParallelMappingThreads()} threads.  The
+     * classes and their supertypes are built in parallel, supertypes first, then validated in parallel.  Nothing is visible to other
+     * threads until every class has been built and validated, at which point they are all published at once.
+     * <p>
+     * Failures are reported as if the classes had been mapped one at a time in the given order: the failure of the first class to fail is
+     * rethrown and nothing is published.
+     *
+     * @param classes       the classes to map
+     * @param ignoreInvalid true if the classes which fail to map or validate should be skipped rather than failing the whole batch
+     * @return the MappedClasses of the given classes which were mapped
+     * @since 1.4
+     */
+    public List<MappedClass> addMappedClasses(final Collection<Class> classes, final boolean ignoreInvalid) {
+        return new MappedClassBatch(this, classes).map(getOptions().getParallelMappingThreads(), ignoreInvalid);
+    }
+
     /**
      * Creates a cache for tracking entities seen during processing
      *
@@ -338,6 +369,22 @@ public class Mapper {
         return converters;
     }
 
+    /**
+     * Loads, once, the entity indexes visible to the context ClassLoader.
+     *
+     * @return the entity index or null if {@link MapperOptions#isUseEntityIndex()} is false
+     * @since 1.4
+     */
+    public synchronized EntityIndex getEntityIndex() {
+        if (!opts.isUseEntityIndex()) {
+            return null;
+        }
+        if (entityIndex == null) {
+            entityIndex = EntityIndex.load(Thread.currentThread().getContextClassLoader());
+        }
+        return entityIndex;
+    }
+
     /**
      * Gets the ID value for an entity
      *
@@ -481,6 +528,10 @@ public class Mapper {
 
         MappedClass mc = mappedClasses.get(type.getName());
         if (mc == null) {
+            final ConcurrentMap<String, MappedClass> staged = stagedClasses.get();
+            if (staged != null) {
+                return getStagedClass(staged, type);
+            }
             mc = new MappedClass(type, this);
             // no validation
             addMappedClass(mc, false);
@@ -590,7 +641,7 @@ public class Mapper {
      * @see Mapper#CLASS_NAME_FIELDNAME
      */
     public DBObject toDBObject(final Object entity, final Map<Object, DBObject> involvedObjects) {
-        return toDBObject(entity, involvedObjects, true);
+        return toDBObject(entity, involvedObjects, OperationType.SAVE);
     }
 
     /**
@@ -747,10 +798,11 @@ public class Mapper {
     }
 
     protected LazyProxyFactory getProxyFactory() {
-        return proxyFactory;
+        final LazyProxyFactory configured = opts.getProxyFactory();
+        return configured != null ? configured : proxyFactory;
     }
 
-    private void addConverters(final MappedClass mc) {
+    void addConverters(final MappedClass mc) {
         final List<Annotation> convertersList = mc.getAnnotations(Converters.class);
         if (convertersList != null) {
             for (Annotation a : convertersList) {
@@ -777,20 +829,69 @@ public class Mapper {
             mc.validate(this);
         }
 
-        mappedClasses.put(mc.getClazz().getName(), mc);
+        synchronized (publishLock) {
+            register(mappedClasses, mappedClassesByCollection, mc);
+        }
+
+        return mc;
+    }
+
+    /**
+     * Publishes a batch of MappedClasses at once by swapping in copies of the registries holding them.
+     */
+    void publish(final Collection<MappedClass> batch) {
+        synchronized (publishLock) {
+            final Map<String, MappedClass> classes = new ConcurrentHashMap<String, MappedClass>(mappedClasses);
+            final ConcurrentHashMap<String, Set<MappedClass>> byCollection = new ConcurrentHashMap<String, Set<MappedClass>>();
+            for (final Map.Entry<String, Set<MappedClass>> entry : mappedClassesByCollection.entrySet()) {
+                byCollection.put(entry.getKey(), new CopyOnWriteArraySet<MappedClass>(entry.getValue()));
+            }
+            for (final MappedClass mc : batch) {
+                register(classes, byCollection, mc);
+            }
+            mappedClassesByCollection = byCollection;
+            mappedClasses = classes;
+        }
+    }
+
+    /**
+     * Makes {@link #getMappedClass(Object)}, on the current thread, resolve and create unmapped classes in the given batch rather than
+     * publishing them.
+     *
+     * @param staged the batch or null to stop staging
+     */
+    void stage(final ConcurrentMap<String, MappedClass> staged) {
+        if (staged == null) {
+            stagedClasses.remove();
+        } else {
+            stagedClasses.set(staged);
+        }
+    }
+
+    private MappedClass getStagedClass(final ConcurrentMap<String, MappedClass> staged, final Class type) {
+        final MappedClass mc = staged.get(type.getName());
+        if (mc != null) {
+            return mc;
+        }
+        final MappedClass created = new MappedClass(type, this);
+        final MappedClass existing = staged.putIfAbsent(type.getName(), created);
+        return existing != null ? existing : created;
+    }
 
-        Set<MappedClass> mcs = mappedClassesByCollection.get(mc.getCollectionName());
+    private void register(final Map<String, MappedClass> classes, final ConcurrentHashMap<String, Set<MappedClass>> byCollection,
+                          final MappedClass mc) {
+        classes.put(mc.getClazz().getName(), mc);
+
+        Set<MappedClass> mcs = byCollection.get(mc.getCollectionName());
         if (mcs == null) {
             mcs = new CopyOnWriteArraySet<MappedClass>();
-            final Set<MappedClass> temp = mappedClassesByCollection.putIfAbsent(mc.getCollectionName(), mcs);
+            final Set<MappedClass> temp = byCollection.putIfAbsent(mc.getCollectionName(), mcs);
             if (temp != null) {
                 mcs = temp;
             }
         }
 
         mcs.add(mc);
-
-        return mc;
     }
 
     private Object extractFirstElement(final Object value) {
@@ -970,7 +1071,17 @@ public class Mapper {
         }
     }
 
-    DBObject toDBObject(final Object entity, final Map<Object, DBObject> involvedObjects, final boolean lifecycle) {
+    /**
+     * Converts an entity (POJO) to a DBObject for a particular operation.  A special field will be added to keep track of the class type.
+     *
+     * @param entity          The POJO
+     * @param involvedObjects A Map of (already converted) POJOs
+     * @param operation       the operation the DBObject is for, under which the time spent in lifecycle methods is recorded
+     * @return the DBObject
+     * @see Mapper#CLASS_NAME_FIELDNAME
+     * @since 1.4
+     */
+    public DBObject toDBObject(final Object entity, final Map<Object, DBObject> involvedObjects, final OperationType operation) {
 
         DBObject dbObject = new BasicDBObject();
         final MappedClass mc = getMappedClass(entity);
@@ -979,9 +1090,7 @@ public class Mapper {
             dbObject.put(CLASS_NAME_FIELDNAME, entity.getClass().getName());
         }
 
-        if (lifecycle) {
-            dbObject = mc.callLifecycleMethods(PrePersist.class, entity, dbObject, this);
-        }
+        dbObject = mc.callLifecycleMethods(PrePersist.class, entity, dbObject, this, operation);
 
         for (final MappedField mf : mc.getPersistenceFields()) {
             try {
@@ -994,9 +1103,7 @@ public class Mapper {
             involvedObjects.put(entity, dbObject);
         }
 
-        if (lifecycle) {
-            mc.callLifecycleMethods(PreSave.class, entity, dbObject, this);
-        }
+        mc.callLifecycleMethods(PreSave.class, entity, dbObject, this, operation);
 
         return dbObject;
     }
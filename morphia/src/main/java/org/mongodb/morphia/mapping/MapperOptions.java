@@ -7,6 +7,12 @@ import org.mongodb.morphia.logging.Logger;
 import org.mongodb.morphia.logging.MorphiaLoggerFactory;
 import org.mongodb.morphia.mapping.cache.DefaultEntityCacheFactory;
 import org.mongodb.morphia.mapping.cache.EntityCacheFactory;
+import org.mongodb.morphia.mapping.lazy.LazyProxyFactory;
+import org.mongodb.morphia.metrics.MetricsListener;
+import org.mongodb.morphia.query.HedgedReads;
+import org.mongodb.morphia.query.QueryResultCache;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * Options to control mapping behavior.
@@ -27,6 +33,12 @@ public class MapperOptions {
     private boolean useLowerCaseCollectionNames;
     private boolean cacheClassLookups = false;
     private boolean mapSubPackages = false;
+    private boolean useEntityIndex;
+    private boolean optimizeQueries;
+    private int maxInValues;
+    private int inSplitThreads = 4;
+    private String sequenceCollection = "morphia_sequences";
+    private int parallelMappingThreads = 1;
     private ObjectFactory objectFactory = new DefaultCreator(this);
     private EntityCacheFactory cacheFactory = new DefaultEntityCacheFactory();
     private CustomMapper embeddedMapper = new EmbeddedMapper();
@@ -34,6 +46,11 @@ public class MapperOptions {
     private CustomMapper referenceMapper = new ReferenceMapper();
     private CustomMapper valueMapper = new ValueMapper();
     private org.mongodb.morphia.mapping.lazy.DatastoreProvider datastoreProvider = null;
+    private MetricsListener metricsListener;
+    private QueryResultCache queryResultCache;
+    private HedgedReads hedgedReads;
+    private long estimatedCountTtl = TimeUnit.SECONDS.toMillis(5);
+    private LazyProxyFactory proxyFactory;
 
     /**
      * Creates a default options instance.
@@ -59,6 +76,17 @@ public class MapperOptions {
         setDefaultMapper(options.getDefaultMapper());
         setReferenceMapper(options.getReferenceMapper());
         setValueMapper(options.getValueMapper());
+        setMetricsListener(options.getMetricsListener());
+        setQueryResultCache(options.getQueryResultCache());
+        setHedgedReads(options.getHedgedReads());
+        setEstimatedCountTtl(options.getEstimatedCountTtl(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+        setProxyFactory(options.getProxyFactory());
+        setUseEntityIndex(options.isUseEntityIndex());
+        setOptimizeQueries(options.isOptimizeQueries());
+        setMaxInValues(options.getMaxInValues());
+        setInSplitThreads(options.getInSplitThreads());
+        setSequenceCollection(options.getSequenceCollection());
+        setParallelMappingThreads(options.getParallelMappingThreads());
     }
 
     /**
@@ -147,6 +175,132 @@ public class MapperOptions {
         this.objectFactory = objectFactory;
     }
 
+    /**
+     * @return the listener receiving operation metrics or null if metrics are disabled
+     * @since 1.4
+     */
+    public MetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * Sets the listener to receive driver, mapping and lifecycle timings for reads and writes.  Metrics are disabled by default.
+     *
+     * @param metricsListener the listener to use or null to disable metrics
+     * @see org.mongodb.morphia.metrics.DefaultMetricsListener
+     * @since 1.4
+     */
+    public void setMetricsListener(final MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    /**
+     * @return the number of threads used to map and validate classes in bulk
+     * @since 1.4
+     */
+    public int getParallelMappingThreads() {
+        return parallelMappingThreads;
+    }
+
+    /**
+     * Sets the number of threads {@link org.mongodb.morphia.Morphia#map(Class[])} and
+     * {@link org.mongodb.morphia.Morphia#mapPackage(String)} use to build and validate classes.  With more than one thread the classes
+     * are mapped as a batch by {@link Mapper#addMappedClasses(java.util.Collection, boolean)} and only published once all of them are
+     * valid.  The default of 1 maps the classes one at a time.
+     *
+     * @param parallelMappingThreads the number of threads to use
+     * @since 1.4
+     */
+    public void setParallelMappingThreads(final int parallelMappingThreads) {
+        if (parallelMappingThreads < 1) {
+            throw new IllegalArgumentException("parallelMappingThreads must be at least 1");
+        }
+        this.parallelMappingThreads = parallelMappingThreads;
+    }
+
+    /**
+     * @return the factory used to create lazy reference proxies or null if the default factory is used
+     * @since 1.4
+     */
+    public LazyProxyFactory getProxyFactory() {
+        return proxyFactory;
+    }
+
+    /**
+     * Sets the factory used to create proxies for lazy references.  By default proxies are created by {@link
+     * org.mongodb.morphia.mapping.lazy.CGLibLazyProxyFactory}.
+     *
+     * @param proxyFactory the factory to use or null to use the default factory
+     * @see org.mongodb.morphia.mapping.lazy.GeneratedLazyProxyFactory
+     * @since 1.4
+     */
+    public void setProxyFactory(final LazyProxyFactory proxyFactory) {
+        this.proxyFactory = proxyFactory;
+    }
+
+    /**
+     * @param unit the unit of the result
+     * @return how long an estimated count is reused before the collection's statistics are read again
+     * @since 1.4
+     */
+    public long getEstimatedCountTtl(final TimeUnit unit) {
+        return unit.convert(estimatedCountTtl, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sets how long an estimated count of a collection is reused before the collection's statistics are read again.  The default is 5
+     * seconds.
+     *
+     * @param ttl  the time to live or 0 to read the statistics for every estimate
+     * @param unit the unit of the time to live
+     * @see org.mongodb.morphia.Datastore#getEstimatedCount(Class)
+     * @since 1.4
+     */
+    public void setEstimatedCountTtl(final long ttl, final TimeUnit unit) {
+        if (ttl < 0) {
+            throw new IllegalArgumentException("The time to live can not be negative");
+        }
+        this.estimatedCountTtl = unit.toMillis(ttl);
+    }
+
+    /**
+     * @return the cache for query results or null if result caching is disabled
+     * @since 1.4
+     */
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
+    /**
+     * Sets the cache used by queries which opt in with {@link org.mongodb.morphia.query.FindOptions#cacheResults(boolean)}.  Result caching
+     * is disabled by default.
+     *
+     * @param queryResultCache the cache to use or null to disable result caching
+     * @since 1.4
+     */
+    public void setQueryResultCache(final QueryResultCache queryResultCache) {
+        this.queryResultCache = queryResultCache;
+    }
+
+    /**
+     * @return the hedging of slow reads or null if reads are not hedged
+     * @since 1.4
+     */
+    public HedgedReads getHedgedReads() {
+        return hedgedReads;
+    }
+
+    /**
+     * Sets the hedging used by queries which opt in with {@link org.mongodb.morphia.query.FindOptions#hedge(boolean)}.  Reads are not
+     * hedged by default.
+     *
+     * @param hedgedReads the hedging to use or null to disable hedging
+     * @since 1.4
+     */
+    public void setHedgedReads(final HedgedReads hedgedReads) {
+        this.hedgedReads = hedgedReads;
+    }
+
     /**
      * @return the mapper to use for references
      * @see Reference
@@ -295,4 +449,117 @@ public class MapperOptions {
     public void setMapSubPackages(final boolean mapSubPackages) {
         this.mapSubPackages = mapSubPackages;
     }
+
+    /**
+     * @return true if Morphia should use the entity index generated at compile time
+     * @see EntityIndex
+     * @since 1.4
+     */
+    public boolean isUseEntityIndex() {
+        return useEntityIndex;
+    }
+
+    /**
+     * Controls whether the entity index generated at compile time by the {@code entity-processor} module is used.  When enabled, packages
+     * with indexed classes are mapped without scanning the classpath and the indexed lifecycle methods and fields of a class are not
+     * searched for reflectively.  Packages without indexed classes are still scanned.
+     *
+     * @param useEntityIndex true if Morphia should use the entity index
+     * @see EntityIndex
+     * @since 1.4
+     */
+    public void setUseEntityIndex(final boolean useEntityIndex) {
+        this.useEntityIndex = useEntityIndex;
+    }
+
+    /**
+     * @return true if query filters are simplified before they are sent
+     * @since 1.4
+     */
+    public boolean isOptimizeQueries() {
+        return optimizeQueries;
+    }
+
+    /**
+     * Controls whether the criteria of a query are rewritten in to a simpler, equivalent filter before they are sent.  Nested joins of the
+     * same kind are flattened, duplicate criteria dropped, overlapping bounds on a field merged, {@code $in}s of one value turned in to
+     * equalities, criteria shared by every branch of an {@code $or} moved out of it and the criteria ordered, so that equivalent queries
+     * send identical filters and share cached plans.  Disabled by default.
+     *
+     * @param optimizeQueries true to simplify query filters
+     * @since 1.4
+     */
+    public void setOptimizeQueries(final boolean optimizeQueries) {
+        this.optimizeQueries = optimizeQueries;
+    }
+
+    /**
+     * @return the largest number of values a query sends in one {@code $in} or 0 if queries are never split
+     * @since 1.4
+     */
+    public int getMaxInValues() {
+        return maxInValues;
+    }
+
+    /**
+     * Sets the largest number of values a query sends in one {@code $in}.  Finds, counts and deletes whose filter has a larger top level
+     * {@code $in} are split in to several queries with at most this many of its values each, which run concurrently and whose results
+     * are merged, honoring the sort, offset and limit of the query.  Split finds read all their results before the first one is returned.
+     * Finds sorted with a collation or by text score, and finds which leave {@code _id} out of a projection while splitting a field other
+     * than {@code _id}, are not split.  The default of 0 never splits queries.
+     *
+     * @param maxInValues the largest {@code $in} to send or 0 to disable splitting
+     * @see org.mongodb.morphia.query.InSplitter
+     * @since 1.4
+     */
+    public void setMaxInValues(final int maxInValues) {
+        if (maxInValues < 0) {
+            throw new IllegalArgumentException("maxInValues can not be negative");
+        }
+        this.maxInValues = maxInValues;
+    }
+
+    /**
+     * @return the largest number of parts of a split query run at once
+     * @since 1.4
+     */
+    public int getInSplitThreads() {
+        return inSplitThreads;
+    }
+
+    /**
+     * Sets the largest number of parts of a split query run at once.  The default is 4.
+     *
+     * @param inSplitThreads the number of threads to use
+     * @see #setMaxInValues(int)
+     * @since 1.4
+     */
+    public void setInSplitThreads(final int inSplitThreads) {
+        if (inSplitThreads < 1) {
+            throw new IllegalArgumentException("inSplitThreads must be at least 1");
+        }
+        this.inSplitThreads = inSplitThreads;
+    }
+
+    /**
+     * @return the name of the collection holding the counters of {@code @Sequence} ids
+     * @since 1.4
+     */
+    public String getSequenceCollection() {
+        return sequenceCollection;
+    }
+
+    /**
+     * Sets the name of the collection holding the counters of {@code @Sequence} ids.  The default is {@code morphia_sequences}.
+     *
+     * @param sequenceCollection the collection name
+     * @see org.mongodb.morphia.annotations.Sequence
+     * @since 1.4
+     */
+    public void setSequenceCollection(final String sequenceCollection) {
+        if (sequenceCollection == null || sequenceCollection.isEmpty()) {
+            throw new IllegalArgumentException("sequenceCollection can not be empty");
+        }
+        this.sequenceCollection = sequenceCollection;
+    }
 }
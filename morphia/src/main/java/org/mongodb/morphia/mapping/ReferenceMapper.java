@@ -22,6 +22,7 @@ import org.mongodb.morphia.utils.ReflectionUtils;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -142,10 +143,11 @@ class ReferenceMapper implements CustomMapper {
         } else {
             final Object dbVal = mf.getDbObjectValue(dbObject);
             final Collection refs = references;
+            final Map<Object, DBObject> joined = getJoinedDocuments(dbObject, mf);
             new IterHelper<String, Object>().loopOrSingle(dbVal, new IterCallback<Object>() {
                 @Override
                 public void eval(final Object val) {
-                    final Object ent = resolveObject(datastore, mapper, cache, mf, refAnn.idOnly(), val);
+                    final Object ent = resolveObject(datastore, mapper, cache, mf, refAnn.idOnly(), val, joined);
                     if (ent == null) {
                         LOG.warning("Null reference found when retrieving value for " + mf.getFullName());
                     } else {
@@ -187,7 +189,7 @@ class ReferenceMapper implements CustomMapper {
                                                  ? mapper.manualRefToKey(referenceObjClass, val)
                                                  : mapper.refToKey((DBRef) val));
                     } else {
-                        map.put(objKey, resolveObject(datastore, mapper, cache, mf, refAnn.idOnly(), val));
+                        map.put(objKey, resolveObject(datastore, mapper, cache, mf, refAnn.idOnly(), val, null));
                     }
                 }
             });
@@ -204,7 +206,7 @@ class ReferenceMapper implements CustomMapper {
             if (annotation.lazy() && LazyFeatureDependencies.assertDependencyFullFilled()) {
                 resolvedObject = createOrReuseProxy(datastore, mapper, fieldType, ref, cache, annotation);
             } else {
-                resolvedObject = resolveObject(datastore, mapper, cache, mf, annotation.idOnly(), ref);
+                resolvedObject = resolveObject(datastore, mapper, cache, mf, annotation.idOnly(), ref, getJoinedDocuments(dbObject, mf));
             }
 
             if (resolvedObject != null) {
@@ -294,8 +296,28 @@ class ReferenceMapper implements CustomMapper {
         }
     }
 
+    /**
+     * Finds the referenced documents a {@code $lookup} joined in to the document for the field, if any, by their IDs.
+     *
+     * @return the documents or null if the references were not joined
+     */
+    private Map<Object, DBObject> getJoinedDocuments(final DBObject dbObject, final MappedField mf) {
+        final Object joined = dbObject.get(Mapper.REFERENCE_LOOKUP_PREFIX + mf.getNameToStore());
+        if (!(joined instanceof List)) {
+            return null;
+        }
+        final Map<Object, DBObject> documents = new HashMap<Object, DBObject>();
+        for (final Object document : (List) joined) {
+            documents.put(((DBObject) document).get(Mapper.ID_KEY), (DBObject) document);
+        }
+        return documents;
+    }
+
+    /**
+     * @param joined the referenced documents fetched with the entity, by ID, or null to read the reference from its collection
+     */
     Object resolveObject(final Datastore datastore, final Mapper mapper, final EntityCache cache, final MappedField mf,
-                         final boolean idOnly, final Object ref) {
+                         final boolean idOnly, final Object ref, final Map<Object, DBObject> joined) {
         if (ref == null) {
             return null;
         }
@@ -323,7 +345,7 @@ class ReferenceMapper implements CustomMapper {
         if (id instanceof DBObject) {
             ((DBObject) id).removeField(Mapper.CLASS_NAME_FIELDNAME);
         }
-        refDbObject = collection.findOne(id);
+        refDbObject = joined != null && idOnly ? joined.get(id) : collection.findOne(id);
 
         if (refDbObject != null) {
             Object refObj = mapper.getOptions().getObjectFactory().createInstance(mapper, mf, refDbObject);
@@ -2,22 +2,27 @@ package org.mongodb.morphia.mapping;
 
 
 import org.bson.types.Binary;
+import org.mongodb.morphia.mapping.serialization.Compressor;
+import org.mongodb.morphia.mapping.serialization.GZipCompressor;
+import org.mongodb.morphia.mapping.serialization.JavaObjectSerializer;
+import org.mongodb.morphia.mapping.serialization.ObjectSerializer;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 
 /**
  * @author Uwe Schaefer, (us@thomas-daily.de)
  */
 public final class Serializer {
+    private static final ObjectSerializer JAVA_SERIALIZER = new JavaObjectSerializer();
+    private static final Compressor GZIP_COMPRESSOR = new GZipCompressor();
+    private static final int MAX_POOLED_BUFFER_SIZE = 1 << 20;
+    private static final ThreadLocal<PooledOutputStream> BUFFERS = new ThreadLocal<PooledOutputStream>();
+
     private Serializer() {
     }
 
@@ -30,24 +35,41 @@ public final class Serializer {
      * @throws IOException thrown when an error is encountered writing the data
      */
     public static byte[] serialize(final Object o, final boolean zip) throws IOException {
-        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        OutputStream os = baos;
-        ObjectOutputStream oos = null;
+        return serialize(o, JAVA_SERIALIZER, zip ? GZIP_COMPRESSOR : null);
+    }
+
+    /**
+     * serializes object to byte[] with the given strategies.  The bytes are written to a buffer reused by the calling thread so the only
+     * allocation proportional to the size of the data is the returned array.
+     *
+     * @param o          the object to serialize
+     * @param serializer the serializer to use
+     * @param compressor the compressor to use or null if the data should not be compressed
+     * @return the serialized bytes
+     * @throws IOException thrown when an error is encountered writing the data
+     * @since 1.4
+     */
+    public static byte[] serialize(final Object o, final ObjectSerializer serializer, final Compressor compressor) throws IOException {
+        PooledOutputStream buffer = BUFFERS.get();
+        if (buffer == null) {
+            buffer = new PooledOutputStream();
+        } else {
+            BUFFERS.set(null);
+        }
         try {
-            if (zip) {
-                os = new GZIPOutputStream(os);
+            final OutputStream os = compressor != null ? compressor.compress(buffer) : buffer;
+            try {
+                serializer.serialize(o, os);
+            } finally {
+                os.close();
             }
-            oos = new ObjectOutputStream(os);
-            oos.writeObject(o);
-            oos.flush();
+            return buffer.toByteArray();
         } finally {
-            if (oos != null) {
-                oos.close();
+            if (buffer.capacity() <= MAX_POOLED_BUFFER_SIZE) {
+                buffer.reset();
+                BUFFERS.set(buffer);
             }
-            os.close();
         }
-
-        return baos.toByteArray();
     }
 
     /**
@@ -60,24 +82,40 @@ public final class Serializer {
      * @throws ClassNotFoundException thrown if the Class definition can not be found
      */
     public static Object deserialize(final Object data, final boolean zipped) throws IOException, ClassNotFoundException {
-        final ByteArrayInputStream bais;
-        if (data instanceof Binary) {
-            bais = new ByteArrayInputStream(((Binary) data).getData());
-        } else {
-            bais = new ByteArrayInputStream((byte[]) data);
-        }
+        return deserialize(data, JAVA_SERIALIZER, zipped ? GZIP_COMPRESSOR : null);
+    }
 
-        InputStream is = bais;
+    /**
+     * deserializes DBBinary/byte[] to object with the given strategies.  byte[] data, which is what the driver decodes generic binary
+     * data to, is read in place.
+     *
+     * @param data       the data to read
+     * @param serializer the serializer the data was written with
+     * @param compressor the compressor the data was written with or null if the data is not compressed
+     * @return the deserialized object
+     * @throws IOException            thrown when an error is encountered reading the data
+     * @throws ClassNotFoundException thrown if the Class definition can not be found
+     * @since 1.4
+     */
+    public static Object deserialize(final Object data, final ObjectSerializer serializer, final Compressor compressor)
+        throws IOException, ClassNotFoundException {
+        final byte[] bytes = data instanceof Binary ? ((Binary) data).getData() : (byte[]) data;
+        final InputStream is = compressor != null ? compressor.decompress(new ByteArrayInputStream(bytes))
+                                                  : new ByteArrayInputStream(bytes);
         try {
-            if (zipped) {
-                is = new GZIPInputStream(is);
-            }
-
-            final ObjectInputStream ois = new ObjectInputStream(is);
-            return ois.readObject();
+            return serializer.deserialize(is);
         } finally {
             is.close();
         }
     }
 
+    private static final class PooledOutputStream extends ByteArrayOutputStream {
+        private PooledOutputStream() {
+            super(1024);
+        }
+
+        private int capacity() {
+            return buf.length;
+        }
+    }
 }
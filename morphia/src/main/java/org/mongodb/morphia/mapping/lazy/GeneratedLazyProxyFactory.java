@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.mapping.lazy;
+
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
+import net.sf.cglib.proxy.Dispatcher;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.NoOp;
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.Key;
+import org.mongodb.morphia.annotations.IdGetter;
+import org.mongodb.morphia.mapping.MappingException;
+import org.mongodb.morphia.mapping.lazy.proxy.AbstractReference;
+import org.mongodb.morphia.mapping.lazy.proxy.CollectionObjectReference;
+import org.mongodb.morphia.mapping.lazy.proxy.EntityObjectReference;
+import org.mongodb.morphia.mapping.lazy.proxy.MapObjectReference;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxiedEntityReference;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxiedEntityReferenceList;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxiedEntityReferenceMap;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A LazyProxyFactory which generates a single subclass per referenced type and caches it.  Each proxy is one instance of that subclass
+ * plus one small callback holding the reference's {@link Key} and, once fetched, the resolved target.  Unlike {@link
+ * CGLibLazyProxyFactory} there is no intermediate hot swapping proxy so calls on a fetched proxy cost a single volatile read before
+ * being delegated.
+ * <p>
+ * The generated proxies honor the same contracts as those of {@link CGLibLazyProxyFactory}: they implement {@link
+ * ProxiedEntityReference}, {@link ProxiedEntityReferenceList} or {@link ProxiedEntityReferenceMap} so {@link
+ * org.mongodb.morphia.mapping.lazy.proxy.ProxyHelper} works unchanged, {@link IdGetter} methods answer from the key without fetching and
+ * {@code finalize()} never triggers a fetch.  The referenced types need a non-private no-argument constructor.
+ *
+ * @see org.mongodb.morphia.mapping.MapperOptions#setProxyFactory(LazyProxyFactory)
+ * @since 1.4
+ */
+@SuppressWarnings("unchecked")
+public class GeneratedLazyProxyFactory implements LazyProxyFactory {
+    private static final int TARGET = 0;
+    private static final int REFERENCE = 1;
+    private static final int IGNORED = 2;
+    private static final Class[] CALLBACK_TYPES = new Class[]{Dispatcher.class, MethodInterceptor.class, NoOp.class};
+    private static final CallbackFilter FILTER = new ReferenceCallbackFilter();
+
+    private final ConcurrentMap<Class<?>, Factory> entityProxies = new ConcurrentHashMap<Class<?>, Factory>();
+    private final ConcurrentMap<Class<?>, Factory> listProxies = new ConcurrentHashMap<Class<?>, Factory>();
+    private final ConcurrentMap<Class<?>, Factory> mapProxies = new ConcurrentHashMap<Class<?>, Factory>();
+
+    @Override
+    public <T extends Collection> T createListProxy(final Datastore datastore, final T listToProxy, final Class referenceObjClass,
+                                                    final boolean ignoreMissing) {
+        return (T) newProxy(listProxies, listToProxy.getClass(), ProxiedEntityReferenceList.class,
+                            new CollectionObjectReference(listToProxy, referenceObjClass, ignoreMissing, datastore));
+    }
+
+    @Override
+    public <T extends Map> T createMapProxy(final Datastore datastore, final T mapToProxy, final Class referenceObjClass,
+                                            final boolean ignoreMissing) {
+        return (T) newProxy(mapProxies, mapToProxy.getClass(), ProxiedEntityReferenceMap.class,
+                            new MapObjectReference(datastore, mapToProxy, referenceObjClass, ignoreMissing));
+    }
+
+    @Override
+    public <T> T createProxy(final Datastore datastore, final Class<T> targetClass, final Key<T> key, final boolean ignoreMissing) {
+        return (T) newProxy(entityProxies, targetClass, ProxiedEntityReference.class,
+                            new EntityObjectReference(datastore, targetClass, key, ignoreMissing));
+    }
+
+    private Object newProxy(final ConcurrentMap<Class<?>, Factory> cache, final Class<?> type, final Class<?> referenceType,
+                            final AbstractReference reference) {
+        Factory factory = cache.get(type);
+        if (factory == null) {
+            final Factory generated = generate(type, referenceType);
+            factory = cache.putIfAbsent(type, generated);
+            if (factory == null) {
+                factory = generated;
+            }
+        }
+        final ReferenceDispatcher dispatcher = new ReferenceDispatcher(reference);
+        return factory.newInstance(new Callback[]{dispatcher, dispatcher, NoOp.INSTANCE});
+    }
+
+    private Factory generate(final Class<?> type, final Class<?> referenceType) {
+        final Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(type);
+        enhancer.setInterfaces(Serializable.class.isAssignableFrom(type)
+                               ? new Class[]{referenceType}
+                               : new Class[]{referenceType, Serializable.class});
+        enhancer.setCallbackTypes(CALLBACK_TYPES);
+        enhancer.setCallbackFilter(FILTER);
+        try {
+            return (Factory) enhancer.createClass().newInstance();
+        } catch (Exception e) {
+            throw new MappingException("Could not generate a lazy proxy for " + type.getName(), e);
+        } catch (LinkageError e) {
+            throw new MappingException("Could not generate a lazy proxy for " + type.getName(), e);
+        }
+    }
+
+    private static class ReferenceCallbackFilter implements CallbackFilter {
+        @Override
+        public int accept(final Method method) {
+            if (ReferenceDispatcher.isReferenceMethod(method) || method.getAnnotation(IdGetter.class) != null) {
+                return REFERENCE;
+            }
+            if ("finalize".equals(method.getName()) && method.getParameterTypes().length == 0) {
+                return IGNORED;
+            }
+            return TARGET;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof ReferenceCallbackFilter;
+        }
+
+        @Override
+        public int hashCode() {
+            return ReferenceCallbackFilter.class.hashCode();
+        }
+    }
+}
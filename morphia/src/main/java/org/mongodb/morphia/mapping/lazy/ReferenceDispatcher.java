@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.mapping.lazy;
+
+import net.sf.cglib.proxy.Dispatcher;
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.MethodProxy;
+import org.mongodb.morphia.mapping.lazy.proxy.AbstractReference;
+import org.mongodb.morphia.mapping.lazy.proxy.EntityObjectReference;
+import org.mongodb.morphia.mapping.lazy.proxy.LazyReferenceFetchingException;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxiedReference;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+
+import static java.lang.String.format;
+
+/**
+ * The callback state behind a proxy generated by {@link GeneratedLazyProxyFactory}.  Calls to the proxied type are dispatched to the
+ * resolved target which, once fetched, is served from a volatile field without any locking.  Calls to the {@link ProxiedReference}
+ * interfaces and to {@code @IdGetter} methods are answered by the underlying reference without fetching.
+ */
+class ReferenceDispatcher implements Dispatcher, MethodInterceptor, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final AbstractReference reference;
+    private transient volatile Object target;
+
+    ReferenceDispatcher(final AbstractReference reference) {
+        this.reference = reference;
+    }
+
+    @Override
+    public Object intercept(final Object proxy, final Method method, final Object[] args, final MethodProxy methodProxy)
+        throws Throwable {
+        if (isReferenceMethod(method)) {
+            return methodProxy.invoke(reference, args);
+        }
+        if (reference instanceof EntityObjectReference) {
+            return ((EntityObjectReference) reference).__getKey().getId();
+        }
+        return methodProxy.invoke(loadObject(), args);
+    }
+
+    @Override
+    public Object loadObject() {
+        Object resolved = target;
+        if (resolved == null) {
+            resolved = reference.get();
+            if (resolved == null) {
+                throw new LazyReferenceFetchingException(format("Cannot dispatch to the missing %s referenced by this proxy.",
+                                                                reference.__getReferenceObjClass().getSimpleName()));
+            }
+            target = resolved;
+        }
+        return resolved;
+    }
+
+    static boolean isReferenceMethod(final Method method) {
+        final Class<?> declaringClass = method.getDeclaringClass();
+        return declaringClass.isInterface() && ProxiedReference.class.isAssignableFrom(declaringClass);
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.mapping.serialization;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A fast LZ77 block compressor trading compression ratio for speed.  The data is cut into blocks of 64KB, each compressed with a greedy
+ * single-probe hash match finder and encoded as literal runs and back references in the style of LZ4.  Blocks which do not shrink are
+ * stored as is.  The block buffers and hash tables are pooled per thread.
+ * <p>
+ * Each block is written as its uncompressed length, its compressed length, 0 when stored, and its bytes.  An uncompressed length of 0 ends
+ * the stream.
+ *
+ * @since 1.4
+ */
+public class BlockCompressor implements Compressor {
+    static final int BLOCK_SIZE = 1 << 16;
+    private static final int MAX_PACKED_SIZE = BLOCK_SIZE + BLOCK_SIZE / 255 + 16;
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int HASH_LOG = 13;
+    private static final int MAX_OFFSET = 65535;
+    private static final int RUN_MASK = 15;
+
+    private static final BufferPool<byte[]> RAW_BUFFERS = BufferPool.bytes(BLOCK_SIZE);
+    private static final BufferPool<byte[]> PACKED_BUFFERS = BufferPool.bytes(MAX_PACKED_SIZE);
+    private static final BufferPool<int[]> HASH_TABLES = new BufferPool<int[]>() {
+        @Override
+        int[] create() {
+            return new int[1 << HASH_LOG];
+        }
+    };
+
+    @Override
+    public OutputStream compress(final OutputStream out) {
+        return new BlockOutputStream(out);
+    }
+
+    @Override
+    public InputStream decompress(final InputStream in) {
+        return new BlockInputStream(in);
+    }
+
+    static int compressBlock(final byte[] src, final int length, final byte[] dst, final int[] table) {
+        Arrays.fill(table, -1);
+        final int matchLimit = length - LAST_LITERALS;
+        int ip = 0;
+        int anchor = 0;
+        int op = 0;
+        while (ip + MIN_MATCH <= matchLimit) {
+            final int sequence = readInt(src, ip);
+            final int hash = (sequence * -1640531535) >>> (32 - HASH_LOG);
+            final int ref = table[hash];
+            table[hash] = ip;
+            if (ref >= 0 && ip - ref <= MAX_OFFSET && readInt(src, ref) == sequence) {
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ref + matchLength] == src[ip + matchLength]) {
+                    matchLength++;
+                }
+                op = writeLiterals(src, anchor, ip - anchor, matchLength - MIN_MATCH, dst, op);
+                final int offset = ip - ref;
+                dst[op++] = (byte) offset;
+                dst[op++] = (byte) (offset >>> 8);
+                if (matchLength - MIN_MATCH >= RUN_MASK) {
+                    op = writeLength(matchLength - MIN_MATCH - RUN_MASK, dst, op);
+                }
+                ip += matchLength;
+                anchor = ip;
+            } else {
+                ip++;
+            }
+        }
+        return writeLiterals(src, anchor, length - anchor, 0, dst, op);
+    }
+
+    static int decompressBlock(final byte[] src, final int length, final byte[] dst, final int limit) throws IOException {
+        int ip = 0;
+        int op = 0;
+        while (true) {
+            if (ip >= length) {
+                throw corrupt();
+            }
+            final int token = src[ip++] & 0xFF;
+            int literals = token >>> 4;
+            if (literals == RUN_MASK) {
+                int b;
+                do {
+                    if (ip >= length) {
+                        throw corrupt();
+                    }
+                    b = src[ip++] & 0xFF;
+                    literals += b;
+                } while (b == 255);
+            }
+            if (literals > length - ip || literals > limit - op) {
+                throw corrupt();
+            }
+            System.arraycopy(src, ip, dst, op, literals);
+            ip += literals;
+            op += literals;
+            if (ip == length) {
+                return op;
+            }
+
+            if (ip + 2 > length) {
+                throw corrupt();
+            }
+            final int offset = (src[ip] & 0xFF) | ((src[ip + 1] & 0xFF) << 8);
+            ip += 2;
+            if (offset == 0 || offset > op) {
+                throw corrupt();
+            }
+            int matchLength = token & RUN_MASK;
+            if (matchLength == RUN_MASK) {
+                int b;
+                do {
+                    if (ip >= length) {
+                        throw corrupt();
+                    }
+                    b = src[ip++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+            if (matchLength > limit - op) {
+                throw corrupt();
+            }
+            int ref = op - offset;
+            if (offset >= matchLength) {
+                System.arraycopy(dst, ref, dst, op, matchLength);
+                op += matchLength;
+            } else {
+                final int end = op + matchLength;
+                while (op < end) {
+                    dst[op++] = dst[ref++];
+                }
+            }
+        }
+    }
+
+    private static IOException corrupt() {
+        return new IOException("The compressed block is corrupt");
+    }
+
+    private static int readInt(final byte[] src, final int index) {
+        return (src[index] & 0xFF) | ((src[index + 1] & 0xFF) << 8) | ((src[index + 2] & 0xFF) << 16) | ((src[index + 3] & 0xFF) << 24);
+    }
+
+    private static int writeLength(final int length, final byte[] dst, final int offset) {
+        int remaining = length;
+        int op = offset;
+        while (remaining >= 255) {
+            dst[op++] = (byte) 255;
+            remaining -= 255;
+        }
+        dst[op++] = (byte) remaining;
+        return op;
+    }
+
+    private static int writeLiterals(final byte[] src, final int start, final int literals, final int matchCode, final byte[] dst,
+                                     final int offset) {
+        int op = offset;
+        dst[op++] = (byte) ((Math.min(literals, RUN_MASK) << 4) | Math.min(matchCode, RUN_MASK));
+        if (literals >= RUN_MASK) {
+            op = writeLength(literals - RUN_MASK, dst, op);
+        }
+        System.arraycopy(src, start, dst, op, literals);
+        return op + literals;
+    }
+
+    private static final class BlockOutputStream extends OutputStream {
+        private final OutputStream out;
+        private byte[] raw = RAW_BUFFERS.acquire();
+        private byte[] packed = PACKED_BUFFERS.acquire();
+        private int[] table = HASH_TABLES.acquire();
+        private int count;
+
+        private BlockOutputStream(final OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            ensureOpen();
+            if (count == raw.length) {
+                writeBlock();
+            }
+            raw[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            ensureOpen();
+            int offset = off;
+            int remaining = len;
+            while (remaining > 0) {
+                if (count == raw.length) {
+                    writeBlock();
+                }
+                final int n = Math.min(remaining, raw.length - count);
+                System.arraycopy(b, offset, raw, count, n);
+                count += n;
+                offset += n;
+                remaining -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (raw == null) {
+                return;
+            }
+            try {
+                writeBlock();
+                writeInt(0);
+                out.close();
+            } finally {
+                RAW_BUFFERS.release(raw);
+                PACKED_BUFFERS.release(packed);
+                HASH_TABLES.release(table);
+                raw = null;
+                packed = null;
+                table = null;
+            }
+        }
+
+        private void ensureOpen() throws IOException {
+            if (raw == null) {
+                throw new IOException("The stream is closed");
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (count == 0) {
+                return;
+            }
+            final int packedLength = compressBlock(raw, count, packed, table);
+            writeInt(count);
+            if (packedLength < count) {
+                writeInt(packedLength);
+                out.write(packed, 0, packedLength);
+            } else {
+                writeInt(0);
+                out.write(raw, 0, count);
+            }
+            count = 0;
+        }
+
+        private void writeInt(final int value) throws IOException {
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+        }
+    }
+
+    private static final class BlockInputStream extends InputStream {
+        private final InputStream in;
+        private byte[] raw = RAW_BUFFERS.acquire();
+        private byte[] packed = PACKED_BUFFERS.acquire();
+        private int position;
+        private int limit;
+        private boolean finished;
+
+        private BlockInputStream(final InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int available() {
+            return raw == null ? 0 : limit - position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return raw[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            final int n = Math.min(len, limit - position);
+            System.arraycopy(raw, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (raw == null) {
+                return;
+            }
+            try {
+                in.close();
+            } finally {
+                RAW_BUFFERS.release(raw);
+                PACKED_BUFFERS.release(packed);
+                raw = null;
+                packed = null;
+            }
+        }
+
+        private boolean fill() throws IOException {
+            if (raw == null) {
+                throw new IOException("The stream is closed");
+            }
+            while (position == limit) {
+                if (finished) {
+                    return false;
+                }
+                readBlock();
+            }
+            return true;
+        }
+
+        private void readBlock() throws IOException {
+            final int rawLength = readInt();
+            if (rawLength == 0) {
+                finished = true;
+                return;
+            }
+            final int packedLength = readInt();
+            if (rawLength < 0 || rawLength > raw.length || packedLength < 0 || packedLength > packed.length) {
+                throw corrupt();
+            }
+            if (packedLength == 0) {
+                readFully(raw, rawLength);
+            } else {
+                readFully(packed, packedLength);
+                if (decompressBlock(packed, packedLength, raw, rawLength) != rawLength) {
+                    throw corrupt();
+                }
+            }
+            position = 0;
+            limit = rawLength;
+        }
+
+        private int readInt() throws IOException {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                final int b = in.read();
+                if (b < 0) {
+                    throw new EOFException("Unexpected end of compressed stream");
+                }
+                value = (value << 8) | b;
+            }
+            return value;
+        }
+
+        private void readFully(final byte[] buffer, final int length) throws IOException {
+            int read = 0;
+            while (read < length) {
+                final int n = in.read(buffer, read, length - read);
+                if (n < 0) {
+                    throw new EOFException("Unexpected end of compressed stream");
+                }
+                read += n;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.mapping.serialization;
+
+/**
+ * Keeps one buffer per thread so that the short lived streams used to (de)serialize a field do not allocate their buffers on every call.
+ * A buffer is handed out to a single user at a time; one acquired and not released is simply left to the garbage collector.
+ *
+ * @param <T> the type of buffer
+ */
+abstract class BufferPool<T> {
+    private final ThreadLocal<T> cached = new ThreadLocal<T>();
+
+    T acquire() {
+        final T buffer = cached.get();
+        if (buffer == null) {
+            return create();
+        }
+        cached.set(null);
+        return buffer;
+    }
+
+    void release(final T buffer) {
+        if (buffer != null && isReusable(buffer)) {
+            cached.set(buffer);
+        }
+    }
+
+    abstract T create();
+
+    boolean isReusable(final T buffer) {
+        return true;
+    }
+
+    /**
+     * Creates a pool of fixed size byte arrays
+     *
+     * @param size the size of the arrays
+     * @return the pool
+     */
+    static BufferPool<byte[]> bytes(final int size) {
+        return new BufferPool<byte[]>() {
+            @Override
+            byte[] create() {
+                return new byte[size];
+            }
+        };
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.mapping.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Java serialization which writes a small numeric id in place of the class descriptor of each registered type.  Descriptors carry the
+ * class name and the name and type of every field so, for graphs of small objects, they often outweigh the data itself.  Unregistered
+ * types are written with their full descriptor.
+ * <p>
+ * The types are registered by subclassing with a no-argument constructor which can then be named on the annotation:
+ * <pre>
+ * public class OrderSerializer extends CompactObjectSerializer {
+ *     public OrderSerializer() {
+ *         super(Order.class, OrderLine.class);
+ *     }
+ * }
+ *
+ * &#64;Serialized(serializer = OrderSerializer.class)
+ * private Order order;
+ * </pre>
+ * The ids are the positions of the types in the registration so types may be appended but never removed or reordered once data has been
+ * written.  Registered types are read with the descriptor of the local class, so their serialized form must not change either.
+ *
+ * @since 1.4
+ */
+public class CompactObjectSerializer implements ObjectSerializer {
+    private static final int UNREGISTERED = -1;
+
+    private final ObjectStreamClass[] descriptors;
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+
+    /**
+     * Creates a serializer for the given types
+     *
+     * @param types the serializable types to write without descriptors
+     */
+    public CompactObjectSerializer(final Class<?>... types) {
+        descriptors = new ObjectStreamClass[types.length];
+        for (int i = 0; i < types.length; i++) {
+            descriptors[i] = ObjectStreamClass.lookup(types[i]);
+            if (descriptors[i] == null) {
+                throw new IllegalArgumentException(types[i].getName() + " is not serializable");
+            }
+            ids.put(types[i].getName(), i);
+        }
+    }
+
+    @Override
+    public void serialize(final Object value, final OutputStream out) throws IOException {
+        final ObjectOutputStream oos = new CompactOutputStream(out);
+        oos.writeObject(value);
+        oos.flush();
+    }
+
+    @Override
+    public Object deserialize(final InputStream in) throws IOException, ClassNotFoundException {
+        return new CompactInputStream(in).readObject();
+    }
+
+    private class CompactOutputStream extends ObjectOutputStream {
+        CompactOutputStream(final OutputStream out) throws IOException {
+            super(out);
+        }
+
+        @Override
+        protected void writeClassDescriptor(final ObjectStreamClass desc) throws IOException {
+            final Integer id = ids.get(desc.getName());
+            if (id != null && desc.getSerialVersionUID() == descriptors[id].getSerialVersionUID()) {
+                writeInt(id);
+            } else {
+                writeInt(UNREGISTERED);
+                super.writeClassDescriptor(desc);
+            }
+        }
+    }
+
+    private class CompactInputStream extends ObjectInputStream {
+        CompactInputStream(final InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            final int id = readInt();
+            if (id == UNREGISTERED) {
+                return super.readClassDescriptor();
+            }
+            if (id < 0 || id >= descriptors.length) {
+                throw new InvalidClassException("Unknown registered type id " + id);
+            }
+            return descriptors[id];
+        }
+    }
+}
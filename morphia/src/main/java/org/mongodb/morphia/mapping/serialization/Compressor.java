@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.mapping.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compresses the bytes of {@link org.mongodb.morphia.annotations.Serialized} fields.  Implementations are created once per mapper through
+ * the {@link org.mongodb.morphia.ObjectFactory} and must be thread safe.
+ *
+ * @see org.mongodb.morphia.annotations.Serialized#compressor()
+ * @since 1.4
+ */
+public interface Compressor {
+    /**
+     * Wraps a stream so that the bytes written to it are compressed.  Closing the returned stream must write any remaining data and close
+     * the wrapped stream.
+     *
+     * @param out the stream receiving the compressed bytes
+     * @return the compressing stream
+     * @throws IOException if the stream can not be created
+     */
+    OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * Wraps a stream of bytes written by {@link #compress(OutputStream)} so that they are read decompressed.
+     *
+     * @param in the stream of compressed bytes
+     * @return the decompressing stream
+     * @throws IOException if the stream can not be created
+     */
+    InputStream decompress(InputStream in) throws IOException;
+}
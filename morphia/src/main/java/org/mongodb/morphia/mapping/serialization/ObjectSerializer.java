@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.mapping.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Converts the values of {@link org.mongodb.morphia.annotations.Serialized} fields to and from bytes.  Implementations are created once
+ * per mapper through the {@link org.mongodb.morphia.ObjectFactory} and must be thread safe.
+ *
+ * @see org.mongodb.morphia.annotations.Serialized#serializer()
+ * @since 1.4
+ */
+public interface ObjectSerializer {
+    /**
+     * Writes a value.  The stream is closed by the caller.
+     *
+     * @param value the value to write
+     * @param out   the stream to write to
+     * @throws IOException if the value can not be written
+     */
+    void serialize(Object value, OutputStream out) throws IOException;
+
+    /**
+     * Reads a value written by {@link #serialize(Object, OutputStream)}.
+     *
+     * @param in the stream to read from
+     * @return the value
+     * @throws IOException            if the value can not be read
+     * @throws ClassNotFoundException if the class of a serialized object can not be found
+     */
+    Object deserialize(InputStream in) throws IOException, ClassNotFoundException;
+}
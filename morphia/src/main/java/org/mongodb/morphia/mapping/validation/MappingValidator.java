@@ -25,6 +25,7 @@ import org.mongodb.morphia.mapping.validation.fieldrules.MapKeyDifferentFromStri
 import org.mongodb.morphia.mapping.validation.fieldrules.MapNotSerializable;
 import org.mongodb.morphia.mapping.validation.fieldrules.MisplacedProperty;
 import org.mongodb.morphia.mapping.validation.fieldrules.ReferenceToUnidentifiable;
+import org.mongodb.morphia.mapping.validation.fieldrules.SequenceMisuse;
 import org.mongodb.morphia.mapping.validation.fieldrules.VersionMisuse;
 
 import java.util.ArrayList;
@@ -132,6 +133,7 @@ public class MappingValidator {
         constraints.add(new MapKeyDifferentFromString());
         constraints.add(new MapNotSerializable());
         constraints.add(new VersionMisuse(creator));
+        constraints.add(new SequenceMisuse());
         //
         constraints.add(new ContradictingFieldAnnotation(Reference.class, Serialized.class));
         constraints.add(new ContradictingFieldAnnotation(Reference.class, Property.class));
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia.mapping.validation.fieldrules;
+
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Sequence;
+import org.mongodb.morphia.mapping.MappedClass;
+import org.mongodb.morphia.mapping.MappedField;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.validation.ConstraintViolation;
+import org.mongodb.morphia.mapping.validation.ConstraintViolation.Level;
+
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Checks that {@code @Sequence} is only used on a numeric {@code @Id} field.
+ *
+ * @since 1.4
+ */
+public class SequenceMisuse extends FieldConstraint {
+
+    @Override
+    protected void check(final Mapper mapper, final MappedClass mc, final MappedField mf, final Set<ConstraintViolation> ve) {
+        if (mf.hasAnnotation(Sequence.class)) {
+            final Class<?> type = mf.getType();
+            if (!mf.hasAnnotation(Id.class)) {
+                ve.add(new ConstraintViolation(Level.FATAL, mc, mf, getClass(),
+                                               format("@%s can only be used on the @%s field.", Sequence.class.getSimpleName(),
+                                                      Id.class.getSimpleName())));
+            } else if (!Long.class.equals(type) && !long.class.equals(type) && !Integer.class.equals(type) && !int.class.equals(type)) {
+                ve.add(new ConstraintViolation(Level.FATAL, mc, mf, getClass(),
+                                               format("@%s can only be used on a Long/long/Integer/int field.",
+                                                      Sequence.class.getSimpleName())));
+            } else if (mf.getAnnotation(Sequence.class).blockSize() < 1) {
+                ve.add(new ConstraintViolation(Level.FATAL, mc, mf, getClass(),
+                                               format("The blockSize of @%s must be at least 1.", Sequence.class.getSimpleName())));
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mongodb.morphia.metrics;
+
+import org.mongodb.morphia.logging.Logger;
+import org.mongodb.morphia.logging.MorphiaLoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The default {@link MetricsListener} which aggregates everything it is told in to an {@link OperationMetrics} per collection, operation
+ * type and entity class.  Once the metrics for a combination exist, recording to them takes a few map lookups and atomic increments and
+ * allocates nothing.  The metrics can optionally be exposed over JMX using {@link #registerMBeans()}.
+ *
+ * @since 1.4
+ */
+public class DefaultMetricsListener implements MetricsListener {
+    private static final Logger LOG = MorphiaLoggerFactory.get(DefaultMetricsListener.class);
+    private static final String NO_COLLECTION = "";
+    private static final OperationType[] OPERATIONS = OperationType.values();
+
+    private final ConcurrentMap<String, ConcurrentMap<Class<?>, AtomicReferenceArray<OperationMetrics>>> metrics
+        = new ConcurrentHashMap<String, ConcurrentMap<Class<?>, AtomicReferenceArray<OperationMetrics>>>();
+    private final String name;
+    private volatile MBeanServer server;
+
+    /**
+     * Creates a listener whose MBeans are named "default"
+     */
+    public DefaultMetricsListener() {
+        this("default");
+    }
+
+    /**
+     * Creates a listener
+     *
+     * @param name the name to use in the ObjectNames of the MBeans to distinguish multiple listeners in the same JVM
+     */
+    public DefaultMetricsListener(final String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void driverTime(final OperationType operation, final String collection, final Class<?> type, final long nanos) {
+        get(operation, collection, type).getDriver().record(nanos);
+    }
+
+    @Override
+    public void mappingTime(final OperationType operation, final String collection, final Class<?> type, final long nanos) {
+        get(operation, collection, type).getMapping().record(nanos);
+    }
+
+    @Override
+    public void lifecycleTime(final OperationType operation, final Class<? extends Annotation> event, final String collection,
+                              final Class<?> type, final long nanos) {
+        get(operation, collection, type).getLifecycle().record(nanos);
+    }
+
+    @Override
+    public void documentsRead(final OperationType operation, final String collection, final Class<?> type, final long documents,
+                              final long bytes) {
+        get(operation, collection, type).read(documents, bytes);
+    }
+
+    @Override
+    public void documentsWritten(final OperationType operation, final String collection, final Class<?> type, final long documents,
+                                 final long bytes) {
+        get(operation, collection, type).written(documents, bytes);
+    }
+
+    /**
+     * Finds the metrics recorded for a combination
+     *
+     * @param operation  the operation type
+     * @param collection the collection
+     * @param type       the entity type
+     * @return the metrics or null if nothing has been recorded for that combination
+     */
+    public OperationMetrics getMetrics(final OperationType operation, final String collection, final Class<?> type) {
+        final ConcurrentMap<Class<?>, AtomicReferenceArray<OperationMetrics>> byType = metrics.get(key(collection));
+        if (byType == null) {
+            return null;
+        }
+        final AtomicReferenceArray<OperationMetrics> byOperation = byType.get(key(type));
+        return byOperation == null ? null : byOperation.get(operation.ordinal());
+    }
+
+    /**
+     * @return all the metrics recorded so far
+     */
+    public List<OperationMetrics> getMetrics() {
+        final List<OperationMetrics> list = new ArrayList<OperationMetrics>();
+        for (final ConcurrentMap<Class<?>, AtomicReferenceArray<OperationMetrics>> byType : metrics.values()) {
+            for (final AtomicReferenceArray<OperationMetrics> byOperation : byType.values()) {
+                for (int i = 0; i < byOperation.length(); i++) {
+                    if (byOperation.get(i) != null) {
+                        list.add(byOperation.get(i));
+                    }
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Clears all recorded values
+     */
+    public void reset() {
+        for (final OperationMetrics operationMetrics : getMetrics()) {
+            operationMetrics.reset();
+        }
+    }
+
+    /**
+     * Registers an MBean for every current and future {@link OperationMetrics} with the platform MBeanServer.
+     */
+    public void registerMBeans() {
+        registerMBeans(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Registers an MBean for every current and future {@link OperationMetrics} with the given MBeanServer.
+     *
+     * @param mBeanServer the server to register with
+     */
+    public synchronized void registerMBeans(final MBeanServer mBeanServer) {
+        server = mBeanServer;
+        for (final OperationMetrics operationMetrics : getMetrics()) {
+            register(mBeanServer, operationMetrics);
+        }
+    }
+
+    /**
+     * Unregisters any MBeans registered by this listener.
+     */
+    public synchronized void unregisterMBeans() {
+        final MBeanServer mBeanServer = server;
+        server = null;
+        if (mBeanServer != null) {
+            for (final OperationMetrics operationMetrics : getMetrics()) {
+                try {
+                    final ObjectName objectName = objectName(operationMetrics);
+                    if (mBeanServer.isRegistered(objectName)) {
+                        mBeanServer.unregisterMBean(objectName);
+                    }
+                } catch (JMException e) {
+                    LOG.warning("Could not unregister MBean for " + operationMetrics.getCollection(), e);
+                }
+            }
+        }
+    }
+
+    ObjectName objectName(final OperationMetrics operationMetrics) throws JMException {
+        return new ObjectName(String.format("org.mongodb.morphia:type=OperationMetrics,name=%s,collection=%s,operation=%s,entity=%s",
+                                            ObjectName.quote(name), ObjectName.quote(String.valueOf(operationMetrics.getCollection())),
+                                            operationMetrics.getOperation(),
+                                            ObjectName.quote(String.valueOf(operationMetrics.getEntityClass()))));
+    }
+
+    private OperationMetrics get(final OperationType operation, final String collection, final Class<?> type) {
+        final String collectionKey = key(collection);
+        ConcurrentMap<Class<?>, AtomicReferenceArray<OperationMetrics>> byType = metrics.get(collectionKey);
+        if (byType == null) {
+            byType = new ConcurrentHashMap<Class<?>, AtomicReferenceArray<OperationMetrics>>();
+            final ConcurrentMap<Class<?>, AtomicReferenceArray<OperationMetrics>> existing = metrics.putIfAbsent(collectionKey, byType);
+            if (existing != null) {
+                byType = existing;
+            }
+        }
+
+        final Class<?> typeKey = key(type);
+        AtomicReferenceArray<OperationMetrics> byOperation = byType.get(typeKey);
+        if (byOperation == null) {
+            byOperation = new AtomicReferenceArray<OperationMetrics>(OPERATIONS.length);
+            final AtomicReferenceArray<OperationMetrics> existing = byType.putIfAbsent(typeKey, byOperation);
+            if (existing != null) {
+                byOperation = existing;
+            }
+        }
+
+        OperationMetrics operationMetrics = byOperation.get(operation.ordinal());
+        if (operationMetrics == null) {
+            if (byOperation.compareAndSet(operation.ordinal(), null, new OperationMetrics(collection, operation, type))) {
+                final MBeanServer mBeanServer = server;
+                if (mBeanServer != null) {
+                    register(mBeanServer, byOperation.get(operation.ordinal()));
+                }
+            }
+            operationMetrics = byOperation.get(operation.ordinal());
+        }
+        return operationMetrics;
+    }
+
+    private void register(final MBeanServer mBeanServer, final OperationMetrics operationMetrics) {
+        try {
+            final ObjectName objectName = objectName(operationMetrics);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(operationMetrics, objectName);
+            }
+        } catch (JMException e) {
+            LOG.warning("Could not register MBean for " + operationMetrics.getCollection(), e);
+        }
+    }
+
+    private static String key(final String collection) {
+        return collection != null ? collection : NO_COLLECTION;
+    }
+
+    private static Class<?> key(final Class<?> type) {
+        return type != null ? type : Void.class;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mongodb.morphia.metrics;
+
+import com.mongodb.DBEncoder;
+import com.mongodb.DefaultDBEncoder;
+import org.bson.BSONObject;
+import org.bson.io.OutputBuffer;
+
+/**
+ * A {@link DBEncoder} which counts the number of bytes and documents it encodes.  Instances are meant to be used for a single operation
+ * and are not thread-safe.
+ *
+ * @since 1.4
+ */
+public class MetricsDBEncoder implements DBEncoder {
+    private final DBEncoder delegate;
+    private long bytes;
+    private long documents;
+
+    /**
+     * Creates an encoder wrapping the driver's default encoder
+     */
+    public MetricsDBEncoder() {
+        this(DefaultDBEncoder.FACTORY.create());
+    }
+
+    /**
+     * Creates an encoder wrapping the given encoder
+     *
+     * @param delegate the encoder to use
+     */
+    public MetricsDBEncoder(final DBEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the number of bytes encoded so far
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the number of documents encoded so far
+     */
+    public long getDocuments() {
+        return documents;
+    }
+
+    @Override
+    public int writeObject(final OutputBuffer outputBuffer, final BSONObject document) {
+        final int written = delegate.writeObject(outputBuffer, document);
+        bytes += written;
+        documents++;
+        return written;
+    }
+}
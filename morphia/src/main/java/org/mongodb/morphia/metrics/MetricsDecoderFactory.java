@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mongodb.morphia.metrics;
+
+import com.mongodb.DBCallback;
+import com.mongodb.DBCollection;
+import com.mongodb.DBDecoder;
+import com.mongodb.DBDecoderFactory;
+import com.mongodb.DBObject;
+import org.bson.BSONCallback;
+import org.bson.BSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps another {@link DBDecoderFactory} to count the number of BSON bytes decoded by the decoders it creates.
+ *
+ * @since 1.4
+ */
+public class MetricsDecoderFactory implements DBDecoderFactory {
+    private final DBDecoderFactory delegate;
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * Creates a counting factory
+     *
+     * @param delegate the factory to create the actual decoders
+     */
+    public MetricsDecoderFactory(final DBDecoderFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the number of bytes decoded so far
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public DBDecoder create() {
+        return new CountingDecoder(delegate.create());
+    }
+
+    private static long length(final byte[] document) {
+        return document.length < 4
+               ? document.length
+               : (document[0] & 0xff) | (document[1] & 0xff) << 8 | (document[2] & 0xff) << 16 | (document[3] & 0xff) << 24;
+    }
+
+    private class CountingDecoder implements DBDecoder {
+        private final DBDecoder decoder;
+
+        CountingDecoder(final DBDecoder decoder) {
+            this.decoder = decoder;
+        }
+
+        @Override
+        public DBCallback getDBCallback(final DBCollection collection) {
+            return decoder.getDBCallback(collection);
+        }
+
+        @Override
+        public DBObject decode(final InputStream in, final DBCollection collection) throws IOException {
+            return decoder.decode(in, collection);
+        }
+
+        @Override
+        public DBObject decode(final byte[] b, final DBCollection collection) {
+            bytes.addAndGet(length(b));
+            return decoder.decode(b, collection);
+        }
+
+        @Override
+        public BSONObject readObject(final byte[] b) {
+            bytes.addAndGet(length(b));
+            return decoder.readObject(b);
+        }
+
+        @Override
+        public BSONObject readObject(final InputStream in) throws IOException {
+            return decoder.readObject(in);
+        }
+
+        @Override
+        public int decode(final byte[] b, final BSONCallback callback) {
+            bytes.addAndGet(length(b));
+            return decoder.decode(b, callback);
+        }
+
+        @Override
+        public int decode(final InputStream in, final BSONCallback callback) throws IOException {
+            final int read = decoder.decode(in, callback);
+            bytes.addAndGet(read);
+            return read;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.metrics;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Receives timings and volumes for the operations Morphia performs.  Implementations are called on the hot path of every read and write
+ * so they should be cheap, thread-safe and avoid allocating.  All times are in nanoseconds.  Either the collection or the type may be null
+ * when they are not known, e.g., for inline map reduce results.
+ *
+ * @see org.mongodb.morphia.mapping.MapperOptions#setMetricsListener(MetricsListener)
+ * @see DefaultMetricsListener
+ * @since 1.4
+ */
+public interface MetricsListener {
+    /**
+     * Records the time spent waiting on the driver for an operation.
+     *
+     * @param operation  the operation performed
+     * @param collection the collection operated on
+     * @param type       the entity type involved
+     * @param nanos      the elapsed time
+     */
+    void driverTime(OperationType operation, String collection, Class<?> type, long nanos);
+
+    /**
+     * Records the time spent converting between entities and documents for an operation.
+     *
+     * @param operation  the operation performed
+     * @param collection the collection operated on
+     * @param type       the entity type involved
+     * @param nanos      the elapsed time
+     */
+    void mappingTime(OperationType operation, String collection, Class<?> type, long nanos);
+
+    /**
+     * Records the time spent invoking lifecycle methods and interceptors for a single event on a single entity.  Nothing is recorded for
+     * events without lifecycle methods or interceptors.
+     *
+     * @param operation  the operation the event is part of
+     * @param event      the lifecycle annotation, e.g., {@link org.mongodb.morphia.annotations.PrePersist}
+     * @param collection the collection the entity is mapped to
+     * @param type       the entity type involved
+     * @param nanos      the elapsed time
+     */
+    void lifecycleTime(OperationType operation, Class<? extends Annotation> event, String collection, Class<?> type, long nanos);
+
+    /**
+     * Records the documents read by an operation.
+     *
+     * @param operation  the operation performed
+     * @param collection the collection operated on
+     * @param type       the entity type involved
+     * @param documents  the number of documents read
+     * @param bytes      the number of BSON bytes decoded or 0 if not known
+     */
+    void documentsRead(OperationType operation, String collection, Class<?> type, long documents, long bytes);
+
+    /**
+     * Records the documents written by an operation.
+     *
+     * @param operation  the operation performed
+     * @param collection the collection operated on
+     * @param type       the entity type involved
+     * @param documents  the number of documents written or affected
+     * @param bytes      the number of BSON bytes encoded or 0 if not known
+     */
+    void documentsWritten(OperationType operation, String collection, Class<?> type, long documents, long bytes);
+}
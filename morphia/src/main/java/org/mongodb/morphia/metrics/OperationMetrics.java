@@ -0,0 +1,212 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mongodb.morphia.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the metrics recorded for one combination of collection, operation type and entity class.
+ *
+ * @since 1.4
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final String collection;
+    private final OperationType operation;
+    private final Class<?> type;
+    private final LatencyHistogram driver = new LatencyHistogram();
+    private final LatencyHistogram mapping = new LatencyHistogram();
+    private final LatencyHistogram lifecycle = new LatencyHistogram();
+    private final AtomicLong documentsRead = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong documentsWritten = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    /**
+     * Creates an empty set of metrics
+     *
+     * @param collection the collection operated on
+     * @param operation  the operation type
+     * @param type       the entity type
+     */
+    public OperationMetrics(final String collection, final OperationType operation, final Class<?> type) {
+        this.collection = collection;
+        this.operation = operation;
+        this.type = type;
+    }
+
+    /**
+     * @return the histogram of driver times
+     */
+    public LatencyHistogram getDriver() {
+        return driver;
+    }
+
+    /**
+     * @return the histogram of mapping times
+     */
+    public LatencyHistogram getMapping() {
+        return mapping;
+    }
+
+    /**
+     * @return the histogram of lifecycle callback times
+     */
+    public LatencyHistogram getLifecycle() {
+        return lifecycle;
+    }
+
+    /**
+     * @return the operation type
+     */
+    public OperationType getOperationType() {
+        return operation;
+    }
+
+    /**
+     * @return the entity type
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    void read(final long documents, final long bytes) {
+        documentsRead.addAndGet(documents);
+        bytesRead.addAndGet(bytes);
+    }
+
+    void written(final long documents, final long bytes) {
+        documentsWritten.addAndGet(documents);
+        bytesWritten.addAndGet(bytes);
+    }
+
+    @Override
+    public String getCollection() {
+        return collection;
+    }
+
+    @Override
+    public String getOperation() {
+        return operation.name();
+    }
+
+    @Override
+    public String getEntityClass() {
+        return type != null ? type.getName() : null;
+    }
+
+    @Override
+    public long getDriverCount() {
+        return driver.getCount();
+    }
+
+    @Override
+    public long getDriverMean() {
+        return driver.getMean();
+    }
+
+    @Override
+    public long getDriver50thPercentile() {
+        return driver.getPercentile(50);
+    }
+
+    @Override
+    public long getDriver95thPercentile() {
+        return driver.getPercentile(95);
+    }
+
+    @Override
+    public long getDriver99thPercentile() {
+        return driver.getPercentile(99);
+    }
+
+    @Override
+    public long getDriverMax() {
+        return driver.getMax();
+    }
+
+    @Override
+    public long getMappingCount() {
+        return mapping.getCount();
+    }
+
+    @Override
+    public long getMappingMean() {
+        return mapping.getMean();
+    }
+
+    @Override
+    public long getMapping95thPercentile() {
+        return mapping.getPercentile(95);
+    }
+
+    @Override
+    public long getMapping99thPercentile() {
+        return mapping.getPercentile(99);
+    }
+
+    @Override
+    public long getLifecycleCount() {
+        return lifecycle.getCount();
+    }
+
+    @Override
+    public long getLifecycleMean() {
+        return lifecycle.getMean();
+    }
+
+    @Override
+    public long getLifecycle99thPercentile() {
+        return lifecycle.getPercentile(99);
+    }
+
+    @Override
+    public long getDocumentsRead() {
+        return documentsRead.get();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    @Override
+    public long getDocumentsWritten() {
+        return documentsWritten.get();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    @Override
+    public void reset() {
+        driver.reset();
+        mapping.reset();
+        lifecycle.reset();
+        documentsRead.set(0);
+        bytesRead.set(0);
+        documentsWritten.set(0);
+        bytesWritten.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s(%s): driver[%s], mapping[%s], lifecycle[%s], read %d docs/%d bytes, written %d docs/%d bytes",
+                             operation, collection, getEntityClass(), driver, mapping, lifecycle, getDocumentsRead(), getBytesRead(),
+                             getDocumentsWritten(), getBytesWritten());
+    }
+}
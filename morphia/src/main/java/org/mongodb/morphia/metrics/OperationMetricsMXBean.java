@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mongodb.morphia.metrics;
+
+/**
+ * The JMX view of an {@link OperationMetrics}.  Times are in nanoseconds.
+ *
+ * @since 1.4
+ */
+public interface OperationMetricsMXBean {
+    /**
+     * @return the collection operated on
+     */
+    String getCollection();
+
+    /**
+     * @return the name of the operation
+     */
+    String getOperation();
+
+    /**
+     * @return the name of the entity type
+     */
+    String getEntityClass();
+
+    /**
+     * @return the number of operations with a recorded driver time
+     */
+    long getDriverCount();
+
+    /**
+     * @return the mean driver time
+     */
+    long getDriverMean();
+
+    /**
+     * @return the median driver time
+     */
+    long getDriver50thPercentile();
+
+    /**
+     * @return the 95th percentile of the driver time
+     */
+    long getDriver95thPercentile();
+
+    /**
+     * @return the 99th percentile of the driver time
+     */
+    long getDriver99thPercentile();
+
+    /**
+     * @return the maximum driver time
+     */
+    long getDriverMax();
+
+    /**
+     * @return the number of operations with a recorded mapping time
+     */
+    long getMappingCount();
+
+    /**
+     * @return the mean mapping time
+     */
+    long getMappingMean();
+
+    /**
+     * @return the 95th percentile of the mapping time
+     */
+    long getMapping95thPercentile();
+
+    /**
+     * @return the 99th percentile of the mapping time
+     */
+    long getMapping99thPercentile();
+
+    /**
+     * @return the number of lifecycle events with a recorded time
+     */
+    long getLifecycleCount();
+
+    /**
+     * @return the mean lifecycle callback time
+     */
+    long getLifecycleMean();
+
+    /**
+     * @return the 99th percentile of the lifecycle callback time
+     */
+    long getLifecycle99thPercentile();
+
+    /**
+     * @return the number of documents read
+     */
+    long getDocumentsRead();
+
+    /**
+     * @return the number of BSON bytes read
+     */
+    long getBytesRead();
+
+    /**
+     * @return the number of documents written
+     */
+    long getDocumentsWritten();
+
+    /**
+     * @return the number of BSON bytes written
+     */
+    long getBytesWritten();
+
+    /**
+     * Clears the recorded values
+     */
+    void reset();
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mongodb.morphia.metrics;
+
+/**
+ * The kinds of operations reported to a {@link MetricsListener}
+ *
+ * @since 1.4
+ */
+public enum OperationType {
+    QUERY,
+    COUNT,
+    AGGREGATE,
+    MAP_REDUCE,
+    INSERT,
+    SAVE,
+    UPDATE,
+    DELETE,
+    FIND_AND_MODIFY
+}
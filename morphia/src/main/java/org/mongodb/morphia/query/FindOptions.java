@@ -34,6 +34,9 @@ import java.util.concurrent.TimeUnit;
  */
 public class FindOptions {
     private DBCollectionFindOptions options = new DBCollectionFindOptions();
+    private boolean cacheResults;
+    private boolean lookupReferences;
+    private boolean hedge;
 
     /**
      * Creates an empty options instance.
@@ -50,7 +53,92 @@ public class FindOptions {
      * @return the new copy
      */
     public FindOptions copy() {
-        return new FindOptions(options.copy());
+        final FindOptions copy = new FindOptions(options.copy());
+        copy.cacheResults = cacheResults;
+        copy.lookupReferences = lookupReferences;
+        copy.hedge = hedge;
+        return copy;
+    }
+
+    /**
+     * Returns whether the results may be served from, and are stored in, the query result cache.  The default is false.
+     *
+     * @return true if the results are cached
+     * @see org.mongodb.morphia.mapping.MapperOptions#setQueryResultCache(QueryResultCache)
+     * @since 1.4
+     */
+    public boolean isCacheResults() {
+        return cacheResults;
+    }
+
+    /**
+     * Sets whether the results may be served from, and are stored in, the query result cache.  This has no effect unless a cache is
+     * configured on the MapperOptions.  The results of a cached query are read completely from the server before the first one is
+     * returned.  Tailable cursors are never cached.
+     *
+     * @param cacheResults true if the results should be cached
+     * @return this
+     * @see org.mongodb.morphia.mapping.MapperOptions#setQueryResultCache(QueryResultCache)
+     * @since 1.4
+     */
+    public FindOptions cacheResults(final boolean cacheResults) {
+        this.cacheResults = cacheResults;
+        return this;
+    }
+
+    /**
+     * Returns whether eager references are joined on the server.  The default is false.
+     *
+     * @return true if references are fetched with {@code $lookup}
+     * @see #lookupReferences(boolean)
+     * @since 1.4
+     */
+    public boolean isLookupReferences() {
+        return lookupReferences;
+    }
+
+    /**
+     * Sets whether eager {@code idOnly} references are joined on the server.  When enabled the query runs as an aggregation which
+     * {@code $lookup}s the documents referenced by the top level eager, {@code idOnly}, single valued and collection
+     * {@link org.mongodb.morphia.annotations.Reference} fields of the entity, so that the results and the entities they reference are read
+     * in one round trip instead of one read per reference.  DBRef, map and lazy references, and the references of the referenced
+     * entities, are still read one at a time.  Queries with no such references, tailable queries, queries with modifiers such as hints
+     * and cached queries run as plain finds.  Requires MongoDB 3.2 or later.
+     *
+     * @param lookupReferences true if references should be fetched with {@code $lookup}
+     * @return this
+     * @mongodb.driver.manual reference/operator/aggregation/lookup/ $lookup
+     * @since 1.4
+     */
+    public FindOptions lookupReferences(final boolean lookupReferences) {
+        this.lookupReferences = lookupReferences;
+        return this;
+    }
+
+    /**
+     * Returns whether slow executions of the query are hedged.  The default is false.
+     *
+     * @return true if the query is hedged
+     * @see #hedge(boolean)
+     * @since 1.4
+     */
+    public boolean isHedge() {
+        return hedge;
+    }
+
+    /**
+     * Sets whether the query is sent a second time, with a different read preference, when the first attempt is slow.  This has no effect
+     * unless hedging is configured on the MapperOptions.  The results of a hedged query are read completely from the server before the
+     * first one is returned.  Tailable, cached and {@link #lookupReferences(boolean) joined} queries are not hedged.
+     *
+     * @param hedge true if the query should be hedged
+     * @return this
+     * @see org.mongodb.morphia.mapping.MapperOptions#setHedgedReads(HedgedReads)
+     * @since 1.4
+     */
+    public FindOptions hedge(final boolean hedge) {
+        this.hedge = hedge;
+        return this;
     }
 
     /**
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia.query;
+
+/**
+ * A snapshot of the statistics of {@link HedgedReads}
+ *
+ * @since 1.4
+ */
+public class HedgedReadStatistics {
+    private final long reads;
+    private final long hedges;
+    private final long hedgeWins;
+
+    HedgedReadStatistics(final long reads, final long hedges, final long hedgeWins) {
+        this.reads = reads;
+        this.hedges = hedges;
+        this.hedgeWins = hedgeWins;
+    }
+
+    /**
+     * @return the number of queries run with hedging enabled
+     */
+    public long getReads() {
+        return reads;
+    }
+
+    /**
+     * @return the number of queries which were slow enough to be sent a second time
+     */
+    public long getHedges() {
+        return hedges;
+    }
+
+    /**
+     * @return the number of queries whose second attempt completed first
+     */
+    public long getHedgeWins() {
+        return hedgeWins;
+    }
+
+    /**
+     * @return the share of queries which were sent a second time, i.e., the additional load caused by hedging
+     */
+    public double getHedgeRatio() {
+        return reads == 0 ? 0 : (double) hedges / reads;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": " + reads + " reads, " + hedges + " hedges, " + hedgeWins + " hedge wins.";
+    }
+}
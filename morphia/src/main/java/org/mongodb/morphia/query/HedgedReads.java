@@ -0,0 +1,425 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia.query;
+
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import com.mongodb.MongoInterruptedException;
+import com.mongodb.ReadPreference;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedges reads against slow servers.  Hedging is enabled by setting an instance on
+ * {@link org.mongodb.morphia.mapping.MapperOptions#setHedgedReads(HedgedReads)} and is then used by the queries which ask for it with
+ * {@link FindOptions#hedge(boolean)} and, if {@link #hedgeGets(boolean) enabled}, by {@code Datastore.get}.
+ * <p>
+ * A hedged query is sent as usual and if it has not completed after a delay the same query is sent again with the hedge read preference,
+ * typically one which selects a different member of the replica set.  The first complete result is used and the other query is
+ * cancelled.  The delay is either fixed or a percentile of the latencies recently observed for queries of the same shape, i.e., the same
+ * collection, filter fields and operators, sort and projection.  With the default 95th percentile only about one query in twenty is sent
+ * twice, which takes the slowest results off the tail at a small cost in load.
+ * <p>
+ * The results of a hedged query are read completely from the server before the first one is returned.  Tailable queries are never
+ * hedged.
+ *
+ * @since 1.4
+ */
+public class HedgedReads {
+    private static final int SAMPLES = 128;
+    private static final int MIN_SAMPLES = 16;
+    private static final int MAX_SHAPES = 1024;
+    private static final int DEFAULT_MAX_THREADS = 64;
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final ReadPreference readPreference;
+    private final long delay;
+    private final double percentile;
+    private final Map<String, Latencies> latencies = new LinkedHashMap<String, Latencies>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Latencies> eldest) {
+            return size() > MAX_SHAPES;
+        }
+    };
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final ThreadPoolExecutor executor;
+    private volatile boolean hedgeGets;
+
+    /**
+     * Creates hedged reads with a fixed delay
+     *
+     * @param readPreference the read preference of the second query
+     * @param delay          how long to wait for the first query before sending the second
+     * @param unit           the unit of delay
+     */
+    public HedgedReads(final ReadPreference readPreference, final long delay, final TimeUnit unit) {
+        this(readPreference, 0, delay, unit);
+    }
+
+    /**
+     * Creates hedged reads with a delay taken from the observed latencies of each query shape
+     *
+     * @param readPreference the read preference of the second query
+     * @param percentile     the percentile of the observed latencies to wait for the first query before sending the second, e.g., 95
+     * @param initialDelay   how long to wait while too few latencies have been observed for a query shape
+     * @param unit           the unit of initialDelay
+     */
+    public HedgedReads(final ReadPreference readPreference, final double percentile, final long initialDelay, final TimeUnit unit) {
+        if (readPreference == null) {
+            throw new IllegalArgumentException("The hedge read preference can not be null");
+        }
+        if (percentile < 0 || percentile >= 100) {
+            throw new IllegalArgumentException("The percentile must be at least 0 and less than 100");
+        }
+        if (initialDelay < 0) {
+            throw new IllegalArgumentException("The delay can not be negative");
+        }
+        this.readPreference = readPreference;
+        this.percentile = percentile;
+        this.delay = unit.toNanos(initialDelay);
+
+        final int pool = POOL_COUNT.incrementAndGet();
+        final ThreadFactory threads = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "morphia-hedge-" + pool + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        executor = new ThreadPoolExecutor(0, DEFAULT_MAX_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), threads);
+    }
+
+    /**
+     * @return the most threads running hedged queries at once
+     */
+    public int getMaxThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Sets the most threads running hedged queries at once.  When they are all busy queries are run on the calling thread without being
+     * hedged, and queries already running are not hedged.  The default is 64.
+     *
+     * @param maxThreads the most threads
+     * @return this
+     */
+    public HedgedReads maxThreads(final int maxThreads) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("maxThreads must be at least 1");
+        }
+        executor.setMaximumPoolSize(maxThreads);
+        return this;
+    }
+
+    /**
+     * @return the read preference of the second query
+     */
+    public ReadPreference getReadPreference() {
+        return readPreference;
+    }
+
+    /**
+     * @return true if {@code Datastore.get} is hedged
+     */
+    public boolean isHedgeGets() {
+        return hedgeGets;
+    }
+
+    /**
+     * Sets whether loading entities by id with {@code Datastore.get} is hedged.  The default is false.
+     *
+     * @param hedgeGets true to hedge {@code Datastore.get}
+     * @return this
+     */
+    public HedgedReads hedgeGets(final boolean hedgeGets) {
+        this.hedgeGets = hedgeGets;
+        return this;
+    }
+
+    /**
+     * Returns the delay after which a query of the given shape is hedged
+     *
+     * @param shape the query shape
+     * @param unit  the unit of the result
+     * @return the delay
+     */
+    long getDelay(final String shape, final TimeUnit unit) {
+        long nanos = delay;
+        if (percentile > 0) {
+            final Latencies observed;
+            synchronized (latencies) {
+                observed = latencies.get(shape);
+            }
+            if (observed != null) {
+                nanos = observed.percentile(percentile, delay);
+            }
+        }
+        return unit.convert(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return a snapshot of the statistics of these hedged reads
+     */
+    public HedgedReadStatistics getStatistics() {
+        return new HedgedReadStatistics(reads.get(), hedges.get(), hedgeWins.get());
+    }
+
+    /**
+     * Stops the threads running the queries.  Queries are run on the calling thread without being hedged afterwards.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a query, hedging it if it is slow.  The latency recorded for the shape of the query is the one its caller saw, measured from
+     * the start of the first query, so the first query counts for at least as long as it ran even when the hedge won.
+     *
+     * @param shape  the shape of the query
+     * @param source opens the cursors of the query
+     * @return the documents read
+     */
+    List<DBObject> read(final String shape, final CursorSource source) {
+        reads.incrementAndGet();
+        final long start = System.nanoTime();
+        final List<DBObject> documents = hedge(shape, source);
+        record(shape, System.nanoTime() - start);
+        return documents;
+    }
+
+    private List<DBObject> hedge(final String shape, final CursorSource source) {
+        final CompletionService<List<DBObject>> completion = new ExecutorCompletionService<List<DBObject>>(executor);
+        final Attempt first = new Attempt(source, null);
+        final Future<List<DBObject>> firstResult;
+        try {
+            firstResult = completion.submit(first);
+        } catch (RejectedExecutionException e) {
+            // every thread is busy, or shut down, so the query runs here unhedged
+            return first.call();
+        }
+        Attempt second = null;
+        Future<List<DBObject>> secondResult = null;
+        try {
+            Future<List<DBObject>> done = completion.poll(getDelay(shape, TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            if (done == null) {
+                try {
+                    second = new Attempt(source, readPreference);
+                    secondResult = completion.submit(second);
+                    hedges.incrementAndGet();
+                } catch (RejectedExecutionException e) {
+                    // every thread is busy so the first query is left to finish unhedged
+                    second = null;
+                }
+                done = completion.take();
+            }
+            try {
+                return result(done, done == secondResult);
+            } catch (RuntimeException e) {
+                if (secondResult == null) {
+                    throw e;
+                }
+                // one of the queries failed, the other may still succeed
+                try {
+                    return result(completion.take(), done != secondResult);
+                } catch (RuntimeException ignored) {
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MongoInterruptedException("Interrupted while waiting for a hedged query", e);
+        } finally {
+            first.cancel(firstResult);
+            if (second != null) {
+                second.cancel(secondResult);
+            }
+        }
+    }
+
+    private List<DBObject> result(final Future<List<DBObject>> done, final boolean hedge) throws InterruptedException {
+        try {
+            final List<DBObject> documents = done.get();
+            if (hedge) {
+                hedgeWins.incrementAndGet();
+            }
+            return documents;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new MongoException("A hedged query failed", e.getCause());
+        }
+    }
+
+    private void record(final String shape, final long nanos) {
+        Latencies observed;
+        synchronized (latencies) {
+            observed = latencies.get(shape);
+            if (observed == null) {
+                observed = new Latencies();
+                latencies.put(shape, observed);
+            }
+        }
+        observed.add(nanos);
+    }
+
+    /**
+     * Describes the shape of a query, which is everything but the values it compares against
+     *
+     * @param namespace  the full name of the collection
+     * @param query      the filter
+     * @param sort       the sort, may be null
+     * @param projection the projection, may be null
+     * @return the shape
+     */
+    static String shape(final String namespace, final DBObject query, final DBObject sort, final DBObject projection) {
+        final StringBuilder shape = new StringBuilder(namespace).append(' ');
+        appendShape(shape, query);
+        return shape.append(" sort ").append(sort)
+                    .append(" projection ").append(projection)
+                    .toString();
+    }
+
+    private static void appendShape(final StringBuilder shape, final Object value) {
+        if (value instanceof List) {
+            shape.append('[');
+            for (final Object element : (List<?>) value) {
+                if (element instanceof DBObject) {
+                    appendShape(shape, element);
+                    shape.append(',');
+                }
+            }
+            shape.append(']');
+        } else if (value instanceof DBObject) {
+            shape.append('{');
+            for (final String key : ((DBObject) value).keySet()) {
+                shape.append(key).append(':');
+                appendShape(shape, ((DBObject) value).get(key));
+                shape.append(',');
+            }
+            shape.append('}');
+        } else {
+            shape.append('?');
+        }
+    }
+
+    /**
+     * Opens the cursors of a hedged query
+     */
+    interface CursorSource {
+        /**
+         * @param readPreference the read preference to use or null to use the query's own
+         * @return the cursor
+         */
+        DBCursor open(ReadPreference readPreference);
+    }
+
+    private static final class Attempt implements Callable<List<DBObject>> {
+        private final CursorSource source;
+        private final ReadPreference readPreference;
+        private volatile DBCursor cursor;
+        private volatile boolean cancelled;
+
+        private Attempt(final CursorSource source, final ReadPreference readPreference) {
+            this.source = source;
+            this.readPreference = readPreference;
+        }
+
+        @Override
+        public List<DBObject> call() {
+            final DBCursor opened = source.open(readPreference);
+            cursor = opened;
+            final List<DBObject> documents = new ArrayList<DBObject>();
+            try {
+                while (!cancelled && opened.hasNext()) {
+                    documents.add(opened.next());
+                }
+            } finally {
+                opened.close();
+            }
+            return documents;
+        }
+
+        private void cancel(final Future<List<DBObject>> result) {
+            if (result.isDone()) {
+                return;
+            }
+            cancelled = true;
+            result.cancel(true);
+            final DBCursor opened = cursor;
+            if (opened != null) {
+                try {
+                    opened.close();
+                } catch (RuntimeException ignored) {
+                    // the query is abandoned so failing to close it cleanly does not matter
+                }
+            }
+        }
+    }
+
+    private static final class Latencies {
+        private final long[] samples = new long[SAMPLES];
+        private int count;
+        private int next;
+
+        private synchronized void add(final long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % SAMPLES;
+            count = Math.min(count + 1, SAMPLES);
+        }
+
+        private long percentile(final double percentile, final long fallback) {
+            final long[] sorted;
+            synchronized (this) {
+                if (count < MIN_SAMPLES) {
+                    return fallback;
+                }
+                sorted = Arrays.copyOf(samples, count);
+            }
+            Arrays.sort(sorted);
+            final int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, index)];
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.query;
+
+import com.mongodb.AggregationOptions;
+import com.mongodb.BasicDBObject;
+import com.mongodb.Cursor;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.model.DBCollectionFindOptions;
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.logging.Logger;
+import org.mongodb.morphia.logging.MorphiaLoggerFactory;
+import org.mongodb.morphia.mapping.Mapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+
+/**
+ * Computes {@code _id} split points dividing the documents matching a query into ranges of roughly equal size.  ObjectId and numeric ids
+ * are bisected between the smallest and largest matching id (ObjectIds by their timestamp) which costs two indexed lookups.  Any other id
+ * type is split at the quantiles of a {@code $sample} of the matching ids.  Ids of different types, other than numbers of different types,
+ * are left in a single range since a range query only matches ids of the type of its bounds.
+ */
+final class IdSplitter {
+    private static final Logger LOG = MorphiaLoggerFactory.get(IdSplitter.class);
+    private static final int SAMPLES_PER_PARTITION = 32;
+
+    private IdSplitter() {
+    }
+
+    /**
+     * @param collection     the collection to split
+     * @param query          the query selecting the documents to split
+     * @param readPreference the read preference to use or null for the collection's default
+     * @param partitions     the number of ranges wanted
+     * @return the ascending, distinct split points.  This can be fewer than partitions - 1 if the ids do not allow as many ranges.
+     */
+    static List<Object> split(final DBCollection collection, final DBObject query, final ReadPreference readPreference,
+                              final int partitions) {
+        if (partitions < 2) {
+            return Collections.emptyList();
+        }
+        final Object min = boundary(collection, query, readPreference, 1);
+        final Object max = boundary(collection, query, readPreference, -1);
+        if (min == null || max == null) {
+            return Collections.emptyList();
+        }
+        if (!isSameType(min, max)) {
+            // the ids are sorted by type first so a range of one type can not hold all of them
+            LOG.warning(format("The ids of '%s' are of different types so it will be scanned as a single partition", collection.getName()));
+            return Collections.emptyList();
+        }
+        if (min instanceof ObjectId && max instanceof ObjectId) {
+            return splitObjectIds((ObjectId) min, (ObjectId) max, partitions);
+        }
+        if (isIntegral(min) && isIntegral(max)) {
+            return splitIntegers((Number) min, (Number) max, partitions);
+        }
+        if (min instanceof Number && max instanceof Number) {
+            return splitDoubles(((Number) min).doubleValue(), ((Number) max).doubleValue(), partitions);
+        }
+        return sample(collection, query, readPreference, partitions);
+    }
+
+    private static Object boundary(final DBCollection collection, final DBObject query, final ReadPreference readPreference,
+                                   final int direction) {
+        final DBCollectionFindOptions options = new DBCollectionFindOptions()
+                                                    .projection(new BasicDBObject(Mapper.ID_KEY, 1))
+                                                    .sort(new BasicDBObject(Mapper.ID_KEY, direction))
+                                                    .limit(1);
+        if (readPreference != null) {
+            options.readPreference(readPreference);
+        }
+        final DBCursor cursor = collection.find(query, options);
+        try {
+            return cursor.hasNext() ? cursor.next().get(Mapper.ID_KEY) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static boolean isSameType(final Object first, final Object second) {
+        return first instanceof Number ? second instanceof Number : first.getClass().equals(second.getClass());
+    }
+
+    private static boolean isIntegral(final Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    private static List<Object> splitObjectIds(final ObjectId min, final ObjectId max, final int partitions) {
+        final List<Object> splits = new ArrayList<Object>();
+        final long start = min.getTimestamp();
+        final long range = (long) max.getTimestamp() - start;
+        ObjectId last = min;
+        for (int i = 1; i < partitions; i++) {
+            // the smallest possible id for the second
+            final ObjectId split = new ObjectId((int) (start + range * i / partitions), 0, (short) 0, 0);
+            if (split.compareTo(last) > 0) {
+                splits.add(split);
+                last = split;
+            }
+        }
+        return splits;
+    }
+
+    private static List<Object> splitIntegers(final Number min, final Number max, final int partitions) {
+        final boolean ints = min instanceof Integer && max instanceof Integer;
+        final List<Object> splits = new ArrayList<Object>();
+        final double range = (double) max.longValue() - min.longValue();
+        long last = min.longValue();
+        for (int i = 1; i < partitions; i++) {
+            final long split = (long) Math.floor(min.longValue() + range * i / partitions);
+            if (split > last) {
+                splits.add(ints ? Integer.valueOf((int) split) : Long.valueOf(split));
+                last = split;
+            }
+        }
+        return splits;
+    }
+
+    private static List<Object> splitDoubles(final double min, final double max, final int partitions) {
+        final List<Object> splits = new ArrayList<Object>();
+        double last = min;
+        for (int i = 1; i < partitions; i++) {
+            final double split = min + (max - min) * i / partitions;
+            if (split > last) {
+                splits.add(split);
+                last = split;
+            }
+        }
+        return splits;
+    }
+
+    private static List<Object> sample(final DBCollection collection, final DBObject query, final ReadPreference readPreference,
+                                       final int partitions) {
+        final List<DBObject> pipeline = asList((DBObject) new BasicDBObject("$match", query),
+                                               new BasicDBObject("$sample", new BasicDBObject("size", partitions * SAMPLES_PER_PARTITION)),
+                                               new BasicDBObject("$project", new BasicDBObject(Mapper.ID_KEY, 1)),
+                                               new BasicDBObject("$sort", new BasicDBObject(Mapper.ID_KEY, 1)));
+        final List<Object> ids = new ArrayList<Object>();
+        try {
+            final Cursor cursor = collection.aggregate(pipeline, AggregationOptions.builder()
+                                                                                   .outputMode(AggregationOptions.OutputMode.CURSOR)
+                                                                                   .build(),
+                                                       readPreference != null ? readPreference : collection.getReadPreference());
+            try {
+                while (cursor.hasNext()) {
+                    ids.add(cursor.next().get(Mapper.ID_KEY));
+                }
+            } finally {
+                cursor.close();
+            }
+        } catch (MongoException e) {
+            LOG.warning(format("Could not sample the ids of '%s' so it will be scanned as a single partition", collection.getName()), e);
+            return Collections.emptyList();
+        }
+
+        final List<Object> splits = new ArrayList<Object>();
+        for (int i = 1; i < partitions && !ids.isEmpty(); i++) {
+            final Object split = ids.get(i * ids.size() / partitions);
+            if (splits.isEmpty() || !split.equals(splits.get(splits.size() - 1))) {
+                splits.add(split);
+            }
+        }
+        return splits;
+    }
+}
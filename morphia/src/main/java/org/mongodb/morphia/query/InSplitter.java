@@ -0,0 +1,446 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia.query;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import com.mongodb.MongoInterruptedException;
+import org.bson.types.Binary;
+import org.bson.types.BSONTimestamp;
+import org.bson.types.Decimal128;
+import org.bson.types.MaxKey;
+import org.bson.types.MinKey;
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.mapping.Mapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a query with a very large {@code $in} in to several queries with a bounded number of values each, runs them concurrently and
+ * merges their results.  The values are de-duplicated before they are split.  Unless the split field is {@code _id}, a document can match
+ * several of the queries and the merged results are de-duplicated by {@code _id}.
+ * <p>
+ * This is an internal class used by queries and the Datastore when {@link org.mongodb.morphia.mapping.MapperOptions#setMaxInValues(int)}
+ * is set.
+ *
+ * @since 1.4
+ */
+public final class InSplitter {
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+    private static final int NUMBER_RANK = 2;
+
+    private InSplitter() {
+    }
+
+    /**
+     * Finds the field with the largest top level {@code $in} of more than the given number of values
+     *
+     * @param query     the filter
+     * @param maxValues the largest {@code $in} left as it is
+     * @return the field or null if no {@code $in} is too large
+     */
+    public static String findSplitField(final DBObject query, final int maxValues) {
+        String field = null;
+        int largest = maxValues;
+        for (final String key : query.keySet()) {
+            final Collection<?> values = getInValues(query.get(key));
+            if (values != null && values.size() > largest) {
+                field = key;
+                largest = values.size();
+            }
+        }
+        return field;
+    }
+
+    /**
+     * Splits a filter in to filters which each have at most the given number of the {@code $in} values of a field
+     *
+     * @param query     the filter
+     * @param field     the field whose {@code $in} is split
+     * @param maxValues the number of values in each filter
+     * @return the filters
+     */
+    @SuppressWarnings("unchecked")
+    public static List<DBObject> split(final DBObject query, final String field, final int maxValues) {
+        final List<Object> values = new ArrayList<Object>(new LinkedHashSet<Object>(getInValues(query.get(field))));
+        final List<DBObject> queries = new ArrayList<DBObject>();
+        for (int from = 0; from < values.size(); from += maxValues) {
+            final BasicDBObject operators = new BasicDBObject((Map<String, Object>) query.get(field));
+            operators.put(FilterOperator.IN.val(), new ArrayList<Object>(values.subList(from, Math.min(from + maxValues, values.size()))));
+            final BasicDBObject chunk = new BasicDBObject(query.toMap());
+            chunk.put(field, operators);
+            queries.add(chunk);
+        }
+        return queries;
+    }
+
+    /**
+     * Creates the pool of daemon threads a datastore runs the parts of split queries on.  Its threads stop when they have been idle for a
+     * minute.
+     *
+     * @param threads the number of threads
+     * @return the pool
+     */
+    public static ThreadPoolExecutor newExecutor(final int threads) {
+        final int pool = POOL_NUMBER.incrementAndGet();
+        final ThreadFactory factory = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "morphia-in-split-" + pool + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                                                                   new LinkedBlockingQueue<Runnable>(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Resizes a pool created by {@link #newExecutor(int)}
+     *
+     * @param executor the pool
+     * @param threads  the number of threads
+     */
+    public static void resize(final ThreadPoolExecutor executor, final int threads) {
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else if (threads < executor.getMaximumPoolSize()) {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    /**
+     * Runs tasks on a pool of threads
+     *
+     * @param executor the pool
+     * @param tasks    the tasks
+     * @param <V>      the type of the results
+     * @return the results in the order of the tasks
+     */
+    public static <V> List<V> invokeAll(final ExecutorService executor, final List<? extends Callable<V>> tasks) {
+        try {
+            final List<Future<V>> futures = executor.invokeAll(tasks);
+            final List<V> results = new ArrayList<V>(futures.size());
+            for (final Future<V> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MongoInterruptedException("Interrupted while running the parts of a split query", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new MongoException("A part of a split query failed", e.getCause());
+        }
+    }
+
+    /**
+     * Checks that the results of a split query can be merged in the given order
+     *
+     * @param sort the sort of the query, may be null
+     * @return true if every sort key is ascending or descending
+     */
+    static boolean canMerge(final DBObject sort) {
+        if (sort != null) {
+            for (final String key : sort.keySet()) {
+                if (!(sort.get(key) instanceof Number)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges the results of the parts of a split query
+     *
+     * @param results the sorted results of each part
+     * @param sort    the sort of the query, may be null
+     * @param dedupe  true if a document can be in the results of several parts
+     * @param skip    the number of merged results to skip
+     * @param limit   the maximum number of merged results or 0 for all of them
+     * @return the merged results
+     */
+    static List<DBObject> merge(final List<List<DBObject>> results, final DBObject sort, final boolean dedupe, final int skip,
+                                final int limit) {
+        final Comparator<DBObject> order = sort == null || sort.keySet().isEmpty() ? null : new SortOrder(sort);
+        final PriorityQueue<Head> heads = new PriorityQueue<Head>(Math.max(1, results.size()), new Comparator<Head>() {
+            @Override
+            public int compare(final Head o1, final Head o2) {
+                final int compared = order != null ? order.compare(o1.current(), o2.current()) : 0;
+                return compared != 0 ? compared : o1.part - o2.part;
+            }
+        });
+        for (int part = 0; part < results.size(); part++) {
+            if (!results.get(part).isEmpty()) {
+                heads.add(new Head(part, results.get(part)));
+            }
+        }
+
+        final Set<Object> seen = dedupe ? new HashSet<Object>() : null;
+        final List<DBObject> merged = new ArrayList<DBObject>();
+        int skipped = 0;
+        while (!heads.isEmpty() && (limit <= 0 || merged.size() < limit)) {
+            final Head head = heads.poll();
+            final DBObject document = head.current();
+            if (head.advance()) {
+                heads.add(head);
+            }
+            if (seen != null && !seen.add(idOf(document))) {
+                continue;
+            }
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                merged.add(document);
+            }
+        }
+        return merged;
+    }
+
+    static Object idOf(final DBObject document) {
+        final Object id = document.get(Mapper.ID_KEY);
+        return id instanceof byte[] ? new Binary((byte[]) id) : id;
+    }
+
+    private static Collection<?> getInValues(final Object value) {
+        if (value instanceof Map) {
+            final Object values = ((Map<?, ?>) value).get(FilterOperator.IN.val());
+            if (values instanceof Collection) {
+                return (Collection<?>) values;
+            }
+            if (values instanceof Object[]) {
+                return Arrays.asList((Object[]) values);
+            }
+        }
+        return null;
+    }
+
+    private static final class Head {
+        private final int part;
+        private final List<DBObject> documents;
+        private int position;
+
+        private Head(final int part, final List<DBObject> documents) {
+            this.part = part;
+            this.documents = documents;
+        }
+
+        private DBObject current() {
+            return documents.get(position);
+        }
+
+        private boolean advance() {
+            return ++position < documents.size();
+        }
+    }
+
+    /**
+     * Orders documents as the server sorts them, without a collation
+     */
+    static final class SortOrder implements Comparator<DBObject> {
+        private final List<String> keys = new ArrayList<String>();
+        private final List<Integer> directions = new ArrayList<Integer>();
+
+        SortOrder(final DBObject sort) {
+            for (final String key : sort.keySet()) {
+                keys.add(key);
+                directions.add(((Number) sort.get(key)).intValue() < 0 ? -1 : 1);
+            }
+        }
+
+        @Override
+        public int compare(final DBObject o1, final DBObject o2) {
+            for (int i = 0; i < keys.size(); i++) {
+                final int direction = directions.get(i);
+                final int compared = compareValues(sortValue(o1, keys.get(i), direction), sortValue(o2, keys.get(i), direction));
+                if (compared != 0) {
+                    return compared * direction;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * An array sorts by its smallest element in ascending sorts and by its largest in descending ones
+         */
+        private static Object sortValue(final DBObject document, final String path, final int direction) {
+            final List<Object> values = new ArrayList<Object>();
+            collect(document, path.split("\\."), 0, values);
+            if (values.isEmpty()) {
+                return null;
+            }
+            Object value = values.get(0);
+            for (final Object candidate : values) {
+                if (compareValues(candidate, value) * direction < 0) {
+                    value = candidate;
+                }
+            }
+            return value;
+        }
+
+        private static void collect(final Object value, final String[] path, final int depth, final List<Object> values) {
+            if (value instanceof List) {
+                final List<?> list = (List<?>) value;
+                for (final Object element : list) {
+                    collect(element, path, depth, values);
+                }
+                if (list.isEmpty() && depth == path.length) {
+                    values.add(null);
+                }
+            } else if (depth == path.length) {
+                values.add(value);
+            } else if (value instanceof DBObject) {
+                collect(((DBObject) value).get(path[depth]), path, depth + 1, values);
+            } else if (value instanceof Map) {
+                collect(((Map<?, ?>) value).get(path[depth]), path, depth + 1, values);
+            } else if (depth > 0) {
+                values.add(null);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static int compareValues(final Object first, final Object second) {
+        final int rank = compareLongs(rank(first), rank(second));
+        if (rank != 0) {
+            return rank;
+        }
+        if (first == null || first instanceof MinKey || first instanceof MaxKey) {
+            return 0;
+        }
+        if (rank(first) == NUMBER_RANK) {
+            return compareNumbers(first, second);
+        }
+        if (first instanceof Map) {
+            final List<Map.Entry<String, Object>> these = new ArrayList<Map.Entry<String, Object>>(
+                ((Map<String, Object>) first).entrySet());
+            final List<Map.Entry<String, Object>> those = new ArrayList<Map.Entry<String, Object>>(
+                ((Map<String, Object>) second).entrySet());
+            for (int i = 0; i < Math.min(these.size(), those.size()); i++) {
+                int compared = compareValues(these.get(i).getValue(), those.get(i).getValue());
+                if (compared == 0) {
+                    compared = these.get(i).getKey().compareTo(those.get(i).getKey());
+                }
+                if (compared != 0) {
+                    return compared;
+                }
+            }
+            return compareLongs(these.size(), those.size());
+        }
+        if (first instanceof Comparable && first.getClass() == second.getClass()) {
+            return Integer.signum(((Comparable<Object>) first).compareTo(second));
+        }
+        return first.toString().compareTo(second.toString());
+    }
+
+    private static int compareNumbers(final Object first, final Object second) {
+        if (first instanceof Decimal128 || second instanceof Decimal128) {
+            return toBigDecimal(first).compareTo(toBigDecimal(second));
+        }
+        final Number a = (Number) first;
+        final Number b = (Number) second;
+        if (isIntegral(a) && isIntegral(b)) {
+            return compareLongs(a.longValue(), b.longValue());
+        }
+        return Double.compare(a.doubleValue(), b.doubleValue());
+    }
+
+    private static int compareLongs(final long first, final long second) {
+        return first < second ? -1 : first == second ? 0 : 1;
+    }
+
+    private static BigDecimal toBigDecimal(final Object number) {
+        if (number instanceof Decimal128) {
+            return ((Decimal128) number).bigDecimalValue();
+        }
+        return isIntegral((Number) number)
+               ? BigDecimal.valueOf(((Number) number).longValue())
+               : BigDecimal.valueOf(((Number) number).doubleValue());
+    }
+
+    private static boolean isIntegral(final Number number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+    }
+
+    /**
+     * @see <a href="https://docs.mongodb.com/manual/reference/bson-type-comparison-order/">Comparison/Sort Order</a>
+     */
+    private static int rank(final Object value) {
+        if (value instanceof MinKey) {
+            return 0;
+        } else if (value == null) {
+            return 1;
+        } else if (value instanceof Number || value instanceof Decimal128) {
+            return NUMBER_RANK;
+        } else if (value instanceof String) {
+            return 3;
+        } else if (value instanceof Map) {
+            return 4;
+        } else if (value instanceof Binary || value instanceof byte[]) {
+            return 6;
+        } else if (value instanceof ObjectId) {
+            return 7;
+        } else if (value instanceof Boolean) {
+            return 8;
+        } else if (value instanceof Date) {
+            return 9;
+        } else if (value instanceof BSONTimestamp) {
+            return 10;
+        } else if (value instanceof Pattern) {
+            return 11;
+        } else if (value instanceof MaxKey) {
+            return 13;
+        }
+        return 12;
+    }
+}
@@ -6,10 +6,15 @@ import com.mongodb.DBObject;
 import org.mongodb.morphia.Datastore;
 import org.mongodb.morphia.mapping.Mapper;
 import org.mongodb.morphia.mapping.cache.EntityCache;
+import org.mongodb.morphia.metrics.MetricsDecoderFactory;
+import org.mongodb.morphia.metrics.MetricsListener;
+import org.mongodb.morphia.metrics.OperationType;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 
 /**
  * @param <T> the original type being iterated
@@ -23,8 +28,12 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
     private final Class<T> clazz;
     private final String collection;
     private final EntityCache cache;
+    private final OperationType operation;
+    private final MetricsListener metrics;
     private long driverTime;
     private long mapperTime;
+    private long documents;
+    private boolean reported;
     private Datastore datastore;
 
     /**
@@ -38,12 +47,30 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
      */
     public MorphiaIterator(final Datastore datastore, final Iterator<DBObject> it, final Mapper mapper, final Class<T> clazz,
                            final String collection, final EntityCache cache) {
+        this(datastore, it, mapper, clazz, collection, cache, OperationType.QUERY);
+    }
+
+    /**
+     * Creates a MorphiaIterator
+     * @param datastore  the Datastore to use when fetching this reference
+     * @param it         the Iterator to use
+     * @param mapper     the Mapper to use
+     * @param clazz      the original type being iterated
+     * @param collection the mongodb collection
+     * @param cache      the EntityCache
+     * @param operation  the operation producing the results to use when reporting metrics
+     * @since 1.4
+     */
+    public MorphiaIterator(final Datastore datastore, final Iterator<DBObject> it, final Mapper mapper, final Class<T> clazz,
+                           final String collection, final EntityCache cache, final OperationType operation) {
         wrapped = it;
         this.mapper = mapper;
         this.clazz = clazz;
         this.collection = collection;
         this.cache = cache;
         this.datastore = datastore;
+        this.operation = operation;
+        metrics = mapper != null ? mapper.getOptions().getMetricsListener() : null;
     }
 
     /**
@@ -53,6 +80,7 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
         if (wrapped != null && wrapped instanceof DBCursor) {
             ((DBCursor) wrapped).close();
         }
+        report();
     }
 
     /**
@@ -80,6 +108,14 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
      * @return the time spent calling the driver in ms
      */
     public long getDriverTime() {
+        return NANOSECONDS.toMillis(driverTime);
+    }
+
+    /**
+     * @return the time spent calling the driver in ns
+     * @since 1.4
+     */
+    public long getDriverTimeNanos() {
         return driverTime;
     }
 
@@ -94,6 +130,14 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
      * @return the time spent calling the mapper in ms
      */
     public long getMapperTime() {
+        return NANOSECONDS.toMillis(mapperTime);
+    }
+
+    /**
+     * @return the time spent calling the mapper in ns
+     * @since 1.4
+     */
+    public long getMapperTimeNanos() {
         return mapperTime;
     }
 
@@ -102,9 +146,12 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
         if (wrapped == null) {
             return false;
         }
-        final long start = System.currentTimeMillis();
+        final long start = System.nanoTime();
         final boolean ret = wrapped.hasNext();
-        driverTime += System.currentTimeMillis() - start;
+        driverTime += System.nanoTime() - start;
+        if (!ret) {
+            report();
+        }
         return ret;
     }
 
@@ -119,9 +166,9 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
 
     @Override
     public void remove() {
-        final long start = System.currentTimeMillis();
+        final long start = System.nanoTime();
         wrapped.remove();
-        driverTime += System.currentTimeMillis() - start;
+        driverTime += System.nanoTime() - start;
     }
 
     @Override
@@ -135,19 +182,35 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
     }
 
     protected DBObject getNext() {
-        final long start = System.currentTimeMillis();
+        final long start = System.nanoTime();
         final DBObject dbObj = wrapped.next();
-        driverTime += System.currentTimeMillis() - start;
+        driverTime += System.nanoTime() - start;
+        documents++;
         return dbObj;
     }
 
     private V processItem(final DBObject dbObj) {
-        final long start = System.currentTimeMillis();
+        final long start = System.nanoTime();
         final V item = convertItem(dbObj);
-        mapperTime += System.currentTimeMillis() - start;
+        mapperTime += System.nanoTime() - start;
         return item;
     }
 
+    /**
+     * Reports the accumulated times to the MetricsListener, if any, the first time the results are exhausted or closed.
+     */
+    private void report() {
+        if (metrics != null && !reported) {
+            reported = true;
+            metrics.driverTime(operation, collection, clazz, driverTime);
+            metrics.mappingTime(operation, collection, clazz, mapperTime);
+            final long bytes = wrapped instanceof DBCursor && ((DBCursor) wrapped).getDecoderFactory() instanceof MetricsDecoderFactory
+                               ? ((MetricsDecoderFactory) ((DBCursor) wrapped).getDecoderFactory()).getBytes()
+                               : 0;
+            metrics.documentsRead(operation, collection, clazz, documents, bytes);
+        }
+    }
+
     Datastore getDatastore() {
         return datastore;
     }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.query;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * One page of the results of a query along with the number of results across all pages.
+ *
+ * @param <T> the type of the entities on the page
+ * @see QueryResults#asPage(FindOptions)
+ * @since 1.4
+ */
+public class Page<T> implements Iterable<T> {
+    private final List<T> entities;
+    private final long total;
+    private final int offset;
+    private final int limit;
+
+    Page(final List<T> entities, final long total, final int offset, final int limit) {
+        this.entities = Collections.unmodifiableList(entities);
+        this.total = total;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * @return the entities on this page
+     */
+    public List<T> getEntities() {
+        return entities;
+    }
+
+    /**
+     * @return the maximum number of entities on a page or 0 if the page was not limited
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the number of results skipped before this page
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the number of results matching the query across all pages
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return true if there are more results after this page
+     */
+    public boolean hasNextPage() {
+        return offset + entities.size() < total;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return entities.iterator();
+    }
+
+    @Override
+    public String toString() {
+        return "Page{offset=" + offset + ", limit=" + limit + ", entities=" + entities.size() + ", total=" + total + "}";
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.query;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * One page of results fetched with keyset pagination along with the token needed to fetch the page after it.
+ *
+ * @param <T> the type of the entities on the page
+ * @see Query#pageAfter(PageToken, int)
+ * @since 1.4
+ */
+public class PageCursor<T> implements Iterable<T> {
+    private final Query<T> query;
+    private final List<T> entities;
+    private final PageToken next;
+    private final int pageSize;
+
+    PageCursor(final Query<T> query, final List<T> entities, final PageToken next, final int pageSize) {
+        this.query = query;
+        this.entities = Collections.unmodifiableList(entities);
+        this.next = next;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @return the entities on this page
+     */
+    public List<T> getEntities() {
+        return entities;
+    }
+
+    /**
+     * @return the token to pass to {@link Query#pageAfter(PageToken, int)} to fetch the next page or null if this is the last page
+     */
+    public PageToken getNextPageToken() {
+        return next;
+    }
+
+    /**
+     * @return the maximum number of entities on a page
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return true if there are more results after this page
+     */
+    public boolean hasNextPage() {
+        return next != null;
+    }
+
+    /**
+     * Fetches the next page using the same query and page size
+     *
+     * @return the next page
+     * @throws NoSuchElementException if this is the last page
+     */
+    public PageCursor<T> nextPage() {
+        if (next == null) {
+            throw new NoSuchElementException("This is the last page");
+        }
+        return query.pageAfter(next, pageSize);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return entities.iterator();
+    }
+
+    /**
+     * @return the number of entities on this page
+     */
+    public int size() {
+        return entities.size();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.query;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.util.JSON;
+import com.mongodb.util.JSONParseException;
+import org.mongodb.morphia.mapping.Mapper;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+import static java.lang.String.format;
+
+/**
+ * The continuation token for keyset pagination.  A token records the sort the page was fetched with and the sort key values of the last
+ * document on that page.  The next page is then fetched with a range filter starting just after those values rather than by skipping
+ * documents so every page costs the same as the first one.
+ * <p>
+ * Tokens are {@link Serializable} and can also be passed around in their string form via {@link #encode()} and {@link #decode(String)}.
+ *
+ * @see Query#pageAfter(PageToken, int)
+ * @since 1.4
+ */
+public final class PageToken implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final String SORT = "sort";
+    private static final String AFTER = "after";
+
+    private final BasicDBObject sort;
+    private final BasicDBList values;
+
+    PageToken(final BasicDBObject sort, final BasicDBList values) {
+        if (sort.size() != values.size()) {
+            throw new IllegalArgumentException(format("The token has %d sort keys but %d values", sort.size(), values.size()));
+        }
+        this.sort = sort;
+        this.values = values;
+    }
+
+    /**
+     * Parses a token from the form produced by {@link #encode()}
+     *
+     * @param token the encoded token
+     * @return the token
+     * @throws IllegalArgumentException if the string is not a valid token
+     */
+    public static PageToken decode(final String token) {
+        final Object parsed;
+        try {
+            parsed = JSON.parse(token);
+        } catch (JSONParseException e) {
+            throw new IllegalArgumentException(format("'%s' is not a valid page token", token), e);
+        }
+        if (!(parsed instanceof DBObject)
+            || !(((DBObject) parsed).get(SORT) instanceof DBObject)
+            || !(((DBObject) parsed).get(AFTER) instanceof BasicDBList)) {
+            throw new IllegalArgumentException(format("'%s' is not a valid page token", token));
+        }
+        final DBObject sort = (DBObject) ((DBObject) parsed).get(SORT);
+        final BasicDBObject normalized = new BasicDBObject();
+        for (final String key : sort.keySet()) {
+            final Object direction = sort.get(key);
+            if (!(direction instanceof Number)) {
+                throw new IllegalArgumentException(format("'%s' is not a valid page token", token));
+            }
+            normalized.put(key, ((Number) direction).intValue() < 0 ? -1 : 1);
+        }
+        return new PageToken(normalized, (BasicDBList) ((DBObject) parsed).get(AFTER));
+    }
+
+    /**
+     * Creates the token for a page from the last document on that page
+     *
+     * @param sort     the keyset sort
+     * @param document the last document
+     * @return the token
+     */
+    static PageToken after(final BasicDBObject sort, final DBObject document) {
+        final BasicDBList values = new BasicDBList();
+        for (final String key : sort.keySet()) {
+            values.add(extract(document, key));
+        }
+        return new PageToken(sort, values);
+    }
+
+    private static Object extract(final DBObject document, final String path) {
+        Object value = document;
+        for (final String part : path.split("\\.")) {
+            if (!(value instanceof DBObject)) {
+                return null;
+            }
+            value = ((DBObject) value).get(part);
+        }
+        return value;
+    }
+
+    /**
+     * @return the string form of this token
+     * @see #decode(String)
+     */
+    public String encode() {
+        return JSON.serialize(new BasicDBObject(SORT, sort).append(AFTER, values));
+    }
+
+    /**
+     * @return a copy of the sort this token was created for
+     */
+    public DBObject getSort() {
+        return new BasicDBObject(sort);
+    }
+
+    boolean matches(final DBObject keysetSort) {
+        // BasicDBObject equality ignores key order which is significant for a sort
+        return new ArrayList<String>(sort.keySet()).equals(new ArrayList<String>(keysetSort.keySet())) && sort.equals(keysetSort);
+    }
+
+    /**
+     * Builds the filter selecting the documents which sort after the recorded values.  For a sort on (a, b, _id) this is
+     * <pre>
+     * { $or: [ { a: { $gt: va } },
+     *          { a: va, b: { $gt: vb } },
+     *          { a: va, b: vb, _id: { $gt: vid } } ] }
+     * </pre>
+     * with {@code $lt} in place of {@code $gt} for descending keys.
+     */
+    DBObject toFilter() {
+        final BasicDBList clauses = new BasicDBList();
+        final BasicDBObject equalities = new BasicDBObject();
+        int index = 0;
+        for (final String key : sort.keySet()) {
+            final Object value = values.get(index++);
+            final boolean ascending = ((Number) sort.get(key)).intValue() > 0;
+            final Object range;
+            if (value != null) {
+                range = new BasicDBObject(ascending ? "$gt" : "$lt", value);
+            } else {
+                // nulls sort before everything else: nothing comes after them in descending order and anything non-null does in
+                // ascending order
+                range = ascending ? new BasicDBObject("$ne", null) : null;
+            }
+            if (range != null) {
+                clauses.add(new BasicDBObject(equalities).append(key, range));
+            }
+            equalities.put(key, value);
+        }
+        if (clauses.isEmpty()) {
+            return new BasicDBObject(Mapper.ID_KEY, new BasicDBObject("$in", clauses));
+        }
+        return clauses.size() == 1 ? (DBObject) clauses.get(0) : new BasicDBObject("$or", clauses);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageToken)) {
+            return false;
+        }
+        final PageToken that = (PageToken) o;
+        return sort.equals(that.sort) && values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * sort.hashCode() + values.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
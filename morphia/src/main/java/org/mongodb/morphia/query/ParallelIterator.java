@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.query;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+
+/**
+ * Iterates the results of several queries at once, typically the {@code _id} ranges produced by {@link Query#partitionById(int)}.  Each
+ * query runs on its own thread with its own cursor and maps its documents to entities on that thread.  The entities are handed over to the
+ * consuming thread through a bounded queue so a slow consumer holds the workers back rather than letting results pile up in memory.
+ * <p>
+ * The order of the results is undefined.  The iterator must be {@link #close() closed} if it is abandoned before it is exhausted so that
+ * the workers and their cursors are released.
+ *
+ * @param <T> the type of the results
+ * @see Query#parallelFetch(int)
+ * @since 1.4
+ */
+public class ParallelIterator<T> implements Iterable<T>, Iterator<T> {
+    private static final int QUEUE_SIZE_PER_PARTITION = 256;
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> queue;
+    private final ExecutorService executor;
+    private final int partitions;
+    private volatile boolean closed;
+    private int finished;
+    private Object next;
+
+    /**
+     * Starts iterating the queries
+     *
+     * @param queries the queries to run in parallel
+     */
+    public ParallelIterator(final List<? extends Query<T>> queries) {
+        partitions = queries.size();
+        queue = new ArrayBlockingQueue<Object>(Math.max(1, partitions) * QUEUE_SIZE_PER_PARTITION);
+        executor = Executors.newFixedThreadPool(Math.max(1, partitions), new WorkerFactory());
+        for (final Query<T> query : queries) {
+            executor.execute(new Worker(query));
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Stops the workers and closes their cursors.  Calling this on an exhausted iterator is harmless.
+     */
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        queue.clear();
+    }
+
+    /**
+     * @return the number of queries being run in parallel
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && finished < partitions && !closed) {
+            final Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new QueryException("Interrupted while waiting for results", e);
+            }
+            if (item == END) {
+                finished++;
+            } else if (item instanceof Failure) {
+                close();
+                throw new QueryException(format("A parallel query failed: %s", ((Failure) item).cause.getMessage()),
+                                         ((Failure) item).cause);
+            } else {
+                next = item;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final T result = (T) next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+    private static final class Failure {
+        private final RuntimeException cause;
+
+        private Failure(final RuntimeException cause) {
+            this.cause = cause;
+        }
+    }
+
+    private static final class WorkerFactory implements ThreadFactory {
+        private final int pool = POOL_NUMBER.incrementAndGet();
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, format("morphia-parallel-fetch-%d-%d", pool, count.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final Query<T> query;
+
+        private Worker(final Query<T> query) {
+            this.query = query;
+        }
+
+        @Override
+        public void run() {
+            Object last = END;
+            try {
+                final MorphiaIterator<T, T> iterator = query.fetch();
+                try {
+                    while (!closed && iterator.hasNext()) {
+                        queue.put(iterator.next());
+                    }
+                } finally {
+                    iterator.close();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                last = new Failure(e);
+            }
+            try {
+                queue.put(last);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.mongodb.DBObject;
 import com.mongodb.ReadPreference;
 import org.bson.types.CodeWScope;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -349,6 +350,53 @@ public interface Query<T> extends QueryResults<T>, Cloneable {
      */
     Query<T> order(Sort... sorts);
 
+    /**
+     * Fetches a page of results using keyset pagination.  Instead of skipping the results of the earlier pages, which the server has to
+     * walk through one by one, the page is selected by a range filter on the sort keys starting just after the last result of the previous
+     * page.  Fetching page N therefore costs the same as fetching the first page given an index matching the sort.
+     * <p>
+     * The current sort, from any of the {@code order()} methods, is used with {@code _id} appended as a tie-breaker if it is not already
+     * part of the sort.  With no sort at all the results are paged in {@code _id} order.  Sorts on {@code $natural} or {@code $meta} can
+     * not be used.  The sort fields should hold single values: the position of a document in an array sort is not something a range
+     * filter can reproduce.  Any offset set on this query is ignored.  A {@link QueryException} is thrown if the sort can not be used for
+     * keyset pagination or if the token was created for a different sort.
+     *
+     * @param after    the token from the previous page or null to fetch the first page
+     * @param pageSize the maximum number of results on the page
+     * @return the page
+     * @see PageCursor#nextPage()
+     * @since 1.4
+     */
+    PageCursor<T> pageAfter(PageToken after, int pageSize);
+
+    /**
+     * Runs this query as several concurrent scans over {@code _id} ranges.  Each range is read with its own cursor on its own thread and
+     * its documents are mapped to entities on that thread, so a scan over a large collection can use several cores and connections.
+     * This query's filters, projection, read preference and batch size apply to every range.  Sort, offset and limit do not:  the order of
+     * the results is undefined.
+     *
+     * @param partitions the number of ranges to scan in parallel
+     * @return the merged results which must be closed if they are not read to the end
+     * @see #partitionById(int)
+     * @since 1.4
+     */
+    ParallelIterator<T> parallelFetch(int partitions);
+
+    /**
+     * Splits this query into queries over consecutive {@code _id} ranges which together return the same documents.  ObjectId and numeric
+     * ids are split evenly between the smallest and largest matching id.  Other ids are split at the quantiles of a random sample of the
+     * matching ids.  Fewer queries than requested are returned when the ids can not be split that finely.
+     * <p>
+     * Each query can be run independently, e.g., with one consumer per range.  Sort, offset and limit are removed from the returned
+     * queries.
+     *
+     * @param partitions the number of ranges wanted
+     * @return the queries, one per range, in ascending {@code _id} order
+     * @see #parallelFetch(int)
+     * @since 1.4
+     */
+    List<Query<T>> partitionById(int partitions);
+
     /**
      * Adds a field to the projection clause.  Passing true for include will include the field in the results.  Projected fields must all
      * be inclusions or exclusions.  You can not include and exclude fields at the same time with the exception of the _id field.  The
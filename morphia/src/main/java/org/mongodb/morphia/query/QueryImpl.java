@@ -1,34 +1,53 @@
 package org.mongodb.morphia.query;
 
 
+import com.mongodb.AggregationOptions;
+import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
+import com.mongodb.Cursor;
 import com.mongodb.DBCollection;
 import com.mongodb.DBCursor;
+import com.mongodb.DBDecoderFactory;
 import com.mongodb.DBObject;
+import com.mongodb.MongoCommandException;
 import com.mongodb.ReadPreference;
+import com.mongodb.client.model.DBCollectionCountOptions;
 import com.mongodb.client.model.DBCollectionFindOptions;
+import com.mongodb.util.JSON;
 import org.bson.BSONObject;
 import org.bson.Document;
 import org.bson.types.CodeWScope;
 import org.mongodb.morphia.Datastore;
 import org.mongodb.morphia.Key;
+import org.mongodb.morphia.aggregation.AggregationPipelineImpl;
 import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Reference;
 import org.mongodb.morphia.logging.Logger;
 import org.mongodb.morphia.logging.MorphiaLoggerFactory;
 import org.mongodb.morphia.mapping.MappedClass;
 import org.mongodb.morphia.mapping.MappedField;
 import org.mongodb.morphia.mapping.Mapper;
 import org.mongodb.morphia.mapping.cache.EntityCache;
+import org.mongodb.morphia.mapping.lazy.LazyFeatureDependencies;
+import org.mongodb.morphia.metrics.MetricsDecoderFactory;
+import org.mongodb.morphia.metrics.MetricsListener;
+import org.mongodb.morphia.metrics.OperationType;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
 import static com.mongodb.CursorType.NonTailable;
 import static com.mongodb.CursorType.Tailable;
 import static com.mongodb.CursorType.TailableAwait;
 import static java.lang.String.format;
+import static java.util.Collections.singletonList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.mongodb.morphia.query.QueryValidator.validateQuery;
 
@@ -42,6 +61,11 @@ import static org.mongodb.morphia.query.QueryValidator.validateQuery;
 @SuppressWarnings("deprecation")
 public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
     private static final Logger LOG = MorphiaLoggerFactory.get(QueryImpl.class);
+    /**
+     * The error codes of an aggregation using a stage the server does not know
+     */
+    private static final int UNRECOGNIZED_STAGE = 40324;
+    private static final int UNRECOGNIZED_STAGE_LEGACY = 16436;
     private final org.mongodb.morphia.DatastoreImpl ds;
     private final DBCollection dbColl;
     private final Class<T> clazz;
@@ -160,6 +184,69 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
         return results;
     }
 
+    @Override
+    public Page<T> asPage(final FindOptions options) {
+        if (canAggregate(options)) {
+            try {
+                return fetchPage(options);
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() != UNRECOGNIZED_STAGE && e.getErrorCode() != UNRECOGNIZED_STAGE_LEGACY) {
+                    throw e;
+                }
+                LOG.debug(format("$facet is not supported by the server, counting %s separately", dbColl.getName()));
+            }
+        }
+        final long total = count();
+        return new Page<T>(asList(options), total, options.getSkip(), Math.abs(options.getLimit()));
+    }
+
+    /**
+     * Reads the page and the total in one {@code $facet} aggregation
+     */
+    private Page<T> fetchPage(final FindOptions options) {
+        final AggregationPipelineImpl results = new AggregationPipelineImpl(ds, dbColl, clazz);
+        appendResultStages(results, options, options.isLookupReferences()
+                                             ? getJoinableReferences()
+                                             : Collections.<MappedField>emptyList());
+        if (results.getStages().isEmpty()) {
+            // $facet does not accept empty pipelines
+            results.skip(0);
+        }
+        final List<DBObject> pipeline = new ArrayList<DBObject>();
+        pipeline.add(new BasicDBObject("$match", getQueryObject()));
+        pipeline.add(new BasicDBObject("$facet", new BasicDBObject("total", singletonList(new BasicDBObject("$count", "count")))
+                                                     .append("results", results.getStages())));
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(format("Fetching a page of %s: %s", dbColl.getName(), pipeline));
+        }
+
+        final long start = System.nanoTime();
+        final Cursor cursor = dbColl.aggregate(pipeline, getAggregationOptions(options), getReadPreference(options));
+        final DBObject facets;
+        try {
+            facets = cursor.next();
+        } finally {
+            cursor.close();
+        }
+        final MetricsListener metrics = ds.getMapper().getOptions().getMetricsListener();
+        if (metrics != null) {
+            metrics.driverTime(OperationType.AGGREGATE, dbColl.getName(), clazz, System.nanoTime() - start);
+        }
+
+        final List<?> totals = (List<?>) facets.get("total");
+        final long total = totals.isEmpty() ? 0 : ((Number) ((DBObject) totals.get(0)).get("count")).longValue();
+        final List<DBObject> documents = new ArrayList<DBObject>();
+        for (final Object document : (List<?>) facets.get("results")) {
+            documents.add((DBObject) document);
+        }
+        final List<T> entities = new ArrayList<T>(documents.size());
+        for (final T entity : new MorphiaIterator<T, T>(ds, documents.iterator(), ds.getMapper(), clazz, dbColl.getName(), cache,
+                                                        OperationType.AGGREGATE)) {
+            entities.add(entity);
+        }
+        return new Page<T>(entities, total, options.getSkip(), Math.abs(options.getLimit()));
+    }
+
     @Override
     @Deprecated
     public long countAll() {
@@ -167,17 +254,28 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
         if (LOG.isTraceEnabled()) {
             LOG.trace("Executing count(" + dbColl.getName() + ") for query: " + query);
         }
-        return dbColl.getCount(query);
+        final long start = System.nanoTime();
+        final long count = count(query, new DBCollectionCountOptions());
+        recordDriverTime(OperationType.COUNT, start);
+        return count;
     }
 
     @Override
     public long count() {
-        return dbColl.getCount(getQueryObject());
+        final DBObject query = getQueryObject();
+        final long start = System.nanoTime();
+        final long count = count(query, new DBCollectionCountOptions());
+        recordDriverTime(OperationType.COUNT, start);
+        return count;
     }
 
     @Override
     public long count(final CountOptions options) {
-        return dbColl.getCount(getQueryObject(), options.getOptions());
+        final DBObject query = getQueryObject();
+        final long start = System.nanoTime();
+        final long count = count(query, options.getOptions());
+        recordDriverTime(OperationType.COUNT, start);
+        return count;
     }
 
     @Override
@@ -187,14 +285,330 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
 
     @Override
     public MorphiaIterator<T, T> fetch(final FindOptions options) {
+        if (options.isLookupReferences() && canAggregate(options)) {
+            final List<MappedField> references = getJoinableReferences();
+            if (!references.isEmpty()) {
+                return fetchWithLookup(options, references);
+            }
+        }
+
+        if (ds.getMapper().getOptions().getMaxInValues() > 0 && options.getCursorType() == NonTailable) {
+            final DBObject query = getQueryObject();
+            final String field = getSplitField(query);
+            if (field != null && canFetchSplit(field, options)) {
+                return new MorphiaIterator<T, T>(ds, fetchSplit(query, field, options).iterator(), ds.getMapper(), clazz,
+                                                 dbColl.getName(), cache);
+            }
+        }
+
+        final QueryResultCache resultCache = options.isCacheResults() ? ds.getMapper().getOptions().getQueryResultCache() : null;
+        final HedgedReads hedgedReads = options.isHedge() ? ds.getMapper().getOptions().getHedgedReads() : null;
+        if (resultCache == null && hedgedReads != null && options.getCursorType() == NonTailable) {
+            return new MorphiaIterator<T, T>(ds, fetchHedged(hedgedReads, options).iterator(), ds.getMapper(), clazz, dbColl.getName(),
+                                             cache);
+        }
+
         final DBCursor cursor = prepareCursor(options);
         if (LOG.isTraceEnabled()) {
             LOG.trace("Getting cursor(" + dbColl.getName() + ")  for query:" + cursor.getQuery());
         }
 
+        if (resultCache != null && options.getCursorType() == NonTailable) {
+            return new MorphiaIterator<T, T>(ds, fetchCached(resultCache, cursor, options).iterator(), ds.getMapper(), clazz,
+                                             dbColl.getName(), cache);
+        }
+
         return new MorphiaIterator<T, T>(ds, cursor, ds.getMapper(), clazz, dbColl.getName(), cache);
     }
 
+    /**
+     * Runs the query as an aggregation which joins the documents referenced by the given fields to each result.
+     */
+    @SuppressWarnings("unchecked")
+    private MorphiaIterator<T, T> fetchWithLookup(final FindOptions options, final List<MappedField> references) {
+        final AggregationPipelineImpl pipeline = new AggregationPipelineImpl(ds, dbColl, clazz);
+        pipeline.match(this);
+        appendResultStages(pipeline, options, references);
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(format("Running query(%s) with $lookup: %s", dbColl.getName(), pipeline));
+        }
+        return (MorphiaIterator<T, T>) pipeline.aggregate(dbColl.getName(), clazz, getAggregationOptions(options),
+                                                          getReadPreference(options));
+    }
+
+    /**
+     * Adds the stages which sort, skip, limit and project the matching documents and join their references.
+     */
+    private void appendResultStages(final AggregationPipelineImpl pipeline, final FindOptions options,
+                                    final List<MappedField> references) {
+        final DBObject sort = getSortObject();
+        if (sort != null && !sort.keySet().isEmpty()) {
+            pipeline.getStages().add(new BasicDBObject("$sort", sort));
+        }
+        if (options.getSkip() > 0) {
+            pipeline.skip(options.getSkip());
+        }
+        if (options.getLimit() != 0) {
+            pipeline.limit(Math.abs(options.getLimit()));
+        }
+        final DBObject projection = getFieldsObject();
+        if (projection != null) {
+            pipeline.getStages().add(new BasicDBObject("$project", projection));
+        }
+        final Mapper mapper = ds.getMapper();
+        for (final MappedField mf : references) {
+            final Class<?> type = mf.isSingleValue() ? mf.getType() : mf.getSubClass();
+            pipeline.lookup(mapper.getCollectionName(type), mf.getNameToStore(), Mapper.ID_KEY,
+                            Mapper.REFERENCE_LOOKUP_PREFIX + mf.getNameToStore());
+        }
+    }
+
+    private AggregationOptions getAggregationOptions(final FindOptions options) {
+        final AggregationOptions.Builder aggregationOptions = AggregationOptions.builder()
+                                                                                .outputMode(AggregationOptions.OutputMode.CURSOR)
+                                                                                .collation(options.getCollation());
+        if (options.getBatchSize() > 0) {
+            aggregationOptions.batchSize(options.getBatchSize());
+        }
+        if (options.getMaxTime(MILLISECONDS) > 0) {
+            aggregationOptions.maxTime(options.getMaxTime(MILLISECONDS), MILLISECONDS);
+        }
+        return aggregationOptions.build();
+    }
+
+    private ReadPreference getReadPreference(final FindOptions options) {
+        return options.getReadPreference() != null ? options.getReadPreference() : dbColl.getReadPreference();
+    }
+
+    /**
+     * @return true if the query can run as an aggregation pipeline
+     */
+    private boolean canAggregate(final FindOptions options) {
+        if (options.getCursorType() != NonTailable || options.isCacheResults()
+            || options.getModifiers() != null && !options.getModifiers().keySet().isEmpty()) {
+            return false;
+        }
+        final DBObject projection = getFieldsObject();
+        if (projection != null) {
+            for (final String field : projection.keySet()) {
+                final Object value = projection.get(field);
+                if (!(value instanceof Number || value instanceof Boolean)) {
+                    // $slice and $meta projections differ between find and $project
+                    return false;
+                }
+            }
+        }
+        return !containsMatchRestrictedOperator(getQueryObject());
+    }
+
+    private static boolean containsMatchRestrictedOperator(final Object value) {
+        if (value instanceof DBObject) {
+            final DBObject dbObject = (DBObject) value;
+            for (final String key : dbObject.keySet()) {
+                if (key.equals("$where") || key.equals("$near") || key.equals("$nearSphere")
+                    || containsMatchRestrictedOperator(dbObject.get(key))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the top level, eager, id only references which can be joined with $lookup
+     */
+    private List<MappedField> getJoinableReferences() {
+        final List<MappedField> references = new ArrayList<MappedField>();
+        for (final MappedField mf : ds.getMapper().getMappedClass(clazz).getPersistenceFields()) {
+            final Reference reference = mf.getAnnotation(Reference.class);
+            if (reference != null && reference.idOnly() && !mf.isMap()
+                && !(reference.lazy() && LazyFeatureDependencies.testDependencyFullFilled())) {
+                references.add(mf);
+            }
+        }
+        return references;
+    }
+
+    private String getSplitField(final DBObject query) {
+        final int maxInValues = ds.getMapper().getOptions().getMaxInValues();
+        return maxInValues > 0 ? InSplitter.findSplitField(query, maxInValues) : null;
+    }
+
+    private boolean canFetchSplit(final String field, final FindOptions options) {
+        final DBObject sort = getSortObject();
+        if (!InSplitter.canMerge(sort) || (sort != null && options.getCollation() != null)) {
+            return false;
+        }
+        if (Mapper.ID_KEY.equals(field)) {
+            return true;
+        }
+        // the results of the parts are de-duplicated by _id
+        final DBObject projection = getFieldsObject();
+        final Object id = projection != null ? projection.get(Mapper.ID_KEY) : null;
+        return !(id instanceof Number && ((Number) id).intValue() == 0) && !Boolean.FALSE.equals(id);
+    }
+
+    /**
+     * Runs the parts of a query with a large {@code $in} concurrently and merges their results
+     */
+    private List<DBObject> fetchSplit(final DBObject query, final String field, final FindOptions options) {
+        final int skip = options.getSkip();
+        final int limit = Math.abs(options.getLimit());
+        final FindOptions partOptions = options.copy()
+                                               .skip(0)
+                                               .limit(limit > 0 ? skip + limit : 0);
+        final DBObject sort = getSortObject();
+        final DBObject projection = getFieldsObject();
+        final List<DBObject> parts = InSplitter.split(query, field, ds.getMapper().getOptions().getMaxInValues());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(format("Splitting the $in on %s.%s in to %d queries", dbColl.getName(), field, parts.size()));
+        }
+
+        final List<Callable<List<DBObject>>> tasks = new ArrayList<Callable<List<DBObject>>>();
+        for (final DBObject part : parts) {
+            tasks.add(new Callable<List<DBObject>>() {
+                @Override
+                public List<DBObject> call() {
+                    final DBCursor cursor = prepareCursor(part, partOptions, sort, projection);
+                    final List<DBObject> documents = new ArrayList<DBObject>();
+                    try {
+                        while (cursor.hasNext()) {
+                            documents.add(cursor.next());
+                        }
+                    } finally {
+                        cursor.close();
+                    }
+                    return documents;
+                }
+            });
+        }
+        final long start = System.nanoTime();
+        final List<List<DBObject>> results = InSplitter.invokeAll(ds.getInSplitExecutor(), tasks);
+        recordDriverTime(OperationType.QUERY, start);
+        return InSplitter.merge(results, sort, !Mapper.ID_KEY.equals(field), skip, limit);
+    }
+
+    /**
+     * Counts the documents matching a query, splitting a large {@code $in}.  Unless the split field is {@code _id} a document can match
+     * several parts so their ids are read and counted once.
+     */
+    private long count(final DBObject query, final DBCollectionCountOptions countOptions) {
+        final String field = getSplitField(query);
+        if (field == null || countOptions.getSkip() > 0 || countOptions.getLimit() > 0) {
+            return dbColl.getCount(query, countOptions);
+        }
+
+        final boolean byId = Mapper.ID_KEY.equals(field);
+        final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        for (final DBObject part : InSplitter.split(query, field, ds.getMapper().getOptions().getMaxInValues())) {
+            tasks.add(new Callable<Object>() {
+                @Override
+                public Object call() {
+                    if (byId) {
+                        return dbColl.getCount(part, countOptions);
+                    }
+                    final DBCollectionFindOptions findOptions = new DBCollectionFindOptions()
+                                                                    .projection(new BasicDBObject(Mapper.ID_KEY, 1))
+                                                                    .collation(countOptions.getCollation());
+                    if (countOptions.getReadPreference() != null) {
+                        findOptions.readPreference(countOptions.getReadPreference());
+                    }
+                    if (countOptions.getReadConcern() != null) {
+                        findOptions.readConcern(countOptions.getReadConcern());
+                    }
+                    final List<Object> ids = new ArrayList<Object>();
+                    final DBCursor cursor = dbColl.find(part, findOptions);
+                    try {
+                        while (cursor.hasNext()) {
+                            ids.add(InSplitter.idOf(cursor.next()));
+                        }
+                    } finally {
+                        cursor.close();
+                    }
+                    return ids;
+                }
+            });
+        }
+
+        long count = 0;
+        final Set<Object> ids = new HashSet<Object>();
+        for (final Object result : InSplitter.invokeAll(ds.getInSplitExecutor(), tasks)) {
+            if (byId) {
+                count += (Long) result;
+            } else {
+                ids.addAll((List<?>) result);
+            }
+        }
+        return byId ? count : ids.size();
+    }
+
+    private void recordDriverTime(final OperationType operation, final long start) {
+        final MetricsListener metrics = ds.getMapper().getOptions().getMetricsListener();
+        if (metrics != null) {
+            metrics.driverTime(operation, dbColl.getName(), clazz, System.nanoTime() - start);
+        }
+    }
+
+    private List<DBObject> fetchHedged(final HedgedReads hedgedReads, final FindOptions options) {
+        final String shape = HedgedReads.shape(dbColl.getFullName(), getQueryObject(), getSortObject(), getFieldsObject());
+        return hedgedReads.read(shape, new HedgedReads.CursorSource() {
+            @Override
+            public DBCursor open(final ReadPreference readPreference) {
+                return prepareCursor(readPreference != null
+                                     ? options.copy().readPreference(readPreference)
+                                     : options);
+            }
+        });
+    }
+
+    private List<DBObject> fetchCached(final QueryResultCache resultCache, final DBCursor cursor, final FindOptions options) {
+        final String namespace = dbColl.getFullName();
+        final String key = getCacheKey(cursor, options);
+        final List<DBObject> cached = resultCache.get(key);
+        if (cached != null) {
+            cursor.close();
+            return cached;
+        }
+
+        final long version = resultCache.getVersion(namespace);
+        final MetricsDecoderFactory decoderFactory = cursor.getDecoderFactory() instanceof MetricsDecoderFactory
+                                                     ? (MetricsDecoderFactory) cursor.getDecoderFactory()
+                                                     : new MetricsDecoderFactory(cursor.getDecoderFactory());
+        cursor.setDecoderFactory(decoderFactory);
+        final List<DBObject> documents = new ArrayList<DBObject>();
+        try {
+            while (cursor.hasNext()) {
+                documents.add(cursor.next());
+            }
+        } finally {
+            cursor.close();
+        }
+        resultCache.put(namespace, key, documents, decoderFactory.getBytes(), version);
+        return documents;
+    }
+
+    @SuppressWarnings("unchecked")
+    private String getCacheKey(final DBCursor cursor, final FindOptions options) {
+        // the top level of a query is an implicit $and so its key order does not matter
+        final BasicDBObject key = new BasicDBObject("ns", dbColl.getFullName())
+                                      .append("query", new TreeMap<String, Object>(cursor.getQuery().toMap()))
+                                      .append("projection", cursor.getKeysWanted())
+                                      .append("sort", getSortObject())
+                                      .append("skip", options.getSkip())
+                                      .append("limit", options.getLimit())
+                                      .append("modifiers", options.getModifiers())
+                                      .append("readPreference", options.getReadPreference() != null
+                                                                ? options.getReadPreference().toString()
+                                                                : null)
+                                      .append("readConcern", options.getReadConcern() != null
+                                                             ? options.getReadConcern().asDocument().toJson()
+                                                             : null)
+                                      .append("collation", options.getCollation() != null
+                                                           ? options.getCollation().asDocument().toJson()
+                                                           : null);
+        return JSON.serialize(key);
+    }
+
     @Override
     public MorphiaIterator<T, T> fetchEmptyEntities() {
         return fetchEmptyEntities(getOptions());
@@ -444,7 +858,11 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
             obj.putAll((BSONObject) baseQuery);
         }
 
-        addTo(obj);
+        if (ds.getMapper().getOptions().isOptimizeQueries()) {
+            QueryOptimizer.addTo(this, obj);
+        } else {
+            addTo(obj);
+        }
 
         return obj;
     }
@@ -548,6 +966,126 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
         return this;
     }
 
+    @Override
+    public PageCursor<T> pageAfter(final PageToken after, final int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be greater than 0");
+        }
+        final BasicDBObject sort = getKeysetSort();
+        DBObject query = getQueryObject();
+        if (after != null) {
+            if (!after.matches(sort)) {
+                throw new QueryException(format("The page token was created for the sort %s but this query sorts on %s", after.getSort(),
+                                                sort));
+            }
+            final BasicDBList and = new BasicDBList();
+            and.add(query);
+            and.add(after.toFilter());
+            query = new BasicDBObject("$and", and);
+        }
+
+        DBObject projection = getFieldsObject();
+        if (projection != null && isInclusion(projection)) {
+            projection = copy(projection);
+            for (final String key : sort.keySet()) {
+                projection.put(key, 1);
+            }
+        }
+
+        // one extra result tells us whether there is a next page
+        final FindOptions findOptions = getOptions().copy()
+                                                    .skip(0)
+                                                    .limit(pageSize + 1);
+        final KeysetIterator<T> iterator = new KeysetIterator<T>(ds, prepareCursor(query, findOptions, sort, projection),
+                                                                 ds.getMapper(), clazz, dbColl.getName(), cache, sort);
+        final List<T> entities = new ArrayList<T>(pageSize);
+        PageToken next = null;
+        try {
+            while (iterator.hasNext()) {
+                final T entity = iterator.next();
+                if (entities.size() == pageSize) {
+                    next = iterator.getPreviousToken();
+                    break;
+                }
+                entities.add(entity);
+            }
+        } finally {
+            iterator.close();
+        }
+        return new PageCursor<T>(this, entities, next, pageSize);
+    }
+
+    @Override
+    public ParallelIterator<T> parallelFetch(final int partitions) {
+        return new ParallelIterator<T>(partitionById(partitions));
+    }
+
+    @Override
+    public List<Query<T>> partitionById(final int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("The number of partitions must be greater than 0");
+        }
+        final List<Object> splits = IdSplitter.split(dbColl, getQueryObject(), getOptions().getReadPreference(), partitions);
+        final List<Query<T>> queries = new ArrayList<Query<T>>(splits.size() + 1);
+        Object lower = null;
+        for (int i = 0; i <= splits.size(); i++) {
+            final Object upper = i < splits.size() ? splits.get(i) : null;
+            queries.add(idRange(lower, upper));
+            lower = upper;
+        }
+        return queries;
+    }
+
+    private QueryImpl<T> idRange(final Object lower, final Object upper) {
+        final QueryImpl<T> range = cloneQuery();
+        range.getOptions()
+             .skip(0)
+             .limit(0)
+             .sort(null);
+        // the split points are raw _id values so there is nothing to validate
+        range.validateName = false;
+        range.validateType = false;
+        if (lower != null) {
+            range.field(Mapper.ID_KEY).greaterThanOrEq(lower);
+        }
+        if (upper != null) {
+            range.field(Mapper.ID_KEY).lessThan(upper);
+        }
+        range.validateName = validateName;
+        range.validateType = validateType;
+        return range;
+    }
+
+    private BasicDBObject getKeysetSort() {
+        final DBObject current = getOptions().getSortDBObject();
+        final BasicDBObject sort = new BasicDBObject();
+        int direction = 1;
+        if (current != null) {
+            for (final String key : current.keySet()) {
+                final Object value = current.get(key);
+                if (key.startsWith("$") || !(value instanceof Number)) {
+                    throw new QueryException(format("Keyset pagination can not be used with the sort on '%s'", key));
+                }
+                direction = ((Number) value).intValue() < 0 ? -1 : 1;
+                sort.put(key, direction);
+            }
+        }
+        if (!sort.containsField(Mapper.ID_KEY)) {
+            sort.put(Mapper.ID_KEY, direction);
+        }
+        return sort;
+    }
+
+    private static boolean isInclusion(final DBObject projection) {
+        for (final String key : projection.keySet()) {
+            final Object value = projection.get(key);
+            if (!key.equals(Mapper.ID_KEY) && (Boolean.TRUE.equals(value) || value instanceof Number && ((Number) value).intValue() != 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     @Deprecated
     public Query<T> queryNonPrimary() {
@@ -747,7 +1285,10 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
     }
 
     private DBCursor prepareCursor(final FindOptions findOptions) {
-        final DBObject query = getQueryObject();
+        return prepareCursor(getQueryObject(), findOptions, getSortObject(), getFieldsObject());
+    }
+
+    private DBCursor prepareCursor(final DBObject query, final FindOptions findOptions, final DBObject sort, final DBObject projection) {
 
         if (LOG.isTraceEnabled()) {
             LOG.trace(String.format("Running query(%s) : %s, options: %s,", dbColl.getName(), query, findOptions));
@@ -761,11 +1302,14 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
             LOG.warning("Sorting on tail is not allowed.");
         }
 
+        final DBDecoderFactory decoderFactory = ds.getMapper().getOptions().getMetricsListener() != null
+                                                ? new MetricsDecoderFactory(ds.getDecoderFact())
+                                                : ds.getDecoderFact();
         return dbColl.find(query, findOptions.getOptions()
                                              .copy()
-                                             .sort(getSortObject())
-                                             .projection(getFieldsObject()))
-                     .setDecoderFactory(ds.getDecoderFact());
+                                             .sort(sort)
+                                             .projection(projection))
+                     .setDecoderFactory(decoderFactory);
     }
 
     @Override
@@ -908,4 +1452,30 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
         result = 31 * result + hash(options);
         return result;
     }
+
+    /**
+     * Remembers the sort key values of each document as it is read so the token for the next page can be built from the raw document
+     */
+    private static class KeysetIterator<T> extends MorphiaIterator<T, T> {
+        private final BasicDBObject sort;
+        private PageToken previous;
+        private PageToken current;
+
+        KeysetIterator(final Datastore datastore, final DBCursor cursor, final Mapper mapper, final Class<T> clazz,
+                       final String collection, final EntityCache cache, final BasicDBObject sort) {
+            super(datastore, cursor, mapper, clazz, collection, cache);
+            this.sort = sort;
+        }
+
+        @Override
+        protected T convertItem(final DBObject dbObj) {
+            previous = current;
+            current = PageToken.after(sort, dbObj);
+            return super.convertItem(dbObj);
+        }
+
+        PageToken getPreviousToken() {
+            return previous;
+        }
+    }
 }
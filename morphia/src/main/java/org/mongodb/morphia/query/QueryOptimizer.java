@@ -0,0 +1,463 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia.query;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.util.JSON;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Rewrites the criteria of a query in to a simpler, equivalent filter before it is rendered.  The rewrite
+ * <ul>
+ * <li>flattens {@code $and}s nested in {@code $and}s and {@code $or}s nested in {@code $or}s and unwraps joins of one criteria</li>
+ * <li>drops duplicate criteria</li>
+ * <li>keeps only the tightest lower and upper bound of each field when the bounds are of the same type</li>
+ * <li>turns {@code $in} and {@code $nin} of a single value in to an equality or {@code $ne}</li>
+ * <li>moves criteria common to every branch of an {@code $or} out of it</li>
+ * <li>orders the criteria of every join so that equivalent queries render identical filters, and so share cached plans</li>
+ * <li>combines the operators on one field in one document instead of an {@code $and} where they do not clash</li>
+ * </ul>
+ * Criteria other than plain field criteria, such as {@code $where} and geo criteria, are kept as they are but still take part in the
+ * flattening, de-duplication and ordering.
+ *
+ * @see org.mongodb.morphia.mapping.MapperOptions#setOptimizeQueries(boolean)
+ */
+final class QueryOptimizer {
+    private static final Set<String> OPERATORS = new HashSet<String>();
+    private static final Set<FilterOperator> LOWER_BOUNDS = new HashSet<FilterOperator>(
+        asList(FilterOperator.GREATER_THAN, FilterOperator.GREATER_THAN_OR_EQUAL));
+    private static final Set<FilterOperator> UPPER_BOUNDS = new HashSet<FilterOperator>(
+        asList(FilterOperator.LESS_THAN, FilterOperator.LESS_THAN_OR_EQUAL));
+    private static final Comparator<Node> ORDER = new Comparator<Node>() {
+        @Override
+        public int compare(final Node o1, final Node o2) {
+            return o1.getKey().compareTo(o2.getKey());
+        }
+    };
+
+    static {
+        for (final FilterOperator operator : FilterOperator.values()) {
+            OPERATORS.add(operator.val());
+        }
+    }
+
+    private QueryOptimizer() {
+    }
+
+    /**
+     * Renders the optimized criteria of a container
+     *
+     * @param container the criteria to render
+     * @param obj       the document to render in to
+     */
+    static void addTo(final CriteriaContainerImpl container, final DBObject obj) {
+        optimize(toNode(container)).render(obj);
+    }
+
+    private static Node toNode(final Criteria criteria) {
+        if (criteria instanceof CriteriaContainerImpl) {
+            final CriteriaContainerImpl container = (CriteriaContainerImpl) criteria;
+            final List<Node> children = new ArrayList<Node>();
+            for (final Criteria child : container.getChildren()) {
+                children.add(toNode(child));
+            }
+            return new Join(container.getJoinMethod(), children);
+        }
+        if (criteria.getClass() == FieldCriteria.class) {
+            final FieldCriteria field = (FieldCriteria) criteria;
+            return new Leaf(criteria, field.getField(), field.getOperator(), field.getValue(), field.isNot());
+        }
+        return new Leaf(criteria, null, null, null, false);
+    }
+
+    private static Node optimize(final Node node) {
+        if (node instanceof Leaf) {
+            return collapseIn((Leaf) node);
+        }
+        final Join join = (Join) node;
+        final List<Node> children = new ArrayList<Node>();
+        for (final Node child : join.children) {
+            final Node optimized = optimize(child);
+            if (optimized instanceof Join && ((Join) optimized).join == join.join) {
+                children.addAll(((Join) optimized).children);
+            } else if (optimized.isTrue()) {
+                if (join.join == CriteriaJoin.OR) {
+                    // one branch matches everything so the whole $or does
+                    return new Join(CriteriaJoin.AND, new ArrayList<Node>());
+                }
+            } else {
+                children.add(optimized);
+            }
+        }
+
+        if (join.join == CriteriaJoin.AND) {
+            mergeRanges(children);
+        }
+        final Join optimized = new Join(join.join, normalize(children));
+        if (optimized.join == CriteriaJoin.OR) {
+            final Node hoisted = hoistCommon(optimized);
+            if (hoisted != optimized) {
+                return hoisted;
+            }
+        }
+        return unwrap(optimized);
+    }
+
+    /**
+     * Drops duplicates and orders the criteria
+     */
+    private static List<Node> normalize(final List<Node> children) {
+        final Map<String, Node> unique = new LinkedHashMap<String, Node>();
+        for (final Node child : children) {
+            if (!unique.containsKey(child.getKey())) {
+                unique.put(child.getKey(), child);
+            }
+        }
+        final List<Node> normalized = new ArrayList<Node>(unique.values());
+        Collections.sort(normalized, ORDER);
+        return normalized;
+    }
+
+    private static Node unwrap(final Join join) {
+        return join.children.size() == 1 ? join.children.get(0) : join;
+    }
+
+    private static Leaf collapseIn(final Leaf leaf) {
+        if (!leaf.isField() || (leaf.operator != FilterOperator.IN && leaf.operator != FilterOperator.NOT_IN)) {
+            return leaf;
+        }
+        final Object value;
+        if (leaf.value instanceof List && ((List<?>) leaf.value).size() == 1) {
+            value = ((List<?>) leaf.value).get(0);
+        } else if (leaf.value instanceof Object[] && ((Object[]) leaf.value).length == 1) {
+            value = ((Object[]) leaf.value)[0];
+        } else {
+            return leaf;
+        }
+        if (value instanceof Map && hasOperatorKey((Map<?, ?>) value)) {
+            // an equality would read the document as operators
+            return leaf;
+        }
+        if ((leaf.operator == FilterOperator.IN) != leaf.not) {
+            return new Leaf(null, leaf.field, FilterOperator.EQUAL, value, false);
+        }
+        if (value instanceof Pattern) {
+            // $ne does not accept regular expressions
+            return leaf;
+        }
+        return new Leaf(null, leaf.field, FilterOperator.NOT_EQUAL, value, false);
+    }
+
+    /**
+     * Keeps only the tightest of the lower and of the upper bounds of each field which are of comparable types
+     */
+    private static void mergeRanges(final List<Node> children) {
+        final Map<String, Leaf> lower = new HashMap<String, Leaf>();
+        final Map<String, Leaf> upper = new HashMap<String, Leaf>();
+        final Set<Leaf> redundant = new HashSet<Leaf>();
+        for (final Node child : children) {
+            if (child instanceof Leaf && ((Leaf) child).isField() && !((Leaf) child).not) {
+                final Leaf leaf = (Leaf) child;
+                if (LOWER_BOUNDS.contains(leaf.operator)) {
+                    tighten(lower, leaf, 1, redundant);
+                } else if (UPPER_BOUNDS.contains(leaf.operator)) {
+                    tighten(upper, leaf, -1, redundant);
+                }
+            }
+        }
+        children.removeAll(redundant);
+    }
+
+    private static void tighten(final Map<String, Leaf> bounds, final Leaf leaf, final int direction, final Set<Leaf> redundant) {
+        final Leaf current = bounds.get(leaf.field);
+        if (current == null) {
+            bounds.put(leaf.field, leaf);
+            return;
+        }
+        final Integer compared = compare(leaf.value, current.value);
+        if (compared == null) {
+            return;
+        }
+        final int tighter = compared * direction;
+        if (tighter > 0 || (tighter == 0 && isExclusive(leaf.operator) && !isExclusive(current.operator))) {
+            redundant.add(current);
+            bounds.put(leaf.field, leaf);
+        } else {
+            redundant.add(leaf);
+        }
+    }
+
+    private static boolean isExclusive(final FilterOperator operator) {
+        return operator == FilterOperator.GREATER_THAN || operator == FilterOperator.LESS_THAN;
+    }
+
+    /**
+     * @return the order of the values or null if they are not of types compared alike by the server.  Strings are never compared since a
+     * collation may order them differently.
+     */
+    private static Integer compare(final Object first, final Object second) {
+        if (isIntegral(first) && isIntegral(second)) {
+            final long a = ((Number) first).longValue();
+            final long b = ((Number) second).longValue();
+            return a < b ? -1 : a == b ? 0 : 1;
+        }
+        if (isFloating(first) && isFloating(second)) {
+            return Double.compare(((Number) first).doubleValue(), ((Number) second).doubleValue());
+        }
+        if (first instanceof Date && second instanceof Date) {
+            return ((Date) first).compareTo((Date) second);
+        }
+        if (first instanceof ObjectId && second instanceof ObjectId) {
+            return Integer.signum(((ObjectId) first).compareTo((ObjectId) second));
+        }
+        return null;
+    }
+
+    private static boolean isIntegral(final Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    private static boolean isFloating(final Object value) {
+        return value instanceof Double || value instanceof Float || isIntegral(value);
+    }
+
+    /**
+     * Moves the criteria found in every branch of an $or out of it:  {@code (a and b) or (a and c)} becomes {@code a and (b or c)}
+     */
+    private static Node hoistCommon(final Join or) {
+        if (or.children.size() < 2) {
+            return or;
+        }
+        final List<List<Node>> branches = new ArrayList<List<Node>>();
+        Set<String> common = null;
+        for (final Node branch : or.children) {
+            final List<Node> conjuncts = branch instanceof Join ? ((Join) branch).children : Collections.singletonList(branch);
+            final Set<String> keys = new HashSet<String>();
+            for (final Node conjunct : conjuncts) {
+                keys.add(conjunct.getKey());
+            }
+            if (common == null) {
+                common = keys;
+            } else {
+                common.retainAll(keys);
+            }
+            branches.add(conjuncts);
+        }
+        if (common.isEmpty()) {
+            return or;
+        }
+
+        final List<Node> hoisted = new ArrayList<Node>();
+        final List<Node> remaining = new ArrayList<Node>();
+        boolean always = false;
+        for (final List<Node> branch : branches) {
+            final List<Node> rest = new ArrayList<Node>();
+            for (final Node conjunct : branch) {
+                if (!common.contains(conjunct.getKey())) {
+                    rest.add(conjunct);
+                } else if (branch == branches.get(0)) {
+                    hoisted.add(conjunct);
+                }
+            }
+            if (rest.isEmpty()) {
+                always = true;
+            } else {
+                remaining.add(unwrap(new Join(CriteriaJoin.AND, rest)));
+            }
+        }
+        if (!always) {
+            hoisted.add(unwrap(new Join(CriteriaJoin.OR, normalize(remaining))));
+        }
+        return unwrap(new Join(CriteriaJoin.AND, normalize(hoisted)));
+    }
+
+    private static boolean hasOperatorKey(final Map<?, ?> value) {
+        for (final Object key : value.keySet()) {
+            if (key instanceof String && ((String) key).startsWith("$")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOperatorDocument(final Object value) {
+        if (!(value instanceof Map) || ((Map<?, ?>) value).isEmpty()) {
+            return false;
+        }
+        for (final Object key : ((Map<?, ?>) value).keySet()) {
+            if (!OPERATORS.contains(key) && !"$not".equals(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the rendered criteria of the children of an $and to a document, combining the operators on a field in one document and
+     * falling back to an $and for the criteria which clash
+     */
+    @SuppressWarnings("unchecked")
+    private static void renderAnd(final List<Node> children, final DBObject obj) {
+        final BasicDBList and = new BasicDBList();
+        for (final Node child : children) {
+            final DBObject rendered = new BasicDBObject();
+            child.render(rendered);
+            boolean clashes = false;
+            for (final String key : rendered.keySet()) {
+                final Object existing = obj.get(key);
+                if (existing != null || obj.containsField(key)) {
+                    final Object value = rendered.get(key);
+                    if (!isOperatorDocument(existing) || !isOperatorDocument(value)
+                        || !Collections.disjoint(((Map<String, Object>) existing).keySet(), ((Map<String, Object>) value).keySet())) {
+                        clashes = true;
+                    }
+                }
+            }
+            if (clashes) {
+                and.add(rendered);
+                continue;
+            }
+            for (final String key : rendered.keySet()) {
+                final Object value = rendered.get(key);
+                final Object existing = obj.get(key);
+                if (existing != null) {
+                    final BasicDBObject combined = new BasicDBObject((Map<String, Object>) existing);
+                    combined.putAll((Map<String, Object>) value);
+                    obj.put(key, combined);
+                } else {
+                    obj.put(key, value);
+                }
+            }
+        }
+        if (!and.isEmpty()) {
+            final Object existing = obj.get("$and");
+            if (existing instanceof List) {
+                final List<Object> combined = new ArrayList<Object>((List<?>) existing);
+                combined.addAll(and);
+                obj.put("$and", combined);
+            } else {
+                obj.put("$and", and);
+            }
+        }
+    }
+
+    private abstract static class Node {
+        private String key;
+
+        abstract void render(DBObject obj);
+
+        boolean isTrue() {
+            return false;
+        }
+
+        /**
+         * @return the rendered form of this node, which is the same for equal criteria
+         */
+        String getKey() {
+            if (key == null) {
+                final DBObject rendered = new BasicDBObject();
+                render(rendered);
+                try {
+                    key = JSON.serialize(rendered);
+                } catch (RuntimeException e) {
+                    // values JSON can not show are never considered equal to others
+                    key = rendered.keySet() + "@" + System.identityHashCode(this);
+                }
+            }
+            return key;
+        }
+    }
+
+    private static final class Leaf extends Node {
+        private final Criteria criteria;
+        private final String field;
+        private final FilterOperator operator;
+        private final Object value;
+        private final boolean not;
+
+        private Leaf(final Criteria criteria, final String field, final FilterOperator operator, final Object value, final boolean not) {
+            this.criteria = criteria;
+            this.field = field;
+            this.operator = operator;
+            this.value = value;
+            this.not = not;
+        }
+
+        private boolean isField() {
+            return field != null;
+        }
+
+        @Override
+        void render(final DBObject obj) {
+            if (criteria != null) {
+                criteria.addTo(obj);
+            } else if (operator == FilterOperator.EQUAL) {
+                obj.put(field, value);
+            } else {
+                obj.put(field, new BasicDBObject(operator.val(), value));
+            }
+        }
+    }
+
+    private static final class Join extends Node {
+        private final CriteriaJoin join;
+        private final List<Node> children;
+
+        private Join(final CriteriaJoin join, final List<Node> children) {
+            this.join = join;
+            this.children = children;
+        }
+
+        @Override
+        boolean isTrue() {
+            return join == CriteriaJoin.AND && children.isEmpty();
+        }
+
+        @Override
+        void render(final DBObject obj) {
+            if (join == CriteriaJoin.AND) {
+                renderAnd(children, obj);
+            } else {
+                final BasicDBList or = new BasicDBList();
+                for (final Node child : children) {
+                    final BasicDBObject branch = new BasicDBObject();
+                    child.render(branch);
+                    or.add(branch);
+                }
+                obj.put("$or", or);
+            }
+        }
+    }
+}
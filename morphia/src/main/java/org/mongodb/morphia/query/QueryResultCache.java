@@ -0,0 +1,234 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.query;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache of query results for data which rarely changes.  Caching is enabled by setting a cache on
+ * {@link org.mongodb.morphia.mapping.MapperOptions#setQueryResultCache(QueryResultCache)} and is then used only by the queries which ask
+ * for it with {@link FindOptions#cacheResults(boolean)}.
+ * <p>
+ * Results are cached as the documents read from the server, keyed by the namespace, query, projection, sort, skip, limit and read
+ * preference, and are mapped to new entities on every hit.  The cache is bounded by the number of entries and by the BSON size of the
+ * cached documents, evicting the least recently used entries first, and every entry expires after a fixed time to live.
+ * <p>
+ * Any write to a collection through a Datastore using this cache drops the cached results for that collection.  Writes made by other
+ * processes or by other means are not seen so the time to live bounds how stale a result can be.
+ *
+ * @since 1.4
+ */
+public class QueryResultCache {
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttl;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private final Map<String, Set<String>> keysByNamespace = new HashMap<String, Set<String>>();
+    private final Map<String, Long> versions = new HashMap<String, Long>();
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    /**
+     * Creates a cache
+     *
+     * @param maxEntries the maximum number of query results to keep
+     * @param maxBytes   the maximum total BSON size of the cached documents
+     * @param ttl        how long a result can be served from the cache
+     * @param unit       the unit of ttl
+     */
+    public QueryResultCache(final int maxEntries, final long maxBytes, final long ttl, final TimeUnit unit) {
+        if (maxEntries <= 0 || maxBytes <= 0 || ttl <= 0) {
+            throw new IllegalArgumentException("The cache limits and time to live must all be greater than 0");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttl = unit.toNanos(ttl);
+    }
+
+    /**
+     * Removes all the cached results
+     */
+    public synchronized void clear() {
+        entries.clear();
+        keysByNamespace.clear();
+        bytes = 0;
+    }
+
+    /**
+     * @return a snapshot of the statistics for this cache
+     */
+    public synchronized QueryResultCacheStatistics getStatistics() {
+        return new QueryResultCacheStatistics(hits, misses, evictions, expirations, invalidations, entries.size(), bytes);
+    }
+
+    /**
+     * Removes the cached results for a collection.  This is called by the Datastore after every write to the collection.
+     *
+     * @param namespace the full name of the collection, i.e., {@code database.collection}
+     */
+    public synchronized void invalidate(final String namespace) {
+        nextVersion(namespace);
+        final Set<String> keys = keysByNamespace.remove(namespace);
+        if (keys != null) {
+            for (final String key : keys) {
+                bytes -= entries.remove(key).bytes;
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Looks up a result
+     *
+     * @param key the cache key
+     * @return copies of the cached documents or null if the result is not cached or has expired
+     */
+    List<DBObject> get(final String key) {
+        final Entry entry;
+        synchronized (this) {
+            final Entry found = entries.get(key);
+            if (found != null && found.expires - System.nanoTime() <= 0) {
+                remove(key);
+                expirations++;
+                entry = null;
+            } else {
+                entry = found;
+            }
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+        }
+        return copy(entry.documents);
+    }
+
+    /**
+     * Returns the version of a collection's results.  This must be read before running the query whose results are to be cached so that
+     * a write made while the query runs keeps the possibly stale result out of the cache.
+     *
+     * @param namespace the full name of the collection
+     * @return the version
+     */
+    synchronized long getVersion(final String namespace) {
+        final Long version = versions.get(namespace);
+        return version != null ? version : 0;
+    }
+
+    /**
+     * Caches a result unless the collection was written to since {@code version} was read
+     *
+     * @param namespace the full name of the collection
+     * @param key       the cache key
+     * @param documents the documents read
+     * @param size      the BSON size of the documents
+     * @param version   the version read before running the query
+     */
+    void put(final String namespace, final String key, final List<DBObject> documents, final long size, final long version) {
+        if (size > maxBytes) {
+            return;
+        }
+        final Entry entry = new Entry(namespace, copy(documents), size, System.nanoTime() + ttl);
+        synchronized (this) {
+            if (version != getVersion(namespace)) {
+                return;
+            }
+            if (entries.containsKey(key)) {
+                remove(key);
+            }
+            entries.put(key, entry);
+            bytes += size;
+            Set<String> keys = keysByNamespace.get(namespace);
+            if (keys == null) {
+                keys = new HashSet<String>();
+                keysByNamespace.put(namespace, keys);
+            }
+            keys.add(key);
+
+            // entries are in access order so the first ones are the least recently used
+            final Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries || bytes > maxBytes) {
+                final Map.Entry<String, Entry> evicted = eldest.next();
+                eldest.remove();
+                forget(evicted.getValue().namespace, evicted.getKey());
+                bytes -= evicted.getValue().bytes;
+                evictions++;
+            }
+        }
+    }
+
+    private void remove(final String key) {
+        final Entry removed = entries.remove(key);
+        forget(removed.namespace, key);
+        bytes -= removed.bytes;
+    }
+
+    private void forget(final String namespace, final String key) {
+        final Set<String> keys = keysByNamespace.get(namespace);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByNamespace.remove(namespace);
+            }
+        }
+    }
+
+    private void nextVersion(final String namespace) {
+        versions.put(namespace, getVersion(namespace) + 1);
+    }
+
+    private static List<DBObject> copy(final List<DBObject> documents) {
+        final List<DBObject> copies = new ArrayList<DBObject>(documents.size());
+        for (final DBObject document : documents) {
+            copies.add(document instanceof BasicDBObject
+                       ? (DBObject) ((BasicDBObject) document).copy()
+                       : new BasicDBObject(document.toMap()));
+        }
+        return copies;
+    }
+
+    private static final class Entry {
+        private final String namespace;
+        private final List<DBObject> documents;
+        private final long bytes;
+        private final long expires;
+
+        private Entry(final String namespace, final List<DBObject> documents, final long bytes, final long expires) {
+            this.namespace = namespace;
+            this.documents = documents;
+            this.bytes = bytes;
+            this.expires = expires;
+        }
+    }
+}
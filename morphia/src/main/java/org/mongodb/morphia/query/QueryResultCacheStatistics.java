@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.query;
+
+/**
+ * A snapshot of the statistics of a {@link QueryResultCache}
+ *
+ * @since 1.4
+ */
+public class QueryResultCacheStatistics {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+    private final int entries;
+    private final long bytes;
+
+    QueryResultCacheStatistics(final long hits, final long misses, final long evictions, final long expirations,
+                               final long invalidations, final int entries, final long bytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+        this.entries = entries;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return the BSON size of the documents currently cached
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the number of results currently cached
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return the number of results dropped to stay within the size limits
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of results dropped because their time to live had passed
+     */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * @return the fraction of lookups served from the cache or 0 if there have been none
+     */
+    public double getHitRatio() {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return the number of lookups served from the cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of results dropped because their collection was written to
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * @return the number of lookups which had to go to the server
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": " + entries + " entries, " + bytes + " bytes, " + hits + " hits, " + misses + " misses, "
+               + evictions + " evictions, " + expirations + " expirations, " + invalidations + " invalidations.";
+    }
+}
@@ -44,6 +44,20 @@ public interface QueryResults<T> extends Iterable<T> {
      */
     List<T> asList(FindOptions options);
 
+    /**
+     * Execute the query and get one page of the results along with the number of results across all pages.  The skip and limit of the
+     * options select the page.  The page and the total are read in a single aggregation, a {@code $match} followed by a {@code $facet}
+     * counting the matches and sorting, skipping and limiting them, so the filter is evaluated once.  The page has to fit in one 16MB
+     * document.  On servers without {@code $facet}, before MongoDB 3.4, and for queries which can not run as an aggregation, the total
+     * and the page are read with a count and a find.
+     *
+     * @param options the options to apply to the find operation
+     * @return the page
+     * @mongodb.driver.manual reference/operator/aggregation/facet/ $facet
+     * @since 1.4
+     */
+    Page<T> asPage(FindOptions options);
+
     /**
      * Count the total number of values in the result, ignoring limit and offset
      *
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.utils;
+
+import java.lang.reflect.Array;
+import java.util.List;
+
+/**
+ * Converts lists of numbers and booleans read from the database directly into primitive and wrapper arrays, without going through the
+ * converters or reflection for each element.
+ *
+ * @since 1.4
+ */
+public final class PrimitiveArrays {
+    private PrimitiveArrays() {
+    }
+
+    /**
+     * Checks if a component type can be filled by this class
+     *
+     * @param type the component type
+     * @return true if the type is a numeric or boolean primitive or wrapper
+     */
+    public static boolean isSupported(final Class<?> type) {
+        return type != null && (type == double.class || type == Double.class
+                                || type == long.class || type == Long.class
+                                || type == int.class || type == Integer.class
+                                || type == float.class || type == Float.class
+                                || type == short.class || type == Short.class
+                                || type == byte.class || type == Byte.class
+                                || type == boolean.class || type == Boolean.class);
+    }
+
+    /**
+     * Copies the values in to a new array, converting each element to the component type.  Null elements are kept for wrapper types and
+     * rejected for primitive types.
+     *
+     * @param type   the component type of the array
+     * @param values the values to copy
+     * @return the new array
+     * @throws IllegalArgumentException if the type is not {@link #isSupported(Class) supported} or an element can not be stored in the
+     *                                  array
+     */
+    public static Object toArray(final Class<?> type, final List<?> values) {
+        final int size = values.size();
+        if (type == double.class) {
+            final double[] array = new double[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = toDouble(primitive(type, values.get(i)));
+            }
+            return array;
+        } else if (type == long.class) {
+            final long[] array = new long[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = toLong(primitive(type, values.get(i)));
+            }
+            return array;
+        } else if (type == int.class) {
+            final int[] array = new int[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = (int) toLong(primitive(type, values.get(i)));
+            }
+            return array;
+        } else if (type == float.class) {
+            final float[] array = new float[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = (float) toDouble(primitive(type, values.get(i)));
+            }
+            return array;
+        } else if (type == short.class) {
+            final short[] array = new short[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = (short) toLong(primitive(type, values.get(i)));
+            }
+            return array;
+        } else if (type == byte.class) {
+            final byte[] array = new byte[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = (byte) toLong(primitive(type, values.get(i)));
+            }
+            return array;
+        } else if (type == boolean.class) {
+            final boolean[] array = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = toBoolean(primitive(type, values.get(i)));
+            }
+            return array;
+        } else if (isSupported(type)) {
+            final Object[] array = (Object[]) Array.newInstance(type, size);
+            for (int i = 0; i < size; i++) {
+                array[i] = convert(type, values.get(i));
+            }
+            return array;
+        }
+        throw new IllegalArgumentException(type + " is not a numeric or boolean type");
+    }
+
+    /**
+     * Converts a single value to the wrapper of the given type
+     *
+     * @param type  the target type, primitive or wrapper
+     * @param value the value to convert
+     * @return the converted value, null if the value is null
+     * @throws IllegalArgumentException if the type is not {@link #isSupported(Class) supported}
+     */
+    public static Object convert(final Class<?> type, final Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (type == Double.class || type == double.class) {
+            return value instanceof Double ? value : Double.valueOf(toDouble(value));
+        } else if (type == Long.class || type == long.class) {
+            return value instanceof Long ? value : Long.valueOf(toLong(value));
+        } else if (type == Integer.class || type == int.class) {
+            return value instanceof Integer ? value : Integer.valueOf((int) toLong(value));
+        } else if (type == Float.class || type == float.class) {
+            return value instanceof Float ? value : Float.valueOf((float) toDouble(value));
+        } else if (type == Short.class || type == short.class) {
+            return value instanceof Short ? value : Short.valueOf((short) toLong(value));
+        } else if (type == Byte.class || type == byte.class) {
+            return value instanceof Byte ? value : Byte.valueOf((byte) toLong(value));
+        } else if (type == Boolean.class || type == boolean.class) {
+            return value instanceof Boolean ? value : Boolean.valueOf(toBoolean(value));
+        }
+        throw new IllegalArgumentException(type + " is not a numeric or boolean type");
+    }
+
+    private static Object primitive(final Class<?> type, final Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("A null element can not be stored in a " + type.getName() + "[]");
+        }
+        return value;
+    }
+
+    private static double toDouble(final Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString());
+    }
+
+    private static long toLong(final Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+    }
+
+    private static boolean toBoolean(final Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return value instanceof Number ? ((Number) value).intValue() != 0 : Boolean.parseBoolean(value.toString());
+    }
+}
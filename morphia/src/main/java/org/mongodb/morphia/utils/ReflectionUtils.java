@@ -715,6 +715,9 @@ public final class ReflectionUtils {
      * @return the array
      */
     public static Object convertToArray(final Class type, final List<?> values) {
+        if (PrimitiveArrays.isSupported(type)) {
+            return PrimitiveArrays.toArray(type, values);
+        }
         final Object exampleArray = Array.newInstance(type, values.size());
         try {
             return values.toArray((Object[]) exampleArray);
@@ -33,6 +33,8 @@ import org.mongodb.morphia.annotations.Transient;
 import org.mongodb.morphia.generics.model.ChildEmbedded;
 import org.mongodb.morphia.generics.model.ChildEntity;
 import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.cache.DefaultEntityCache;
+import org.mongodb.morphia.mapping.cache.EntityCache;
 import org.mongodb.morphia.query.Query;
 import org.mongodb.morphia.query.UpdateException;
 import org.mongodb.morphia.query.UpdateOperations;
@@ -44,6 +46,7 @@ import org.mongodb.morphia.testmodel.Rectangle;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
@@ -52,6 +55,7 @@ import static com.mongodb.WriteConcern.ACKNOWLEDGED;
 import static com.mongodb.WriteConcern.MAJORITY;
 import static com.mongodb.WriteConcern.W2;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -153,6 +157,47 @@ public class TestDatastore extends TestBase {
         assertNotNull(getDs().exists(key));
     }
 
+    @Test
+    public void testExistsForManyKeys() {
+        final List<FacebookUser> users = new ArrayList<FacebookUser>();
+        for (int i = 0; i < 2500; i += 2) {
+            users.add(new FacebookUser(i, "user " + i));
+        }
+        getDs().save(users);
+
+        final String collection = getDs().getCollection(FacebookUser.class).getName();
+        final List<Key<FacebookUser>> keys = new ArrayList<Key<FacebookUser>>();
+        for (long i = 2499; i >= 0; i--) {
+            keys.add(new Key<FacebookUser>(FacebookUser.class, collection, i));
+        }
+
+        final Set<Key<?>> existing = getDs().exists(keys);
+        assertEquals(1250, existing.size());
+        long expected = 2498;
+        for (final Key<?> key : existing) {
+            assertEquals(expected, key.getId());
+            expected -= 2;
+        }
+    }
+
+    @Test
+    public void testExistsPopulatesCache() {
+        getDs().save(new FacebookUser(1, "user 1"));
+        final Key<FacebookUser> saved = new Key<FacebookUser>(FacebookUser.class, null, 1L);
+        final Key<FacebookUser> missing = new Key<FacebookUser>(FacebookUser.class, null, 2L);
+        final List<Key<FacebookUser>> keys = new ArrayList<Key<FacebookUser>>();
+        keys.add(saved);
+        keys.add(missing);
+
+        final EntityCache cache = new DefaultEntityCache();
+        assertEquals(singleton(saved), getAds().exists(keys, cache));
+        assertTrue(cache.exists(saved));
+        assertFalse(cache.exists(missing));
+
+        cache.notifyExists(missing, true);
+        assertEquals(2, getAds().exists(keys, cache).size());
+    }
+
     @Test
     @SuppressWarnings("deprecation")
     public void testExistsWhenSecondaryPreferredOld() throws Exception {
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia;
+
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestEstimatedCount extends TestBase {
+
+    @Test
+    public void testMissingCollection() {
+        final DocumentCount count = getDs().getEstimatedCount(Tally.class);
+        assertTrue(count.isEstimated());
+        assertEquals(0, count.getCount());
+    }
+
+    @Test
+    public void testEstimatesFromCollectionStatistics() {
+        getMorphia().getMapper().getOptions().setEstimatedCountTtl(0, TimeUnit.SECONDS);
+        getDs().save(asList(new Tally(1), new Tally(2), new Tally(3)));
+
+        DocumentCount count = getDs().getEstimatedCount(Tally.class);
+        assertTrue(count.isEstimated());
+        assertEquals(3, count.getCount());
+
+        getDs().save(new Tally(4));
+        count = getAds().getEstimatedCount(getDs().getCollection(Tally.class).getName());
+        assertTrue(count.isEstimated());
+        assertEquals(4, count.getCount());
+    }
+
+    @Test
+    public void testEstimatesAreCached() {
+        getMorphia().getMapper().getOptions().setEstimatedCountTtl(1, TimeUnit.HOURS);
+        getDs().save(asList(new Tally(1), new Tally(2)));
+
+        final DocumentCount first = getDs().getEstimatedCount(Tally.class);
+        assertEquals(2, first.getCount());
+
+        getDs().save(new Tally(3));
+        final DocumentCount second = getDs().getEstimatedCount(Tally.class);
+        assertEquals(2, second.getCount());
+        assertSame(first, second);
+        assertEquals(3, getDs().getCount(Tally.class));
+    }
+
+    @Test
+    public void testFilteredQueriesAreCountedExactly() {
+        getDs().save(asList(new Tally(1), new Tally(2), new Tally(3)));
+
+        final DocumentCount unfiltered = getDs().getEstimatedCount(getDs().createQuery(Tally.class));
+        assertTrue(unfiltered.isEstimated());
+        assertEquals(3, unfiltered.getCount());
+
+        final DocumentCount filtered = getDs().getEstimatedCount(getDs().createQuery(Tally.class).field("value").greaterThan(1));
+        assertFalse(filtered.isEstimated());
+        assertTrue(filtered.isExact());
+        assertEquals(2, filtered.getCount());
+    }
+
+    @Entity
+    private static class Tally {
+        @Id
+        private ObjectId id;
+        private int value;
+
+        Tally() {
+        }
+
+        Tally(final int value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia;
+
+import org.junit.Test;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Version;
+import org.mongodb.morphia.query.UpdateResults;
+import org.mongodb.morphia.query.ValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class TestPreparedUpdate extends TestBase {
+
+    @Test
+    public void testExecute() {
+        getDs().save(asList(new Account("a", 10), new Account("b", 20)));
+        final PreparedUpdate<Account> deposit = getDs().prepareUpdate(Account.class)
+                                                       .filter("name")
+                                                       .inc("balance")
+                                                       .push("history")
+                                                       .build();
+        assertEquals(3, deposit.getParameterCount());
+
+        assertEquals(1, deposit.execute("a", 5, "deposit").getUpdatedCount());
+        assertEquals(1, deposit.execute("a", 7, asList("deposit", "bonus")).getUpdatedCount());
+        assertEquals(0, deposit.execute("c", 1, "deposit").getUpdatedCount());
+
+        final Account account = getDs().find(Account.class).filter("name", "a").get();
+        assertEquals(22, account.balance);
+        assertEquals(asList("deposit", "deposit", "bonus"), account.history);
+        assertEquals(3, account.version);
+        assertEquals(20, getDs().find(Account.class).filter("name", "b").get().balance);
+    }
+
+    @Test
+    public void testExecuteAll() {
+        getDs().save(asList(new Account("a", 10), new Account("b", 20)));
+        final PreparedUpdate<Account> deposit = getDs().prepareUpdate(Account.class)
+                                                       .filter("name")
+                                                       .inc("balance")
+                                                       .options(new UpdateOptions().upsert(true))
+                                                       .build();
+
+        final List<Object[]> bindings = new ArrayList<Object[]>();
+        bindings.add(new Object[]{"a", 1});
+        bindings.add(new Object[]{"b", 2});
+        bindings.add(new Object[]{"c", 3});
+        final UpdateResults results = deposit.executeAll(bindings);
+
+        assertNotNull(results.getNewId());
+        assertEquals(11, getDs().find(Account.class).filter("name", "a").get().balance);
+        assertEquals(22, getDs().find(Account.class).filter("name", "b").get().balance);
+        assertEquals(3, getDs().find(Account.class).filter("name", "c").get().balance);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testFieldsAreValidatedWhenPrepared() {
+        getDs().prepareUpdate(Account.class).set("missing");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEveryParameterIsBound() {
+        getDs().prepareUpdate(Account.class)
+               .filter("name")
+               .set("balance")
+               .build()
+               .execute("a");
+    }
+
+    @Entity
+    private static class Account {
+        @Id
+        private String id;
+        private String name;
+        private int balance;
+        private List<String> history = new ArrayList<String>();
+        @Version
+        private long version;
+
+        Account() {
+        }
+
+        Account(final String name, final int balance) {
+            this.id = name;
+            this.name = name;
+            this.balance = balance;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Sequence;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestSequence extends TestBase {
+
+    @After
+    @Override
+    public void tearDown() {
+        getAds().getSequenceAllocator().shutdown();
+        super.tearDown();
+    }
+
+    @Test
+    public void testIdsAreAssignedFromBlocks() {
+        final Order first = new Order();
+        final Order second = new Order();
+        getDs().save(first);
+        getAds().insert(second);
+
+        assertEquals(1, first.id);
+        assertEquals(2, second.id);
+        assertEquals(5, counterValue("orders"));
+        assertEquals(2, getDs().getCount(Order.class));
+    }
+
+    @Test
+    public void testAssignedIdsAreKept() {
+        final Order order = new Order();
+        order.id = 42;
+        getDs().save(order);
+
+        assertEquals(42, order.id);
+        assertEquals(0, getDs().getDB().getCollection(getMorphia().getMapper().getOptions().getSequenceCollection()).count());
+    }
+
+    @Test
+    public void testLargeBatchesReserveOnce() {
+        final List<Order> orders = new ArrayList<Order>();
+        for (int i = 0; i < 100; i++) {
+            orders.add(new Order());
+        }
+        getAds().insert(orders);
+
+        for (int i = 0; i < orders.size(); i++) {
+            assertEquals(i + 1, orders.get(i).id);
+        }
+        assertEquals(100, counterValue("orders"));
+    }
+
+    @Test
+    public void testBackgroundBlocksAreUsed() {
+        final SequenceAllocator allocator = getAds().getSequenceAllocator();
+        for (int i = 1; i <= 6; i++) {
+            assertEquals(i, allocator.next("refilled", 4));
+        }
+
+        assertEquals(8, counterValue("refilled"));
+    }
+
+    @Test
+    public void testConcurrentAllocation() throws InterruptedException {
+        final SequenceAllocator allocator = getAds().getSequenceAllocator();
+        final Set<Long> ids = new HashSet<Long>();
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final List<Long> allocated = new ArrayList<Long>();
+                    for (int i = 0; i < 1000; i++) {
+                        allocated.add(allocator.next("concurrent", 50));
+                    }
+                    synchronized (ids) {
+                        ids.addAll(allocated);
+                    }
+                }
+            }));
+        }
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(4000, ids.size());
+        assertTrue(counterValue("concurrent") >= 4000);
+    }
+
+    @Test
+    public void testIntegerIdsUseTheCollectionName() {
+        final Invoice invoice = new Invoice();
+        getDs().save(asList(invoice));
+
+        assertEquals(Integer.valueOf(1), invoice.id);
+        assertEquals(1, counterValue(getDs().getCollection(Invoice.class).getName()));
+    }
+
+    private long counterValue(final String sequence) {
+        return ((Number) getDs().getDB().getCollection(getMorphia().getMapper().getOptions().getSequenceCollection())
+                                .findOne(sequence).get("value")).longValue();
+    }
+
+    @Entity
+    private static class Order {
+        @Id
+        @Sequence(value = "orders", blockSize = 5)
+        private long id;
+        private String customer = "someone";
+    }
+
+    @Entity
+    private static class Invoice {
+        @Id
+        @Sequence(blockSize = 1)
+        private Integer id;
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.MongoClientURI;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Property;
+import org.mongodb.morphia.annotations.ShardKey;
+import org.mongodb.morphia.annotations.Version;
+import org.mongodb.morphia.mapping.MappingException;
+import org.mongodb.morphia.mapping.MappedField;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestShardKeyAnnotation extends TestBase {
+    private static final FilterListener LISTENER = new FilterListener();
+
+    public TestShardKeyAnnotation() {
+        super(new MongoClient(new MongoClientURI(getMongoURI(), MongoClientOptions.builder().addCommandListener(LISTENER))));
+    }
+
+    @Test
+    public void testMappedShardKey() {
+        final List<MappedField> fields = getMorphia().getMapper().getMappedClass(Order.class).getShardKeyFields();
+        assertEquals(2, fields.size());
+        assertEquals("region", fields.get(0).getNameToStore());
+        assertEquals("cust", fields.get(1).getNameToStore());
+
+        assertTrue(getMorphia().getMapper().getMappedClass(Unsharded.class).getShardKeyFields().isEmpty());
+    }
+
+    @Test(expected = MappingException.class)
+    public void testUnknownShardKeyField() {
+        getMorphia().map(BadShardKey.class);
+    }
+
+    @Test
+    public void testEntityOperationsTargetTheShard() {
+        final Order order = new Order("emea", "acme");
+        getDs().save(order);
+
+        LISTENER.clear();
+        order.total = 12;
+        getDs().save(order);
+        assertShardKey(LISTENER.last("update"));
+
+        LISTENER.clear();
+        assertNotNull(getDs().get(order));
+        assertShardKey(LISTENER.last("find"));
+
+        LISTENER.clear();
+        getDs().update(order, getDs().createUpdateOperations(Order.class).inc("total"));
+        assertShardKey(LISTENER.last("update"));
+
+        LISTENER.clear();
+        getDs().delete(order);
+        assertShardKey(LISTENER.last("delete"));
+        assertEquals(0, getDs().getCount(Order.class));
+    }
+
+    @Test
+    public void testVersionedSaveAndMergeTargetTheShard() {
+        final VersionedOrder order = new VersionedOrder();
+        order.region = "apac";
+        getDs().save(order);
+
+        LISTENER.clear();
+        getDs().save(order);
+        BsonDocument filter = LISTENER.last("update");
+        assertEquals(new BsonString("apac"), filter.get("region"));
+        assertTrue(filter.containsKey("version"));
+
+        LISTENER.clear();
+        getDs().merge(order);
+        filter = LISTENER.last("update");
+        assertEquals(new BsonString("apac"), filter.get("region"));
+        assertTrue(filter.containsKey("_id"));
+    }
+
+    @Test
+    public void testNullShardKeyValuesAreLeftOut() {
+        final Order order = new Order("emea", null);
+        getDs().save(order);
+
+        LISTENER.clear();
+        getDs().save(order);
+        final BsonDocument filter = LISTENER.last("update");
+        assertEquals(new BsonString("emea"), filter.get("region"));
+        assertTrue(!filter.containsKey("cust"));
+    }
+
+    private void assertShardKey(final BsonDocument filter) {
+        assertTrue(filter.toJson(), filter.containsKey("_id"));
+        assertEquals(new BsonString("emea"), filter.get("region"));
+        assertEquals(new BsonString("acme"), filter.get("cust"));
+    }
+
+    @Entity
+    @ShardKey({"region", "cust", "id"})
+    private static class Order {
+        @Id
+        private ObjectId id;
+        private String region;
+        @Property("cust")
+        private String customer;
+        private int total;
+
+        Order() {
+        }
+
+        Order(final String region, final String customer) {
+            this.region = region;
+            this.customer = customer;
+        }
+    }
+
+    @Entity
+    @ShardKey("region")
+    private static class VersionedOrder {
+        @Id
+        private ObjectId id;
+        private String region;
+        @Version
+        private Long version;
+    }
+
+    @Entity
+    private static class Unsharded {
+        @Id
+        private ObjectId id;
+    }
+
+    @Entity
+    @ShardKey("missing")
+    private static class BadShardKey {
+        @Id
+        private ObjectId id;
+    }
+
+    private static class FilterListener implements CommandListener {
+        private final List<String> commands = new ArrayList<String>();
+        private final List<BsonDocument> filters = new ArrayList<BsonDocument>();
+
+        synchronized void clear() {
+            commands.clear();
+            filters.clear();
+        }
+
+        synchronized BsonDocument last(final String command) {
+            final int index = commands.lastIndexOf(command);
+            if (index < 0) {
+                throw new AssertionError("No " + command + " command was sent");
+            }
+            return filters.get(index);
+        }
+
+        @Override
+        public synchronized void commandStarted(final CommandStartedEvent event) {
+            final BsonDocument command = event.getCommand();
+            final String name = event.getCommandName();
+            if (name.equals("find")) {
+                commands.add(name);
+                filters.add(command.getDocument("filter"));
+            } else if (name.equals("update") || name.equals("delete")) {
+                commands.add(name);
+                filters.add(command.getArray(name + "s").get(0).asDocument().getDocument("q"));
+            }
+        }
+
+        @Override
+        public void commandSucceeded(final CommandSucceededEvent event) {
+        }
+
+        @Override
+        public void commandFailed(final CommandFailedEvent event) {
+        }
+    }
+}
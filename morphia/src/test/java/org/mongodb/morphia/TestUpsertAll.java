@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia;
+
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.PrePersist;
+import org.mongodb.morphia.annotations.Sequence;
+import org.mongodb.morphia.annotations.Version;
+import org.mongodb.morphia.query.UpdateException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestUpsertAll extends TestBase {
+
+    @Test
+    public void testInsertsAndUpdatesByKey() {
+        final Product existing = new Product("sku-1", "old name", 5);
+        existing.description = "discontinued";
+        getDs().save(existing);
+
+        final Product updated = new Product("sku-1", "new name", 7);
+        final Product inserted = new Product("sku-2", "other", 3);
+        final Iterator<Key<Product>> keys = getDs().upsertAll(asList(updated, inserted), "sku").iterator();
+
+        assertEquals(existing.id, updated.id);
+        assertEquals(2, updated.version);
+        assertNotNull(inserted.id);
+        assertEquals(1, inserted.version);
+        assertEquals(existing.id, keys.next().getId());
+        assertEquals(inserted.id, keys.next().getId());
+        assertEquals(1, updated.prePersisted);
+
+        assertEquals(2, getDs().getCount(Product.class));
+        final Product stored = getDs().get(Product.class, existing.id);
+        assertEquals("new name", stored.name);
+        assertEquals(7, stored.stock);
+        assertNull(stored.description);
+    }
+
+    @Test
+    public void testBatches() {
+        final List<Product> products = new ArrayList<Product>();
+        for (int i = 0; i < 25; i++) {
+            products.add(new Product("sku-" + i, "product " + i, i));
+        }
+        getDs().upsertAll(products.subList(0, 10), "sku");
+
+        getDs().upsertAll(products, new UpsertOptions().batchSize(7).ordered(false), "sku");
+
+        assertEquals(25, getDs().getCount(Product.class));
+        for (final Product product : products) {
+            assertNotNull(product.id);
+        }
+        assertEquals(2, products.get(0).version);
+        assertEquals(1, products.get(24).version);
+    }
+
+    @Test
+    public void testEntitiesWithAnIdAreMatchedById() {
+        final Product existing = new Product("sku-1", "first", 5);
+        getDs().save(existing);
+        getDs().save(new Product("sku-2", "second", 3));
+
+        final Product renamed = getDs().get(Product.class, existing.id);
+        renamed.sku = "sku-3";
+        renamed.name = "renamed";
+        getDs().upsertAll(asList(renamed), "sku");
+
+        assertEquals(existing.id, renamed.id);
+        assertEquals(2, renamed.version);
+        assertEquals(2, getDs().getCount(Product.class));
+        final Product stored = getDs().get(Product.class, existing.id);
+        assertEquals("sku-3", stored.sku);
+        assertEquals("renamed", stored.name);
+        assertEquals("second", getDs().find(Product.class).field("sku").equal("sku-2").get().name);
+    }
+
+    @Test
+    public void testSequenceIds() {
+        final Ticket existing = new Ticket("t-1", "open");
+        getDs().save(existing);
+
+        final Ticket updated = new Ticket("t-1", "closed");
+        final Ticket inserted = new Ticket("t-2", "open");
+        getDs().upsertAll(asList(updated, inserted), "code");
+
+        assertEquals(existing.id, updated.id);
+        assertTrue(inserted.id > existing.id);
+        assertEquals(2, getDs().getCount(Ticket.class));
+        assertEquals("closed", getDs().get(Ticket.class, existing.id).state);
+        assertEquals("open", getDs().get(Ticket.class, inserted.id).state);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMixedCollectionsAreRejected() {
+        getDs().upsertAll(Arrays.<Object>asList(new Product("sku-1", "product", 1), new Part("sku-1")), "sku");
+    }
+
+    @Test(expected = UpdateException.class)
+    public void testKeyValuesAreRequired() {
+        getDs().upsertAll(asList(new Product(null, "nameless", 1)), "sku");
+    }
+
+    @Entity
+    private static class Product {
+        @Id
+        private ObjectId id;
+        private String sku;
+        private String name;
+        private String description;
+        private int stock;
+        @Version
+        private long version;
+        private transient int prePersisted;
+
+        Product() {
+        }
+
+        Product(final String sku, final String name, final int stock) {
+            this.sku = sku;
+            this.name = name;
+            this.stock = stock;
+        }
+
+        @PrePersist
+        void prePersist() {
+            prePersisted++;
+        }
+    }
+
+    @Entity
+    private static class Ticket {
+        @Id
+        @Sequence
+        private long id;
+        private String code;
+        private String state;
+
+        Ticket() {
+        }
+
+        Ticket(final String code, final String state) {
+            this.code = code;
+            this.state = state;
+        }
+    }
+
+    @Entity
+    private static class Part {
+        @Id
+        private ObjectId id;
+        private String sku;
+
+        Part() {
+        }
+
+        Part(final String sku) {
+            this.sku = sku;
+        }
+    }
+}
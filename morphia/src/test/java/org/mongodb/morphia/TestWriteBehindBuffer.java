@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia;
+
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class TestWriteBehindBuffer extends TestBase {
+
+    @Test
+    public void testCoalescesUpdatesPerDocument() {
+        final Counter first = new Counter();
+        final Counter second = new Counter();
+        getDs().save(asList(first, second));
+
+        final WriteBehindBuffer buffer = new WriteBehindBuffer(getDs(), 10000, 1, TimeUnit.HOURS);
+        try {
+            for (int i = 0; i < 100; i++) {
+                buffer.update(getDs().getKey(first), getDs().createUpdateOperations(Counter.class)
+                                                              .inc("hits")
+                                                              .set("lastSeen", i)
+                                                              .addToSet("tags", "tag" + (i % 3)));
+                buffer.update(getDs().getKey(second), getDs().createUpdateOperations(Counter.class).inc("hits", 2));
+            }
+
+            WriteBehindStatistics statistics = buffer.getStatistics();
+            assertEquals(200, statistics.getUpdates());
+            assertEquals(2, statistics.getQueueDepth());
+            assertEquals(0, getDs().get(first).hits);
+
+            buffer.flush();
+            statistics = buffer.getStatistics();
+            assertEquals(0, statistics.getQueueDepth());
+            assertEquals(2, statistics.getWrites());
+            assertEquals(100, statistics.getCoalescingRatio(), 0.001);
+        } finally {
+            buffer.shutdown();
+        }
+
+        final Counter loaded = getDs().get(first);
+        assertEquals(100, loaded.hits);
+        assertEquals(99, loaded.lastSeen);
+        assertEquals(asList("tag0", "tag1", "tag2"), loaded.tags);
+        assertEquals(200, getDs().get(second).hits);
+    }
+
+    @Test
+    public void testConflictingUpdatesKeepTheirOrder() {
+        final Counter counter = new Counter();
+        getDs().save(counter);
+
+        final WriteBehindBuffer buffer = new WriteBehindBuffer(getDs(), 10000, 1, TimeUnit.HOURS);
+        final Key<Counter> key = getDs().getKey(counter);
+        buffer.update(key, getDs().createUpdateOperations(Counter.class).inc("hits", 5));
+        buffer.update(key, getDs().createUpdateOperations(Counter.class).set("hits", 1));
+        buffer.update(key, getDs().createUpdateOperations(Counter.class).inc("hits", 2));
+        buffer.update(key, getDs().createUpdateOperations(Counter.class).push("tags", "a"));
+        buffer.update(key, getDs().createUpdateOperations(Counter.class).push("tags", "a"));
+        assertEquals(5, buffer.getStatistics().getQueueDepth());
+        buffer.shutdown();
+
+        final Counter loaded = getDs().get(counter);
+        assertEquals(3, loaded.hits);
+        assertEquals(asList("a", "a"), loaded.tags);
+    }
+
+    @Test
+    public void testFlushesInTheBackground() throws InterruptedException {
+        final WriteBehindBuffer buffer = new WriteBehindBuffer(getDs(), 10, 50, TimeUnit.MILLISECONDS);
+        try {
+            final ObjectId id = new ObjectId();
+            buffer.update(new Key<Counter>(Counter.class, getMorphia().getMapper().getCollectionName(Counter.class), id),
+                          getDs().createUpdateOperations(Counter.class).inc("hits"), true);
+
+            final long deadline = System.currentTimeMillis() + 10000;
+            while (getDs().get(Counter.class, id) == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertNotNull(getDs().get(Counter.class, id));
+            assertEquals(1, getDs().get(Counter.class, id).hits);
+        } finally {
+            buffer.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRejectsUpdatesAfterShutdown() {
+        final WriteBehindBuffer buffer = new WriteBehindBuffer(getDs(), 10, 1, TimeUnit.SECONDS);
+        buffer.shutdown();
+        buffer.update(new Key<Counter>(Counter.class, "counters", new ObjectId()),
+                      getDs().createUpdateOperations(Counter.class).inc("hits"));
+    }
+
+    @Entity("counters")
+    private static class Counter {
+        @Id
+        private ObjectId id;
+        private long hits;
+        private int lastSeen;
+        private List<String> tags = new ArrayList<String>();
+    }
+}
@@ -0,0 +1,88 @@
+package org.mongodb.morphia.geo;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.DefaultDBDecoder;
+import com.mongodb.DefaultDBEncoder;
+import org.junit.Test;
+import org.mongodb.morphia.Morphia;
+import org.mongodb.morphia.converters.TypeConverter;
+import org.mongodb.morphia.testutil.JSONMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mongodb.morphia.geo.GeoJson.lineString;
+import static org.mongodb.morphia.geo.GeoJson.point;
+
+public class PackedCoordinatesTest {
+    private final Morphia morphia = new Morphia();
+
+    @Test
+    public void shouldRoundTripThroughBson() {
+        final Polygon polygon = GeoJson.polygon(lineString(point(1.1, 2.0), point(2.3, 3.5), point(3.7, 1.0), point(1.1, 2.0)),
+                                                lineString(point(1.5, 2.0), point(1.9, 2.0), point(1.9, 1.8), point(1.5, 2.0)));
+        final MultiPoint multiPoint = GeoJson.multiPoint(point(1, 2), point(3, 5));
+        final Point point = point(3.0, 7.0);
+
+        assertEquals(polygon, roundTrip(new GeometryShapeConverter.PolygonConverter(), polygon));
+        assertEquals(multiPoint, roundTrip(new GeometryShapeConverter.MultiPointConverter(), multiPoint));
+        assertEquals(point, roundTrip(new GeometryShapeConverter.PointConverter(), point));
+    }
+
+    @Test
+    public void shouldEncodePositionsAsArrays() {
+        final TypeConverter converter = converter(new GeometryShapeConverter.LineStringConverter());
+        final Object encoded = converter.encode(lineString(point(1, 2), point(3, 5), point(19, 13)));
+
+        assertThat(encoded.toString(),
+                   JSONMatcher.jsonEqual("{ type: 'LineString', coordinates: [ [2.0, 1.0], [5.0, 3.0], [13.0, 19.0] ] }"));
+        final List<List<Double>> coordinates = new ArrayList<List<Double>>();
+        coordinates.add(asList(2.0, 1.0));
+        coordinates.add(asList(5.0, 3.0));
+        coordinates.add(asList(13.0, 19.0));
+        assertEquals(coordinates, ((DBObject) encoded).get("coordinates"));
+    }
+
+    @Test
+    public void shouldDecodeIntegerAndThreeDimensionalPositions() {
+        final BasicDBList integers = new BasicDBList();
+        integers.add(1);
+        integers.add(2);
+        final BasicDBList positions = new BasicDBList();
+        positions.add(integers);
+        positions.add(asList(3.5, 4.5, 100.0));
+
+        final LineString lineString = (LineString) converter(new GeometryShapeConverter.LineStringConverter())
+            .decode(LineString.class, new BasicDBObject("type", "LineString").append("coordinates", positions), null);
+
+        assertEquals(2, lineString.getCoordinates().size());
+        assertEquals(point(2, 1), lineString.getCoordinates().get(0));
+        assertEquals(asList(3.5, 4.5, 100.0), lineString.getCoordinates().get(1).getCoordinates());
+        assertEquals(lineString, new LineString(lineString.getCoordinates()));
+        assertEquals(lineString.hashCode(), new LineString(Arrays.asList(lineString.getCoordinates().toArray(new Point[2]))).hashCode());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldExposeReadOnlyViews() {
+        lineString(point(1, 2), point(3, 4)).getCoordinates().set(0, point(5, 6));
+    }
+
+    private Geometry roundTrip(final TypeConverter converter, final Geometry geometry) {
+        converter(converter);
+        final DBObject document = new BasicDBObject("geometry", converter.encode(geometry));
+        final DBObject decoded = new DefaultDBDecoder().decode(new DefaultDBEncoder().encode(document), (DBCollection) null);
+        return (Geometry) converter.decode(geometry.getClass(), decoded.get("geometry"), null);
+    }
+
+    private TypeConverter converter(final TypeConverter converter) {
+        converter.setMapper(morphia.getMapper());
+        return converter;
+    }
+}
@@ -0,0 +1,132 @@
+package org.mongodb.morphia.mapping;
+
+
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mongodb.morphia.Morphia;
+import org.mongodb.morphia.annotations.Embedded;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.PrePersist;
+import org.mongodb.morphia.mapping.validation.ConstraintViolationException;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class ParallelMappingTest {
+    private Morphia morphia;
+
+    @Before
+    public void setUp() {
+        morphia = new Morphia();
+        morphia.getMapper().getOptions().setParallelMappingThreads(4);
+    }
+
+    @Test
+    public void testMapsHierarchyInParallel() {
+        morphia.map(Circle.class, Square.class, Point.class);
+
+        final Mapper mapper = morphia.getMapper();
+        Assert.assertTrue(mapper.isMapped(Circle.class));
+        Assert.assertTrue(mapper.isMapped(Square.class));
+        Assert.assertTrue(mapper.isMapped(Point.class));
+        Assert.assertTrue(mapper.isMapped(Shape.class));
+        Assert.assertTrue(mapper.isMapped(Named.class));
+        Assert.assertSame(mapper.getMappedClass(Shape.class), mapper.getMappedClass(Circle.class).getSuperClass());
+        Assert.assertSame(mapper.getMappedClass(Shape.class), mapper.getMappedClass(Square.class).getSuperClass());
+        Assert.assertEquals(1, mapper.getMappedClass(Circle.class).getLifecycleMethods(PrePersist.class).size());
+        Assert.assertEquals(Circle.class, mapper.getClassFromCollection("circles"));
+        Assert.assertEquals(mappedNames(sequentialMorphia().map(Circle.class, Square.class, Point.class)), mappedNames(morphia));
+    }
+
+    @Test
+    public void testFailuresAreDeterministicAndNothingIsPublished() {
+        for (int i = 0; i < 10; i++) {
+            setUp();
+            try {
+                morphia.map(Circle.class, NoId.class, Point.class, AnotherNoId.class);
+                Assert.fail("Should have failed validation");
+            } catch (ConstraintViolationException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains(NoId.class.getName()));
+                Assert.assertFalse(e.getMessage(), e.getMessage().contains(AnotherNoId.class.getName()));
+            }
+            Assert.assertTrue(morphia.getMapper().getMappedClasses().isEmpty());
+        }
+    }
+
+    @Test
+    public void testIgnoreInvalid() {
+        final List<MappedClass> mapped = morphia.getMapper().addMappedClasses(Arrays.<Class>asList(NoId.class, Circle.class, Point.class),
+                                                                              true);
+
+        Assert.assertEquals(2, mapped.size());
+        Assert.assertEquals(Circle.class, mapped.get(0).getClazz());
+        Assert.assertEquals(Point.class, mapped.get(1).getClazz());
+        Assert.assertFalse(morphia.getMapper().isMapped(NoId.class));
+        Assert.assertTrue(morphia.getMapper().isMapped(Circle.class));
+    }
+
+    private Morphia sequentialMorphia() {
+        return new Morphia();
+    }
+
+    private Set<String> mappedNames(final Morphia instance) {
+        final Collection<MappedClass> classes = instance.getMapper().getMappedClasses();
+        final Set<String> names = new TreeSet<String>();
+        for (final MappedClass mappedClass : classes) {
+            names.add(mappedClass.getClazz().getName());
+        }
+        return names;
+    }
+
+    private interface Named {
+        String getName();
+    }
+
+    private abstract static class Shape implements Named {
+        @Id
+        private ObjectId id;
+        private String name;
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
+    @Entity("circles")
+    private static class Circle extends Shape {
+        private double radius;
+
+        @PrePersist
+        void prePersist() {
+            radius = Math.abs(radius);
+        }
+    }
+
+    @Entity("squares")
+    private static class Square extends Shape {
+        private double side;
+    }
+
+    @Embedded
+    private static class Point {
+        private double x;
+        private double y;
+    }
+
+    @Entity
+    private static class NoId {
+        private String name;
+    }
+
+    @Entity
+    private static class AnotherNoId {
+        private String name;
+    }
+}
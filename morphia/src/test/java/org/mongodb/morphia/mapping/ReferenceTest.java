@@ -4,6 +4,14 @@ import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBCollection;
 import com.mongodb.DBObject;
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.MongoClientURI;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonValue;
 import org.bson.types.ObjectId;
 import org.junit.Assert;
 import org.junit.Test;
@@ -14,10 +22,12 @@ import org.mongodb.morphia.annotations.Entity;
 import org.mongodb.morphia.annotations.Id;
 import org.mongodb.morphia.annotations.Reference;
 import org.mongodb.morphia.mapping.lazy.ProxyTestBase;
+import org.mongodb.morphia.query.FindOptions;
 import org.mongodb.morphia.query.MorphiaKeyIterator;
 import org.mongodb.morphia.query.Query;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -124,6 +134,44 @@ public class ReferenceTest extends ProxyTestBase {
         assertEquals(expectedRefMap, unwrapMap(retrieved.getLazyMapRef()));
     }
 
+    @Test
+    public void testLookupReferences() {
+        checkMinServerVersion(3.2);
+        final List<Ref> refs = asList(new Ref("foo"), new Ref("bar"), new Ref("baz"));
+        getDs().save(refs);
+        getDs().save(asList(new Container(refs), new Container(asList(refs.get(2), refs.get(1)))));
+
+        final CommandCounter counter = new CommandCounter();
+        final MongoClient client = new MongoClient(new MongoClientURI(getMongoURI(),
+                                                                      MongoClientOptions.builder().addCommandListener(counter)));
+        try {
+            final Datastore datastore = getMorphia().createDatastore(client, getDb().getName());
+            final List<Container> containers = datastore.find(Container.class)
+                                                        .order("_id")
+                                                        .asList(new FindOptions().lookupReferences(true));
+            assertEquals(2, containers.size());
+            assertEquals(refs.get(0), containers.get(0).getSingleRef());
+            assertEquals(refs, containers.get(0).getCollectionRef());
+            assertEquals(refs.get(2), containers.get(1).getSingleRef());
+            assertEquals(asList(refs.get(2), refs.get(1)), containers.get(1).getCollectionRef());
+            assertEquals(refs.get(1), containers.get(1).getMapRef().get(1));
+
+            final Container limited = datastore.find(Container.class)
+                                               .order("-_id")
+                                               .get(new FindOptions().lookupReferences(true));
+            assertEquals(refs.get(2), limited.getSingleRef());
+
+            // the references were joined by $lookup rather than queried one by one
+            final String containerCollection = datastore.getCollection(Container.class).getName();
+            final String refCollection = datastore.getCollection(Ref.class).getName();
+            assertEquals(2, counter.count("aggregate", containerCollection));
+            assertEquals(0, counter.count("find", containerCollection));
+            assertEquals(0, counter.count("find", refCollection));
+        } finally {
+            client.close();
+        }
+    }
+
     @Test
     public void testNullReferences() {
         Container container = new Container();
@@ -285,6 +333,32 @@ public class ReferenceTest extends ProxyTestBase {
     }
 
     @Entity
+    private static class CommandCounter implements CommandListener {
+        private final Map<String, Integer> counts = new HashMap<String, Integer>();
+
+        synchronized int count(final String command, final String collection) {
+            final Integer count = counts.get(command + " " + collection);
+            return count != null ? count : 0;
+        }
+
+        @Override
+        public synchronized void commandStarted(final CommandStartedEvent event) {
+            final BsonValue collection = event.getCommand().get(event.getCommandName());
+            if (collection != null && collection.isString()) {
+                final String key = event.getCommandName() + " " + collection.asString().getValue();
+                counts.put(key, count(event.getCommandName(), collection.asString().getValue()) + 1);
+            }
+        }
+
+        @Override
+        public void commandSucceeded(final CommandSucceededEvent event) {
+        }
+
+        @Override
+        public void commandFailed(final CommandFailedEvent event) {
+        }
+    }
+
     public static class Ref {
         @Id
         private String id;
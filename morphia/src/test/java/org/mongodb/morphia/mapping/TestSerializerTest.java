@@ -7,6 +7,7 @@ import org.junit.Test;
 import org.mongodb.morphia.TestBase;
 import org.mongodb.morphia.annotations.Id;
 import org.mongodb.morphia.annotations.Serialized;
+import org.mongodb.morphia.mapping.serialization.BlockCompressor;
 
 import java.io.IOException;
 
@@ -48,6 +49,7 @@ public class TestSerializerTest extends TestBase {
         E e = new E();
         e.payload1 = test;
         e.payload2 = test;
+        e.payload3 = test;
 
         getDs().save(e);
         e = getDs().get(e);
@@ -58,6 +60,9 @@ public class TestSerializerTest extends TestBase {
         Assert.assertTrue(e.payload2.length == 2048);
         Assert.assertTrue(new String(e.payload2).startsWith(TEST_TEXT));
 
+        Assert.assertTrue(e.payload3.length == 2048);
+        Assert.assertTrue(new String(e.payload3).startsWith(TEST_TEXT));
+
     }
 
     private static class E {
@@ -67,6 +72,8 @@ public class TestSerializerTest extends TestBase {
         private byte[] payload1;
         @Serialized()
         private byte[] payload2;
+        @Serialized(compressor = BlockCompressor.class)
+        private byte[] payload3;
 
     }
 }
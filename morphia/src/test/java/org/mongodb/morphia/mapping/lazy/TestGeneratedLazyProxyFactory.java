@@ -0,0 +1,138 @@
+package org.mongodb.morphia.mapping.lazy;
+
+
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mongodb.morphia.Key;
+import org.mongodb.morphia.annotations.IdGetter;
+import org.mongodb.morphia.annotations.Reference;
+import org.mongodb.morphia.mapping.lazy.proxy.LazyReferenceFetchingException;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxiedEntityReference;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxiedEntityReferenceList;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxyHelper;
+import org.mongodb.morphia.testutil.TestEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestGeneratedLazyProxyFactory extends ProxyTestBase {
+    private final GeneratedLazyProxyFactory factory = new GeneratedLazyProxyFactory();
+
+    @Before
+    @Override
+    public void setUp() {
+        super.setUp();
+        getMorphia().getMapper().getOptions().setProxyFactory(factory);
+    }
+
+    @Test
+    public void testOneClassPerType() {
+        final ReferencedEntity first = factory.createProxy(getDs(), ReferencedEntity.class,
+                                                           new Key<ReferencedEntity>(ReferencedEntity.class, "referenced", new ObjectId()),
+                                                           false);
+        final ReferencedEntity second = factory.createProxy(getDs(), ReferencedEntity.class,
+                                                            new Key<ReferencedEntity>(ReferencedEntity.class, "referenced", new ObjectId()),
+                                                            false);
+
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first.getClass(), second.getClass());
+        Assert.assertTrue(ProxyHelper.isProxy(first));
+        Assert.assertEquals(ReferencedEntity.class, ProxyHelper.getReferentClass(first));
+    }
+
+    @Test
+    public void testReferenceWithoutFetching() {
+        RootEntity root = new RootEntity();
+        final ReferencedEntity reference = new ReferencedEntity();
+        reference.setFoo("bar");
+        root.r = reference;
+
+        final Key<ReferencedEntity> key = getDs().save(reference);
+        getDs().save(root);
+
+        root = getDs().get(root);
+        final ReferencedEntity proxy = root.r;
+
+        assertIsProxy(proxy);
+        assertNotFetched(proxy);
+        Assert.assertEquals(key.getId(), ((ProxiedEntityReference) proxy).__getKey().getId());
+        Assert.assertEquals(reference.getId(), proxy.getId());
+        Assert.assertEquals(key.getId(), getDs().getKey(proxy).getId());
+        assertNotFetched(proxy);
+
+        Assert.assertEquals("bar", proxy.getFoo());
+        assertFetched(proxy);
+        Assert.assertEquals(ReferencedEntity.class, ProxyHelper.unwrap(proxy).getClass());
+
+        getDs().save(root);
+        root = getDs().get(root);
+        assertNotFetched(root.r);
+        Assert.assertEquals("bar", root.r.getFoo());
+    }
+
+    @Test
+    public void testCollectionReference() {
+        RootEntity root = new RootEntity();
+        final ReferencedEntity first = new ReferencedEntity();
+        first.setFoo("bar1");
+        final ReferencedEntity second = new ReferencedEntity();
+        second.setFoo("bar2");
+        root.list.add(first);
+        root.list.add(second);
+
+        getDs().save(first);
+        getDs().save(second);
+        getDs().save(root);
+
+        root = getDs().get(root);
+        assertIsProxy(root.list);
+        assertNotFetched(root.list);
+        Assert.assertEquals(2, ((ProxiedEntityReferenceList) root.list).__getKeysAsList().size());
+
+        Assert.assertEquals(2, root.list.size());
+        assertFetched(root.list);
+        Assert.assertEquals("bar1", root.list.get(0).getFoo());
+        Assert.assertEquals("bar2", root.list.get(1).getFoo());
+    }
+
+    @Test(expected = LazyReferenceFetchingException.class)
+    public void testMissingReference() {
+        RootEntity root = new RootEntity();
+        final ReferencedEntity reference = new ReferencedEntity();
+        root.r = reference;
+
+        getDs().save(reference);
+        getDs().save(root);
+        getDs().delete(reference);
+
+        root = getDs().get(root);
+        root.r.getFoo();
+    }
+
+    public static class RootEntity extends TestEntity {
+        @Reference(lazy = true)
+        private ReferencedEntity r;
+        @Reference(lazy = true)
+        private List<ReferencedEntity> list = new ArrayList<ReferencedEntity>();
+    }
+
+    public static class ReferencedEntity extends TestEntity {
+        private String foo;
+
+        @Override
+        @IdGetter
+        public ObjectId getId() {
+            return super.getId();
+        }
+
+        public String getFoo() {
+            return foo;
+        }
+
+        public void setFoo(final String string) {
+            foo = string;
+        }
+    }
+}
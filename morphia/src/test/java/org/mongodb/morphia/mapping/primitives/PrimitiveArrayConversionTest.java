@@ -0,0 +1,130 @@
+package org.mongodb.morphia.mapping.primitives;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.DefaultDBDecoder;
+import com.mongodb.DefaultDBEncoder;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.Morphia;
+import org.mongodb.morphia.annotations.Embedded;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.converters.LongConverter;
+import org.mongodb.morphia.mapping.MappedField;
+import org.mongodb.morphia.utils.PrimitiveArrays;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class PrimitiveArrayConversionTest {
+    private final Morphia morphia = new Morphia().map(Series.class);
+
+    @Test
+    public void primitiveArraysRoundTrip() {
+        final Series series = new Series();
+        series.doubles = new double[]{1.5, -2.25, 3};
+        series.longs = new long[]{Long.MAX_VALUE, 0, -1};
+        series.ints = new int[]{1, 2, 3};
+        series.floats = new float[]{0.5f, 1.5f};
+        series.shorts = new short[]{7, 8};
+        series.flags = new boolean[]{true, false};
+        series.wrappers = new Double[]{1.0, null, 3.0};
+        series.embedded = new long[]{4, 5, 6};
+
+        final Series loaded = morphia.fromDBObject(null, Series.class, roundTrip(morphia.toDBObject(series)));
+
+        assertArrayEquals(series.doubles, loaded.doubles, 0);
+        assertArrayEquals(series.longs, loaded.longs);
+        assertArrayEquals(series.ints, loaded.ints);
+        assertArrayEquals(series.floats, loaded.floats, 0);
+        assertArrayEquals(series.shorts, loaded.shorts);
+        Assert.assertTrue(Arrays.equals(series.flags, loaded.flags));
+        assertArrayEquals(series.wrappers, loaded.wrappers);
+        assertArrayEquals(series.embedded, loaded.embedded);
+    }
+
+    @Test
+    public void boxedCollectionsConvertStoredNumbers() {
+        final BasicDBList longs = new BasicDBList();
+        longs.add(1);
+        longs.add(2L);
+        longs.add(3.0);
+        final BasicDBList ints = new BasicDBList();
+        ints.add(4L);
+        ints.add(4);
+        final DBObject dbObject = new BasicDBObject("_id", new ObjectId())
+                                      .append("longList", longs)
+                                      .append("intSet", ints)
+                                      .append("doubles", Arrays.<Number>asList(1, 2L));
+
+        final Series loaded = morphia.fromDBObject(null, Series.class, dbObject);
+        assertEquals(Arrays.asList(1L, 2L, 3L), loaded.longList);
+        assertEquals(1, loaded.intSet.size());
+        Assert.assertTrue(loaded.intSet.contains(4));
+        assertArrayEquals(new double[]{1, 2}, loaded.doubles, 0);
+
+        final Series series = new Series();
+        series.longList = new ArrayList<Long>(Arrays.asList(5L, 6L));
+        assertEquals(Arrays.asList(5L, 6L), morphia.toDBObject(series).get("longList"));
+    }
+
+    @Test
+    public void customElementConvertersAreUsed() {
+        final Morphia custom = new Morphia().map(Series.class);
+        custom.getMapper().getConverters().addConverter(new ScaledLongConverter());
+        // primitive arrays are otherwise read by the value mapper
+        custom.getMapper().getOptions().setValueMapper(custom.getMapper().getOptions().getEmbeddedMapper());
+        final DBObject dbObject = new BasicDBObject("_id", new ObjectId()).append("embedded", Arrays.asList(1L, 2L));
+
+        assertArrayEquals(new long[]{10, 20}, custom.fromDBObject(null, Series.class, dbObject).embedded);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullsAreRejectedForPrimitives() {
+        PrimitiveArrays.toArray(int.class, Arrays.asList(1, null));
+    }
+
+    @Test
+    public void wrappersAndStrings() {
+        assertArrayEquals(new Integer[]{1, null, 3},
+                          (Integer[]) PrimitiveArrays.toArray(Integer.class, Arrays.<Object>asList(1L, null, "3")));
+        Assert.assertTrue(Arrays.equals(new boolean[]{true, false, true},
+                                        (boolean[]) PrimitiveArrays.toArray(boolean.class, Arrays.<Object>asList(true, 0, "true"))));
+    }
+
+    private static DBObject roundTrip(final DBObject dbObject) {
+        final byte[] bson = new DefaultDBEncoder().encode(dbObject);
+        return DefaultDBDecoder.FACTORY.create().decode(bson, (DBCollection) null);
+    }
+
+    private static class ScaledLongConverter extends LongConverter {
+        @Override
+        public Object decode(final Class targetClass, final Object val, final MappedField optionalExtraInfo) {
+            return val instanceof Number ? ((Number) val).longValue() * 10 : super.decode(targetClass, val, optionalExtraInfo);
+        }
+    }
+
+    private static class Series {
+        @Id
+        private ObjectId id;
+        private double[] doubles;
+        private long[] longs;
+        private int[] ints;
+        private float[] floats;
+        private short[] shorts;
+        private boolean[] flags;
+        private Double[] wrappers;
+        @Embedded
+        private long[] embedded;
+        private List<Long> longList;
+        private Set<Integer> intSet;
+    }
+}
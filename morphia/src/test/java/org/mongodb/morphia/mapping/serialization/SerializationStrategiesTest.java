@@ -0,0 +1,163 @@
+package org.mongodb.morphia.mapping.serialization;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.mapping.Serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SerializationStrategiesTest {
+
+    @Test
+    public void blockCompressorRoundTrips() throws IOException {
+        final Random random = new Random(42);
+        final byte[] noise = new byte[100000];
+        random.nextBytes(noise);
+        final byte[] text = repeat("the quick brown fox jumps over the lazy dog ", 200000);
+
+        for (final byte[] data : Arrays.asList(new byte[0], "abc".getBytes(), new byte[BlockCompressor.BLOCK_SIZE], noise, text)) {
+            assertArrayEquals(data, roundTrip(new BlockCompressor(), data));
+        }
+        assertTrue(compress(new BlockCompressor(), text).length < text.length / 10);
+        assertTrue(compress(new BlockCompressor(), noise).length < noise.length + 64);
+    }
+
+    @Test(expected = IOException.class)
+    public void blockCompressorRejectsCorruptInput() throws IOException {
+        final byte[] packed = compress(new BlockCompressor(), repeat("abcdefgh", 1000));
+        for (int i = 9; i < packed.length - 4; i++) {
+            packed[i] = (byte) 0xFF;
+        }
+        roundTripPacked(new BlockCompressor(), packed);
+    }
+
+    @Test
+    public void compactSerializerOmitsRegisteredDescriptors() throws IOException, ClassNotFoundException {
+        final List<Point> points = new ArrayList<Point>();
+        for (int i = 0; i < 100; i++) {
+            points.add(new Point(i, -i, new Label("p" + i)));
+        }
+
+        final byte[] java = Serializer.serialize(points, new JavaObjectSerializer(), null);
+        final byte[] compact = Serializer.serialize(points, new PointSerializer(), null);
+        assertTrue(compact.length < java.length);
+        assertEquals(points, Serializer.deserialize(compact, new PointSerializer(), null));
+
+        final byte[] unregistered = Serializer.serialize(points, new CompactObjectSerializer(), null);
+        assertEquals(points, Serializer.deserialize(unregistered, new CompactObjectSerializer(), null));
+    }
+
+    @Test
+    public void defaultStrategiesMatchLegacyFormat() throws IOException, ClassNotFoundException {
+        final byte[] legacy = Serializer.serialize("legacy", true);
+        assertEquals("legacy", Serializer.deserialize(legacy, new JavaObjectSerializer(), new GZipCompressor()));
+
+        final byte[] strategies = Serializer.serialize("legacy", new JavaObjectSerializer(), new GZipCompressor());
+        assertEquals("legacy", Serializer.deserialize(strategies, true));
+        assertArrayEquals(Serializer.serialize("plain", false), Serializer.serialize("plain", new JavaObjectSerializer(), null));
+    }
+
+    @Test
+    public void strategiesCombine() throws IOException, ClassNotFoundException {
+        final Point point = new Point(3, 4, new Label("combined"));
+        final byte[] bytes = Serializer.serialize(point, new PointSerializer(), new BlockCompressor());
+        Assert.assertEquals(point, Serializer.deserialize(bytes, new PointSerializer(), new BlockCompressor()));
+    }
+
+    private static byte[] compress(final Compressor compressor, final byte[] data) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final OutputStream out = compressor.compress(bytes);
+        out.write(data);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] roundTrip(final Compressor compressor, final byte[] data) throws IOException {
+        return roundTripPacked(compressor, compress(compressor, data));
+    }
+
+    private static byte[] roundTripPacked(final Compressor compressor, final byte[] packed) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final InputStream in = compressor.decompress(new ByteArrayInputStream(packed));
+        final byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        in.close();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] repeat(final String text, final int length) {
+        final StringBuilder builder = new StringBuilder(length + text.length());
+        while (builder.length() < length) {
+            builder.append(text);
+        }
+        return builder.toString().getBytes();
+    }
+
+    public static class PointSerializer extends CompactObjectSerializer {
+        public PointSerializer() {
+            super(ArrayList.class, Point.class, Label.class);
+        }
+    }
+
+    private static class Point implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final int x;
+        private final int y;
+        private final Label label;
+
+        Point(final int x, final int y, final Label label) {
+            this.x = x;
+            this.y = y;
+            this.label = label;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Point)) {
+                return false;
+            }
+            final Point point = (Point) o;
+            return x == point.x && y == point.y && label.equals(point.label);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * x + y) + label.hashCode();
+        }
+    }
+
+    private static class Label implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final String text;
+
+        Label(final String text) {
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Label && text.equals(((Label) o).text);
+        }
+
+        @Override
+        public int hashCode() {
+            return text.hashCode();
+        }
+    }
+}
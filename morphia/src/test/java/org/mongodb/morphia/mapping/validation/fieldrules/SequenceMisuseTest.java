@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia.mapping.validation.fieldrules;
+
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Sequence;
+import org.mongodb.morphia.mapping.validation.ConstraintViolationException;
+
+public class SequenceMisuseTest extends TestBase {
+
+    @Test(expected = ConstraintViolationException.class)
+    public void testNotOnId() {
+        getMorphia().map(Fail1.class);
+    }
+
+    @Test(expected = ConstraintViolationException.class)
+    public void testNotNumeric() {
+        getMorphia().map(Fail2.class);
+    }
+
+    @Test(expected = ConstraintViolationException.class)
+    public void testEmptyBlocks() {
+        getMorphia().map(Fail3.class);
+    }
+
+    @Test
+    public void testPrimitive() {
+        getMorphia().map(OK1.class);
+    }
+
+    @Test
+    public void testWrapper() {
+        getMorphia().map(OK2.class);
+    }
+
+    public static class Fail1 {
+        @Id
+        private long id;
+        @Sequence
+        private long number;
+    }
+
+    public static class Fail2 {
+        @Id
+        @Sequence
+        private ObjectId id;
+    }
+
+    public static class Fail3 {
+        @Id
+        @Sequence(blockSize = 0)
+        private long id;
+    }
+
+    public static class OK1 {
+        @Id
+        @Sequence
+        private long id;
+    }
+
+    public static class OK2 {
+        @Id
+        @Sequence(value = "orders", blockSize = 10)
+        private Integer id;
+    }
+}
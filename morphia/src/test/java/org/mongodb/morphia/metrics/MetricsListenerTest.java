@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mongodb.morphia.metrics;
+
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.PostLoad;
+import org.mongodb.morphia.annotations.PrePersist;
+
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsListenerTest extends TestBase {
+    private final DefaultMetricsListener listener = new DefaultMetricsListener(getClass().getSimpleName());
+
+    @Before
+    @Override
+    public void setUp() {
+        super.setUp();
+        getMorphia().map(Measured.class);
+        getMorphia().getMapper().getOptions().setMetricsListener(listener);
+    }
+
+    @Test
+    public void reads() {
+        getDs().save(asList(new Measured("one"), new Measured("two"), new Measured("three")));
+
+        assertEquals(3, getDs().find(Measured.class).asList().size());
+        assertEquals(3, getDs().find(Measured.class).count());
+
+        final OperationMetrics query = listener.getMetrics(OperationType.QUERY, "measured", Measured.class);
+        assertNotNull(query);
+        assertEquals(1, query.getDriverCount());
+        assertEquals(1, query.getMappingCount());
+        assertEquals(3, query.getDocumentsRead());
+        assertTrue(query.getBytesRead() > 0);
+        assertEquals(3, query.getLifecycleCount());
+
+        final OperationMetrics count = listener.getMetrics(OperationType.COUNT, "measured", Measured.class);
+        assertEquals(1, count.getDriverCount());
+    }
+
+    @Test
+    public void writes() {
+        getDs().save(new Measured("one"));
+        getAds().insert(new Measured("two"));
+        getDs().update(getDs().find(Measured.class), getDs().createUpdateOperations(Measured.class).set("name", "three"));
+        getDs().delete(getDs().find(Measured.class));
+
+        final OperationMetrics save = listener.getMetrics(OperationType.SAVE, "measured", Measured.class);
+        assertEquals(1, save.getDriverCount());
+        assertEquals(1, save.getMappingCount());
+        assertEquals(1, save.getDocumentsWritten());
+        assertTrue(save.getBytesWritten() > 0);
+        assertEquals(1, save.getLifecycleCount());
+
+        final OperationMetrics insert = listener.getMetrics(OperationType.INSERT, "measured", Measured.class);
+        assertEquals(1, insert.getDocumentsWritten());
+        assertTrue(insert.getBytesWritten() > 0);
+        assertEquals(1, insert.getLifecycleCount());
+
+        assertEquals(2, listener.getMetrics(OperationType.UPDATE, "measured", Measured.class).getDocumentsWritten());
+        assertEquals(2, listener.getMetrics(OperationType.DELETE, "measured", Measured.class).getDocumentsWritten());
+    }
+
+    @Test
+    public void disabled() {
+        getMorphia().getMapper().getOptions().setMetricsListener(null);
+        getDs().save(new Measured("one"));
+        getDs().find(Measured.class).asList();
+
+        assertNull(listener.getMetrics(OperationType.SAVE, "measured", Measured.class));
+        assertTrue(listener.getMetrics().isEmpty());
+    }
+
+    @Test
+    public void jmx() throws Exception {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        listener.registerMBeans(server);
+        try {
+            getDs().save(new Measured("one"));
+            final OperationMetrics save = listener.getMetrics(OperationType.SAVE, "measured", Measured.class);
+
+            assertTrue(server.isRegistered(listener.objectName(save)));
+            assertEquals(1L, server.getAttribute(listener.objectName(save), "DriverCount"));
+        } finally {
+            listener.unregisterMBeans();
+        }
+        assertFalse(server.isRegistered(listener.objectName(listener.getMetrics(OperationType.SAVE, "measured", Measured.class))));
+    }
+
+    @Entity("measured")
+    private static class Measured {
+        @Id
+        private ObjectId id;
+        private String name;
+
+        Measured() {
+        }
+
+        Measured(final String name) {
+            this.name = name;
+        }
+
+        @PrePersist
+        void persisting() {
+        }
+
+        @PostLoad
+        void loaded() {
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia.query;
+
+import com.mongodb.ReadPreference;
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public class HedgedQueryTest extends TestBase {
+    private HedgedReads hedgedReads;
+
+    @Before
+    @Override
+    public void setUp() {
+        super.setUp();
+        // no delay so that every opted in read is hedged
+        hedgedReads = new HedgedReads(ReadPreference.primaryPreferred(), 0, TimeUnit.MILLISECONDS);
+        getMorphia().getMapper().getOptions().setHedgedReads(hedgedReads);
+        getDs().save(asList(new City("Berlin", 3500000), new City("Paris", 2200000), new City("Rome", 2800000)));
+    }
+
+    @After
+    @Override
+    public void tearDown() {
+        hedgedReads.shutdown();
+        super.tearDown();
+    }
+
+    @Test
+    public void onlyOptedInQueriesAreHedged() {
+        assertEquals(3, getDs().find(City.class).asList().size());
+        assertEquals(0, hedgedReads.getStatistics().getReads());
+
+        final FindOptions options = new FindOptions().hedge(true);
+        assertEquals(2, getDs().find(City.class).field("population").greaterThan(2500000).asList(options).size());
+        assertEquals("Paris", getDs().find(City.class).order("population").get(options).name);
+        assertEquals(2, hedgedReads.getStatistics().getReads());
+        assertEquals(2, hedgedReads.getStatistics().getHedges());
+    }
+
+    @Test
+    public void datastoreGets() {
+        final City rome = getDs().find(City.class).filter("name", "Rome").get();
+        assertEquals("Rome", getDs().get(City.class, rome.id).name);
+        assertEquals(0, hedgedReads.getStatistics().getReads());
+
+        hedgedReads.hedgeGets(true);
+        assertEquals("Rome", getDs().get(City.class, rome.id).name);
+        assertEquals("Rome", getDs().get(rome).name);
+        assertEquals(2, hedgedReads.getStatistics().getReads());
+    }
+
+    @Entity
+    private static class City {
+        @Id
+        private ObjectId id;
+        private String name;
+        private int population;
+
+        City() {
+        }
+
+        City(final String name, final int population) {
+            this.name = name;
+            this.population = population;
+        }
+    }
+}
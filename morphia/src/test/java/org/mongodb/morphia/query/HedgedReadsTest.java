@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia.query;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoClient;
+import com.mongodb.MongoException;
+import com.mongodb.ReadPreference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HedgedReadsTest {
+    private MongoClient client;
+    private DBCollection collection;
+
+    @Before
+    @SuppressWarnings("deprecation")
+    public void setUp() {
+        // the stub cursors never reach the server
+        client = new MongoClient();
+        collection = client.getDB("morphia_test").getCollection("hedged");
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void slowQueriesAreHedged() {
+        final HedgedReads hedgedReads = new HedgedReads(ReadPreference.secondaryPreferred(), 20, TimeUnit.MILLISECONDS);
+        try {
+            assertEquals("hedge", read(hedgedReads, 2000, 1));
+            assertEquals("first", read(hedgedReads, 1, 2000));
+
+            final HedgedReadStatistics statistics = hedgedReads.getStatistics();
+            assertEquals(2, statistics.getReads());
+            assertEquals(1, statistics.getHedges());
+            assertEquals(1, statistics.getHedgeWins());
+            assertEquals(0.5, statistics.getHedgeRatio(), 0.0001);
+        } finally {
+            hedgedReads.shutdown();
+        }
+    }
+
+    @Test
+    public void failedHedgesFallBackToTheFirstQuery() {
+        final HedgedReads hedgedReads = new HedgedReads(ReadPreference.secondaryPreferred(), 0, TimeUnit.MILLISECONDS);
+        try {
+            final List<DBObject> documents = hedgedReads.read("shape", new HedgedReads.CursorSource() {
+                @Override
+                public DBCursor open(final ReadPreference readPreference) {
+                    if (readPreference != null) {
+                        throw new MongoException("no secondary");
+                    }
+                    return new StubCursor(collection, 50, "first");
+                }
+            });
+            assertEquals("first", documents.get(0).get("source"));
+        } finally {
+            hedgedReads.shutdown();
+        }
+    }
+
+    @Test
+    public void delayFollowsObservedLatency() {
+        final HedgedReads hedgedReads = new HedgedReads(ReadPreference.secondaryPreferred(), 95, 1, TimeUnit.SECONDS);
+        try {
+            assertEquals(1000, hedgedReads.getDelay("shape", TimeUnit.MILLISECONDS));
+            for (int i = 0; i < 20; i++) {
+                read(hedgedReads, 1, 1);
+            }
+            final long delay = hedgedReads.getDelay("shape", TimeUnit.MILLISECONDS);
+            assertTrue(delay < 1000);
+            assertEquals(1000, hedgedReads.getDelay("other", TimeUnit.MILLISECONDS));
+            assertEquals(0, hedgedReads.getStatistics().getHedges());
+        } finally {
+            hedgedReads.shutdown();
+        }
+    }
+
+    @Test
+    public void hedgedReadsRecordTheLatencyTheCallerSaw() {
+        final HedgedReads hedgedReads = new HedgedReads(ReadPreference.secondaryPreferred(), 50, 40, TimeUnit.MILLISECONDS);
+        try {
+            for (int i = 0; i < 20; i++) {
+                assertEquals("hedge", read(hedgedReads, 2000, 30));
+            }
+            assertTrue(hedgedReads.getDelay("shape", TimeUnit.MILLISECONDS) >= 70);
+        } finally {
+            hedgedReads.shutdown();
+        }
+    }
+
+    @Test
+    public void busyThreadsLeaveQueriesUnhedged() {
+        final HedgedReads hedgedReads = new HedgedReads(ReadPreference.secondaryPreferred(), 20, TimeUnit.MILLISECONDS).maxThreads(1);
+        try {
+            assertEquals("first", read(hedgedReads, 100, 1));
+            assertEquals(0, hedgedReads.getStatistics().getHedges());
+        } finally {
+            hedgedReads.shutdown();
+        }
+        assertEquals("first", read(hedgedReads, 1, 1));
+    }
+
+    @Test
+    public void shapesIgnoreValues() {
+        final DBObject projection = new BasicDBObject("name", 1);
+        assertEquals(HedgedReads.shape("db.c", BasicDBObject.parse("{a: 1, $or: [{b: {$gt: 2}}, {c: 'x'}]}"), null, projection),
+                     HedgedReads.shape("db.c", BasicDBObject.parse("{a: 7, $or: [{b: {$gt: 9}}, {c: 'y'}]}"), null, projection));
+        assertNotEquals(HedgedReads.shape("db.c", BasicDBObject.parse("{a: 1}"), null, null),
+                        HedgedReads.shape("db.c", BasicDBObject.parse("{a: {$gt: 1}}"), null, null));
+        assertNotEquals(HedgedReads.shape("db.c", BasicDBObject.parse("{a: 1}"), null, null),
+                        HedgedReads.shape("db.d", BasicDBObject.parse("{a: 1}"), null, null));
+    }
+
+    private Object read(final HedgedReads hedgedReads, final long firstLatency, final long hedgeLatency) {
+        return hedgedReads.read("shape", new HedgedReads.CursorSource() {
+            @Override
+            public DBCursor open(final ReadPreference readPreference) {
+                return readPreference == null
+                       ? new StubCursor(collection, firstLatency, "first")
+                       : new StubCursor(collection, hedgeLatency, "hedge");
+            }
+        }).get(0).get("source");
+    }
+
+    private static class StubCursor extends DBCursor {
+        private final long latency;
+        private final String source;
+        private boolean read;
+
+        StubCursor(final DBCollection collection, final long latency, final String source) {
+            super(collection, new BasicDBObject(), null, ReadPreference.primary());
+            this.latency = latency;
+            this.source = source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (read) {
+                return false;
+            }
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                throw new MongoException("cancelled", e);
+            }
+            return true;
+        }
+
+        @Override
+        public DBObject next() {
+            read = true;
+            return new BasicDBObject("source", source);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia.query;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class InSplitterTest {
+    @Test
+    public void findsTheLargestOversizedIn() {
+        final DBObject query = new BasicDBObject("a", new BasicDBObject("$in", asList(1, 2, 3)))
+                                   .append("b", new BasicDBObject("$in", asList(1, 2, 3, 4)))
+                                   .append("c", 5);
+
+        assertEquals("b", InSplitter.findSplitField(query, 2));
+        assertNull(InSplitter.findSplitField(query, 4));
+    }
+
+    @Test
+    public void splitsDistinctValuesInToChunks() {
+        final DBObject query = new BasicDBObject("a", new BasicDBObject("$in", asList(1, 2, 2, 3, 4, 5)).append("$ne", 3))
+                                   .append("b", "x");
+
+        final List<DBObject> parts = InSplitter.split(query, "a", 2);
+
+        assertEquals(3, parts.size());
+        assertEquals(asList(1, 2), getIn(parts.get(0)));
+        assertEquals(asList(3, 4), getIn(parts.get(1)));
+        assertEquals(asList(5), getIn(parts.get(2)));
+        for (final DBObject part : parts) {
+            assertEquals("x", part.get("b"));
+            assertEquals(3, ((DBObject) part.get("a")).get("$ne"));
+        }
+        assertEquals(6, getIn(query).size());
+    }
+
+    @Test
+    public void mergesSortedParts() {
+        final List<List<DBObject>> results = new ArrayList<List<DBObject>>();
+        results.add(asList(doc(1, 10), doc(3, 7), doc(5, 2)));
+        results.add(asList(doc(2, 9), doc(4, 8), doc(6, 1)));
+
+        final List<DBObject> merged = InSplitter.merge(results, new BasicDBObject("v", -1), false, 1, 3);
+
+        assertEquals(asList(9, 8, 7), values(merged));
+    }
+
+    @Test
+    public void dropsDocumentsMatchingSeveralParts() {
+        final ObjectId shared = new ObjectId();
+        final List<List<DBObject>> results = new ArrayList<List<DBObject>>();
+        results.add(Arrays.<DBObject>asList(new BasicDBObject("_id", shared).append("v", 1), doc(2, 2)));
+        results.add(Arrays.<DBObject>asList(new BasicDBObject("_id", shared).append("v", 1), doc(3, 3)));
+
+        assertEquals(asList(1, 2, 3), values(InSplitter.merge(results, new BasicDBObject("v", 1), true, 0, 0)));
+        assertEquals(3, InSplitter.merge(results, null, true, 0, 0).size());
+    }
+
+    @Test
+    public void onlyMergesPlainSorts() {
+        assertTrue(InSplitter.canMerge(null));
+        assertTrue(InSplitter.canMerge(new BasicDBObject("a", 1).append("b", -1)));
+        assertFalse(InSplitter.canMerge(new BasicDBObject("score", new BasicDBObject("$meta", "textScore"))));
+    }
+
+    @Test
+    public void comparesAcrossTypes() {
+        assertTrue(InSplitter.compareValues(null, 1) < 0);
+        assertTrue(InSplitter.compareValues(1, 1.5) < 0);
+        assertEquals(0, InSplitter.compareValues(2, 2L));
+        assertTrue(InSplitter.compareValues(10, "a") < 0);
+        assertTrue(InSplitter.compareValues("a", "b") < 0);
+        assertTrue(InSplitter.compareValues("b", new ObjectId()) < 0);
+    }
+
+    private static DBObject doc(final int id, final int value) {
+        return new BasicDBObject("_id", id).append("v", value);
+    }
+
+    private static List<?> getIn(final DBObject query) {
+        return new ArrayList<Object>((Collection<?>) ((DBObject) query.get("a")).get("$in"));
+    }
+
+    private static List<Object> values(final List<DBObject> documents) {
+        final List<Object> values = new ArrayList<Object>();
+        for (final DBObject document : documents) {
+            values.add(document.get("v"));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.query;
+
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Property;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KeysetPaginationTest extends TestBase {
+    @Before
+    @Override
+    public void setUp() {
+        super.setUp();
+        final List<Score> scores = new ArrayList<Score>();
+        for (int i = 0; i < 25; i++) {
+            scores.add(new Score("player" + (i % 5), i % 3));
+        }
+        getDs().save(scores);
+    }
+
+    @Test
+    public void pagesInIdOrderWithoutSort() {
+        final List<ObjectId> expected = new ArrayList<ObjectId>();
+        for (final Score score : getDs().find(Score.class).order("_id").asList()) {
+            expected.add(score.id);
+        }
+
+        final List<ObjectId> paged = new ArrayList<ObjectId>();
+        PageCursor<Score> page = getDs().find(Score.class).pageAfter(null, 10);
+        assertEquals(10, page.size());
+        collect(page, paged);
+        while (page.hasNextPage()) {
+            page = page.nextPage();
+            collect(page, paged);
+        }
+
+        assertEquals(5, page.size());
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    public void compoundSort() {
+        final Query<Score> query = getDs().find(Score.class)
+                                          .field("level").greaterThan(0)
+                                          .order(Sort.descending("level"), Sort.ascending("player"));
+        final List<ObjectId> expected = new ArrayList<ObjectId>();
+        for (final Score score : query.cloneQuery().order(Sort.descending("level"), Sort.ascending("player"), Sort.ascending("id"))
+                                      .asList()) {
+            expected.add(score.id);
+        }
+
+        final List<ObjectId> paged = new ArrayList<ObjectId>();
+        PageToken token = null;
+        do {
+            // round trip the token through its string form as a web client would
+            final PageCursor<Score> page = query.pageAfter(token == null ? null : PageToken.decode(token.encode()), 4);
+            assertTrue(page.size() <= 4);
+            collect(page, paged);
+            token = page.getNextPageToken();
+        } while (token != null);
+
+        assertEquals(16, paged.size());
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    public void lastPageIsExactlyFull() {
+        final PageCursor<Score> page = getDs().find(Score.class).pageAfter(null, 25);
+        assertEquals(25, page.size());
+        assertFalse(page.hasNextPage());
+    }
+
+    @Test(expected = QueryException.class)
+    public void tokenFromDifferentSort() {
+        final PageToken token = getDs().find(Score.class).order("player").pageAfter(null, 5).getNextPageToken();
+        getDs().find(Score.class).order("-player").pageAfter(token, 5);
+    }
+
+    @Test(expected = QueryException.class)
+    public void naturalSortRejected() {
+        getDs().find(Score.class).order(Sort.naturalAscending()).pageAfter(null, 5);
+    }
+
+    @Test
+    public void sortFieldsAreFetchedWithProjection() {
+        final Query<Score> query = getDs().find(Score.class)
+                                          .order("level")
+                                          .project("player", true);
+        final List<ObjectId> paged = new ArrayList<ObjectId>();
+        PageCursor<Score> page = query.pageAfter(null, 7);
+        collect(page, paged);
+        while (page.hasNextPage()) {
+            page = page.nextPage();
+            collect(page, paged);
+        }
+        assertEquals(25, paged.size());
+        assertEquals(25, new HashSet<ObjectId>(paged).size());
+    }
+
+    private static void collect(final PageCursor<Score> page, final List<ObjectId> ids) {
+        for (final Score score : page) {
+            ids.add(score.id);
+        }
+    }
+
+    @Entity("scores")
+    private static class Score {
+        @Id
+        private ObjectId id;
+        private String player;
+        @Property("lvl")
+        private int level;
+
+        Score() {
+        }
+
+        Score(final String player, final int level) {
+            this.player = player;
+            this.level = level;
+        }
+    }
+}
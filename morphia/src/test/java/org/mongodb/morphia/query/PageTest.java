@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.query;
+
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Property;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PageTest extends TestBase {
+    @Before
+    @Override
+    public void setUp() {
+        super.setUp();
+        final List<Score> scores = new ArrayList<Score>();
+        for (int i = 0; i < 25; i++) {
+            scores.add(new Score("player" + (i % 5), i));
+        }
+        getDs().save(scores);
+    }
+
+    @Test
+    public void readsThePageAndTheTotal() {
+        final Query<Score> query = getDs().find(Score.class).field("player").notEqual("player0").order("-lvl");
+        final Page<Score> page = query.asPage(new FindOptions().skip(5).limit(5));
+
+        assertEquals(20, page.getTotal());
+        assertEquals(5, page.getOffset());
+        assertEquals(5, page.getLimit());
+        assertEquals(5, page.getEntities().size());
+        assertTrue(page.hasNextPage());
+        final List<Integer> levels = new ArrayList<Integer>();
+        for (final Score score : page) {
+            levels.add(score.level);
+        }
+        final List<Integer> expected = new ArrayList<Integer>();
+        for (final Score score : query.asList(new FindOptions().skip(5).limit(5))) {
+            expected.add(score.level);
+        }
+        assertEquals(expected, levels);
+    }
+
+    @Test
+    public void readsTheLastPage() {
+        final Page<Score> page = getDs().find(Score.class).order("lvl").asPage(new FindOptions().skip(20).limit(10));
+        assertEquals(25, page.getTotal());
+        assertEquals(5, page.getEntities().size());
+        assertEquals(20, page.getEntities().get(0).level);
+        assertFalse(page.hasNextPage());
+    }
+
+    @Test
+    public void readsAnEmptyPage() {
+        final Page<Score> page = getDs().find(Score.class).field("player").equal("nobody").asPage(new FindOptions().limit(10));
+        assertEquals(0, page.getTotal());
+        assertTrue(page.getEntities().isEmpty());
+        assertFalse(page.hasNextPage());
+    }
+
+    @Test
+    public void fallsBackForQueriesWhichCanNotBeAggregated() {
+        final Page<Score> page = getDs().find(Score.class).where("this.lvl < 10").asPage(new FindOptions().limit(3));
+        assertEquals(10, page.getTotal());
+        assertEquals(3, page.getEntities().size());
+    }
+
+    @Entity
+    private static class Score {
+        @Id
+        private ObjectId id;
+        private String player;
+        @Property("lvl")
+        private int level;
+
+        Score() {
+        }
+
+        Score(final String player, final int level) {
+            this.player = player;
+            this.level = level;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.query;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PageTokenTest {
+    private final ObjectId id = new ObjectId();
+    private final Date date = new Date(1483228800000L);
+
+    @Test
+    public void encodeRoundTrip() {
+        final PageToken token = token(new BasicDBObject("name", 1).append("created", -1).append("_id", -1), "bob", date, id);
+
+        final PageToken decoded = PageToken.decode(token.encode());
+        assertEquals(token, decoded);
+        assertTrue(decoded.matches(new BasicDBObject("name", 1).append("created", -1).append("_id", -1)));
+    }
+
+    @Test
+    public void javaSerialization() throws Exception {
+        final PageToken token = token(new BasicDBObject("count", 1).append("_id", 1), 42, id);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(token);
+        out.close();
+
+        assertEquals(token, new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject());
+    }
+
+    @Test
+    public void sortOrderMatters() {
+        final PageToken token = token(new BasicDBObject("a", 1).append("_id", 1), 1, id);
+
+        assertFalse(token.matches(new BasicDBObject("_id", 1).append("a", 1)));
+        assertFalse(token.matches(new BasicDBObject("a", -1).append("_id", 1)));
+    }
+
+    @Test
+    public void singleKeyFilter() {
+        assertEquals(new BasicDBObject("_id", new BasicDBObject("$gt", id)),
+                     token(new BasicDBObject("_id", 1), id).toFilter());
+        assertEquals(new BasicDBObject("_id", new BasicDBObject("$lt", id)),
+                     token(new BasicDBObject("_id", -1), id).toFilter());
+    }
+
+    @Test
+    public void compoundFilter() {
+        final BasicDBList clauses = new BasicDBList();
+        clauses.add(new BasicDBObject("name", new BasicDBObject("$gt", "bob")));
+        clauses.add(new BasicDBObject("name", "bob").append("created", new BasicDBObject("$lt", date)));
+        clauses.add(new BasicDBObject("name", "bob").append("created", date).append("_id", new BasicDBObject("$lt", id)));
+
+        assertEquals(new BasicDBObject("$or", clauses),
+                     token(new BasicDBObject("name", 1).append("created", -1).append("_id", -1), "bob", date, id).toFilter());
+    }
+
+    @Test
+    public void nullValues() {
+        final BasicDBList ascending = new BasicDBList();
+        ascending.add(new BasicDBObject("name", new BasicDBObject("$ne", null)));
+        ascending.add(new BasicDBObject("name", null).append("_id", new BasicDBObject("$gt", id)));
+        assertEquals(new BasicDBObject("$or", ascending), token(new BasicDBObject("name", 1).append("_id", 1), null, id).toFilter());
+
+        assertEquals(new BasicDBObject("name", null).append("_id", new BasicDBObject("$lt", id)),
+                     token(new BasicDBObject("name", -1).append("_id", -1), null, id).toFilter());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidToken() {
+        PageToken.decode("{ \"sort\" : 42 }");
+    }
+
+    private PageToken token(final BasicDBObject sort, final Object... values) {
+        final BasicDBList list = new BasicDBList();
+        for (final Object value : values) {
+            list.add(value);
+        }
+        return new PageToken(sort, list);
+    }
+}
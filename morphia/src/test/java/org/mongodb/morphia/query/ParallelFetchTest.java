@@ -0,0 +1,173 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.query;
+
+import com.mongodb.BasicDBObject;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelFetchTest extends TestBase {
+    @Test
+    public void objectIds() {
+        final List<Doc> docs = new ArrayList<Doc>();
+        for (int i = 0; i < 500; i++) {
+            // spread the ids over several seconds so they can be bisected by timestamp
+            docs.add(new Doc(new ObjectId(1483228800 + i, 0, (short) 0, i), i));
+        }
+        getDs().save(docs);
+
+        final Set<Object> ids = new HashSet<Object>();
+        final ParallelIterator<Doc> iterator = getDs().find(Doc.class).parallelFetch(4);
+        assertEquals(4, iterator.getPartitions());
+        for (final Doc doc : iterator) {
+            assertTrue(ids.add(doc.id));
+        }
+        assertEquals(500, ids.size());
+    }
+
+    @Test
+    public void numericIdsWithFilter() {
+        final List<NumberedDoc> docs = new ArrayList<NumberedDoc>();
+        for (long i = 0; i < 500; i++) {
+            docs.add(new NumberedDoc(i, (int) (i % 10)));
+        }
+        getDs().save(docs);
+
+        final Query<NumberedDoc> query = getDs().find(NumberedDoc.class).field("value").lessThan(5);
+        final List<Query<NumberedDoc>> ranges = query.partitionById(8);
+        assertEquals(8, ranges.size());
+        long total = 0;
+        for (final Query<NumberedDoc> range : ranges) {
+            total += range.count();
+        }
+        assertEquals(250, total);
+
+        final Set<Object> ids = new HashSet<Object>();
+        for (final NumberedDoc doc : query.parallelFetch(8)) {
+            assertTrue(doc.value < 5);
+            assertTrue(ids.add(doc.id));
+        }
+        assertEquals(250, ids.size());
+    }
+
+    @Test
+    public void sampledStringIds() {
+        checkMinServerVersion(3.2);
+        final List<NamedDoc> docs = new ArrayList<NamedDoc>();
+        for (int i = 0; i < 300; i++) {
+            docs.add(new NamedDoc(String.format("name-%04d", i)));
+        }
+        getDs().save(docs);
+
+        final Set<Object> ids = new HashSet<Object>();
+        for (final NamedDoc doc : getDs().find(NamedDoc.class).parallelFetch(3)) {
+            assertTrue(ids.add(doc.id));
+        }
+        assertEquals(300, ids.size());
+    }
+
+    @Test
+    public void mixedIdTypesAreNotSplit() {
+        final List<NamedDoc> docs = new ArrayList<NamedDoc>();
+        for (int i = 0; i < 100; i++) {
+            docs.add(new NamedDoc(String.format("name-%04d", i)));
+        }
+        getDs().save(docs);
+        getDs().getCollection(NamedDoc.class).insert(new BasicDBObject("_id", 42), new BasicDBObject("_id", new ObjectId()));
+
+        final List<Query<NamedDoc>> ranges = getDs().find(NamedDoc.class).partitionById(4);
+        assertEquals(1, ranges.size());
+        assertEquals(102, ranges.get(0).count());
+    }
+
+    @Test
+    public void earlyClose() {
+        final List<NumberedDoc> docs = new ArrayList<NumberedDoc>();
+        for (long i = 0; i < 5000; i++) {
+            docs.add(new NumberedDoc(i, 0));
+        }
+        getDs().save(docs);
+
+        final ParallelIterator<NumberedDoc> iterator = getDs().find(NumberedDoc.class).parallelFetch(4);
+        assertTrue(iterator.hasNext());
+        iterator.next();
+        iterator.close();
+        assertTrue(!iterator.hasNext());
+    }
+
+    @Test
+    public void emptyCollection() {
+        final ParallelIterator<Doc> iterator = getDs().find(Doc.class).parallelFetch(4);
+        assertEquals(1, iterator.getPartitions());
+        assertTrue(!iterator.hasNext());
+    }
+
+    @Entity("parallel_docs")
+    private static class Doc {
+        @Id
+        private ObjectId id;
+        private int value;
+
+        Doc() {
+        }
+
+        Doc(final ObjectId id, final int value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+    @Entity("parallel_numbered")
+    private static class NumberedDoc {
+        @Id
+        private Long id;
+        private int value;
+
+        NumberedDoc() {
+        }
+
+        NumberedDoc(final Long id, final int value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+    @Entity("parallel_named")
+    private static class NamedDoc {
+        @Id
+        private String id;
+
+        NamedDoc() {
+        }
+
+        NamedDoc(final String id) {
+            this.id = id;
+        }
+    }
+}
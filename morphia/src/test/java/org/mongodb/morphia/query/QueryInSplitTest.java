@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia.query;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class QueryInSplitTest extends TestBase {
+    @Before
+    @Override
+    public void setUp() {
+        super.setUp();
+        getMorphia().getMapper().getOptions().setMaxInValues(3);
+        final List<Item> items = new ArrayList<Item>();
+        for (int i = 0; i < 20; i++) {
+            items.add(new Item(i, "tag" + (i % 5), 100 - i));
+        }
+        getDs().save(items);
+    }
+
+    @Test
+    public void findsHonorSortAndLimit() {
+        final List<Item> items = getDs().find(Item.class)
+                                        .field("id").in(ids(0, 2, 4, 6, 8, 10, 12, 14))
+                                        .order("-rank")
+                                        .asList(new FindOptions().skip(2).limit(3));
+
+        assertEquals(3, items.size());
+        assertEquals(4, items.get(0).id);
+        assertEquals(6, items.get(1).id);
+        assertEquals(8, items.get(2).id);
+    }
+
+    @Test
+    public void documentsMatchingSeveralPartsAreReadOnce() {
+        final Query<Item> query = getDs().find(Item.class)
+                                         .field("tags").in(tags(0, 1, 2, 3, 4, 0, 1))
+                                         .order("id");
+
+        final List<Item> items = query.asList();
+        assertEquals(20, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(i, items.get(i).id);
+        }
+        assertEquals(20, query.count());
+    }
+
+    @Test
+    public void partsShareTheDatastorePool() {
+        final ThreadPoolExecutor executor = (ThreadPoolExecutor) getInSplitExecutor();
+        assertEquals(4, executor.getMaximumPoolSize());
+
+        getDs().find(Item.class).field("id").in(ids(0, 2, 4, 6, 8, 10, 12, 14)).asList();
+        getMorphia().getMapper().getOptions().setInSplitThreads(2);
+
+        assertSame(executor, getInSplitExecutor());
+        assertEquals(2, executor.getMaximumPoolSize());
+        assertFalse(executor.isShutdown());
+    }
+
+    @Test
+    public void countsAndDeletesById() {
+        final Query<Item> query = getDs().find(Item.class).field("id").in(ids(1, 3, 5, 7, 9, 11, 13, 42));
+
+        assertEquals(7, query.count());
+        assertEquals(7, getDs().delete(query).getN());
+        assertEquals(13, getDs().getCount(Item.class));
+    }
+
+    @SuppressWarnings("deprecation")
+    private ExecutorService getInSplitExecutor() {
+        return ((org.mongodb.morphia.DatastoreImpl) getDs()).getInSplitExecutor();
+    }
+
+    private static List<Integer> ids(final int... ids) {
+        final List<Integer> list = new ArrayList<Integer>();
+        for (final int id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
+    private static List<String> tags(final int... tags) {
+        final List<String> list = new ArrayList<String>();
+        for (final int tag : tags) {
+            list.add("tag" + tag);
+        }
+        // matches every item, as do the other parts between them
+        list.add("all");
+        return list;
+    }
+
+    @Entity
+    private static class Item {
+        @Id
+        private int id;
+        private List<String> tags = new ArrayList<String>();
+        private int rank;
+
+        Item() {
+        }
+
+        Item(final int id, final String tag, final int rank) {
+            this.id = id;
+            this.tags.add(tag);
+            this.tags.add("all");
+            this.rank = rank;
+        }
+    }
+}
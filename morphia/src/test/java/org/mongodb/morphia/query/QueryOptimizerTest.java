@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package org.mongodb.morphia.query;
+
+import com.mongodb.BasicDBObject;
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+import java.util.List;
+
+import static com.mongodb.BasicDBObject.parse;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+
+@SuppressWarnings("deprecation")
+public class QueryOptimizerTest extends TestBase {
+    @Before
+    @Override
+    public void setUp() {
+        super.setUp();
+        getMorphia().getMapper().getOptions().setOptimizeQueries(true);
+    }
+
+    @Test
+    public void mergesRanges() {
+        final Query<Item> query = getDs().find(Item.class)
+                                         .field("price").greaterThan(5)
+                                         .field("price").greaterThanOrEq(10)
+                                         .field("price").lessThanOrEq(100)
+                                         .field("price").lessThan(100);
+        assertEquals(parse("{price: {$gte: 10, $lt: 100}}"), query.getQueryObject());
+    }
+
+    @Test
+    public void keepsBoundsOfDifferentTypes() {
+        final Query<Item> query = getDs().find(Item.class).disableValidation()
+                                         .field("name").greaterThan("a")
+                                         .field("name").greaterThan(5);
+        assertEquals(parse("{name: {$gt: 'a'}, $and: [{name: {$gt: 5}}]}"), query.getQueryObject());
+    }
+
+    @Test
+    public void keepsStringBounds() {
+        final Query<Item> query = getDs().find(Item.class)
+                                         .field("name").greaterThan("a")
+                                         .field("name").greaterThan("b");
+        assertEquals(parse("{name: {$gt: 'a'}, $and: [{name: {$gt: 'b'}}]}"), query.getQueryObject());
+    }
+
+    @Test
+    public void leavesTheBaseQueryAlone() {
+        final QueryImpl<Item> query = (QueryImpl<Item>) getDs().find(Item.class);
+        query.setQueryObject(parse("{$and: [{price: 1}]}"));
+        query.field("stock").equal(1).field("stock").equal(2);
+        assertEquals(parse("{stock: 1, $and: [{price: 1}, {stock: 2}]}"), query.getQueryObject());
+        assertEquals(parse("{stock: 1, $and: [{price: 1}, {stock: 2}]}"), query.getQueryObject());
+    }
+
+    @Test
+    public void collapsesSingleValueIn() {
+        final Query<Item> query = getDs().find(Item.class)
+                                         .field("name").in(singletonList("apple"))
+                                         .field("stock").notIn(singletonList(0))
+                                         .field("tags").in(asList("red", "green"));
+        assertEquals(parse("{name: 'apple', stock: {$ne: 0}, tags: {$in: ['red', 'green']}}"), query.getQueryObject());
+    }
+
+    @Test
+    public void flattensNestedJoins() {
+        final Query<Item> query = getDs().find(Item.class);
+        query.and(query.criteria("stock").greaterThan(0), query.and(query.criteria("name").equal("apple")));
+        query.or(query.or(query.criteria("price").equal(1), query.criteria("price").equal(2)), query.criteria("price").equal(3));
+        assertEquals(parse("{$or: [{price: 1}, {price: 2}, {price: 3}], name: 'apple', stock: {$gt: 0}}"), query.getQueryObject());
+    }
+
+    @Test
+    public void hoistsCommonCriteria() {
+        final Query<Item> query = getDs().find(Item.class);
+        query.or(query.and(query.criteria("name").equal("apple"), query.criteria("stock").greaterThan(1)),
+                 query.and(query.criteria("stock").greaterThan(1), query.criteria("name").equal("pear")));
+        assertEquals(parse("{$or: [{name: 'apple'}, {name: 'pear'}], stock: {$gt: 1}}"), query.getQueryObject());
+
+        final Query<Item> subsumed = getDs().find(Item.class);
+        subsumed.or(subsumed.criteria("name").equal("apple"),
+                    subsumed.and(subsumed.criteria("name").equal("apple"), subsumed.criteria("stock").greaterThan(1)));
+        assertEquals(new BasicDBObject("name", "apple"), subsumed.getQueryObject());
+    }
+
+    @Test
+    public void equivalentQueriesRenderIdentically() {
+        final Query<Item> first = getDs().find(Item.class).field("stock").equal(1).field("name").equal("apple");
+        final Query<Item> second = getDs().find(Item.class).field("name").equal("apple").field("stock").equal(1).field("stock").equal(1);
+        assertEquals(first.getQueryObject().toString(), second.getQueryObject().toString());
+    }
+
+    @Test
+    public void keepsClashingCriteria() {
+        final Query<Item> query = getDs().find(Item.class).field("stock").equal(1).field("stock").equal(2);
+        assertEquals(parse("{stock: 1, $and: [{stock: 2}]}"), query.getQueryObject());
+        assertEquals(0, query.count());
+    }
+
+    @Test
+    public void matchesTheSameDocuments() {
+        getDs().save(asList(new Item("apple", 3, 10), new Item("pear", 5, 0), new Item("plum", 12, 4), new Item("apple", 20, 1)));
+
+        final Query<Item> query = getDs().find(Item.class);
+        query.field("price").greaterThan(1).field("price").greaterThanOrEq(3).field("price").lessThan(15);
+        query.or(query.and(query.criteria("name").in(singletonList("apple")), query.criteria("stock").greaterThan(0)),
+                 query.and(query.criteria("stock").greaterThan(0), query.criteria("name").equal("plum")));
+
+        final List<Item> optimized = query.asList();
+        getMorphia().getMapper().getOptions().setOptimizeQueries(false);
+        assertEquals(query.asList().size(), optimized.size());
+        assertEquals(2, optimized.size());
+    }
+
+    @Entity
+    private static class Item {
+        @Id
+        private ObjectId id;
+        private String name;
+        private int price;
+        private int stock;
+        private List<String> tags;
+
+        Item() {
+        }
+
+        Item(final String name, final int price, final int stock) {
+            this.name = name;
+            this.price = price;
+            this.stock = stock;
+        }
+    }
+}
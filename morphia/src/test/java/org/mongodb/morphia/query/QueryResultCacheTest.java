@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.query;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+public class QueryResultCacheTest {
+    @Test
+    public void hitsReturnCopies() {
+        final QueryResultCache cache = new QueryResultCache(10, 1000, 1, TimeUnit.MINUTES);
+        final DBObject document = new BasicDBObject("name", "one");
+        cache.put("db.a", "q1", singletonList(document), 20, cache.getVersion("db.a"));
+
+        final List<DBObject> first = cache.get("q1");
+        assertEquals(singletonList(document), first);
+        first.get(0).put("name", "changed");
+        assertEquals("one", cache.get("q1").get(0).get("name"));
+        assertNotSame(document, cache.get("q1").get(0));
+        assertNull(cache.get("q2"));
+
+        final QueryResultCacheStatistics statistics = cache.getStatistics();
+        assertEquals(3, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(0.75, statistics.getHitRatio(), 0.0001);
+        assertEquals(1, statistics.getEntries());
+        assertEquals(20, statistics.getBytes());
+    }
+
+    @Test
+    public void invalidationIsPerNamespace() {
+        final QueryResultCache cache = new QueryResultCache(10, 1000, 1, TimeUnit.MINUTES);
+        cache.put("db.a", "a1", documents(), 10, 0);
+        cache.put("db.a", "a2", documents(), 10, 0);
+        cache.put("db.b", "b1", documents(), 10, 0);
+
+        cache.invalidate("db.a");
+        assertNull(cache.get("a1"));
+        assertNull(cache.get("a2"));
+        assertEquals(documents(), cache.get("b1"));
+        assertEquals(2, cache.getStatistics().getInvalidations());
+        assertEquals(10, cache.getStatistics().getBytes());
+    }
+
+    @Test
+    public void resultsReadBeforeAWriteAreNotCached() {
+        final QueryResultCache cache = new QueryResultCache(10, 1000, 1, TimeUnit.MINUTES);
+        final long version = cache.getVersion("db.a");
+        cache.invalidate("db.a");
+        cache.put("db.a", "a1", documents(), 10, version);
+        assertNull(cache.get("a1"));
+        assertEquals(0, cache.getStatistics().getEntries());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final QueryResultCache cache = new QueryResultCache(2, 1000, 1, TimeUnit.MINUTES);
+        cache.put("db.a", "a1", documents(), 10, 0);
+        cache.put("db.a", "a2", documents(), 10, 0);
+        cache.get("a1");
+        cache.put("db.a", "a3", documents(), 10, 0);
+
+        assertEquals(documents(), cache.get("a1"));
+        assertNull(cache.get("a2"));
+        assertEquals(1, cache.getStatistics().getEvictions());
+    }
+
+    @Test
+    public void boundedByBytes() {
+        final QueryResultCache cache = new QueryResultCache(10, 100, 1, TimeUnit.MINUTES);
+        cache.put("db.a", "a1", documents(), 60, 0);
+        cache.put("db.a", "a2", documents(), 60, 0);
+        assertNull(cache.get("a1"));
+        assertEquals(60, cache.getStatistics().getBytes());
+
+        cache.put("db.a", "a3", documents(), 101, 0);
+        assertNull(cache.get("a3"));
+        assertEquals(documents(), cache.get("a2"));
+    }
+
+    @Test
+    public void expires() throws InterruptedException {
+        final QueryResultCache cache = new QueryResultCache(10, 1000, 1, TimeUnit.MILLISECONDS);
+        cache.put("db.a", "a1", documents(), 10, 0);
+        Thread.sleep(5);
+        assertNull(cache.get("a1"));
+        assertEquals(1, cache.getStatistics().getExpirations());
+        assertEquals(0, cache.getStatistics().getBytes());
+    }
+
+    private static List<DBObject> documents() {
+        return Collections.<DBObject>singletonList(new BasicDBObject("_id", 1));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.mongodb.morphia.query;
+
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public class QueryResultCachingTest extends TestBase {
+    private QueryResultCache cache;
+
+    @Before
+    @Override
+    public void setUp() {
+        super.setUp();
+        cache = new QueryResultCache(100, 1024 * 1024, 1, TimeUnit.MINUTES);
+        getMorphia().getMapper().getOptions().setQueryResultCache(cache);
+        getDs().save(asList(new Country("CA", "Canada"), new Country("FR", "France"), new Country("JP", "Japan")));
+    }
+
+    @Test
+    public void onlyOptedInQueriesAreCached() {
+        getDs().find(Country.class).asList();
+        getDs().find(Country.class).asList();
+        assertEquals(0, cache.getStatistics().getEntries());
+
+        final FindOptions options = new FindOptions().cacheResults(true);
+        assertEquals(3, getDs().find(Country.class).asList(options).size());
+        assertEquals(3, getDs().find(Country.class).asList(options).size());
+        assertEquals(1, cache.getStatistics().getHits());
+        assertEquals(1, cache.getStatistics().getMisses());
+        assertEquals(1, cache.getStatistics().getEntries());
+    }
+
+    @Test
+    public void keyedByQueryAndOptions() {
+        final FindOptions options = new FindOptions().cacheResults(true);
+        assertEquals("Canada", getDs().find(Country.class).filter("code", "CA").get(options).name);
+        assertEquals("France", getDs().find(Country.class).filter("code", "FR").get(options).name);
+        assertEquals(2, getDs().find(Country.class).order("-code").asList(options.copy().limit(2)).size());
+        assertEquals("Japan", getDs().find(Country.class).order("-code").get(options).name);
+        assertEquals("Canada", getDs().find(Country.class).filter("code", "CA").get(options).name);
+
+        assertEquals(1, cache.getStatistics().getHits());
+        assertEquals(4, cache.getStatistics().getEntries());
+    }
+
+    @Test
+    public void writesInvalidate() {
+        final FindOptions options = new FindOptions().cacheResults(true);
+        assertEquals(3, getDs().find(Country.class).asList(options).size());
+
+        getDs().save(new Country("DE", "Germany"));
+        assertEquals(4, getDs().find(Country.class).asList(options).size());
+
+        getDs().update(getDs().find(Country.class).filter("code", "DE"),
+                       getDs().createUpdateOperations(Country.class).set("name", "Deutschland"));
+        assertEquals("Deutschland", getDs().find(Country.class).filter("code", "DE").get(options).name);
+
+        getDs().findAndModify(getDs().find(Country.class).filter("code", "DE"),
+                              getDs().createUpdateOperations(Country.class).set("name", "Germany"));
+        assertEquals("Germany", getDs().find(Country.class).filter("code", "DE").get(options).name);
+
+        getDs().delete(getDs().find(Country.class).filter("code", "DE"));
+        assertEquals(3, getDs().find(Country.class).asList(options).size());
+
+        assertEquals(0, cache.getStatistics().getHits());
+    }
+
+    @Entity("countries")
+    private static class Country {
+        @Id
+        private ObjectId id;
+        private String code;
+        private String name;
+
+        Country() {
+        }
+
+        Country(final String code, final String name) {
+            this.code = code;
+            this.name = name;
+        }
+    }
+}
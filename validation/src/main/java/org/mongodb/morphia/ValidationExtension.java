@@ -2,19 +2,58 @@ package org.mongodb.morphia;
 
 
 import com.mongodb.DBObject;
+import org.mongodb.morphia.mapping.MappedField;
 import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxyHelper;
 
 import javax.validation.Configuration;
+import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
+import javax.validation.metadata.PropertyDescriptor;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
+ * Validates entities with JSR-303 before they are persisted.
+ * <p>
+ * Entities written in a batch by {@link Datastore#save(Iterable)} or {@link Datastore#insert(Iterable)} are all validated, in parallel,
+ * before any of them is written and every violation in the batch is reported in one exception.  When {@link
+ * #setValidateChangedFieldsOnly(boolean) enabled}, entities saved after being loaded only have the properties whose stored form changed
+ * since the load validated.
+ *
  * @author us@thomas-daily.de
  */
-public class ValidationExtension extends AbstractEntityInterceptor {
-    private ValidatorFactory validationFactory;
+public class ValidationExtension extends AbstractEntityInterceptor implements BatchEntityInterceptor {
+    private static final int MIN_PARALLEL_BATCH = 64;
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final ValidatorFactory validationFactory;
+    private final Validator validator;
+    private final ThreadLocal<Map<Object, Boolean>> batchValidated = new ThreadLocal<Map<Object, Boolean>>();
+    private final WeakIdentityMap<DBObject> snapshots = new WeakIdentityMap<DBObject>();
+    private volatile boolean validateChangedFieldsOnly;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ExecutorService executor;
+    private boolean shutdown;
 
     /**
      * Creates a ValidationExtension
@@ -24,6 +63,7 @@ public class ValidationExtension extends AbstractEntityInterceptor {
     public ValidationExtension(final Morphia m) {
         final Configuration<?> configuration = Validation.byDefaultProvider().configure();
         validationFactory = configuration.buildValidatorFactory();
+        validator = validationFactory.getValidator();
 
         m.getMapper().addInterceptor(this);
     }
@@ -35,12 +75,295 @@ public class ValidationExtension extends AbstractEntityInterceptor {
         return this.validationFactory;
     }
 
+    /**
+     * @return the number of threads validating a batch
+     * @since 1.4
+     */
+    public synchronized int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads validating a batch.  Defaults to the number of processors.  1 validates on the calling thread.
+     *
+     * @param parallelism the number of threads
+     * @since 1.4
+     */
+    public synchronized void setParallelism(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        if (executor != null && parallelism != this.parallelism) {
+            executor.shutdown();
+            executor = null;
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Stops the threads validating batches.  Batches are validated on the calling thread afterwards.
+     *
+     * @since 1.4
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * @return true if loaded entities only have their changed properties validated
+     * @since 1.4
+     */
+    public boolean isValidateChangedFieldsOnly() {
+        return validateChangedFieldsOnly;
+    }
+
+    /**
+     * Keeps the stored form of loaded entities so that saving them again only validates the properties whose stored form changed.  A
+     * changed property cascading with {@code @Valid} validates the whole entity.  Class level constraints are only checked when the whole
+     * entity is validated.  Entities that were not loaded, and entities saved in a batch, are always validated in full.
+     *
+     * @param validateChangedFieldsOnly true to validate only changed properties
+     * @since 1.4
+     */
+    public void setValidateChangedFieldsOnly(final boolean validateChangedFieldsOnly) {
+        this.validateChangedFieldsOnly = validateChangedFieldsOnly;
+        if (!validateChangedFieldsOnly) {
+            snapshots.clear();
+        }
+    }
+
+    @Override
+    public void postLoad(final Object ent, final DBObject dbObj, final Mapper mapper) {
+        if (validateChangedFieldsOnly) {
+            snapshots.put(ent, dbObj);
+        }
+    }
+
     @Override
-    @SuppressWarnings("unchecked")
     public void prePersist(final Object ent, final DBObject dbObj, final Mapper mapper) {
-        final Set validate = validationFactory.getValidator().validate(ent);
-        if (!validate.isEmpty()) {
-            throw new VerboseJSR303ConstraintViolationException(validate);
+        if (isBatchValidated(ent) || (validateChangedFieldsOnly && snapshots.containsKey(ent))) {
+            // validated with its batch, or its changes are validated once the entity has been mapped
+            return;
+        }
+        throwIfInvalid(validator.validate(ent));
+    }
+
+    @Override
+    public void preSave(final Object ent, final DBObject dbObj, final Mapper mapper) {
+        if (!validateChangedFieldsOnly || isBatchValidated(ent)) {
+            return;
+        }
+        final DBObject snapshot = snapshots.get(ent);
+        if (snapshot != null) {
+            throwIfInvalid(validateChanges(ent, snapshot, dbObj, mapper));
+        }
+    }
+
+    @Override
+    public void postPersist(final Object ent, final DBObject dbObj, final Mapper mapper) {
+        if (validateChangedFieldsOnly && snapshots.containsKey(ent)) {
+            snapshots.put(ent, dbObj);
+        }
+    }
+
+    @Override
+    public void preBatchPersist(final Iterable<?> entities, final Mapper mapper) {
+        final List<Object> pending = new ArrayList<Object>();
+        for (final Object entity : entities) {
+            if (entity != null) {
+                pending.add(ProxyHelper.unwrap(entity));
+            }
+        }
+
+        Map<Object, Boolean> validated = batchValidated.get();
+        if (validated == null) {
+            validated = new IdentityHashMap<Object, Boolean>();
+            batchValidated.set(validated);
+        }
+        throwIfInvalid(validateAll(pending));
+        for (final Object entity : pending) {
+            validated.put(entity, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public void postBatchPersist(final Iterable<?> entities, final Mapper mapper) {
+        final Map<Object, Boolean> validated = batchValidated.get();
+        if (validated != null) {
+            for (final Object entity : entities) {
+                if (entity != null) {
+                    validated.remove(ProxyHelper.unwrap(entity));
+                }
+            }
+            if (validated.isEmpty()) {
+                batchValidated.remove();
+            }
+        }
+    }
+
+    private boolean isBatchValidated(final Object ent) {
+        final Map<Object, Boolean> validated = batchValidated.get();
+        return validated != null && validated.containsKey(ent);
+    }
+
+    private Set<ConstraintViolation<?>> validateAll(final List<Object> entities) {
+        final ExecutorService pool = entities.size() >= MIN_PARALLEL_BATCH ? getExecutor() : null;
+        if (pool == null) {
+            return validate(entities);
+        }
+
+        final int chunks = getParallelism();
+        final int chunkSize = (entities.size() + chunks - 1) / chunks;
+        final List<Future<Set<ConstraintViolation<?>>>> futures = new ArrayList<Future<Set<ConstraintViolation<?>>>>();
+        for (int start = 0; start < entities.size(); start += chunkSize) {
+            final List<Object> chunk = entities.subList(start, Math.min(start + chunkSize, entities.size()));
+            futures.add(pool.submit(new Callable<Set<ConstraintViolation<?>>>() {
+                @Override
+                public Set<ConstraintViolation<?>> call() {
+                    return validate(chunk);
+                }
+            }));
+        }
+
+        final Set<ConstraintViolation<?>> violations = new LinkedHashSet<ConstraintViolation<?>>();
+        try {
+            for (final Future<Set<ConstraintViolation<?>>> future : futures) {
+                violations.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValidationException("Interrupted while validating a batch of entities", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ValidationException(e.getCause());
+        } finally {
+            for (final Future<Set<ConstraintViolation<?>>> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return violations;
+    }
+
+    private Set<ConstraintViolation<?>> validate(final List<Object> entities) {
+        final Set<ConstraintViolation<?>> violations = new LinkedHashSet<ConstraintViolation<?>>();
+        for (final Object entity : entities) {
+            violations.addAll(validator.validate(entity));
+        }
+        return violations;
+    }
+
+    private Set<ConstraintViolation<?>> validateChanges(final Object ent, final DBObject snapshot, final DBObject dbObj,
+                                                        final Mapper mapper) {
+        final Set<ConstraintViolation<?>> violations = new LinkedHashSet<ConstraintViolation<?>>();
+        for (final MappedField mf : mapper.getMappedClass(ent).getPersistenceFields()) {
+            final Object before = snapshot.get(mf.getNameToStore());
+            final Object after = dbObj.get(mf.getNameToStore());
+            if (before == null ? after == null : before.equals(after)) {
+                continue;
+            }
+            final PropertyDescriptor property = validator.getConstraintsForClass(ent.getClass())
+                                                         .getConstraintsForProperty(mf.getJavaFieldName());
+            if (property != null && property.isCascaded()) {
+                violations.clear();
+                violations.addAll(validator.validate(ent));
+                return violations;
+            }
+            violations.addAll(validator.validateProperty(ent, mf.getJavaFieldName()));
+        }
+        return violations;
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (parallelism == 1 || shutdown) {
+            return null;
+        }
+        if (executor == null) {
+            final int pool = POOL_COUNT.incrementAndGet();
+            executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "morphia-validation-" + pool + "-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void throwIfInvalid(final Set<? extends ConstraintViolation<?>> violations) {
+        if (!violations.isEmpty()) {
+            throw new VerboseJSR303ConstraintViolationException((Set<ConstraintViolation<?>>) violations);
+        }
+    }
+
+    /**
+     * Maps entities by identity, as their equals and hashCode may change with their fields, without keeping them from being collected
+     */
+    private static final class WeakIdentityMap<V> {
+        private final Map<IdentityKey, V> entries = new HashMap<IdentityKey, V>();
+        private final ReferenceQueue<Object> collected = new ReferenceQueue<Object>();
+
+        synchronized V get(final Object key) {
+            expunge();
+            return entries.get(new IdentityKey(key, null));
+        }
+
+        synchronized boolean containsKey(final Object key) {
+            expunge();
+            return entries.containsKey(new IdentityKey(key, null));
+        }
+
+        synchronized void put(final Object key, final V value) {
+            expunge();
+            entries.put(new IdentityKey(key, collected), value);
+        }
+
+        synchronized void clear() {
+            expunge();
+            entries.clear();
+        }
+
+        private void expunge() {
+            Reference<?> reference;
+            while ((reference = collected.poll()) != null) {
+                entries.remove(reference);
+            }
+        }
+    }
+
+    private static final class IdentityKey extends WeakReference<Object> {
+        private final int hash;
+
+        private IdentityKey(final Object referent, final ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IdentityKey)) {
+                return false;
+            }
+            final Object referent = get();
+            return referent != null && referent == ((IdentityKey) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
         }
     }
 }
@@ -6,7 +6,10 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.mongodb.morphia.annotations.Id;
 
+import javax.validation.ConstraintViolationException;
 import javax.validation.ValidationException;
+import java.util.ArrayList;
+import java.util.List;
 
 
 /**
@@ -21,6 +24,15 @@ public class TestMorphiaValidation extends TestBase {
         private String email;
     }
 
+    public static class Contact {
+        @Id
+        private ObjectId id;
+        @Email
+        private String email;
+        @Email
+        private String backup;
+    }
+
     /**
      * Test method for {@link ValidationExtension#prePersist(Object, com.mongodb.DBObject, org.mongodb.morphia.mapping.Mapper)}.
      */
@@ -41,4 +53,81 @@ public class TestMorphiaValidation extends TestBase {
         e.email = "foo@bar.com";
         getDs().save(e);
     }
+
+    @Test
+    public final void testBatchReportsAllViolations() {
+        final ValidationExtension extension = new ValidationExtension(getMorphia());
+        extension.setParallelism(4);
+
+        final List<E> entities = new ArrayList<E>();
+        for (int i = 0; i < 200; i++) {
+            final E e = new E();
+            e.email = i % 50 == 0 ? "not an email " + i : "user" + i + "@bar.com";
+            entities.add(e);
+        }
+
+        try {
+            getDs().save(entities);
+            Assert.fail("Should have failed validation");
+        } catch (ConstraintViolationException exception) {
+            Assert.assertEquals(4, exception.getConstraintViolations().size());
+        }
+        Assert.assertEquals(0, getDs().getCount(E.class));
+
+        for (final E e : entities) {
+            e.email = "fixed@bar.com";
+        }
+        ((AdvancedDatastore) getDs()).insert(entities);
+        Assert.assertEquals(200, getDs().getCount(E.class));
+    }
+
+    @Test
+    public final void testValidateChangedFieldsOnly() {
+        final Contact contact = new Contact();
+        contact.email = "foo@bar.com";
+        contact.backup = "not an email";
+        getDs().save(contact);
+
+        final ValidationExtension extension = new ValidationExtension(getMorphia());
+        extension.setValidateChangedFieldsOnly(true);
+
+        final Contact loaded = getDs().get(Contact.class, contact.id);
+        loaded.email = "baz@bar.com";
+        // the unchanged backup is not validated
+        getDs().save(loaded);
+
+        loaded.email = "not an email";
+        try {
+            getDs().save(loaded);
+            Assert.fail("Should have failed validation");
+        } catch (ValidationException exception) {
+            // this is fine
+        }
+
+        final Contact created = new Contact();
+        created.email = "foo@bar.com";
+        created.backup = "not an email";
+        try {
+            getDs().save(created);
+            Assert.fail("Should have failed validation");
+        } catch (ValidationException exception) {
+            // this is fine
+        }
+    }
+
+    @Test
+    public final void testShutdown() {
+        final ValidationExtension extension = new ValidationExtension(getMorphia());
+        extension.setParallelism(4);
+        extension.shutdown();
+
+        final List<E> entities = new ArrayList<E>();
+        for (int i = 0; i < 100; i++) {
+            final E e = new E();
+            e.email = "user" + i + "@bar.com";
+            entities.add(e);
+        }
+        getDs().save(entities);
+        Assert.assertEquals(100, getDs().getCount(E.class));
+    }
 }